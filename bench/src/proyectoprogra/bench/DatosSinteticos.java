@@ -0,0 +1,65 @@
+package proyectoprogra.bench;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Genera viajes sintéticos para los benchmarks.
+ *
+ * Los datos son deterministas (misma semilla, mismos viajes), para que dos
+ * ejecuciones del mismo benchmark midan exactamente el mismo trabajo:
+ * - IDs consecutivos desde 1, como los asigna la secuencia de VIAJE
+ * - Origen y destino distintos, tomados de CIUDADES
+ * - Salida en los dos años a partir de INICIO, llegada de 1 a 72 horas después
+ * - Estado "Pendiente" o "En curso"
+ */
+public class DatosSinteticos {
+
+    // Semilla del generador
+    public static final long SEMILLA = 20241003L;
+
+    // Primera fecha de salida posible (1 de enero de 2024, UTC)
+    public static final long INICIO = 1_704_067_200_000L;
+
+    private static final long DOS_ANIOS_MS = 2L * 365 * 24 * 60 * 60 * 1000;
+    private static final long HORA_MS = 60L * 60 * 1000;
+
+    // Ciudades de origen y destino
+    public static final String[] CIUDADES = {
+        "Guatemala", "Antigua Guatemala", "Quetzaltenango", "Escuintla", "Cobán",
+        "Huehuetenango", "Puerto Barrios", "Flores", "Chimaltenango", "Mazatenango",
+        "Retalhuleu", "Zacapa", "Chiquimula", "Jutiapa", "Jalapa",
+        "Salamá", "Sololá", "Totonicapán", "San Marcos", "Santa Cruz del Quiché",
+        "Panajachel", "Río Dulce", "Livingston", "Esquipulas", "San Salvador",
+        "Tegucigalpa", "San Pedro Sula", "Managua", "San José", "Ciudad de Panamá",
+        "Ciudad de México", "Tapachula", "Cancún", "Mérida", "Oaxaca",
+        "Bogotá", "Medellín", "Lima", "Madrid", "Barcelona"
+    };
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * @param cantidad Número de viajes
+     * @return Viajes con IDs de 1 a cantidad
+     */
+    public static List<Viaje> generar(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<Viaje> viajes = new ArrayList<>(cantidad);
+        for (int id = 1; id <= cantidad; id++) {
+            int origen = random.nextInt(CIUDADES.length);
+            int destino = random.nextInt(CIUDADES.length - 1);
+            if (destino >= origen) {
+                destino++;
+            }
+            long salida = INICIO + (long) (random.nextDouble() * DOS_ANIOS_MS);
+            long llegada = salida + (1 + random.nextInt(72)) * HORA_MS;
+            String estado = random.nextBoolean() ? Viaje.ESTADO_PENDIENTE : Viaje.ESTADO_EN_CURSO;
+            viajes.add(new Viaje(id, CIUDADES[origen], CIUDADES[destino], new Date(salida), new Date(llegada), estado));
+        }
+        return viajes;
+    }
+}
@@ -0,0 +1,358 @@
+package proyectoprogra.bench;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import proyectoprogra.model.Viaje;
+
+/**
+ * ResultSet de solo lectura sobre una lista de viajes, con las columnas de
+ * la tabla VIAJE (ID, ORIGEN, DESTINO, FECHA_SALIDA, FECHA_LLEGADA, ESTADO).
+ *
+ * Sirve para medir el mapeo de filas (OracleViajeRepository.mapRow) sin base
+ * de datos y con millones de filas: no copia los datos, solo recorre la
+ * lista. Como un driver, busca las columnas por nombre sin distinguir
+ * mayúsculas y crea un Timestamp nuevo en cada getTimestamp; los textos se
+ * retornan sin copiar (un driver real además los decodifica).
+ *
+ * Solo implementa las operaciones de lectura hacia adelante que usa mapRow;
+ * el resto lanza SQLFeatureNotSupportedException.
+ */
+public class ResultSetSintetico implements ResultSet {
+
+    private static final String[] COLUMNAS = {"ID", "ORIGEN", "DESTINO", "FECHA_SALIDA", "FECHA_LLEGADA", "ESTADO"};
+
+    private final List<Viaje> filas;
+    private int fila = -1;
+    private boolean nulo;
+    private boolean cerrado;
+
+    /**
+     * @param filas Viajes que forman las filas, en orden
+     */
+    public ResultSetSintetico(List<Viaje> filas) {
+        this.filas = filas;
+    }
+
+    /**
+     * Vuelve antes de la primera fila para recorrer los datos otra vez.
+     */
+    @Override
+    public void beforeFirst() {
+        fila = -1;
+        cerrado = false;
+    }
+
+    @Override
+    public boolean next() {
+        if (fila < filas.size()) {
+            fila++;
+        }
+        return fila < filas.size();
+    }
+
+    @Override
+    public int getRow() {
+        return fila < filas.size() ? fila + 1 : 0;
+    }
+
+    @Override
+    public void close() {
+        cerrado = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return cerrado;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return nulo;
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        for (int i = 0; i < COLUMNAS.length; i++) {
+            if (COLUMNAS[i].equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Columna inválida: " + columnLabel);
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        Object valor = valor(columnIndex);
+        return valor == null ? null : valor.toString();
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        Object valor = valor(columnIndex);
+        return valor == null ? 0 : ((Number) valor).intValue();
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        Object valor = valor(columnIndex);
+        return valor == null ? 0 : ((Number) valor).longValue();
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        Object valor = valor(columnIndex);
+        return valor == null ? null : new Timestamp(((java.util.Date) valor).getTime());
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() {
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("No es un " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * @return Valor de la columna en la fila actual (Integer, String o Date)
+     */
+    private Object valor(int columnIndex) throws SQLException {
+        if (cerrado) {
+            throw new SQLException("ResultSet cerrado");
+        }
+        if (fila < 0 || fila >= filas.size()) {
+            throw new SQLException("No hay fila actual");
+        }
+        Viaje v = filas.get(fila);
+        Object valor;
+        switch (columnIndex) {
+            case 1: valor = v.getId(); break;
+            case 2: valor = v.getOrigen(); break;
+            case 3: valor = v.getDestino(); break;
+            case 4: valor = v.getFechaSalida(); break;
+            case 5: valor = v.getFechaLlegada(); break;
+            case 6: valor = v.getEstado(); break;
+            default: throw new SQLException("Índice de columna inválido: " + columnIndex);
+        }
+        nulo = valor == null;
+        return valor;
+    }
+
+    private static SQLFeatureNotSupportedException noSoportado() {
+        return new SQLFeatureNotSupportedException("ResultSetSintetico solo admite lectura hacia adelante");
+    }
+
+    // Operaciones que mapRow no usa
+
+    @Override public boolean getBoolean(int p0) throws SQLException { throw noSoportado(); }
+    @Override public byte getByte(int p0) throws SQLException { throw noSoportado(); }
+    @Override public short getShort(int p0) throws SQLException { throw noSoportado(); }
+    @Override public float getFloat(int p0) throws SQLException { throw noSoportado(); }
+    @Override public double getDouble(int p0) throws SQLException { throw noSoportado(); }
+    @Override @Deprecated public BigDecimal getBigDecimal(int p0, int p1) throws SQLException { throw noSoportado(); }
+    @Override public byte[] getBytes(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Date getDate(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Time getTime(int p0) throws SQLException { throw noSoportado(); }
+    @Override public InputStream getAsciiStream(int p0) throws SQLException { throw noSoportado(); }
+    @Override @Deprecated public InputStream getUnicodeStream(int p0) throws SQLException { throw noSoportado(); }
+    @Override public InputStream getBinaryStream(int p0) throws SQLException { throw noSoportado(); }
+    @Override public boolean getBoolean(String p0) throws SQLException { throw noSoportado(); }
+    @Override public byte getByte(String p0) throws SQLException { throw noSoportado(); }
+    @Override public short getShort(String p0) throws SQLException { throw noSoportado(); }
+    @Override public float getFloat(String p0) throws SQLException { throw noSoportado(); }
+    @Override public double getDouble(String p0) throws SQLException { throw noSoportado(); }
+    @Override @Deprecated public BigDecimal getBigDecimal(String p0, int p1) throws SQLException { throw noSoportado(); }
+    @Override public byte[] getBytes(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Date getDate(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Time getTime(String p0) throws SQLException { throw noSoportado(); }
+    @Override public InputStream getAsciiStream(String p0) throws SQLException { throw noSoportado(); }
+    @Override @Deprecated public InputStream getUnicodeStream(String p0) throws SQLException { throw noSoportado(); }
+    @Override public InputStream getBinaryStream(String p0) throws SQLException { throw noSoportado(); }
+    @Override public String getCursorName() throws SQLException { throw noSoportado(); }
+    @Override public ResultSetMetaData getMetaData() throws SQLException { throw noSoportado(); }
+    @Override public Object getObject(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Object getObject(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Reader getCharacterStream(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Reader getCharacterStream(String p0) throws SQLException { throw noSoportado(); }
+    @Override public BigDecimal getBigDecimal(int p0) throws SQLException { throw noSoportado(); }
+    @Override public BigDecimal getBigDecimal(String p0) throws SQLException { throw noSoportado(); }
+    @Override public boolean isBeforeFirst() throws SQLException { throw noSoportado(); }
+    @Override public boolean isAfterLast() throws SQLException { throw noSoportado(); }
+    @Override public boolean isFirst() throws SQLException { throw noSoportado(); }
+    @Override public boolean isLast() throws SQLException { throw noSoportado(); }
+    @Override public void afterLast() throws SQLException { throw noSoportado(); }
+    @Override public boolean first() throws SQLException { throw noSoportado(); }
+    @Override public boolean last() throws SQLException { throw noSoportado(); }
+    @Override public boolean absolute(int p0) throws SQLException { throw noSoportado(); }
+    @Override public boolean relative(int p0) throws SQLException { throw noSoportado(); }
+    @Override public boolean previous() throws SQLException { throw noSoportado(); }
+    @Override public void setFetchDirection(int p0) throws SQLException { throw noSoportado(); }
+    @Override public int getFetchDirection() throws SQLException { throw noSoportado(); }
+    @Override public void setFetchSize(int p0) throws SQLException { throw noSoportado(); }
+    @Override public int getFetchSize() throws SQLException { throw noSoportado(); }
+    @Override public int getType() throws SQLException { throw noSoportado(); }
+    @Override public int getConcurrency() throws SQLException { throw noSoportado(); }
+    @Override public boolean rowUpdated() throws SQLException { throw noSoportado(); }
+    @Override public boolean rowInserted() throws SQLException { throw noSoportado(); }
+    @Override public boolean rowDeleted() throws SQLException { throw noSoportado(); }
+    @Override public void updateNull(int p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateBoolean(int p0, boolean p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateByte(int p0, byte p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateShort(int p0, short p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateInt(int p0, int p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateLong(int p0, long p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateFloat(int p0, float p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateDouble(int p0, double p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBigDecimal(int p0, BigDecimal p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateString(int p0, String p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBytes(int p0, byte[] p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateDate(int p0, Date p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateTime(int p0, Time p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateTimestamp(int p0, Timestamp p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(int p0, InputStream p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(int p0, InputStream p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(int p0, Reader p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateObject(int p0, Object p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateObject(int p0, Object p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNull(String p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateBoolean(String p0, boolean p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateByte(String p0, byte p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateShort(String p0, short p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateInt(String p0, int p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateLong(String p0, long p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateFloat(String p0, float p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateDouble(String p0, double p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBigDecimal(String p0, BigDecimal p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateString(String p0, String p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBytes(String p0, byte[] p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateDate(String p0, Date p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateTime(String p0, Time p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateTimestamp(String p0, Timestamp p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(String p0, InputStream p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(String p0, InputStream p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(String p0, Reader p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateObject(String p0, Object p1, int p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateObject(String p0, Object p1) throws SQLException { throw noSoportado(); }
+    @Override public void insertRow() throws SQLException { throw noSoportado(); }
+    @Override public void updateRow() throws SQLException { throw noSoportado(); }
+    @Override public void deleteRow() throws SQLException { throw noSoportado(); }
+    @Override public void refreshRow() throws SQLException { throw noSoportado(); }
+    @Override public void cancelRowUpdates() throws SQLException { throw noSoportado(); }
+    @Override public void moveToInsertRow() throws SQLException { throw noSoportado(); }
+    @Override public void moveToCurrentRow() throws SQLException { throw noSoportado(); }
+    @Override public Statement getStatement() throws SQLException { throw noSoportado(); }
+    @Override public Object getObject(int p0, Map<String, Class<?>> p1) throws SQLException { throw noSoportado(); }
+    @Override public Ref getRef(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Blob getBlob(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Clob getClob(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Array getArray(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Object getObject(String p0, Map<String, Class<?>> p1) throws SQLException { throw noSoportado(); }
+    @Override public Ref getRef(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Blob getBlob(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Clob getClob(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Array getArray(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Date getDate(int p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public Date getDate(String p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public Time getTime(int p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public Time getTime(String p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public Timestamp getTimestamp(int p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public Timestamp getTimestamp(String p0, Calendar p1) throws SQLException { throw noSoportado(); }
+    @Override public URL getURL(int p0) throws SQLException { throw noSoportado(); }
+    @Override public URL getURL(String p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateRef(int p0, Ref p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateRef(String p0, Ref p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(int p0, Blob p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(String p0, Blob p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(int p0, Clob p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(String p0, Clob p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateArray(int p0, Array p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateArray(String p0, Array p1) throws SQLException { throw noSoportado(); }
+    @Override public RowId getRowId(int p0) throws SQLException { throw noSoportado(); }
+    @Override public RowId getRowId(String p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateRowId(int p0, RowId p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateRowId(String p0, RowId p1) throws SQLException { throw noSoportado(); }
+    @Override public int getHoldability() throws SQLException { throw noSoportado(); }
+    @Override public void updateNString(int p0, String p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNString(String p0, String p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(int p0, NClob p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(String p0, NClob p1) throws SQLException { throw noSoportado(); }
+    @Override public NClob getNClob(int p0) throws SQLException { throw noSoportado(); }
+    @Override public NClob getNClob(String p0) throws SQLException { throw noSoportado(); }
+    @Override public SQLXML getSQLXML(int p0) throws SQLException { throw noSoportado(); }
+    @Override public SQLXML getSQLXML(String p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateSQLXML(int p0, SQLXML p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateSQLXML(String p0, SQLXML p1) throws SQLException { throw noSoportado(); }
+    @Override public String getNString(int p0) throws SQLException { throw noSoportado(); }
+    @Override public String getNString(String p0) throws SQLException { throw noSoportado(); }
+    @Override public Reader getNCharacterStream(int p0) throws SQLException { throw noSoportado(); }
+    @Override public Reader getNCharacterStream(String p0) throws SQLException { throw noSoportado(); }
+    @Override public void updateNCharacterStream(int p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateNCharacterStream(String p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(int p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(int p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(int p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(String p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(String p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(String p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(int p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(String p0, InputStream p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(int p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(String p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(int p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(String p0, Reader p1, long p2) throws SQLException { throw noSoportado(); }
+    @Override public void updateNCharacterStream(int p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNCharacterStream(String p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(int p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(int p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(int p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateAsciiStream(String p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBinaryStream(String p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateCharacterStream(String p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(int p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateBlob(String p0, InputStream p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(int p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateClob(String p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(int p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public void updateNClob(String p0, Reader p1) throws SQLException { throw noSoportado(); }
+    @Override public <T> T getObject(int p0, Class<T> p1) throws SQLException { throw noSoportado(); }
+    @Override public <T> T getObject(String p0, Class<T> p1) throws SQLException { throw noSoportado(); }
+}
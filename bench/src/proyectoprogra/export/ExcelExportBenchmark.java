@@ -0,0 +1,59 @@
+package proyectoprogra.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.dhatim.fastexcel.Workbook;
+import org.dhatim.fastexcel.Worksheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import proyectoprogra.bench.DatosSinteticos;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Llenado de la hoja de Excel (ExcelExporter.llenarDatos) y cierre del
+ * libro, escribiendo a un flujo que descarta los bytes (sin disco).
+ *
+ * Los tamaños llegan a 1.000.000 de viajes: una hoja de Excel admite
+ * 1.048.576 filas, así que 10 millones no es una exportación válida.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dviajes.backend=memoria"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExcelExportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int tamano;
+
+    private ExcelExporter exporter;
+    private List<Viaje> datos;
+
+    @Setup
+    public void preparar() {
+        exporter = new ExcelExporter();
+        datos = DatosSinteticos.generar(tamano);
+    }
+
+    @Benchmark
+    public int llenarDatos() throws IOException {
+        try (Workbook workbook = new Workbook(OutputStream.nullOutputStream(), "ViajesApp", "1.0")) {
+            Worksheet worksheet = workbook.newWorksheet("Viajes");
+            int filas = exporter.llenarDatos(worksheet, datos.iterator());
+            workbook.finish();
+            return filas;
+        }
+    }
+}
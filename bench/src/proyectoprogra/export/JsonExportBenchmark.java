@@ -0,0 +1,50 @@
+package proyectoprogra.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import proyectoprogra.bench.DatosSinteticos;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Generación del reporte JSON (JsonExporter, usado por "Descargar JSON" de
+ * ViajeFrame) hacia un Writer que descarta el texto (sin disco).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dviajes.backend=memoria"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JsonExportBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int tamano;
+
+    private List<Viaje> datos;
+
+    @Setup
+    public void preparar() {
+        datos = DatosSinteticos.generar(tamano);
+    }
+
+    @Benchmark
+    public void escribirViajes() throws IOException {
+        try (Writer writer = new BufferedWriter(Writer.nullWriter())) {
+            new JsonExporter().escribirViajes(datos, writer);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package proyectoprogra.loadtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Genera viajes con una distribución parecida a la de producción.
+ *
+ * Características:
+ * - Ciudades con distribución de Zipf (exponente EXPONENTE_ZIPF): unas pocas
+ *   ciudades concentran la mayoría de los viajes, como la capital
+ * - Salidas repartidas entre DIAS_PASADOS días atrás y DIAS_FUTUROS días
+ *   adelante, con más viajes en días hábiles y entre las 6:00 y las 20:00
+ * - Duraciones de 1 a 72 horas, la mayoría cortas (rutas nacionales)
+ * - Estado según la fecha: "Pendiente" antes de la salida y "En curso"
+ *   después; una fracción (PROBABILIDAD_ESTADO_DESACTUALIZADO) conserva el
+ *   estado anterior, como los viajes que nadie actualizó
+ *
+ * Con la misma semilla y la misma fecha de referencia genera los mismos
+ * viajes. No es seguro entre hilos: crear un generador por hilo.
+ *
+ * Uso como programa (CSV para cargar con SQL*Loader o revisar los datos):
+ * java proyectoprogra.loadtest.GeneradorViajes 1000000 viajes.csv
+ */
+public class GeneradorViajes {
+
+    // Exponente de la distribución de ciudades (1 = Zipf clásica; mayor = más concentrada)
+    public static final double EXPONENTE_ZIPF = 1.1;
+
+    public static final int DIAS_PASADOS = 365;
+    public static final int DIAS_FUTUROS = 90;
+
+    public static final double PROBABILIDAD_ESTADO_DESACTUALIZADO = 0.1;
+
+    private static final long HORA_MS = 60L * 60 * 1000;
+    private static final long DIA_MS = 24 * HORA_MS;
+
+    // Ciudades ordenadas de la más a la menos frecuente
+    public static final String[] CIUDADES = {
+        "Guatemala", "Quetzaltenango", "Antigua Guatemala", "Escuintla", "Cobán",
+        "Huehuetenango", "Puerto Barrios", "Flores", "Mazatenango", "Chimaltenango",
+        "San Salvador", "Chiquimula", "Retalhuleu", "Zacapa", "Jutiapa",
+        "Tegucigalpa", "San Pedro Sula", "Ciudad de México", "Jalapa", "Salamá",
+        "Sololá", "Totonicapán", "San Marcos", "Santa Cruz del Quiché", "Panajachel",
+        "Río Dulce", "Esquipulas", "Livingston", "Tapachula", "Managua",
+        "San José", "Ciudad de Panamá", "Cancún", "Mérida", "Oaxaca",
+        "Tuxtla Gutiérrez", "Belice", "Santa Ana", "La Ceiba", "Copán Ruinas",
+        "Bogotá", "Medellín", "Lima", "Santiago", "Buenos Aires",
+        "Miami", "Houston", "Los Ángeles", "Madrid", "Barcelona"
+    };
+
+    private final SplittableRandom random;
+    private final long referencia;
+    private final double[] acumulada;
+
+    /**
+     * @param semilla Semilla del generador
+     * @param referencia Fecha "actual" de los datos (ms); define qué viajes ya salieron
+     */
+    public GeneradorViajes(long semilla, long referencia) {
+        this.random = new SplittableRandom(semilla);
+        this.referencia = referencia;
+        this.acumulada = distribucionZipf(CIUDADES.length, EXPONENTE_ZIPF);
+    }
+
+    /**
+     * @return Un viaje nuevo, sin ID (id = 0), listo para ViajeService.create
+     */
+    public Viaje siguiente() {
+        int origen = ciudad();
+        int destino = ciudad();
+        while (destino == origen) {
+            destino = ciudad();
+        }
+
+        long salida = salida();
+        long llegada = salida + duracionHoras() * HORA_MS;
+
+        String estado = salida <= referencia ? Viaje.ESTADO_EN_CURSO : Viaje.ESTADO_PENDIENTE;
+        if (random.nextDouble() < PROBABILIDAD_ESTADO_DESACTUALIZADO) {
+            estado = Viaje.ESTADO_EN_CURSO.equals(estado) ? Viaje.ESTADO_PENDIENTE : Viaje.ESTADO_EN_CURSO;
+        }
+
+        return new Viaje(0, CIUDADES[origen], CIUDADES[destino], new Date(salida), new Date(llegada), estado);
+    }
+
+    /**
+     * @param cantidad Número de viajes
+     * @return Viajes nuevos, sin ID
+     */
+    public List<Viaje> generar(int cantidad) {
+        List<Viaje> viajes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            viajes.add(siguiente());
+        }
+        return viajes;
+    }
+
+    /**
+     * @return Texto para buscar como lo escribiría un operador: los primeros
+     *         3 a 6 caracteres de una ciudad, con la misma distribución que
+     *         los viajes
+     */
+    public String busqueda() {
+        String ciudad = CIUDADES[ciudad()];
+        return ciudad.substring(0, Math.min(ciudad.length(), 3 + random.nextInt(4)));
+    }
+
+    /**
+     * @return Número entero en [0, limite)
+     */
+    public int entero(int limite) {
+        return random.nextInt(limite);
+    }
+
+    /**
+     * @return Número en [0, 1)
+     */
+    public double probabilidad() {
+        return random.nextDouble();
+    }
+
+    /**
+     * @return Índice de una ciudad con distribución de Zipf
+     */
+    private int ciudad() {
+        double u = random.nextDouble();
+        int bajo = 0;
+        int alto = acumulada.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (acumulada[medio] < u) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * @return Fecha de salida (ms): día entre DIAS_PASADOS atrás y
+     *         DIAS_FUTUROS adelante (los fines de semana con la mitad de
+     *         viajes), hora entre las 4:00 y las 22:00, casi siempre de 6:00 a 20:00
+     */
+    private long salida() {
+        long dia;
+        do {
+            dia = referencia / DIA_MS - DIAS_PASADOS + random.nextInt(DIAS_PASADOS + DIAS_FUTUROS);
+        } while (esFinDeSemana(dia) && random.nextBoolean());
+
+        double hora = 6 + random.nextDouble() * 14 + (random.nextDouble() - 0.5) * 4;
+        hora = Math.max(0, Math.min(23.99, hora));
+        // Minutos redondeados a 5, como los horarios reales
+        long minutos = Math.round(hora * 12) * 5;
+        return dia * DIA_MS + minutos * 60_000L;
+    }
+
+    /**
+     * @return Duración en horas (1 a 72), la mayoría menor a 8
+     */
+    private int duracionHoras() {
+        double exponencial = -Math.log(1 - random.nextDouble()) * 5;
+        return (int) Math.min(72, 1 + exponencial);
+    }
+
+    private static boolean esFinDeSemana(long diaDesdeEpoca) {
+        // 1/1/1970 fue jueves: 0 = jueves, 2 = sábado, 3 = domingo
+        long diaSemana = Math.floorMod(diaDesdeEpoca, 7);
+        return diaSemana == 2 || diaSemana == 3;
+    }
+
+    /**
+     * @return Distribución acumulada de Zipf para n elementos
+     */
+    private static double[] distribucionZipf(int n, double exponente) {
+        double[] acumulada = new double[n];
+        double suma = 0;
+        for (int i = 0; i < n; i++) {
+            suma += 1 / Math.pow(i + 1, exponente);
+            acumulada[i] = suma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= suma;
+        }
+        acumulada[n - 1] = 1;
+        return acumulada;
+    }
+
+    /**
+     * Escribe viajes generados en un CSV (origen, destino, fecha_salida,
+     * fecha_llegada, estado), con fechas en formato yyyy-MM-dd HH:mm:ss.
+     *
+     * Argumentos: cantidad archivo [semilla]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: GeneradorViajes cantidad archivo.csv [semilla]");
+            System.exit(1);
+        }
+        int cantidad = Integer.parseInt(args[0]);
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        GeneradorViajes generador = new GeneradorViajes(semilla, System.currentTimeMillis());
+        SimpleDateFormat formato = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            writer.write("origen,destino,fecha_salida,fecha_llegada,estado\n");
+            for (int i = 0; i < cantidad; i++) {
+                Viaje v = generador.siguiente();
+                writer.write(v.getOrigen() + "," + v.getDestino() + "," + formato.format(v.getFechaSalida()) + ","
+                        + formato.format(v.getFechaLlegada()) + "," + v.getEstado() + "\n");
+            }
+        }
+        System.out.println(cantidad + " viajes escritos en " + args[1]);
+    }
+}
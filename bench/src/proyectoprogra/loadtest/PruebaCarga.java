@@ -0,0 +1,360 @@
+package proyectoprogra.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import proyectoprogra.database.OracleConnector;
+import proyectoprogra.metrics.LatencyHistogram;
+import proyectoprogra.metrics.MetricsRegistry;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.repository.RepositoryFactory;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeService;
+
+/**
+ * Prueba de carga: varios operadores simulados trabajan al mismo tiempo
+ * contra ViajeService y se reporta el rendimiento y la latencia de cada
+ * operación.
+ *
+ * Funciona con cualquier almacenamiento (viajes.backend): contra Oracle mide
+ * la aplicación real; con memoria mide el servicio sin red ni base de datos.
+ *
+ * Cada operador repite hasta terminar el tiempo:
+ * - crear: un viaje nuevo de GeneradorViajes
+ * - actualizar: leer un viaje (getById) y guardarlo con otro estado y horario,
+ *   como al editar desde la ventana
+ * - eliminar: un viaje
+ * - buscar: un prefijo de ciudad, con la misma distribución que los viajes
+ * y espera carga.pausaMs entre operaciones (tiempo del operador).
+ *
+ * Solo se actualizan y eliminan viajes creados por la prueba (la carga
+ * inicial y los que crean los operadores). Con Oracle, al terminar se
+ * eliminan todos los viajes creados, salvo carga.limpiar=false.
+ *
+ * Propiedades del sistema (valores por defecto entre paréntesis):
+ * - carga.operadores: operadores simultáneos (8)
+ * - carga.duracion: segundos de medición (30)
+ * - carga.calentamiento: segundos previos que no se miden (5)
+ * - carga.viajes: viajes que se cargan antes de empezar (10000)
+ * - carga.mezcla: porcentajes crear,actualizar,eliminar,buscar (10,20,5,65)
+ * - carga.pausaMs: espera entre operaciones de un operador (0)
+ * - carga.semilla: semilla de los datos (42)
+ * - carga.limpiar: eliminar los viajes creados al terminar, solo con Oracle (true)
+ *
+ * Ejemplo:
+ * ant carga -Dviajes.backend=memoria -Dcarga.operadores=32 -Dcarga.duracion=60
+ */
+public class PruebaCarga {
+
+    // Operaciones de un operador, en el orden de carga.mezcla
+    private static final String[] OPERACIONES = {"crear", "actualizar", "eliminar", "buscar"};
+
+    // Resultados por búsqueda (el mismo límite que la ventana)
+    private static final int LIMITE_BUSQUEDA = 500;
+
+    // Viajes por llamada a createAll en la carga inicial
+    private static final int LOTE_CARGA = 1000;
+
+    private final ViajeService service;
+    private final int operadores;
+    private final long duracionMs;
+    private final long calentamientoMs;
+    private final int viajesIniciales;
+    private final int[] mezcla;
+    private final long pausaMs;
+    private final long semilla;
+
+    private final IdsCreados ids = new IdsCreados();
+    private final LatencyHistogram[] latencias = new LatencyHistogram[OPERACIONES.length];
+    private final long[] noEncontrados = new long[OPERACIONES.length];
+    private final boolean[] errorInformado = new boolean[OPERACIONES.length];
+
+    // true mientras los resultados cuentan (después del calentamiento)
+    private volatile boolean midiendo;
+    private volatile boolean terminado;
+
+    public PruebaCarga(ViajeService service, int operadores, long duracionMs, long calentamientoMs,
+            int viajesIniciales, int[] mezcla, long pausaMs, long semilla) {
+        if (operadores <= 0) {
+            throw new IllegalArgumentException("operadores debe ser positivo: " + operadores);
+        }
+        if (mezcla.length != OPERACIONES.length || Arrays.stream(mezcla).sum() <= 0
+                || Arrays.stream(mezcla).anyMatch(p -> p < 0)) {
+            throw new IllegalArgumentException("mezcla debe tener " + OPERACIONES.length
+                    + " porcentajes no negativos (crear,actualizar,eliminar,buscar): " + Arrays.toString(mezcla));
+        }
+        this.service = service;
+        this.operadores = operadores;
+        this.duracionMs = duracionMs;
+        this.calentamientoMs = calentamientoMs;
+        this.viajesIniciales = viajesIniciales;
+        this.mezcla = mezcla.clone();
+        this.pausaMs = pausaMs;
+        this.semilla = semilla;
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            latencias[i] = new LatencyHistogram("Carga." + OPERACIONES[i]);
+        }
+    }
+
+    /**
+     * Carga los datos iniciales, ejecuta la prueba e imprime el reporte.
+     */
+    public void ejecutar() throws InterruptedException {
+        cargarDatos();
+
+        System.out.println("Operadores: " + operadores + ", mezcla crear/actualizar/eliminar/buscar: "
+                + Arrays.toString(mezcla) + ", pausa: " + pausaMs + " ms");
+        System.out.println("Calentamiento " + calentamientoMs / 1000 + " s, medición " + duracionMs / 1000 + " s...");
+
+        CountDownLatch fin = new CountDownLatch(operadores);
+        for (int i = 0; i < operadores; i++) {
+            GeneradorViajes generador = new GeneradorViajes(semilla + 1 + i, System.currentTimeMillis());
+            Thread hilo = new Thread(() -> {
+                try {
+                    operar(generador);
+                } finally {
+                    fin.countDown();
+                }
+            }, "operador-" + (i + 1));
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        Thread.sleep(calentamientoMs);
+        MetricsRegistry.resetAll();
+        midiendo = true;
+        long inicio = System.nanoTime();
+        Thread.sleep(duracionMs);
+        terminado = true;
+        fin.await();
+        long transcurrido = System.nanoTime() - inicio;
+
+        imprimirReporte(transcurrido);
+    }
+
+    /**
+     * Crea los viajes iniciales en lotes.
+     */
+    private void cargarDatos() {
+        if (viajesIniciales <= 0) {
+            return;
+        }
+        System.out.println("Cargando " + viajesIniciales + " viajes...");
+        long inicio = System.nanoTime();
+        GeneradorViajes generador = new GeneradorViajes(semilla, System.currentTimeMillis());
+        for (int creados = 0; creados < viajesIniciales; creados += LOTE_CARGA) {
+            List<Viaje> lote = generador.generar(Math.min(LOTE_CARGA, viajesIniciales - creados));
+            BatchResult resultado = service.createAll(lote);
+            for (int id : resultado.getIds()) {
+                ids.agregar(id);
+            }
+        }
+        System.out.printf("Carga inicial: %d viajes en %.1f s%n", ids.tamano(),
+                (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /**
+     * Ciclo de un operador simulado.
+     */
+    private void operar(GeneradorViajes generador) {
+        int total = Arrays.stream(mezcla).sum();
+        while (!terminado) {
+            int sorteo = generador.entero(total);
+            int operacion = 0;
+            while (sorteo >= mezcla[operacion]) {
+                sorteo -= mezcla[operacion];
+                operacion++;
+            }
+
+            boolean contar = midiendo;
+            long inicio = System.nanoTime();
+            try {
+                boolean encontrado = ejecutarOperacion(operacion, generador);
+                if (contar) {
+                    latencias[operacion].record(System.nanoTime() - inicio);
+                    if (!encontrado) {
+                        synchronized (noEncontrados) {
+                            noEncontrados[operacion]++;
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (contar) {
+                    latencias[operacion].recordFailure(System.nanoTime() - inicio);
+                }
+                informarError(operacion, e);
+            }
+
+            if (pausaMs > 0) {
+                try {
+                    Thread.sleep(pausaMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false si la operación no encontró el viaje (otro operador lo eliminó)
+     */
+    private boolean ejecutarOperacion(int operacion, GeneradorViajes generador) {
+        switch (operacion) {
+            case 0:
+                ids.agregar(service.create(generador.siguiente()).getId());
+                return true;
+            case 1: {
+                int id = ids.alAzar(generador);
+                Viaje viaje = id == 0 ? null : service.getById(id);
+                if (viaje == null) {
+                    return false;
+                }
+                Viaje nuevo = generador.siguiente();
+                viaje.setEstado(nuevo.getEstado());
+                viaje.setFechaSalida(nuevo.getFechaSalida());
+                viaje.setFechaLlegada(nuevo.getFechaLlegada());
+                try {
+                    service.update(viaje);
+                    return true;
+                } catch (NoSuchElementException e) {
+                    return false;
+                }
+            }
+            case 2: {
+                int id = ids.alAzar(generador);
+                return id != 0 && service.delete(id);
+            }
+            default:
+                service.search(generador.busqueda(), LIMITE_BUSQUEDA);
+                return true;
+        }
+    }
+
+    /**
+     * Imprime el primer error de cada operación; los siguientes solo se cuentan.
+     */
+    private void informarError(int operacion, RuntimeException e) {
+        synchronized (errorInformado) {
+            if (errorInformado[operacion]) {
+                return;
+            }
+            errorInformado[operacion] = true;
+        }
+        System.err.println("Error al " + OPERACIONES[operacion] + " (solo se muestra el primero): " + e);
+    }
+
+    private void imprimirReporte(long transcurridoNanos) {
+        double segundos = transcurridoNanos / 1e9;
+        long totalOperaciones = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== PRUEBA DE CARGA (").append(RepositoryFactory.getBackend()).append(", ")
+                .append(operadores).append(" operadores, ").append(String.format("%.1f", segundos)).append(" s) ===\n");
+        sb.append(String.format("%-11s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "Operación", "total", "ops/s", "errores", "no encont", "p50 ms", "p95 ms", "p99 ms", "máx ms"));
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            LatencyHistogram.Snapshot s = latencias[i].snapshot();
+            totalOperaciones += s.count();
+            long perdidos;
+            synchronized (noEncontrados) {
+                perdidos = noEncontrados[i];
+            }
+            sb.append(String.format("%-11s %9d %9.1f %8d %9d %9.2f %9.2f %9.2f %9.2f%n",
+                    OPERACIONES[i], s.count(), s.count() / segundos, s.errors(), perdidos,
+                    s.p50Nanos() / 1e6, s.p95Nanos() / 1e6, s.p99Nanos() / 1e6, s.maxNanos() / 1e6));
+        }
+        sb.append(String.format("Total: %d operaciones, %.1f ops/s%n", totalOperaciones, totalOperaciones / segundos));
+        System.out.print(sb);
+
+        // Detalle por operación del servicio y del pool (mismo período)
+        System.out.print(MetricsRegistry.report());
+    }
+
+    /**
+     * Elimina los viajes creados por la prueba.
+     */
+    private void limpiar() {
+        int[] creados = ids.todos();
+        System.out.println("Eliminando " + creados.length + " viajes creados por la prueba...");
+        for (int i = 0; i < creados.length; i += LOTE_CARGA) {
+            service.deleteAll(Arrays.copyOfRange(creados, i, Math.min(i + LOTE_CARGA, creados.length)));
+        }
+    }
+
+    /**
+     * IDs de los viajes creados por la prueba. Los eliminados se quedan en la
+     * lista: elegirlos después cuenta como "no encontrado", igual que dos
+     * operadores que editan el mismo viaje.
+     */
+    private static final class IdsCreados {
+        private int[] ids = new int[1024];
+        private int tamano;
+
+        synchronized void agregar(int id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = id;
+        }
+
+        /**
+         * @return Un ID al azar, o 0 si todavía no hay viajes
+         */
+        int alAzar(GeneradorViajes generador) {
+            int n = tamano();
+            if (n == 0) {
+                return 0;
+            }
+            int indice = generador.entero(n);
+            synchronized (this) {
+                return ids[indice];
+            }
+        }
+
+        synchronized int tamano() {
+            return tamano;
+        }
+
+        synchronized int[] todos() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+
+    /**
+     * Ejecuta la prueba con la configuración de las propiedades carga.*.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String[] partes = System.getProperty("carga.mezcla", "10,20,5,65").split(",");
+        int[] mezcla = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            mezcla[i] = Integer.parseInt(partes[i].trim());
+        }
+
+        PruebaCarga prueba = new PruebaCarga(
+                new ViajeService(),
+                Integer.getInteger("carga.operadores", 8),
+                TimeUnit.SECONDS.toMillis(Long.getLong("carga.duracion", 30)),
+                TimeUnit.SECONDS.toMillis(Long.getLong("carga.calentamiento", 5)),
+                Integer.getInteger("carga.viajes", 10_000),
+                mezcla,
+                Long.getLong("carga.pausaMs", 0),
+                Long.getLong("carga.semilla", 42));
+
+        boolean oracle = RepositoryFactory.isOracle();
+        if (oracle && !OracleConnector.verifyConnection()) {
+            System.err.println("No hay conexión con Oracle; usar -Dviajes.backend=memoria para probar sin base de datos");
+            System.exit(1);
+        }
+        try {
+            prueba.ejecutar();
+        } finally {
+            if (oracle && Boolean.parseBoolean(System.getProperty("carga.limpiar", "true"))) {
+                prueba.limpiar();
+            }
+            if (oracle) {
+                OracleConnector.shutdown();
+            }
+        }
+    }
+}
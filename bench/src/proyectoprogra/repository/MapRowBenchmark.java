@@ -0,0 +1,55 @@
+package proyectoprogra.repository;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import proyectoprogra.bench.DatosSinteticos;
+import proyectoprogra.bench.ResultSetSintetico;
+
+/**
+ * Mapeo de filas de OracleViajeRepository.mapRow: recorre un ResultSet
+ * completo convirtiendo cada fila en un Viaje, como listAll o stream.
+ *
+ * Las filas vienen de un ResultSetSintetico (sin base de datos ni red), así
+ * que se mide el costo propio del mapeo: búsqueda de columnas por nombre,
+ * conversión de Timestamp a Date y creación de los objetos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dviajes.backend=memoria"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MapRowBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int tamano;
+
+    private OracleViajeRepository repositorio;
+    private ResultSetSintetico filas;
+
+    @Setup
+    public void preparar() {
+        repositorio = new OracleViajeRepository();
+        filas = new ResultSetSintetico(DatosSinteticos.generar(tamano));
+    }
+
+    @Benchmark
+    public void mapearTodas(Blackhole bh) throws SQLException {
+        filas.beforeFirst();
+        while (filas.next()) {
+            bh.consume(repositorio.mapRow(filas));
+        }
+    }
+}
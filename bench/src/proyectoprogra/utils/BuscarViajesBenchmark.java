@@ -0,0 +1,68 @@
+package proyectoprogra.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import proyectoprogra.bench.DatosSinteticos;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.repository.InMemoryViajeRepository;
+import proyectoprogra.repository.RepositoryFactory;
+
+/**
+ * Búsqueda de la interfaz (ViajeManager.buscarViajes) con el índice de
+ * trigramas del cache local. El cache se carga en @Setup, así que se mide
+ * solo la búsqueda.
+ *
+ * Consultas:
+ * - "Gua": texto frecuente, llega rápido al límite de resultados
+ * - "Lima": una sola ciudad, resultados repartidos en toda la tabla
+ * - "tenan": texto en medio del nombre (Huehuetenango), varios trigramas
+ *   que se intersectan
+ * - "zzz": sin resultados, el trigrama no está en el índice
+ *
+ * Cada combinación de parámetros corre en su propia JVM (@Fork): ViajeManager
+ * toma el repositorio compartido una sola vez, al cargarse la clase.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dviajes.backend=memoria"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BuscarViajesBenchmark {
+
+    // Viajes por llamada a createAll al cargar los datos
+    private static final int LOTE_CARGA = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int tamano;
+
+    @Param({"Gua", "Lima", "tenan", "zzz"})
+    String consulta;
+
+    @Setup
+    public void preparar() {
+        InMemoryViajeRepository repositorio = new InMemoryViajeRepository();
+        List<Viaje> datos = DatosSinteticos.generar(tamano);
+        for (int i = 0; i < datos.size(); i += LOTE_CARGA) {
+            repositorio.createAll(datos.subList(i, Math.min(i + LOTE_CARGA, datos.size())));
+        }
+        RepositoryFactory.setDefault(repositorio);
+        ViajeManager.obtenerTodosLosViajes();
+    }
+
+    @Benchmark
+    public List<Viaje> buscarViajes() {
+        return ViajeManager.buscarViajes(consulta);
+    }
+}
@@ -0,0 +1,69 @@
+package proyectoprogra.utils;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import proyectoprogra.bench.DatosSinteticos;
+
+/**
+ * Lectura de celdas de ViajeTableModel, incluido el formato de las fechas.
+ *
+ * - pintarPantalla: las celdas de una pantalla de la tabla (FILAS_VISIBLES
+ *   filas, todas las columnas), avanzando por la tabla como al hacer scroll
+ * - columnaFechaSalida: getValueAt de la columna "Fecha Salida" en todas las
+ *   filas, que es lo que hace TableRowSorter al ordenar por esa columna
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dviajes.backend=memoria"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ViajeTableModelBenchmark {
+
+    // Filas que entran en la ventana con el tamaño por defecto
+    private static final int FILAS_VISIBLES = 40;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int tamano;
+
+    private ViajeTableModel modelo;
+    private int primeraFila;
+
+    @Setup
+    public void preparar() {
+        modelo = new ViajeTableModel(DatosSinteticos.generar(tamano));
+    }
+
+    @Benchmark
+    public void pintarPantalla(Blackhole bh) {
+        int filas = modelo.getRowCount();
+        int columnas = modelo.getColumnCount();
+        for (int i = 0; i < FILAS_VISIBLES; i++) {
+            int fila = (primeraFila + i) % filas;
+            for (int columna = 0; columna < columnas; columna++) {
+                bh.consume(modelo.getValueAt(fila, columna));
+            }
+        }
+        primeraFila = (primeraFila + FILAS_VISIBLES) % filas;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void columnaFechaSalida(Blackhole bh) {
+        int filas = modelo.getRowCount();
+        for (int fila = 0; fila < filas; fila++) {
+            bh.consume(modelo.getValueAt(fila, 3));
+        }
+    }
+}
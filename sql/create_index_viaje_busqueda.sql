@@ -0,0 +1,17 @@
+-- Índices para la búsqueda de viajes por origen/destino (ViajeService.search).
+--
+-- La búsqueda compara LOWER(columna) LIKE 'texto%', así que estos índices
+-- basados en función permiten resolverla con un INDEX RANGE SCAN: el costo
+-- depende de la cantidad de coincidencias y no del tamaño de la tabla.
+--
+-- Ejecutar después de create_table_viaje.sql.
+
+CREATE INDEX IDX_VIAJE_ORIGEN_LOWER ON VIAJE (LOWER(origen));
+
+CREATE INDEX IDX_VIAJE_DESTINO_LOWER ON VIAJE (LOWER(destino));
+
+-- Estadísticas para que el optimizador considere los índices nuevos
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS(USER, 'VIAJE', cascade => TRUE);
+END;
+/
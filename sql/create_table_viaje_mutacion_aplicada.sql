@@ -0,0 +1,25 @@
+-- Claves de idempotencia de los cambios aplicados desde la cola de escritura
+-- y el diario local (ViajeService.applyMutations).
+--
+-- Cada cambio encolado tiene una clave única (UUID). Al aplicarlo se guarda
+-- su clave en la misma transacción, de modo que reenviar un cambio (por
+-- ejemplo, al reproducir el diario después de una caída) no lo aplica dos
+-- veces. En las inserciones, ID_VIAJE guarda el ID generado para poder
+-- aplicar después los cambios sobre ese viaje.
+--
+-- Ejecutar después de create_table_viaje.sql.
+
+CREATE TABLE VIAJE_MUTACION_APLICADA (
+    clave VARCHAR2(36) NOT NULL,
+    id_viaje NUMBER(10),
+    fecha_aplicacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT PK_VIAJE_MUTACION_APLICADA PRIMARY KEY (clave)
+);
+
+CREATE INDEX IDX_VIAJE_MUTACION_FECHA ON VIAJE_MUTACION_APLICADA (fecha_aplicacion);
+
+-- Las claves solo se necesitan mientras algún cliente pueda reenviar el
+-- cambio; pueden purgarse periódicamente, por ejemplo:
+-- DELETE FROM VIAJE_MUTACION_APLICADA WHERE fecha_aplicacion < SYSTIMESTAMP - INTERVAL '30' DAY;
+
+COMMIT;
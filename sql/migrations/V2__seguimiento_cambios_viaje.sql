@@ -0,0 +1,36 @@
+-- Seguimiento de cambios de VIAJE para la sincronización incremental
+-- (equivalente a sql/alter_table_viaje_delta_sync.sql).
+
+ALTER TABLE VIAJE ADD (fecha_modificacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL);
+
+CREATE INDEX IDX_VIAJE_FECHA_MODIFICACION ON VIAJE (fecha_modificacion);
+
+CREATE TABLE VIAJE_ELIMINADO (
+    id NUMBER(10) NOT NULL,
+    fecha_eliminacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT PK_VIAJE_ELIMINADO PRIMARY KEY (id)
+);
+
+CREATE INDEX IDX_VIAJE_ELIMINADO_FECHA ON VIAJE_ELIMINADO (fecha_eliminacion);
+
+-- Mantiene FECHA_MODIFICACION en cada inserción o actualización
+CREATE OR REPLACE TRIGGER TRG_VIAJE_MODIFICACION
+BEFORE INSERT OR UPDATE ON VIAJE
+FOR EACH ROW
+BEGIN
+    :NEW.fecha_modificacion := SYSTIMESTAMP;
+END;
+/
+
+-- Registra cada eliminación para que los clientes puedan quitarla de su cache
+CREATE OR REPLACE TRIGGER TRG_VIAJE_ELIMINADO
+AFTER DELETE ON VIAJE
+FOR EACH ROW
+BEGIN
+    INSERT INTO VIAJE_ELIMINADO (id, fecha_eliminacion) VALUES (:OLD.id, SYSTIMESTAMP);
+END;
+/
+
+-- Los registros de eliminación solo se necesitan hasta que todos los clientes
+-- sincronicen; pueden purgarse periódicamente, por ejemplo:
+-- DELETE FROM VIAJE_ELIMINADO WHERE fecha_eliminacion < SYSTIMESTAMP - INTERVAL '7' DAY;
@@ -0,0 +1,11 @@
+-- Índices de la búsqueda por origen/destino (equivalente a sql/create_index_viaje_busqueda.sql).
+
+CREATE INDEX IDX_VIAJE_ORIGEN_LOWER ON VIAJE (LOWER(origen));
+
+CREATE INDEX IDX_VIAJE_DESTINO_LOWER ON VIAJE (LOWER(destino));
+
+-- Estadísticas para que el optimizador considere los índices nuevos
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS(USER, 'VIAJE', cascade => TRUE);
+END;
+/
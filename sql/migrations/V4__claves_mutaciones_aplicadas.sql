@@ -0,0 +1,16 @@
+-- Claves de idempotencia de la cola de escritura
+-- (equivalente a sql/create_table_viaje_mutacion_aplicada.sql).
+
+CREATE TABLE VIAJE_MUTACION_APLICADA (
+    clave VARCHAR2(36) NOT NULL,
+    id_viaje NUMBER(10),
+    fecha_aplicacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT PK_VIAJE_MUTACION_APLICADA PRIMARY KEY (clave)
+);
+
+CREATE INDEX IDX_VIAJE_MUTACION_FECHA ON VIAJE_MUTACION_APLICADA (fecha_aplicacion);
+
+-- Las claves solo se necesitan mientras algún cliente pueda reenviar el
+-- cambio; pueden purgarse periódicamente, por ejemplo:
+-- DELETE FROM VIAJE_MUTACION_APLICADA WHERE fecha_aplicacion < SYSTIMESTAMP - INTERVAL '30' DAY;
+
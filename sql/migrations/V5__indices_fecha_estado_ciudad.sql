@@ -0,0 +1,33 @@
+-- Índices para las consultas por fecha de salida, estado y ciudad.
+--
+-- Sin ellos, filtrar por rango de fechas, por estado o por ciudad exacta
+-- recorre toda la tabla.
+--
+-- - IDX_VIAJE_FECHA_SALIDA: rangos de fechas ("viajes de esta semana")
+-- - IDX_VIAJE_ESTADO_FECHA: un estado dentro de un rango de fechas
+--   ("pendientes de este mes"); el estado va primero porque se compara
+--   por igualdad
+-- - ORIGEN_NORMALIZADO / DESTINO_NORMALIZADO: columnas virtuales con la
+--   ciudad en minúsculas y sin espacios en los extremos, de modo que
+--   "Guatemala", "guatemala " y "GUATEMALA" se encuentran con el mismo
+--   valor. No ocupan espacio en la tabla; sus índices incluyen la fecha
+--   para resolver "viajes a X en este rango" sin leer la tabla.
+
+CREATE INDEX IDX_VIAJE_FECHA_SALIDA ON VIAJE (fecha_salida);
+
+CREATE INDEX IDX_VIAJE_ESTADO_FECHA ON VIAJE (estado, fecha_salida);
+
+ALTER TABLE VIAJE ADD (
+    origen_normalizado VARCHAR2(100) GENERATED ALWAYS AS (LOWER(TRIM(origen))) VIRTUAL,
+    destino_normalizado VARCHAR2(100) GENERATED ALWAYS AS (LOWER(TRIM(destino))) VIRTUAL
+);
+
+CREATE INDEX IDX_VIAJE_ORIGEN_NORM ON VIAJE (origen_normalizado, fecha_salida);
+
+CREATE INDEX IDX_VIAJE_DESTINO_NORM ON VIAJE (destino_normalizado, fecha_salida);
+
+-- Estadísticas para que el optimizador considere los índices nuevos
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS(USER, 'VIAJE', cascade => TRUE);
+END;
+/
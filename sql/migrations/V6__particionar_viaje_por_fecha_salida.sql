@@ -0,0 +1,33 @@
+-- @opcional particionado
+--
+-- Particiona VIAJE por mes de fecha de salida (particionado por intervalo).
+--
+-- Solo se aplica si se pide la opción "particionado"
+-- (-Dviajes.migraciones.opciones=particionado), porque requiere Oracle
+-- Enterprise Edition con la opción de particionado (o Oracle 23ai Free) y
+-- la conversión en línea de Oracle 12.2 o posterior.
+--
+-- - Oracle crea sola la partición de cada mes nuevo al insertar en él
+-- - Las consultas por rango de fecha de salida solo leen las particiones
+--   de ese rango (partition pruning)
+-- - Los índices que empiezan por fecha_salida pasan a ser locales (uno por
+--   partición); la llave primaria y los índices por ciudad quedan globales
+-- - ONLINE permite seguir leyendo y escribiendo durante la conversión
+-- - ENABLE ROW MOVEMENT permite cambiar la fecha de salida de un viaje a
+--   otro mes: sin él, ese UPDATE falla con ORA-14402
+
+ALTER TABLE VIAJE MODIFY
+    PARTITION BY RANGE (fecha_salida) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_VIAJE_INICIAL VALUES LESS THAN (DATE '2000-01-01'))
+    ONLINE
+    UPDATE INDEXES (
+        IDX_VIAJE_FECHA_SALIDA LOCAL,
+        IDX_VIAJE_ESTADO_FECHA LOCAL
+    );
+
+ALTER TABLE VIAJE ENABLE ROW MOVEMENT;
+
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS(USER, 'VIAJE', cascade => TRUE);
+END;
+/
@@ -0,0 +1,31 @@
+-- Historial de viajes terminados.
+--
+-- ArchivadorViajes mueve por lotes a VIAJE_HIST los viajes cuya fecha de
+-- llegada es anterior al horizonte configurado, para que VIAJE (y con ella
+-- la carga inicial, la búsqueda y la exportación) solo contenga los viajes
+-- con los que se trabaja. El historial se consulta de forma explícita
+-- (ViajeService.listAll(true), search(..., true)).
+--
+-- Al borrarse de VIAJE, el trigger TRG_VIAJE_ELIMINADO registra cada viaje
+-- archivado en VIAJE_ELIMINADO, por lo que los clientes lo quitan de su
+-- lista en la siguiente sincronización incremental.
+
+CREATE TABLE VIAJE_HIST (
+    id NUMBER(10) NOT NULL,
+    origen VARCHAR2(100) NOT NULL,
+    destino VARCHAR2(100) NOT NULL,
+    fecha_salida DATE NOT NULL,
+    fecha_llegada DATE NOT NULL,
+    estado VARCHAR2(20) NOT NULL,
+    fecha_archivado TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT PK_VIAJE_HIST PRIMARY KEY (id)
+);
+
+CREATE INDEX IDX_VIAJE_HIST_ORIGEN_LOWER ON VIAJE_HIST (LOWER(origen));
+
+CREATE INDEX IDX_VIAJE_HIST_DESTINO_LOWER ON VIAJE_HIST (LOWER(destino));
+
+CREATE INDEX IDX_VIAJE_HIST_FECHA_SALIDA ON VIAJE_HIST (fecha_salida);
+
+-- Selección de los viajes a archivar (fecha_llegada < horizonte)
+CREATE INDEX IDX_VIAJE_FECHA_LLEGADA ON VIAJE (fecha_llegada);
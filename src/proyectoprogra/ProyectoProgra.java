@@ -1,63 +1,220 @@
 package proyectoprogra;
 
 // Importaciones necesarias para la aplicación
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.SwingUtilities;  // Ventana principal de la aplicación
 import javax.swing.UIManager; // Conector para base de datos Oracle
+import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
+import org.kordamp.ikonli.swing.FontIcon;
 import proyectoprogra.database.OracleConnector;              // Utilidades para trabajar con Swing
+import proyectoprogra.database.SchemaMigrator;                 // Migraciones versionadas del esquema
 import proyectoprogra.gui.frames.ViajeFrame;                   // Gestor de apariencia de la interfaz
+import proyectoprogra.metrics.EdtWatchdog;                     // Vigilante de bloqueos del EDT
+import proyectoprogra.model.Viaje;
+import proyectoprogra.repository.RepositoryFactory;            // Selección del almacenamiento de viajes
+import proyectoprogra.service.ViajeService;
+import proyectoprogra.utils.ArchivadorViajes;                  // Archivado de viajes terminados
+import proyectoprogra.utils.TiemposArranque;                   // Reporte de tiempos de arranque
+import proyectoprogra.utils.UIConstants;
+import proyectoprogra.utils.ViajeManager;
 
 /**
  * Clase principal de la aplicación de Gestión de Viajes
  * Esta clase contiene el método main que inicializa toda la aplicación
+ * 
+ * El arranque se hace en paralelo para mostrar la ventana lo antes posible:
+ * - Hilos de arranque: verificación de la conexión (calienta el pool), carga
+ *   inicial de viajes y precarga de fuentes, íconos y clases de JCalendar
+ * - Hilo principal: look and feel
+ * - EDT: construcción de la ventana, que se muestra de inmediato con la
+ *   tabla en estado "cargando" hasta que llegan los viajes
+ * 
+ * Al terminar todas las fases se imprime el reporte de TiemposArranque.
+ * 
+ * Con -Dviajes.migrar=true se aplican las migraciones pendientes de
+ * sql/migrations después de verificar la conexión y antes de cargar los viajes.
  */
 public class ProyectoProgra {
 
+    // Propiedad del sistema que aplica las migraciones pendientes al iniciar
+    public static final String PROPIEDAD_MIGRAR = "viajes.migrar";
+
+    // Clases de JCalendar que se cargan por adelantado (el calendario se crea al elegir una fecha)
+    private static final String[] CLASES_JCALENDAR = {
+        "com.toedter.calendar.JCalendar",
+        "com.toedter.calendar.JDayChooser",
+        "com.toedter.calendar.JMonthChooser",
+        "com.toedter.calendar.JYearChooser",
+        "com.toedter.components.JSpinField"
+    };
+
     /**
      * Método principal que inicia la aplicación
      */
     public static void main(String[] args) {
+        TiemposArranque.iniciar();
+        
         // Mensaje de bienvenida en consola
         System.out.println("=== INICIANDO APLICACIÓN DE GESTIÓN DE VIAJES ===");
         
-        // Verificar si hay conexión disponible con la base de datos Oracle
-        System.out.println("Verificando conexión a la base de datos...");
-        if (!OracleConnector.verifyConnection()) {
-            // Si no hay conexión, mostrar advertencia pero continuar con la aplicación
-            System.err.println("No se pudo establecer conexión con la base de datos.");
-            System.err.println("La aplicación puede no funcionar correctamente.");
+        // Cerrar el pool de conexiones al terminar la aplicación
+        Runtime.getRuntime().addShutdownHook(new Thread(OracleConnector::shutdown, "cierre-pool-conexiones"));
+        
+        ExecutorService arranque = crearExecutorArranque();
+        
+        // Sin Oracle (-Dviajes.backend=memoria) no hay conexión que verificar
+        CompletableFuture<Void> conexion;
+        if (!RepositoryFactory.isOracle()) {
+            System.out.println("Usando almacenamiento en memoria (" + RepositoryFactory.BACKEND_PROPERTY + "="
+                    + RepositoryFactory.getBackend() + "); los datos no se guardan en Oracle.");
+            conexion = CompletableFuture.completedFuture(null);
+        } else {
+            conexion = CompletableFuture.runAsync(
+                    () -> TiemposArranque.medir("Verificación de conexión", ProyectoProgra::verificarConexion), arranque);
+        }
+        
+        // Carga inicial de viajes (incluye recuperar el diario local de cambios pendientes).
+        // Si se migra el esquema al iniciar, la carga espera a que termine la migración.
+        CompletableFuture<List<Viaje>> datos;
+        if (debeMigrar()) {
+            datos = conexion.handleAsync((ok, error) -> TiemposArranque.medir("Carga inicial de viajes",
+                    ViajeManager::obtenerTodosLosViajes), arranque);
+        } else {
+            datos = CompletableFuture.supplyAsync(
+                    () -> TiemposArranque.medir("Carga inicial de viajes", ViajeManager::obtenerTodosLosViajes), arranque);
+        }
+        
+        CompletableFuture<Void> precarga = CompletableFuture.runAsync(
+                () -> TiemposArranque.medir("Precarga de fuentes y JCalendar", ProyectoProgra::precargarRecursos), arranque);
+        
+        // Los hilos de arranque terminan al completar sus tareas
+        arranque.shutdown();
+        
+        // Configurar la apariencia visual de la aplicación
+        TiemposArranque.medir("Look and feel", () -> {
             try {
-                // Pausa para que el usuario pueda leer el mensaje de error
-                System.in.read();
+                // Establecer el look and feel nativo del sistema operativo
+                // Esto hace que la aplicación se vea como las aplicaciones nativas del OS
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception e) {
+                // Si falla, continúa con el look and feel por defecto
+                System.err.println("Error al configurar el look and feel: " + e.getMessage());
             }
-        }
+        });
         
-        // Configurar la apariencia visual de la aplicación
-        try {
-            // Establecer el look and feel nativo del sistema operativo
-            // Esto hace que la aplicación se vea como las aplicaciones nativas del OS
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            // Si falla, continúa con el look and feel por defecto
-            System.err.println("Error al configurar el look and feel: " + e.getMessage());
-        }
+        // Medir los eventos de la interfaz y avisar de los que bloquean el EDT
+        // (viajes.edt.umbralMs; 0 lo desactiva)
+        EdtWatchdog.installFromProperties();
         
         // Lanzar la interfaz gráfica en el Event Dispatch Thread (EDT)
         // SwingUtilities.invokeLater() garantiza que la GUI se ejecute en el hilo correcto
+        CompletableFuture<Void> tablaCargada = new CompletableFuture<>();
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 try {
-                    // Crear y mostrar la ventana principal de la aplicación
-                    ViajeFrame frame = new ViajeFrame();
+                    // Crear y mostrar la ventana principal; los viajes llegan cuando termine la carga
+                    ViajeFrame frame = TiemposArranque.medir("Construcción de la ventana", () -> new ViajeFrame(datos));
                     frame.setVisible(true);
+                    TiemposArranque.marcar("Ventana visible");
                     System.out.println("Aplicación de Gestión de Viajes iniciada exitosamente");
+                    
+                    frame.getCargaInicial().whenComplete((r, error) -> {
+                        TiemposArranque.marcar("Viajes visibles en la tabla");
+                        tablaCargada.complete(null);
+                    });
                 } catch (Exception e) {
                     // Manejo de errores durante la inicialización de la GUI
                     System.err.println("Error al iniciar la aplicación: " + e.getMessage());
                     e.printStackTrace();
+                    tablaCargada.complete(null);
                 }
             }
         });
+        
+        // Reporte cuando terminan todas las fases (también las que fallan)
+        CompletableFuture.allOf(conexion, datos, precarga, tablaCargada)
+                .whenComplete((r, error) -> TiemposArranque.imprimirReporte());
+        
+        // Mover al historial los viajes terminados hace tiempo (solo si se indica viajes.archivo.dias)
+        ArchivadorViajes.iniciarDesdePropiedades(new ViajeService());
+    }
+    
+    /**
+     * Verifica si hay conexión disponible con la base de datos Oracle.
+     */
+    private static void verificarConexion() {
+        System.out.println("Verificando conexión a la base de datos...");
+        if (!OracleConnector.verifyConnection()) {
+            // Si no hay conexión, mostrar advertencia pero continuar con la aplicación
+            System.err.println("No se pudo establecer conexión con la base de datos.");
+            System.err.println("Los cambios se guardarán en el diario local y se enviarán al recuperar la conexión.");
+            return;
+        }
+        if (debeMigrar()) {
+            try {
+                TiemposArranque.medir("Migración del esquema", () -> SchemaMigrator.migrar());
+            } catch (RuntimeException e) {
+                // La aplicación sigue con el esquema que haya; el error queda en la consola
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * @return true si se pidió migrar el esquema al iniciar (-Dviajes.migrar=true)
+     */
+    private static boolean debeMigrar() {
+        return RepositoryFactory.isOracle() && Boolean.getBoolean(PROPIEDAD_MIGRAR);
+    }
+    
+    /**
+     * Carga fuera del EDT los recursos que la ventana usa al construirse o al
+     * abrir el selector de fecha, para que el EDT no espere a leerlos del disco.
+     */
+    private static void precargarRecursos() {
+        // Fuentes de la interfaz: la primera medición de texto carga el archivo de la fuente
+        BufferedImage imagen = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = imagen.createGraphics();
+        try {
+            for (Font fuente : new Font[] {UIConstants.TITLE_FONT, UIConstants.SUBTITLE_FONT,
+                    UIConstants.HEADER_FONT, UIConstants.BODY_FONT, UIConstants.SMALL_FONT}) {
+                g.getFontMetrics(fuente).stringWidth(UIConstants.APP_TITLE);
+            }
+        } finally {
+            g.dispose();
+        }
+        
+        // Íconos: el primer FontIcon carga la fuente de FontAwesome
+        FontIcon.of(FontAwesomeSolid.PLANE).getIconWidth();
+        
+        ClassLoader cargador = ProyectoProgra.class.getClassLoader();
+        for (String clase : CLASES_JCALENDAR) {
+            try {
+                Class.forName(clase, true, cargador);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Solo es una optimización: el calendario se cargará al usarse
+                System.err.println("No se pudo precargar " + clase + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * @return Executor con hilos daemon para las fases del arranque
+     */
+    private static ExecutorService crearExecutorArranque() {
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "arranque-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 }
@@ -0,0 +1,406 @@
+package proyectoprogra.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ *
+ * Mantiene un conjunto de conexiones físicas abiertas y las reutiliza entre
+ * llamadas, evitando el costo de un logon completo a Oracle en cada operación.
+ *
+ * Características:
+ * - Tamaño máximo acotado (nunca se abren más de maxSize conexiones)
+ * - Espera máxima configurable al pedir una conexión cuando el pool está lleno
+ * - Validación de la conexión antes de entregarla (Connection.isValid)
+ * - Desalojo de conexiones ociosas que superan el tiempo máximo de inactividad
+ * - Detección de fugas: avisa cuando una conexión se retiene demasiado tiempo
+ * - Estadísticas de uso consultables con getStats()
+ *
+ * Las conexiones entregadas son envoltorios (proxies) de la conexión física:
+ * llamar a close() las devuelve al pool en lugar de cerrarlas, por lo que el
+ * código cliente sigue usando try-with-resources exactamente igual que antes.
+ */
+public class ConnectionPool {
+
+    /**
+     * Fábrica de conexiones físicas. Permite que el pool no dependa
+     * directamente de DriverManager ni de la configuración de Oracle.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    // Fábrica usada para abrir nuevas conexiones físicas
+    private final ConnectionFactory factory;
+
+    // Límites y tiempos de la configuración del pool
+    private final int maxSize;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+
+    // Permisos disponibles: uno por cada conexión que todavía se puede entregar
+    private final Semaphore permits;
+
+    // Conexiones físicas libres; la más recientemente devuelta queda al frente
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+
+    // Conexiones actualmente prestadas al código cliente
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+
+    // Hilo de mantenimiento para desalojo de ociosas y detección de fugas
+    private final ScheduledExecutorService housekeeper;
+
+    // Contadores para las estadísticas del pool
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Crea un pool de conexiones.
+     *
+     * @param factory Fábrica de conexiones físicas
+     * @param maxSize Número máximo de conexiones abiertas simultáneamente
+     * @param minIdle Número de conexiones ociosas que el mantenimiento intenta conservar
+     * @param maxWaitMillis Tiempo máximo de espera por una conexión libre
+     * @param idleTimeoutMillis Tiempo tras el cual una conexión ociosa se cierra
+     * @param leakThresholdMillis Tiempo de préstamo a partir del cual se reporta una fuga (0 = desactivado)
+     * @throws IllegalArgumentException si la configuración no es coherente
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle,
+                          long maxWaitMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory no puede ser null");
+        }
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: maxSize=" + maxSize + ", minIdle=" + minIdle);
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = 2;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMillis, 30_000L) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtiene una conexión del pool.
+     *
+     * Si hay una conexión ociosa válida se reutiliza; si no, y no se ha
+     * alcanzado el máximo, se abre una nueva. Si el pool está lleno se espera
+     * como máximo maxWaitMillis a que otra conexión sea devuelta.
+     *
+     * @return Conexión lista para usar; close() la devuelve al pool
+     * @throws SQLTransientConnectionException si se agota el tiempo de espera
+     * @throws SQLException si no se puede abrir una conexión física
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long inicio = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - inicio);
+
+        if (!acquired) {
+            waitTimeouts.incrementAndGet();
+            throw new SQLTransientConnectionException("No hay conexiones disponibles tras esperar "
+                    + maxWaitMillis + " ms (activas=" + borrowed.size() + ", máximo=" + maxSize + ")");
+        }
+
+        try {
+            PooledEntry entry = takeValidIdle();
+            if (entry == null) {
+                entry = new PooledEntry(factory.create());
+                created.incrementAndGet();
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowStack = leakThresholdMillis > 0 ? new Throwable("Conexión obtenida aquí") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+            borrowCount.incrementAndGet();
+            return entry.newProxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Toma la conexión ociosa más reciente que siga siendo válida.
+     * Las conexiones inválidas se descartan por el camino.
+     */
+    private PooledEntry takeValidIdle() {
+        while (true) {
+            PooledEntry entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (isUsable(entry.physical)) {
+                return entry;
+            }
+            validationFailures.incrementAndGet();
+            destroy(entry);
+        }
+    }
+
+    private boolean isUsable(Connection con) {
+        try {
+            return !con.isClosed() && con.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool. Deshace cualquier transacción pendiente
+     * y restaura el modo auto-commit para que el siguiente usuario la reciba limpia.
+     */
+    private void release(PooledEntry entry) {
+        if (!borrowed.remove(entry)) {
+            return;
+        }
+        try {
+            boolean reusable = !closed && !entry.physical.isClosed();
+            if (reusable && !entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                entry.lastUsedAt = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.offerFirst(entry);
+                }
+            } else {
+                destroy(entry);
+            }
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            // La conexión ya estaba rota; no hay nada más que hacer
+        }
+        destroyed.incrementAndGet();
+    }
+
+    /**
+     * Tarea periódica de mantenimiento:
+     * 1. Cierra las conexiones ociosas que superan idleTimeoutMillis (respetando minIdle)
+     * 2. Reporta las conexiones prestadas por más de leakThresholdMillis
+     */
+    private void housekeep() {
+        long ahora = System.currentTimeMillis();
+
+        List<PooledEntry> expiradas = new ArrayList<>();
+        synchronized (idle) {
+            // Las más antiguas están al final de la cola
+            while (idle.size() > minIdle) {
+                PooledEntry last = idle.peekLast();
+                if (last == null || ahora - last.lastUsedAt < idleTimeoutMillis) {
+                    break;
+                }
+                expiradas.add(idle.pollLast());
+            }
+        }
+        for (PooledEntry entry : expiradas) {
+            destroy(entry);
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledEntry entry : borrowed) {
+                if (!entry.leakReported && ahora - entry.borrowedAt > leakThresholdMillis) {
+                    entry.leakReported = true;
+                    leaksDetected.incrementAndGet();
+                    System.err.println("Posible fuga de conexión: prestada hace "
+                            + (ahora - entry.borrowedAt) + " ms sin devolverse al pool");
+                    if (entry.borrowStack != null) {
+                        entry.borrowStack.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Abre conexiones hasta tener minIdle conexiones ociosas.
+     * Útil al arrancar la aplicación para que la primera operación no pague el logon.
+     *
+     * @throws SQLException si no se puede abrir alguna conexión
+     */
+    public void prefill() throws SQLException {
+        while (true) {
+            synchronized (idle) {
+                if (idle.size() + borrowed.size() >= minIdle) {
+                    return;
+                }
+            }
+            PooledEntry entry = new PooledEntry(factory.create());
+            created.incrementAndGet();
+            entry.lastUsedAt = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.offerLast(entry);
+            }
+        }
+    }
+
+    /**
+     * Cierra el pool: las conexiones ociosas se cierran de inmediato y las
+     * prestadas se cierran cuando el código cliente las devuelva.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        List<PooledEntry> pendientes;
+        synchronized (idle) {
+            pendientes = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledEntry entry : pendientes) {
+            destroy(entry);
+        }
+    }
+
+    /**
+     * Retorna una fotografía de las estadísticas actuales del pool.
+     *
+     * @return Estadísticas del pool en este instante
+     */
+    public PoolStats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long prestamos = borrowCount.get();
+        return new PoolStats(maxSize, borrowed.size(), idleCount, permits.getQueueLength(),
+                created.get(), destroyed.get(), prestamos, waitTimeouts.get(),
+                validationFailures.get(), leaksDetected.get(),
+                prestamos == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()) / prestamos);
+    }
+
+    /**
+     * Estadísticas del pool en un instante dado.
+     *
+     * @param maxSize Tamaño máximo configurado
+     * @param active Conexiones prestadas en este momento
+     * @param idle Conexiones ociosas disponibles
+     * @param waiting Hilos esperando una conexión
+     * @param created Conexiones físicas abiertas desde el inicio
+     * @param destroyed Conexiones físicas cerradas desde el inicio
+     * @param borrows Total de préstamos realizados
+     * @param waitTimeouts Préstamos fallidos por agotar la espera máxima
+     * @param validationFailures Conexiones descartadas por no ser válidas
+     * @param leaksDetected Conexiones reportadas como posibles fugas
+     * @param avgWaitMicros Tiempo medio de espera por préstamo en microsegundos
+     */
+    public record PoolStats(int maxSize, int active, int idle, int waiting,
+                            long created, long destroyed, long borrows, long waitTimeouts,
+                            long validationFailures, long leaksDetected, long avgWaitMicros) {
+    }
+
+    /**
+     * Conexión física administrada por el pool junto con sus datos de uso.
+     */
+    private final class PooledEntry {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long lastUsedAt;
+        private volatile Throwable borrowStack;
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Crea el envoltorio que se entrega al código cliente. Cada préstamo
+         * recibe su propio proxy para que un close() repetido o tardío no
+         * devuelva al pool una conexión que ya tiene otro dueño.
+         */
+        private Connection newProxy() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean proxyClosed = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if ("close".equals(name)) {
+                        if (!proxyClosed) {
+                            proxyClosed = true;
+                            release(PooledEntry.this);
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(name)) {
+                        return proxyClosed || physical.isClosed();
+                    }
+                    if ("unwrap".equals(name) && args != null && args[0] == Connection.class) {
+                        return proxy;
+                    }
+                    if (proxyClosed) {
+                        throw new SQLException("La conexión ya fue devuelta al pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+    }
+}
@@ -3,6 +3,10 @@ package proyectoprogra.database;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import proyectoprogra.metrics.MetricsRegistry;
 
 /**
  * Clase utilitaria para manejar las conexiones a la base de datos Oracle.
@@ -16,6 +20,9 @@ import java.sql.SQLException;
  * - SID: XE (Oracle Express Edition)
  * - Usuario: system
  * - Contraseña: Oracle123
+ * 
+ * Las conexiones se obtienen de un ConnectionPool acotado en lugar de abrir
+ * una sesión física nueva con DriverManager en cada llamada.
  */
 public class OracleConnector {
     // URL de conexión a Oracle Database usando el driver thin
@@ -27,32 +34,108 @@ public class OracleConnector {
     private static final String USER = "system";
     private static final String PASSWORD = "Oracle123";
     
+    // Configuración del pool de conexiones
+    // Máximo de sesiones simultáneas contra Oracle
+    private static final int POOL_MAX_SIZE = 10;
+    // Conexiones ociosas que se intentan conservar abiertas
+    private static final int POOL_MIN_IDLE = 2;
+    // Tiempo máximo de espera por una conexión libre (ms)
+    private static final long POOL_MAX_WAIT_MS = 5_000;
+    // Tiempo tras el cual se cierra una conexión ociosa (ms)
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+    // Tiempo de préstamo a partir del cual se reporta una posible fuga (ms)
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+    
+    // Pool compartido por toda la aplicación (se crea en el primer uso)
+    private static volatile ConnectionPool pool;
+    
     // Flag para controlar si la conexión ha sido verificada al menos una vez
     private static boolean connectionVerified = false;
 
     /**
-     * Obtiene una nueva conexión a la base de datos Oracle.
+     * Obtiene una conexión a la base de datos Oracle desde el pool.
      * 
-     * Este método crea una nueva conexión cada vez que se llama.
-     * Es responsabilidad del código cliente cerrar la conexión después de usarla.
+     * La conexión se reutiliza entre llamadas: cerrarla la devuelve al pool
+     * en lugar de terminar la sesión física. Es responsabilidad del código
+     * cliente cerrar la conexión después de usarla.
      * Se recomienda usar try-with-resources para el manejo automático de recursos.
      * 
-     * @return Una nueva conexión a la base de datos Oracle
+     * @return Una conexión validada a la base de datos Oracle
      * @throws SQLException si no se puede establecer la conexión
+     * @throws java.sql.SQLTransientConnectionException si el pool está lleno
+     *         y no se libera ninguna conexión dentro del tiempo máximo de espera
      * 
      * Ejemplo de uso:
      * try (Connection conn = OracleConnector.getConnection()) {
      *     // usar la conexión
-     * } // se cierra automáticamente
+     * } // se devuelve al pool automáticamente
      */
     public static Connection getConnection() throws SQLException {
+        // Incluye la espera cuando el pool está lleno (ver MetricsRegistry)
+        return MetricsRegistry.timeChecked("OracleConnector.getConnection", () -> getPool().getConnection());
+    }
+    
+    /**
+     * Abre una conexión física nueva, sin pasar por el pool.
+     * Es la fábrica que usa el pool para crear sus conexiones.
+     * 
+     * @return Una nueva conexión física a la base de datos Oracle
+     * @throws SQLException si no se puede establecer la conexión
+     */
+    private static Connection openPhysicalConnection() throws SQLException {
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
+    
+    /**
+     * Retorna el pool compartido, creándolo en el primer uso.
+     * 
+     * @return El pool de conexiones de la aplicación
+     */
+    private static ConnectionPool getPool() {
+        ConnectionPool actual = pool;
+        if (actual == null) {
+            synchronized (OracleConnector.class) {
+                actual = pool;
+                if (actual == null) {
+                    actual = new ConnectionPool(OracleConnector::openPhysicalConnection,
+                            POOL_MAX_SIZE, POOL_MIN_IDLE, POOL_MAX_WAIT_MS,
+                            POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS);
+                    pool = actual;
+                }
+            }
+        }
+        return actual;
+    }
+    
+    /**
+     * Retorna las estadísticas actuales del pool de conexiones
+     * (conexiones activas, ociosas, esperas agotadas, fugas detectadas, etc.).
+     * 
+     * @return Estadísticas del pool en este instante
+     */
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+    
+    /**
+     * Cierra el pool de conexiones y todas sus conexiones ociosas.
+     * Debe llamarse al terminar la aplicación.
+     */
+    public static void shutdown() {
+        synchronized (OracleConnector.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
 
     /**
      * Verifica si es posible establecer una conexión con la base de datos.
      * 
-     * Este método intenta crear una conexión y la cierra inmediatamente.
+     * Este método intenta obtener una conexión validada del pool y la devuelve
+     * inmediatamente. Si la verificación es exitosa, además abre las conexiones
+     * mínimas del pool para que las primeras operaciones no paguen el logon.
      * Actualiza el estado interno (connectionVerified) y muestra mensajes
      * informativos en la consola.
      * 
@@ -70,6 +153,7 @@ public class OracleConnector {
             // La conexión se crea y cierra automáticamente - no necesitamos usarla
             // Solo el hecho de crearla exitosamente confirma que la BD está disponible
             connectionVerified = true;
+            getPool().prefill();
             System.out.println("Conexión a Oracle Database establecida correctamente");
             return true;
         } catch (SQLException e) {
@@ -96,6 +180,41 @@ public class OracleConnector {
         return connectionVerified;
     }
     
+    /**
+     * Indica si un error se debe a que la base de datos no está disponible
+     * (servidor caído, red, pool agotado), y no a los datos enviados.
+     * 
+     * Revisa toda la cadena de causas, porque los servicios envuelven los
+     * SQLException en RuntimeException.
+     * 
+     * @param error Error recibido de una operación de base de datos
+     * @return true si el error es de conexión y la operación puede reintentarse más tarde
+     * 
+     * Se consideran errores de conexión:
+     * - SQLRecoverableException (p. ej. "IO Error", conexión cerrada por el servidor)
+     * - SQLTransientConnectionException y SQLNonTransientConnectionException
+     * - Cualquier SQLException con SQLState de la clase 08 (connection exception)
+     */
+    public static boolean isConnectionError(Throwable error) {
+        for (Throwable actual = error; actual != null; actual = actual.getCause()) {
+            if (actual instanceof SQLRecoverableException
+                    || actual instanceof SQLTransientConnectionException
+                    || actual instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (actual instanceof SQLException) {
+                String estado = ((SQLException) actual).getSQLState();
+                if (estado != null && estado.startsWith("08")) {
+                    return true;
+                }
+            }
+            if (actual.getCause() == actual) {
+                break;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Fuerza una nueva verificación de la conexión, independientemente
      * del estado anterior.
@@ -0,0 +1,397 @@
+package proyectoprogra.database;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migraciones versionadas del esquema de la base de datos.
+ *
+ * Cada migración es un script en sql/migrations con el nombre
+ * V{versión}__{descripción}.sql. SchemaMigrator aplica en orden las versiones
+ * que todavía no figuran en la tabla SCHEMA_VERSION y registra cada una al
+ * terminar, de modo que cualquier base de datos llega al mismo esquema sin
+ * ejecutar scripts a mano.
+ *
+ * Características:
+ * - Las sentencias se separan por ';' al final de línea; los bloques PL/SQL
+ *   (BEGIN, DECLARE, CREATE ... TRIGGER/PROCEDURE/FUNCTION/PACKAGE) terminan
+ *   con una línea que solo contiene '/', como en SQL*Plus
+ * - Bases de datos existentes (baseline): los objetos que ya existen porque
+ *   se crearon con los scripts de sql/ (ORA-00955, ORA-01430, ORA-01408...)
+ *   se omiten con un aviso, y la versión se registra igual
+ * - Migraciones opcionales: un script con la línea "-- @opcional nombre"
+ *   solo se aplica si la opción está en viajes.migraciones.opciones; si no,
+ *   queda pendiente y se puede aplicar más adelante
+ * - Se guarda el checksum (SHA-256) de cada script; si un script ya aplicado
+ *   cambió se muestra un aviso (no se vuelve a aplicar)
+ *
+ * Oracle confirma cada sentencia DDL por separado: si una migración falla a
+ * mitad, las sentencias anteriores quedan aplicadas y la versión no se
+ * registra. Al corregir el error y volver a ejecutar, las sentencias ya
+ * aplicadas se omiten como objetos existentes.
+ *
+ * Las migraciones deben ejecutarse desde un solo proceso a la vez: con
+ * "java proyectoprogra.database.SchemaMigrator" o al iniciar la aplicación
+ * con -Dviajes.migrar=true.
+ */
+public class SchemaMigrator {
+
+    // Propiedad del sistema con el directorio de los scripts
+    public static final String PROPIEDAD_DIRECTORIO = "viajes.migraciones";
+
+    // Propiedad del sistema con las opciones activas, separadas por comas (p. ej. "particionado")
+    public static final String PROPIEDAD_OPCIONES = "viajes.migraciones.opciones";
+
+    // Directorio de los scripts por defecto (relativo al directorio de trabajo)
+    public static final String DIRECTORIO_POR_DEFECTO = "sql/migrations";
+
+    private static final Pattern NOMBRE_MIGRACION = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern DIRECTIVA_OPCIONAL = Pattern.compile("^--\\s*@opcional\\s+(\\w+)\\s*$",
+            Pattern.MULTILINE);
+    private static final Pattern INICIO_PLSQL = Pattern.compile(
+            "^(BEGIN|DECLARE|CREATE\\s+(OR\\s+REPLACE\\s+)?(TRIGGER|PROCEDURE|FUNCTION|PACKAGE|TYPE))\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    // Errores que indican que el objeto ya existe (base de datos creada con los scripts de sql/)
+    private static final Set<Integer> ERRORES_YA_EXISTE = new HashSet<>(Arrays.asList(
+            955,   // el nombre ya está siendo usado por otro objeto
+            1408,  // ya existe un índice con esa lista de columnas
+            1430,  // la columna ya existe en la tabla
+            1442,  // la columna ya es NOT NULL
+            2260,  // la tabla ya tiene llave primaria
+            2261,  // ya existe esa llave única o primaria
+            2275   // ya existe esa restricción referencial
+    ));
+
+    private static final int ORA_TABLA_NO_EXISTE = 942;
+
+    /**
+     * Script de migración.
+     *
+     * @param version Número de versión (orden de aplicación)
+     * @param descripcion Descripción tomada del nombre del archivo
+     * @param archivo Ruta del script
+     * @param checksum SHA-256 del contenido en hexadecimal
+     * @param opcion Opción que debe estar activa para aplicarlo, o null
+     */
+    public record Migracion(int version, String descripcion, Path archivo, String checksum, String opcion) {
+    }
+
+    /**
+     * Resultado de una ejecución del migrador.
+     *
+     * @param aplicadas Versiones aplicadas en esta ejecución
+     * @param pendientesOpcionales Versiones opcionales no aplicadas por no tener su opción activa
+     * @param versionActual Mayor versión registrada al terminar (0 si ninguna)
+     */
+    public record Resultado(List<Integer> aplicadas, List<Integer> pendientesOpcionales, int versionActual) {
+    }
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Aplica las migraciones pendientes con la conexión, el directorio y las
+     * opciones configurados en las propiedades del sistema.
+     *
+     * @return Resultado de la migración
+     * @throws RuntimeException si una migración falla o los scripts no se pueden leer
+     */
+    public static Resultado migrar() {
+        Path directorio = Paths.get(System.getProperty(PROPIEDAD_DIRECTORIO, DIRECTORIO_POR_DEFECTO));
+        try (Connection con = OracleConnector.getConnection()) {
+            return migrar(con, directorio, opcionesConfiguradas());
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Error al migrar el esquema de la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplica en orden las migraciones que no figuran en SCHEMA_VERSION.
+     *
+     * @param con Conexión con permisos para crear objetos en el esquema
+     * @param directorio Directorio con los scripts V{n}__{descripcion}.sql
+     * @param opciones Opciones activas para las migraciones opcionales
+     * @return Resultado de la migración
+     * @throws SQLException si una sentencia falla (la versión no se registra)
+     * @throws IOException si los scripts no se pueden leer
+     */
+    public static Resultado migrar(Connection con, Path directorio, Set<String> opciones)
+            throws SQLException, IOException {
+        List<Migracion> migraciones = leerMigraciones(directorio);
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(true);
+        try {
+            crearTablaVersiones(con);
+            Map<Integer, String> aplicadas = leerVersionesAplicadas(con);
+
+            List<Integer> nuevas = new ArrayList<>();
+            List<Integer> opcionales = new ArrayList<>();
+            for (Migracion m : migraciones) {
+                String checksumAplicado = aplicadas.get(m.version());
+                if (checksumAplicado != null) {
+                    if (!checksumAplicado.equals(m.checksum())) {
+                        System.err.println("Aviso: la migración V" + m.version() + " (" + m.archivo().getFileName()
+                                + ") cambió después de aplicarse; los cambios no se aplican");
+                    }
+                    continue;
+                }
+                if (m.opcion() != null && !opciones.contains(m.opcion())) {
+                    opcionales.add(m.version());
+                    continue;
+                }
+                aplicar(con, m);
+                nuevas.add(m.version());
+            }
+
+            int actual = 0;
+            for (int v : leerVersionesAplicadas(con).keySet()) {
+                actual = Math.max(actual, v);
+            }
+            if (!opcionales.isEmpty()) {
+                System.out.println("Migraciones opcionales sin aplicar: " + opcionales
+                        + " (ver " + PROPIEDAD_OPCIONES + ")");
+            }
+            System.out.println("Esquema de la base de datos en la versión " + actual
+                    + (nuevas.isEmpty() ? " (sin cambios)" : " (aplicadas: " + nuevas + ")"));
+            return new Resultado(nuevas, opcionales, actual);
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Lee los scripts de migración de un directorio, ordenados por versión.
+     *
+     * @param directorio Directorio con los scripts
+     * @return Migraciones encontradas
+     * @throws IOException si el directorio no se puede leer
+     * @throws IllegalStateException si dos scripts tienen la misma versión
+     */
+    public static List<Migracion> leerMigraciones(Path directorio) throws IOException {
+        List<Migracion> migraciones = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "V*__*.sql")) {
+            for (Path archivo : archivos) {
+                Matcher nombre = NOMBRE_MIGRACION.matcher(archivo.getFileName().toString());
+                if (!nombre.matches()) {
+                    System.err.println("Se ignora el script con nombre inválido: " + archivo.getFileName());
+                    continue;
+                }
+                byte[] contenido = Files.readAllBytes(archivo);
+                Matcher opcional = DIRECTIVA_OPCIONAL.matcher(new String(contenido, StandardCharsets.UTF_8));
+                migraciones.add(new Migracion(Integer.parseInt(nombre.group(1)),
+                        nombre.group(2).replace('_', ' '), archivo, sha256(contenido),
+                        opcional.find() ? opcional.group(1).toLowerCase(Locale.ROOT) : null));
+            }
+        }
+        migraciones.sort(Comparator.comparingInt(Migracion::version));
+        for (int i = 1; i < migraciones.size(); i++) {
+            if (migraciones.get(i).version() == migraciones.get(i - 1).version()) {
+                throw new IllegalStateException("Hay dos migraciones con la versión " + migraciones.get(i).version()
+                        + ": " + migraciones.get(i - 1).archivo().getFileName()
+                        + " y " + migraciones.get(i).archivo().getFileName());
+            }
+        }
+        return migraciones;
+    }
+
+    /**
+     * Separa un script en sentencias ejecutables con JDBC.
+     *
+     * @param script Contenido del script
+     * @return Sentencias sin el ';' ni el '/' final
+     */
+    public static List<String> dividirSentencias(String script) {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean plsql = false;
+
+        for (String linea : script.split("\\r?\\n")) {
+            String recortada = linea.trim();
+            if (actual.length() == 0) {
+                // Fuera de una sentencia se ignoran comentarios y líneas vacías
+                if (recortada.isEmpty() || recortada.startsWith("--")) {
+                    continue;
+                }
+                plsql = INICIO_PLSQL.matcher(recortada).find();
+            }
+            if (plsql) {
+                if (recortada.equals("/")) {
+                    agregarSentencia(sentencias, actual);
+                } else {
+                    actual.append(linea).append('\n');
+                }
+            } else if (recortada.endsWith(";")) {
+                actual.append(linea, 0, linea.lastIndexOf(';'));
+                agregarSentencia(sentencias, actual);
+            } else {
+                actual.append(linea).append('\n');
+            }
+        }
+        agregarSentencia(sentencias, actual);
+        return sentencias;
+    }
+
+    /**
+     * Ejecuta una migración y la registra en SCHEMA_VERSION.
+     */
+    private static void aplicar(Connection con, Migracion m) throws SQLException, IOException {
+        System.out.println("Aplicando migración V" + m.version() + ": " + m.descripcion());
+        long inicio = System.nanoTime();
+        String script = new String(Files.readAllBytes(m.archivo()), StandardCharsets.UTF_8);
+
+        try (Statement st = con.createStatement()) {
+            for (String sentencia : dividirSentencias(script)) {
+                // COMMIT no es necesario: cada sentencia se confirma sola
+                if (sentencia.equalsIgnoreCase("COMMIT")) {
+                    continue;
+                }
+                try {
+                    st.execute(sentencia);
+                } catch (SQLException e) {
+                    if (!ERRORES_YA_EXISTE.contains(e.getErrorCode())) {
+                        throw new SQLException("Error en la migración V" + m.version() + " ("
+                                + m.archivo().getFileName() + ") al ejecutar:\n" + sentencia + "\n" + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                    System.out.println("  Ya existe, se omite: " + primeraLinea(sentencia));
+                }
+            }
+        }
+
+        String sql = "INSERT INTO SCHEMA_VERSION (version, descripcion, script, checksum, duracion_ms) VALUES (?,?,?,?,?)";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.descripcion());
+            ps.setString(3, m.archivo().getFileName().toString());
+            ps.setString(4, m.checksum());
+            ps.setLong(5, (System.nanoTime() - inicio) / 1_000_000);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Crea la tabla de versiones si no existe.
+     */
+    private static void crearTablaVersiones(Connection con) throws SQLException {
+        String sql = "CREATE TABLE SCHEMA_VERSION ("
+                + "version NUMBER(10) NOT NULL, "
+                + "descripcion VARCHAR2(200) NOT NULL, "
+                + "script VARCHAR2(200) NOT NULL, "
+                + "checksum VARCHAR2(64) NOT NULL, "
+                + "duracion_ms NUMBER(10), "
+                + "aplicada_por VARCHAR2(128) DEFAULT USER NOT NULL, "
+                + "fecha_aplicacion TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL, "
+                + "CONSTRAINT PK_SCHEMA_VERSION PRIMARY KEY (version))";
+        try (Statement st = con.createStatement()) {
+            st.execute(sql);
+            System.out.println("Tabla SCHEMA_VERSION creada");
+        } catch (SQLException e) {
+            if (!ERRORES_YA_EXISTE.contains(e.getErrorCode())) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Checksum de cada versión registrada
+     */
+    private static Map<Integer, String> leerVersionesAplicadas(Connection con) throws SQLException {
+        Map<Integer, String> versiones = new HashMap<>();
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM SCHEMA_VERSION")) {
+            while (rs.next()) {
+                versiones.put(rs.getInt(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ORA_TABLA_NO_EXISTE) {
+                throw e;
+            }
+        }
+        return versiones;
+    }
+
+    /**
+     * @return Opciones de viajes.migraciones.opciones en minúsculas
+     */
+    private static Set<String> opcionesConfiguradas() {
+        Set<String> opciones = new HashSet<>();
+        for (String opcion : System.getProperty(PROPIEDAD_OPCIONES, "").split(",")) {
+            if (!opcion.isBlank()) {
+                opciones.add(opcion.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return opciones;
+    }
+
+    private static void agregarSentencia(List<String> sentencias, StringBuilder actual) {
+        String sentencia = actual.toString().trim();
+        if (!sentencia.isEmpty()) {
+            sentencias.add(sentencia);
+        }
+        actual.setLength(0);
+    }
+
+    private static String primeraLinea(String sentencia) {
+        int fin = sentencia.indexOf('\n');
+        return fin < 0 ? sentencia : sentencia.substring(0, fin) + " ...";
+    }
+
+    private static String sha256(byte[] contenido) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contenido);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM incluye SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Aplica las migraciones pendientes desde la línea de comandos.
+     *
+     * Uso: java proyectoprogra.database.SchemaMigrator [directorio] [opción,opción...]
+     */
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            System.setProperty(PROPIEDAD_DIRECTORIO, args[0]);
+        }
+        if (args.length > 1) {
+            System.setProperty(PROPIEDAD_OPCIONES, args[1]);
+        }
+        try {
+            migrar();
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            OracleConnector.shutdown();
+        }
+    }
+}
@@ -2,16 +2,22 @@ package proyectoprogra.export;
 
 import org.dhatim.fastexcel.Workbook;
 import org.dhatim.fastexcel.Worksheet;
+import proyectoprogra.metrics.ExportEvent;
+import proyectoprogra.metrics.LatencyHistogram;
+import proyectoprogra.metrics.MetricsRegistry;
 import proyectoprogra.model.Viaje;
 import proyectoprogra.service.ViajeService;
 
 import javax.swing.*;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 /**
  * Clase utilitaria para exportar los viajes a archivos Excel.
@@ -20,6 +26,13 @@ import java.util.List;
  */
 public class ExcelExporter {
     
+    // Cada cuántas filas se vacían al archivo los datos ya escritos en la hoja
+    private static final int FILAS_POR_FLUSH = 1000;
+    
+    // Duración de cada exportación, sin contar los diálogos (ver MetricsRegistry)
+    private static final LatencyHistogram METRICA_EXPORTACION =
+            MetricsRegistry.histogram("ExcelExporter.exportarViajesAExcel");
+    
     // Servicio para obtener datos de viajes desde la base de datos
     private final ViajeService viajeService;
     // Formateador para mostrar fechas en formato legible
@@ -35,14 +48,24 @@ public class ExcelExporter {
      * Exporta todos los viajes a un archivo Excel.
      * El archivo se guarda con el formato: viajes_fecha_con_segundos.xlsx
      * Muestra mensajes de éxito o error al usuario.
+     * 
+     * Los viajes se leen en forma incremental desde la base de datos y se
+     * escriben al archivo a medida que llegan, sin cargar la tabla completa
+     * en memoria.
+     * 
+     * La duración (desde abrir el recorrido hasta cerrar el archivo) se
+     * registra en la métrica ExcelExporter.exportarViajesAExcel y, con Java
+     * Flight Recorder activo, en un ExportEvent con filas y tamaño del archivo.
      */
     public void exportarViajesAExcel() {
-        try {
-            // Obtener todos los viajes usando el ViajeService
-            List<Viaje> viajes = viajeService.listAll();
+        long inicio = System.nanoTime();
+        
+        // Recorrer los viajes con un Stream que libera la conexión al cerrarse
+        try (Stream<Viaje> stream = viajeService.stream()) {
+            Iterator<Viaje> viajes = stream.iterator();
             
             // Verificar si hay datos para exportar
-            if (viajes.isEmpty()) {
+            if (!viajes.hasNext()) {
                 JOptionPane.showMessageDialog(null, 
                     "No hay viajes para exportar", 
                     "Información", 
@@ -53,39 +76,53 @@ public class ExcelExporter {
             // Generar nombre del archivo con fecha y segundos
             String nombreArchivo = generarNombreArchivo();
             
-            // Crear el archivo Excel usando try-with-resources
-            try (FileOutputStream outputStream = new FileOutputStream(nombreArchivo);
-                 Workbook workbook = new Workbook(outputStream, "ViajesApp", "1.0")) {
-                
-                // Crear hoja de trabajo
-                Worksheet worksheet = workbook.newWorksheet("Viajes");
-                
-                // Crear encabezados con formato
-                crearEncabezados(worksheet);
-                
-                // Llenar datos de los viajes
-                llenarDatos(worksheet, viajes);
-                
-                // Ajustar ancho de columnas para mejor visualización
-                ajustarAnchoColumnas(worksheet);
-                
-                // Finalizar y guardar el archivo
-                workbook.finish();
-                
-                JOptionPane.showMessageDialog(null, 
-                    "Excel exportado exitosamente como: " + nombreArchivo, 
-                    "Éxito", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                
+            // Evento de JFR de la exportación (sin costo si no hay grabación)
+            ExportEvent evento = new ExportEvent("xlsx", nombreArchivo);
+            evento.begin();
+            int filas = 0;
+            boolean exitosa = false;
+            
+            try {
+                // Crear el archivo Excel usando try-with-resources
+                try (FileOutputStream outputStream = new FileOutputStream(nombreArchivo);
+                     Workbook workbook = new Workbook(outputStream, "ViajesApp", "1.0")) {
+                    
+                    // Crear hoja de trabajo
+                    Worksheet worksheet = workbook.newWorksheet("Viajes");
+                    
+                    // Crear encabezados con formato
+                    crearEncabezados(worksheet);
+                    
+                    // Ajustar ancho de columnas para mejor visualización
+                    // (antes de los datos: al vaciar filas al archivo ya se escribió la cabecera de la hoja)
+                    ajustarAnchoColumnas(worksheet);
+                    
+                    // Llenar datos de los viajes
+                    filas = llenarDatos(worksheet, viajes);
+                    
+                    // Finalizar y guardar el archivo
+                    workbook.finish();
+                }
+                exitosa = true;
+            } finally {
+                evento.terminar(filas, exitosa ? Files.size(Paths.get(nombreArchivo)) : 0, exitosa);
             }
+            METRICA_EXPORTACION.record(System.nanoTime() - inicio);
+            
+            JOptionPane.showMessageDialog(null, 
+                "Excel exportado exitosamente como: " + nombreArchivo, 
+                "Éxito", 
+                JOptionPane.INFORMATION_MESSAGE);
             
         } catch (IOException e) {
+            METRICA_EXPORTACION.recordFailure(System.nanoTime() - inicio);
             // Error de escritura de archivo
             JOptionPane.showMessageDialog(null, 
                 "Error al exportar Excel: " + e.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
         } catch (Exception e) {
+            METRICA_EXPORTACION.recordFailure(System.nanoTime() - inicio);
             // Cualquier otro error inesperado
             JOptionPane.showMessageDialog(null, 
                 "Error inesperado al exportar Excel: " + e.getMessage(), 
@@ -126,11 +163,16 @@ public class ExcelExporter {
     /**
      * Llena los datos de los viajes en el Excel.
      * Maneja valores null de forma segura reemplazándolos por cadenas vacías.
+     * Cada FILAS_POR_FLUSH filas se escriben al archivo para no acumular
+     * toda la hoja en memoria.
+     * Visible en el paquete para ExcelExportBenchmark (bench/src).
+     * 
+     * @return Número de viajes escritos
      */
-    private void llenarDatos(Worksheet worksheet, List<Viaje> viajes) {
-        for (int i = 0; i < viajes.size(); i++) {
-            Viaje viaje = viajes.get(i);
-            int fila = i + 1; // +1 porque la fila 0 son los encabezados
+    int llenarDatos(Worksheet worksheet, Iterator<Viaje> viajes) throws IOException {
+        int fila = 1; // La fila 0 son los encabezados
+        while (viajes.hasNext()) {
+            Viaje viaje = viajes.next();
             
             // Llenar cada columna con verificación de valores null
             worksheet.value(fila, 0, viaje.getId());
@@ -139,7 +181,13 @@ public class ExcelExporter {
             worksheet.value(fila, 3, viaje.getFechaSalida() != null ? dateFormat.format(viaje.getFechaSalida()) : "");
             worksheet.value(fila, 4, viaje.getFechaLlegada() != null ? dateFormat.format(viaje.getFechaLlegada()) : "");
             worksheet.value(fila, 5, viaje.getEstado() != null ? viaje.getEstado() : "");
+            
+            if (fila % FILAS_POR_FLUSH == 0) {
+                worksheet.flush();
+            }
+            fila++;
         }
+        return fila - 1;
     }
     
     /**
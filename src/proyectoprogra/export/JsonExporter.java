@@ -0,0 +1,75 @@
+package proyectoprogra.export;
+
+import proyectoprogra.model.Viaje;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+/**
+ * Genera el reporte de viajes en formato JSON (arreglo de objetos con id,
+ * origen, destino, fechaSalida, fechaLlegada y estado).
+ *
+ * El JSON se escribe viaje por viaje en el Writer recibido, sin armar el
+ * documento completo en memoria.
+ *
+ * No es seguro entre hilos (usa un SimpleDateFormat): crear una instancia
+ * por exportación.
+ */
+public class JsonExporter {
+
+    // Formato de las fechas del reporte
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+    // Texto de un viaje; se reutiliza entre viajes
+    private final StringBuilder registro = new StringBuilder(256);
+
+    /**
+     * Escribe los viajes como un arreglo JSON.
+     *
+     * @param viajes Viajes a exportar
+     * @param destino Donde se escribe el JSON (conviene que tenga buffer, por
+     *                ejemplo un BufferedWriter); no se cierra
+     * @throws IOException si falla la escritura
+     */
+    public void escribirViajes(List<Viaje> viajes, Writer destino) throws IOException {
+        destino.write("[\n");
+
+        for (int i = 0; i < viajes.size(); i++) {
+            Viaje viaje = viajes.get(i);
+            registro.setLength(0);
+            registro.append("  {\n");
+            registro.append("    \"id\": ").append(viaje.getId()).append(",\n");
+            registro.append("    \"origen\": \"").append(escapeJson(viaje.getOrigen())).append("\",\n");
+            registro.append("    \"destino\": \"").append(escapeJson(viaje.getDestino())).append("\",\n");
+            registro.append("    \"fechaSalida\": \"").append(dateFormat.format(viaje.getFechaSalida())).append("\",\n");
+            registro.append("    \"fechaLlegada\": \"").append(dateFormat.format(viaje.getFechaLlegada())).append("\",\n");
+            registro.append("    \"estado\": \"").append(escapeJson(viaje.getEstado())).append("\"\n");
+
+            if (i < viajes.size() - 1) {
+                registro.append("  },\n");
+            } else {
+                registro.append("  }\n");
+            }
+            destino.append(registro);
+        }
+
+        destino.write("]");
+    }
+
+    /**
+     * Escapa los caracteres especiales de un texto para incluirlo entre
+     * comillas en el JSON. Un texto null se escribe vacío.
+     */
+    static String escapeJson(String text) {
+        if (text == null) return "";
+        return text.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\b", "\\b")
+                  .replace("\f", "\\f")
+                  .replace("\n", "\\n")
+                  .replace("\r", "\\r")
+                  .replace("\t", "\\t");
+    }
+}
@@ -0,0 +1,195 @@
+package proyectoprogra.gui.components;
+
+import proyectoprogra.utils.UIConstants;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Lista de sugerencias que aparece debajo de un campo de texto mientras se
+ * escribe una ciudad.
+ *
+ * Comportamiento:
+ * - Cada cambio del texto pide las sugerencias al proveedor (por ejemplo,
+ *   ViajeManager::sugerirCiudades) y las muestra debajo del campo
+ * - Flechas arriba/abajo: mover la selección; Enter o clic: usar la
+ *   sugerencia; Escape: cerrar la lista
+ * - La lista se cierra al perder el foco, y no se abre cuando el texto se
+ *   cambia desde el código (el campo no tiene el foco)
+ * - Si la única sugerencia es el texto ya escrito, no se muestra nada
+ *
+ * El proveedor se llama en el hilo de la interfaz en cada tecla: debe
+ * responder en menos de un milisegundo y no acceder a la base de datos.
+ */
+public class AutocompletadoCiudades {
+
+    private final JTextField campo;
+    private final Function<String, List<String>> proveedor;
+
+    private final DefaultListModel<String> sugerencias = new DefaultListModel<>();
+    private final JList<String> lista = new JList<>(sugerencias);
+    private final JPopupMenu popup = new JPopupMenu();
+
+    // true mientras se escribe una sugerencia en el campo, para no volver a buscar
+    private boolean aplicando = false;
+
+    /**
+     * Agrega el autocompletado a un campo de texto.
+     *
+     * @param campo Campo donde se escribe la ciudad
+     * @param proveedor Recibe el texto escrito y retorna las sugerencias
+     * @return El autocompletado instalado
+     */
+    public static AutocompletadoCiudades instalar(JTextField campo, Function<String, List<String>> proveedor) {
+        AutocompletadoCiudades autocompletado = new AutocompletadoCiudades(campo, proveedor);
+        autocompletado.registrarEventos();
+        return autocompletado;
+    }
+
+    private AutocompletadoCiudades(JTextField campo, Function<String, List<String>> proveedor) {
+        this.campo = campo;
+        this.proveedor = proveedor;
+
+        lista.setFont(UIConstants.BODY_FONT);
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lista.setSelectionBackground(UIConstants.PRIMARY_COLOR);
+        lista.setSelectionForeground(Color.WHITE);
+        lista.setFocusable(false);
+        lista.setBorder(new EmptyBorder(4, 6, 4, 6));
+
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(UIConstants.BORDER_COLOR, 1));
+        popup.add(lista);
+    }
+
+    private void registrarEventos() {
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                actualizar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                actualizar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        campo.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        mover(1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        mover(-1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (lista.getSelectedValue() != null) {
+                            aceptar(lista.getSelectedValue());
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        campo.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+
+        lista.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int indice = lista.locationToIndex(e.getPoint());
+                if (indice >= 0) {
+                    aceptar(sugerencias.get(indice));
+                }
+            }
+        });
+    }
+
+    /**
+     * Busca las sugerencias del texto actual y muestra u oculta la lista.
+     */
+    private void actualizar() {
+        if (aplicando || !campo.isFocusOwner()) {
+            return;
+        }
+        String texto = campo.getText().trim();
+        List<String> encontradas = proveedor.apply(texto);
+
+        if (encontradas.isEmpty()
+                || (encontradas.size() == 1 && encontradas.get(0).equalsIgnoreCase(texto))) {
+            popup.setVisible(false);
+            return;
+        }
+
+        sugerencias.clear();
+        for (String sugerencia : encontradas) {
+            sugerencias.addElement(sugerencia);
+        }
+        lista.setVisibleRowCount(encontradas.size());
+        lista.clearSelection();
+
+        popup.setPopupSize(Math.max(campo.getWidth(), lista.getPreferredSize().width + 2),
+                lista.getPreferredSize().height + 2);
+        if (popup.isVisible()) {
+            popup.pack();
+        } else {
+            popup.show(campo, 0, campo.getHeight());
+        }
+    }
+
+    private void mover(int paso) {
+        int cantidad = sugerencias.size();
+        int indice = lista.getSelectedIndex() + paso;
+        if (indice < 0) {
+            indice = cantidad - 1;
+        } else if (indice >= cantidad) {
+            indice = 0;
+        }
+        lista.setSelectedIndex(indice);
+    }
+
+    private void aceptar(String ciudad) {
+        aplicando = true;
+        try {
+            campo.setText(ciudad);
+        } finally {
+            aplicando = false;
+        }
+        popup.setVisible(false);
+        campo.requestFocusInWindow();
+    }
+}
@@ -1,11 +1,16 @@
 package proyectoprogra.gui.frames;
 
+import proyectoprogra.export.JsonExporter;
+import proyectoprogra.metrics.ExportEvent;
+import proyectoprogra.metrics.TableRefreshEvent;
 import proyectoprogra.model.Viaje;
 import proyectoprogra.service.ViajeService;
+import proyectoprogra.service.ViajeServiceAsync;
 import proyectoprogra.utils.ViajeManager;
 import proyectoprogra.utils.ViajeTableModel;
 import proyectoprogra.utils.UIConstants;
 import proyectoprogra.gui.modals.MapaModal;
+import proyectoprogra.gui.components.AutocompletadoCiudades;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -22,14 +27,27 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.ComponentEvent;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.kordamp.ikonli.swing.FontIcon;
 import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
 import com.toedter.calendar.JCalendar;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Paths;
 
 public class ViajeFrame extends JFrame {
@@ -53,6 +71,8 @@ public class ViajeFrame extends JFrame {
     private JComboBox<String> estadoCombo;
     
     private JTextField searchField;
+    private JComboBox<String> rangoFechasCombo;
+    private JCheckBox busquedaAproximadaCheck;
     
     private JLabel origenErrorLabel;
     private JLabel destinoErrorLabel;
@@ -72,13 +92,62 @@ public class ViajeFrame extends JFrame {
     private JScrollPane tableScrollPane;
     
     private SimpleDateFormat dateFormat = new SimpleDateFormat(UIConstants.DEPARTURE_DATE_PLACEHOLDER);
+    
+    // Ejecuta las operaciones de base de datos fuera del EDT
+    private final ViajeServiceAsync async = new ViajeServiceAsync();
+    // Operaciones en segundo plano que todavía no terminan (para el cursor de espera)
+    private int operacionesPendientes = 0;
+    // Búsqueda en curso; se cancela si el usuario lanza otra antes de que termine
+    private CompletableFuture<?> busquedaEnCurso;
+    // Se completa cuando la tabla muestra los viajes de la carga inicial
+    private CompletableFuture<List<Viaje>> cargaInicial;
+    // Se muestra en lugar de la tabla mientras llega la carga inicial
+    private JLabel cargandoLabel;
+    // Título de la tabla; indica cuando un rango de fechas muestra solo su primera página
+    private JLabel tableTitle;
 
     public ViajeFrame() {
+        this(null);
+    }
+
+    /**
+     * Crea la ventana sin esperar a los datos: la tabla se muestra como
+     * "cargando" y se llena cuando termina la carga.
+     * 
+     * @param datos Carga de viajes ya iniciada en otro hilo, o null para
+     *              iniciarla desde la ventana
+     */
+    public ViajeFrame(CompletableFuture<List<Viaje>> datos) {
         initComponents();
         setupModernInterface();
         
-        ViajeManager.inicializarDesdeBaseDatos();
-        refrescarTabla();
+        mostrarCargando(true);
+        cargaInicial = new CompletableFuture<>();
+        CompletableFuture<List<Viaje>> carga = datos == null
+                ? ejecutarEnSegundoPlano(ViajeManager::obtenerTodosLosViajes, medirRefresco("carga inicial", this::terminarCargaInicial), "Error al cargar los viajes")
+                : esperarEnSegundoPlano(datos, medirRefresco("carga inicial", this::terminarCargaInicial), "Error al cargar los viajes");
+        carga.whenComplete((viajes, error) -> {
+            if (error != null) {
+                SwingUtilities.invokeLater(() -> {
+                    mostrarCargando(false);
+                    cargaInicial.completeExceptionally(error);
+                });
+            }
+        });
+    }
+    
+    private void terminarCargaInicial(List<Viaje> viajes) {
+        mostrarViajes(viajes);
+        mostrarCargando(false);
+        cargaInicial.complete(viajes);
+    }
+
+    /**
+     * @return Futuro que se completa cuando la tabla muestra la carga inicial
+     *         (o cuando esta falla)
+     */
+    public CompletableFuture<List<Viaje>> getCargaInicial() {
+        return cargaInicial;
     }
 
     private void initComponents() {
@@ -173,6 +242,7 @@ public class ViajeFrame extends JFrame {
         gbc.gridx = 1; gbc.anchor = GridBagConstraints.WEST;
         gbc.weightx = 1.0;
         origenField = createStyledTextField(UIConstants.ORIGIN_PLACEHOLDER);
+        AutocompletadoCiudades.instalar(origenField, ViajeManager::sugerirCiudades);
         panel.add(origenField, gbc);
         
         gbc.gridx = 2; gbc.weightx = 0.0;
@@ -188,6 +258,7 @@ public class ViajeFrame extends JFrame {
         gbc.gridx = 1; gbc.anchor = GridBagConstraints.WEST;
         gbc.weightx = 1.0;
         destinoField = createStyledTextField(UIConstants.DESTINATION_PLACEHOLDER);
+        AutocompletadoCiudades.instalar(destinoField, ViajeManager::sugerirCiudades);
         panel.add(destinoField, gbc);
         
         gbc.gridx = 2; gbc.weightx = 0.0;
@@ -283,7 +354,26 @@ public class ViajeFrame extends JFrame {
         searchIcon.setIconSize(16);
         searchIcon.setIconColor(Color.WHITE);
         buscarButton.setIcon(searchIcon);
-        inputButtonPanel.add(buscarButton, BorderLayout.EAST);
+        
+        // Rango de fecha de salida; se consulta en la base de datos (ViajeManager.buscarViajesEntre)
+        rangoFechasCombo = new JComboBox<>(new String[]{UIConstants.DATE_RANGE_ALL, UIConstants.DATE_RANGE_TODAY,
+            UIConstants.DATE_RANGE_WEEK, UIConstants.DATE_RANGE_MONTH});
+        rangoFechasCombo.setFont(UIConstants.BODY_FONT);
+        rangoFechasCombo.setToolTipText(UIConstants.DATE_RANGE_TOOLTIP);
+        rangoFechasCombo.setPreferredSize(new Dimension(140, 45));
+        
+        // Búsqueda tolerante a errores de escritura (ViajeManager.buscarViajesAproximado)
+        busquedaAproximadaCheck = new JCheckBox(UIConstants.FUZZY_SEARCH_LABEL);
+        busquedaAproximadaCheck.setFont(UIConstants.BODY_FONT);
+        busquedaAproximadaCheck.setBackground(Color.WHITE);
+        busquedaAproximadaCheck.setToolTipText(UIConstants.FUZZY_SEARCH_TOOLTIP);
+        
+        JPanel filtroButtonPanel = new JPanel(new BorderLayout(UIConstants.SMALL_PADDING, 0));
+        filtroButtonPanel.setBackground(Color.WHITE);
+        filtroButtonPanel.add(busquedaAproximadaCheck, BorderLayout.WEST);
+        filtroButtonPanel.add(rangoFechasCombo, BorderLayout.CENTER);
+        filtroButtonPanel.add(buscarButton, BorderLayout.EAST);
+        inputButtonPanel.add(filtroButtonPanel, BorderLayout.EAST);
         
         panel.add(labelPanel, BorderLayout.NORTH);
         panel.add(inputButtonPanel, BorderLayout.CENTER);
@@ -305,7 +395,7 @@ public class ViajeFrame extends JFrame {
         topPanel.setBackground(UIConstants.BACKGROUND_COLOR);
         topPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 15, 0));
         
-        JLabel tableTitle = new JLabel(UIConstants.TRIPS_TABLE_LABEL);
+        tableTitle = new JLabel(UIConstants.TRIPS_TABLE_LABEL);
         tableTitle.setFont(UIConstants.HEADER_FONT);
         tableTitle.setForeground(UIConstants.PRIMARY_COLOR);
         
@@ -375,6 +465,10 @@ public class ViajeFrame extends JFrame {
         viajesTable.getTableHeader().setPreferredSize(new Dimension(0, 35));
         
         
+        cargandoLabel = new JLabel(UIConstants.LOADING_TRIPS_TEXT, JLabel.CENTER);
+        cargandoLabel.setFont(UIConstants.BODY_FONT);
+        cargandoLabel.setForeground(UIConstants.SECONDARY_COLOR);
+        
         tableScrollPane = new JScrollPane(viajesTable);
         tableScrollPane.setPreferredSize(new Dimension(800, 300));
         tableScrollPane.setMinimumSize(new Dimension(400, 200));
@@ -504,6 +598,22 @@ public class ViajeFrame extends JFrame {
             }
         });
         
+        rangoFechasCombo.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                buscarViajes();
+            }
+        });
+        
+        busquedaAproximadaCheck.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!searchField.getText().trim().isEmpty()) {
+                    buscarViajes();
+                }
+            }
+        });
+        
         fechaSalidaButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -594,13 +704,17 @@ public class ViajeFrame extends JFrame {
         viaje.setFechaLlegada(fechaLlegadaSeleccionada);
         viaje.setEstado((String) estadoCombo.getSelectedItem());
         
-        if (ViajeManager.agregarViaje(viaje)) {
-            limpiarFormulario();
-            refrescarTabla();
-            mostrarMensaje(UIConstants.SUCCESS_ADD_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            mostrarMensaje(UIConstants.ERROR_ADD_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        agregarButton.setEnabled(false);
+        ejecutarEscrituraEnSegundoPlano(() -> ViajeManager.agregarViaje(viaje), agregado -> {
+            agregarButton.setEnabled(true);
+            if (agregado) {
+                limpiarFormulario();
+                refrescarTabla();
+                mostrarMensaje(UIConstants.SUCCESS_ADD_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                mostrarMensaje(UIConstants.ERROR_ADD_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            }
+        }, UIConstants.ERROR_ADD_TRIP);
     }
     
     private void actualizarViaje() {
@@ -617,16 +731,18 @@ public class ViajeFrame extends JFrame {
             viajeActualizado.setFechaLlegada(fechaLlegadaSeleccionada);
             viajeActualizado.setEstado((String) estadoCombo.getSelectedItem());
             
-            boolean actualizado = ViajeManager.actualizarViaje(viajeActualizado);
-            
-            if (actualizado) {
-                refrescarTabla();
-                limpiarFormulario();
-                resetearBotones();
-                mostrarMensaje(UIConstants.SUCCESS_UPDATE_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                mostrarMensaje(UIConstants.ERROR_UPDATE_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            }
+            actualizarButton.setEnabled(false);
+            ejecutarEscrituraEnSegundoPlano(() -> ViajeManager.actualizarViaje(viajeActualizado), actualizado -> {
+                actualizarButton.setEnabled(true);
+                if (actualizado) {
+                    refrescarTabla();
+                    limpiarFormulario();
+                    resetearBotones();
+                    mostrarMensaje(UIConstants.SUCCESS_UPDATE_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    mostrarMensaje(UIConstants.ERROR_UPDATE_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                }
+            }, UIConstants.ERROR_UPDATE_TRIP);
         } catch (Exception e) {
             mostrarMensaje(UIConstants.ERROR_UPDATE_TRIP + ": " + e.getMessage(), UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
         }
@@ -691,22 +807,118 @@ public class ViajeFrame extends JFrame {
     
     private void buscarViajes() {
         String busqueda = searchField.getText().trim();
-        List<Viaje> resultados;
         
-        if (busqueda.isEmpty()) {
-            resultados = ViajeManager.obtenerTodosLosViajes();
+        // Una búsqueda nueva reemplaza a la anterior si todavía no terminó:
+        // la anterior sigue en segundo plano, pero su resultado se descarta
+        if (busquedaEnCurso != null) {
+            busquedaEnCurso.cancel(false);
+        }
+        
+        Date[] rango = rangoSeleccionado();
+        boolean aproximada = busquedaAproximadaCheck.isSelected();
+        // Total del rango cuando solo se trae su primera página (-1 si no aplica)
+        int[] totalRango = {-1};
+        Supplier<List<Viaje>> tarea;
+        if (rango != null) {
+            tarea = () -> {
+                List<Viaje> encontrados = ViajeManager.buscarViajesEntre(rango[0], rango[1], busqueda, aproximada);
+                if (busqueda.isEmpty() && encontrados.size() >= ViajeManager.LIMITE_RANGO) {
+                    totalRango[0] = ViajeManager.contarViajesEntre(rango[0], rango[1]);
+                }
+                return encontrados;
+            };
+        } else if (busqueda.isEmpty()) {
+            tarea = ViajeManager::obtenerTodosLosViajes;
+        } else if (aproximada) {
+            tarea = () -> ViajeManager.buscarViajesAproximado(busqueda);
         } else {
-            resultados = ViajeManager.buscarViajes(busqueda);
+            tarea = () -> ViajeManager.buscarViajes(busqueda);
         }
         
-        tableModel.setViajes(resultados);
+        busquedaEnCurso = ejecutarEnSegundoPlano(tarea,
+                medirRefresco(rango != null ? "rango" : "busqueda", resultados -> {
+                    tableModel.setViajes(resultados);
+                    actualizarTituloTabla(resultados.size(), totalRango[0]);
+                }),
+                "Error al buscar viajes");
+    }
+    
+    /**
+     * Calcula el rango de fechas de salida elegido en rangoFechasCombo.
+     * La semana empieza en el primer día de la semana del idioma del sistema.
+     *
+     * @return {desde (inclusive), hasta (exclusive)}, o null si se eligió "Todos"
+     */
+    private Date[] rangoSeleccionado() {
+        Object opcion = rangoFechasCombo.getSelectedItem();
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde;
+        LocalDate hasta;
+        if (UIConstants.DATE_RANGE_TODAY.equals(opcion)) {
+            desde = hoy;
+            hasta = hoy.plusDays(1);
+        } else if (UIConstants.DATE_RANGE_WEEK.equals(opcion)) {
+            desde = hoy.with(TemporalAdjusters.previousOrSame(WeekFields.of(Locale.getDefault()).getFirstDayOfWeek()));
+            hasta = desde.plusWeeks(1);
+        } else if (UIConstants.DATE_RANGE_MONTH.equals(opcion)) {
+            desde = hoy.withDayOfMonth(1);
+            hasta = desde.plusMonths(1);
+        } else {
+            return null;
+        }
+        ZoneId zona = ZoneId.systemDefault();
+        return new Date[]{Date.from(desde.atStartOfDay(zona).toInstant()), Date.from(hasta.atStartOfDay(zona).toInstant())};
     }
     
     private void refrescarTabla() {
-        ViajeManager.inicializarDesdeBaseDatos();
-        tableModel.refrescarTabla();
         searchField.setText("");
         
+        // Con un rango de fechas elegido, refrescar vuelve a consultar ese rango
+        if (rangoSeleccionado() != null) {
+            buscarViajes();
+            return;
+        }
+        
+        // Sincroniza solo los cambios desde la última carga (fuera del EDT) y redibuja la tabla
+        ejecutarEnSegundoPlano(ViajeManager::obtenerTodosLosViajes, medirRefresco("refrescar", this::mostrarViajes),
+                "Error al cargar los viajes");
+    }
+    
+    /**
+     * Mide una actualización de la tabla con un TableRefreshEvent de JFR:
+     * desde ahora (cuando se pide, en el EDT) hasta que mostrar termina con
+     * el resultado. Si la operación falla o se cancela, el evento no se
+     * registra.
+     * 
+     * @param motivo Qué pidió la actualización
+     * @param mostrar Acción que muestra los viajes en la tabla
+     * @return mostrar, cerrando el evento al terminar
+     */
+    private Consumer<List<Viaje>> medirRefresco(String motivo, Consumer<List<Viaje>> mostrar) {
+        TableRefreshEvent evento = new TableRefreshEvent(motivo);
+        evento.begin();
+        return viajes -> {
+            mostrar.accept(viajes);
+            evento.terminar(viajes.size());
+        };
+    }
+    
+    /**
+     * Muestra en el título de la tabla si se ve solo una parte de los viajes.
+     * 
+     * @param mostrados Viajes en la tabla
+     * @param total Viajes que coinciden en total, o -1 si se muestran todos
+     */
+    private void actualizarTituloTabla(int mostrados, int total) {
+        tableTitle.setText(total > mostrados
+                ? String.format(UIConstants.TRIPS_TABLE_PARTIAL_LABEL, mostrados, total)
+                : UIConstants.TRIPS_TABLE_LABEL);
+    }
+    
+    private void mostrarViajes(List<Viaje> viajes) {
+        tableModel.setViajes(viajes);
+        actualizarTituloTabla(viajes.size(), -1);
+        
         viajesTable.revalidate();
         viajesTable.repaint();
         
@@ -716,6 +928,85 @@ public class ViajeFrame extends JFrame {
         }
     }
     
+    /**
+     * Muestra u oculta el aviso de carga en lugar de la tabla.
+     */
+    private void mostrarCargando(boolean cargando) {
+        tableScrollPane.setViewportView(cargando ? cargandoLabel : viajesTable);
+        tableScrollPane.revalidate();
+        tableScrollPane.repaint();
+    }
+    
+    /**
+     * Ejecuta una operación de datos en segundo plano (ViajeServiceAsync) y
+     * procesa su resultado en el EDT, para que la ventana no se congele
+     * mientras se espera a la base de datos.
+     * 
+     * Mientras haya operaciones pendientes se muestra el cursor de espera.
+     * Si la operación falla o se agota su tiempo máximo se muestra un error;
+     * si se cancela, no se muestra nada.
+     * 
+     * @param tarea Operación a ejecutar fuera del EDT
+     * @param alTerminar Acción a ejecutar en el EDT con el resultado
+     * @param mensajeError Mensaje a mostrar si la operación falla
+     * @return Futuro de la operación (puede cancelarse)
+     */
+    private <T> CompletableFuture<T> ejecutarEnSegundoPlano(Supplier<T> tarea, Consumer<T> alTerminar, String mensajeError) {
+        return esperarEnSegundoPlano(async.submit(tarea), alTerminar, mensajeError);
+    }
+    
+    /**
+     * Igual que ejecutarEnSegundoPlano, para una operación que modifica datos:
+     * no tiene tiempo máximo, para no reportar como fallida una escritura que
+     * la base de datos todavía puede confirmar.
+     * 
+     * @param tarea Operación a ejecutar fuera del EDT
+     * @param alTerminar Acción a ejecutar en el EDT con el resultado
+     * @param mensajeError Mensaje a mostrar si la operación falla
+     * @return Futuro de la operación
+     */
+    private <T> CompletableFuture<T> ejecutarEscrituraEnSegundoPlano(Supplier<T> tarea, Consumer<T> alTerminar, String mensajeError) {
+        return esperarEnSegundoPlano(async.submitEscritura(tarea), alTerminar, mensajeError);
+    }
+    
+    /**
+     * Igual que ejecutarEnSegundoPlano, para una operación ya iniciada en otro hilo.
+     * 
+     * @param operacion Operación en curso
+     * @param alTerminar Acción a ejecutar en el EDT con el resultado
+     * @param mensajeError Mensaje a mostrar si la operación falla
+     * @return Futuro que se completa en el EDT
+     */
+    private <T> CompletableFuture<T> esperarEnSegundoPlano(CompletableFuture<T> operacion, Consumer<T> alTerminar, String mensajeError) {
+        operacionesPendientes++;
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        CompletableFuture<T> futuro = ViajeServiceAsync.enEdt(operacion);
+        futuro.whenComplete((resultado, error) -> {
+            // Una cancelación completa el futuro de inmediato, fuera del EDT
+            SwingUtilities.invokeLater(() -> {
+                if (--operacionesPendientes == 0) {
+                    setCursor(Cursor.getDefaultCursor());
+                }
+            });
+            if (futuro.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                Throwable causa = ViajeServiceAsync.causa(error);
+                String detalle = causa instanceof TimeoutException
+                        ? "la base de datos no respondió a tiempo"
+                        : causa.getMessage();
+                mostrarMensaje(mensajeError + ": " + detalle, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                agregarButton.setEnabled(true);
+                actualizarButton.setEnabled(true);
+                return;
+            }
+            alTerminar.accept(resultado);
+        });
+        return futuro;
+    }
+    
     private void mostrarMensaje(String mensaje, String titulo, int tipo) {
         JOptionPane.showMessageDialog(this, mensaje, titulo, tipo);
     }
@@ -1200,30 +1491,42 @@ public class ViajeFrame extends JFrame {
     
     private void editarViaje(int row) {
         int modelRow = viajesTable.convertRowIndexToModel(row);
+        Viaje fila = tableModel.getViajeAt(modelRow);
+        if (fila == null) {
+            return;
+        }
         
-        Viaje viaje = ViajeManager.obtenerViaje(modelRow);
-        if (viaje != null) {
-            viajeEditando = viaje.getId();
-            
-            origenField.setText(viaje.getOrigen());
-            destinoField.setText(viaje.getDestino());
-            
-            fechaSalidaSeleccionada = viaje.getFechaSalida();
-            fechaLlegadaSeleccionada = viaje.getFechaLlegada();
-            
-            SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-            fechaSalidaField.setText(formatter.format(viaje.getFechaSalida()));
-            fechaLlegadaField.setText(formatter.format(viaje.getFechaLlegada()));
-            
-            estadoCombo.setSelectedItem(viaje.getEstado());
-            
-            agregarButton.setVisible(false);
-            actualizarButton.setVisible(true);
+        // Datos más recientes del cache; si el viaje todavía no está en el cache, los de la fila
+        Viaje viaje = ViajeManager.obtenerViajePorId(fila.getId());
+        if (viaje == null) {
+            viaje = fila;
         }
+        
+        viajeEditando = viaje.getId();
+        
+        origenField.setText(viaje.getOrigen());
+        destinoField.setText(viaje.getDestino());
+        
+        fechaSalidaSeleccionada = viaje.getFechaSalida();
+        fechaLlegadaSeleccionada = viaje.getFechaLlegada();
+        
+        SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+        fechaSalidaField.setText(formatter.format(viaje.getFechaSalida()));
+        fechaLlegadaField.setText(formatter.format(viaje.getFechaLlegada()));
+        
+        estadoCombo.setSelectedItem(viaje.getEstado());
+        
+        agregarButton.setVisible(false);
+        actualizarButton.setVisible(true);
     }
     
     private void eliminarViaje(int row) {
         int modelRow = viajesTable.convertRowIndexToModel(row);
+        Viaje viaje = tableModel.getViajeAt(modelRow);
+        if (viaje == null) {
+            return;
+        }
+        int id = viaje.getId();
         
         int confirmacion = JOptionPane.showOptionDialog(
             this,
@@ -1237,74 +1540,62 @@ public class ViajeFrame extends JFrame {
         );
         
         if (confirmacion == 0) {
-            if (ViajeManager.eliminarViaje(modelRow)) {
-                refrescarTabla();
-                mostrarMensaje(UIConstants.SUCCESS_DELETE_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                mostrarMensaje(UIConstants.ERROR_DELETE_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            }
+            ejecutarEscrituraEnSegundoPlano(() -> ViajeManager.eliminarViajePorId(id), eliminado -> {
+                if (eliminado) {
+                    refrescarTabla();
+                    mostrarMensaje(UIConstants.SUCCESS_DELETE_TRIP, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    mostrarMensaje(UIConstants.ERROR_DELETE_TRIP, UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                }
+            }, UIConstants.ERROR_DELETE_TRIP);
         }
     }
     
     private void descargarJSON() {
-        try {
-            List<Viaje> viajes = ViajeManager.obtenerTodosLosViajes();
-            
-            if (viajes.isEmpty()) {
+        // La carga, el formato y la escritura del archivo se hacen fuera del EDT;
+        // en el EDT solo se muestra el resultado
+        ejecutarEscrituraEnSegundoPlano(this::escribirJSON, filePath -> {
+            if (filePath == null) {
                 mostrarMensaje("No hay viajes para exportar", UIConstants.ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            SimpleDateFormat timestampFormat = new SimpleDateFormat("ddMMyyyy_HHmmss");
-            String timestamp = timestampFormat.format(new Date());
-            String fileName = "ReporteViajes_" + timestamp + ".json";
-            
-            StringBuilder json = new StringBuilder();
-            json.append("[\n");
-            
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-            
-            for (int i = 0; i < viajes.size(); i++) {
-                Viaje viaje = viajes.get(i);
-                json.append("  {\n");
-                json.append("    \"id\": ").append(viaje.getId()).append(",\n");
-                json.append("    \"origen\": \"").append(escapeJson(viaje.getOrigen())).append("\",\n");
-                json.append("    \"destino\": \"").append(escapeJson(viaje.getDestino())).append("\",\n");
-                json.append("    \"fechaSalida\": \"").append(dateFormat.format(viaje.getFechaSalida())).append("\",\n");
-                json.append("    \"fechaLlegada\": \"").append(dateFormat.format(viaje.getFechaLlegada())).append("\",\n");
-                json.append("    \"estado\": \"").append(escapeJson(viaje.getEstado())).append("\"\n");
-                
-                if (i < viajes.size() - 1) {
-                    json.append("  },\n");
-                } else {
-                    json.append("  }\n");
-                }
-            }
-            
-            json.append("]");
-            
-            String userHome = System.getProperty("user.home");
-            String filePath = Paths.get(userHome, "Downloads", fileName).toString();
-            
-            try (FileWriter writer = new FileWriter(filePath)) {
-                writer.write(json.toString());
+            } else {
                 mostrarMensaje("Archivo JSON generado exitosamente:\n" + filePath, UIConstants.SUCCESS_TITLE, JOptionPane.INFORMATION_MESSAGE);
             }
-            
-        } catch (IOException e) {
-            mostrarMensaje("Error al generar el archivo JSON: " + e.getMessage(), UIConstants.ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        }, "Error al generar el archivo JSON");
     }
     
-    private String escapeJson(String text) {
-        if (text == null) return "";
-        return text.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\b", "\\b")
-                  .replace("\f", "\\f")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    /**
+     * Escribe todos los viajes en un archivo JSON en la carpeta Descargas.
+     * Se ejecuta en segundo plano.
+     * 
+     * @return Ruta del archivo generado, o null si no hay viajes para exportar
+     * @throws UncheckedIOException si no se puede escribir el archivo
+     */
+    private String escribirJSON() {
+        List<Viaje> viajes = ViajeManager.obtenerTodosLosViajes();
+        if (viajes.isEmpty()) {
+            return null;
+        }
+        
+        SimpleDateFormat timestampFormat = new SimpleDateFormat("ddMMyyyy_HHmmss");
+        String timestamp = timestampFormat.format(new Date());
+        String fileName = "ReporteViajes_" + timestamp + ".json";
+        String userHome = System.getProperty("user.home");
+        String filePath = Paths.get(userHome, "Downloads", fileName).toString();
+        
+        // Evento de JFR de la exportación (sin costo si no hay grabación)
+        ExportEvent evento = new ExportEvent("json", filePath);
+        evento.begin();
+        
+        boolean exitosa = false;
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath))) {
+            new JsonExporter().escribirViajes(viajes, writer);
+            exitosa = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        } finally {
+            evento.terminar(viajes.size(), exitosa ? new File(filePath).length() : 0, exitosa);
+        }
+        return filePath;
     }
     
     /**
@@ -5,6 +5,8 @@ import org.openstreetmap.gui.jmapviewer.Coordinate;
 import org.openstreetmap.gui.jmapviewer.MapMarkerDot;
 import org.openstreetmap.gui.jmapviewer.MapPolygonImpl;
 import org.openstreetmap.gui.jmapviewer.tilesources.OsmTileSource;
+import proyectoprogra.metrics.GeocodingEvent;
+import proyectoprogra.metrics.MetricsRegistry;
 import proyectoprogra.model.Viaje;
 
 import javax.swing.*;
@@ -69,7 +71,28 @@ public class MapaModal extends JDialog {
         setLocationRelativeTo(parent);
     }
 
+    /**
+     * Obtiene las coordenadas de una ciudad con Nominatim. La duración de cada
+     * consulta se registra en la métrica MapaModal.geocodificarCiudad y, con
+     * Java Flight Recorder activo, en un GeocodingEvent.
+     */
     private Coordinate geocodificarCiudad(String nombreCiudad) throws Exception {
+        GeocodingEvent evento = new GeocodingEvent(nombreCiudad);
+        evento.begin();
+        Coordinate coordenada = null;
+        try {
+            coordenada = MetricsRegistry.timeChecked("MapaModal.geocodificarCiudad", () -> consultarNominatim(nombreCiudad));
+            return coordenada;
+        } finally {
+            if (coordenada != null) {
+                evento.terminar(true, coordenada.getLat(), coordenada.getLon());
+            } else {
+                evento.terminar(false, 0, 0);
+            }
+        }
+    }
+
+    private Coordinate consultarNominatim(String nombreCiudad) throws Exception {
         if (nombreCiudad == null || nombreCiudad.trim().isEmpty()) {
             throw new IllegalArgumentException("Nombre de ciudad vacío");
         }
@@ -0,0 +1,276 @@
+package proyectoprogra.metrics;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Dialog;
+import java.awt.EventQueue;
+import java.awt.Frame;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.InvocationEvent;
+import javax.swing.AbstractButton;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Vigilante del Event Dispatch Thread: mide cuánto tarda cada evento de la
+ * interfaz y avisa cuando uno bloquea el EDT.
+ *
+ * Se instala como la cola de eventos del sistema (EventQueue.push), así que
+ * ve todos los eventos: clics, acciones de botones, invokeLater...
+ *
+ * Comportamiento:
+ * - La duración de cada evento se registra en la métrica EDT.dispatch
+ *   (MetricsRegistry, visible por JMX)
+ * - Un hilo de fondo revisa el evento en curso; si supera el umbral
+ *   (viajes.edt.umbralMs), captura la pila del EDT y la imprime junto con la
+ *   acción que lo originó (botón, combo, ventana...), y al terminar el evento
+ *   informa su duración total
+ * - Un diálogo modal (JOptionPane, JDialog) despacha sus eventos dentro del
+ *   evento que lo abrió; mientras el EDT espera eventos no se considera
+ *   bloqueado, y el evento que abrió el diálogo no se registra en la métrica
+ *   (su duración es el tiempo que el usuario tuvo el diálogo abierto)
+ *
+ * Ejemplo de salida:
+ * [EDT] Evento bloqueando el EDT desde hace 215 ms: botón "Exportar Excel" en "Gestión de Viajes"
+ *     at java.net.SocketInputStream.socketRead0(Native Method)
+ *     ...
+ * [EDT] botón "Exportar Excel" en "Gestión de Viajes" terminó después de 1840 ms
+ */
+public class EdtWatchdog extends EventQueue {
+
+    // Propiedad del sistema con el umbral de bloqueo en ms; 0 desactiva el vigilante
+    public static final String PROPIEDAD_UMBRAL = "viajes.edt.umbralMs";
+
+    public static final long UMBRAL_POR_DEFECTO_MS = 200;
+
+    // Nombre de la métrica con la duración de cada evento
+    public static final String METRICA = "EDT.dispatch";
+
+    // Líneas de la pila que se imprimen por bloqueo
+    private static final int MAXIMO_LINEAS_PILA = 40;
+
+    // Evento en curso en el EDT (el más interno si hay un diálogo modal abierto)
+    private static final class Despacho {
+        final AWTEvent evento;
+        final Thread hilo;
+        final Despacho anterior;
+        volatile long inicio;
+        volatile boolean reportado;
+        // true si dentro del evento se despacharon otros (diálogo modal)
+        boolean anidado;
+
+        Despacho(AWTEvent evento, Thread hilo, Despacho anterior) {
+            this.evento = evento;
+            this.hilo = hilo;
+            this.anterior = anterior;
+            this.inicio = System.nanoTime();
+        }
+    }
+
+    private static EdtWatchdog instalado;
+
+    private final long umbralNanos;
+    private final LatencyHistogram histograma = MetricsRegistry.histogram(METRICA);
+    private volatile Despacho actual;
+
+    private EdtWatchdog(long umbralMs) {
+        this.umbralNanos = umbralMs * 1_000_000L;
+        Thread vigilante = new Thread(() -> vigilar(Math.max(10, umbralMs / 4)), "vigilante-edt");
+        vigilante.setDaemon(true);
+        vigilante.start();
+    }
+
+    /**
+     * Instala el vigilante con el umbral de viajes.edt.umbralMs (por defecto
+     * UMBRAL_POR_DEFECTO_MS). Debe llamarse antes de mostrar la ventana; si ya
+     * está instalado o el umbral es 0, no hace nada.
+     */
+    public static synchronized void installFromProperties() {
+        long umbral = Long.getLong(PROPIEDAD_UMBRAL, UMBRAL_POR_DEFECTO_MS);
+        if (umbral <= 0) {
+            System.out.println("Vigilante del EDT desactivado (" + PROPIEDAD_UMBRAL + "=" + umbral + ")");
+            return;
+        }
+        install(umbral);
+    }
+
+    /**
+     * Instala el vigilante como cola de eventos del sistema.
+     *
+     * @param umbralMs Duración (ms) a partir de la cual un evento se considera un bloqueo
+     * @throws IllegalArgumentException si umbralMs no es positivo
+     */
+    public static synchronized void install(long umbralMs) {
+        if (umbralMs <= 0) {
+            throw new IllegalArgumentException("umbralMs debe ser positivo: " + umbralMs);
+        }
+        if (instalado != null) {
+            return;
+        }
+        instalado = new EdtWatchdog(umbralMs);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(instalado);
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent evento) {
+        Despacho anterior = actual;
+        if (anterior != null) {
+            anterior.anidado = true;
+        }
+        Despacho despacho = new Despacho(evento, Thread.currentThread(), anterior);
+        actual = despacho;
+        try {
+            super.dispatchEvent(evento);
+        } finally {
+            long duracion = System.nanoTime() - despacho.inicio;
+            actual = anterior;
+            if (anterior != null) {
+                // El evento que abrió el diálogo vuelve a medirse desde aquí
+                anterior.inicio = System.nanoTime();
+            }
+            if (!despacho.anidado) {
+                histograma.record(duracion);
+            }
+            if (despacho.reportado) {
+                System.err.println("[EDT] " + describir(evento) + " terminó después de "
+                        + duracion / 1_000_000 + " ms");
+            }
+        }
+    }
+
+    /**
+     * Ciclo del hilo vigilante: revisa el evento en curso cada intervaloMs.
+     */
+    private void vigilar(long intervaloMs) {
+        while (true) {
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Despacho despacho = actual;
+            if (despacho == null || despacho.reportado) {
+                continue;
+            }
+            long transcurrido = System.nanoTime() - despacho.inicio;
+            if (transcurrido < umbralNanos) {
+                continue;
+            }
+            StackTraceElement[] pila = despacho.hilo.getStackTrace();
+            // Verificar que siga siendo el mismo evento y que no esté esperando en un diálogo modal
+            if (despacho != actual || esperandoEventos(pila)) {
+                continue;
+            }
+            despacho.reportado = true;
+            reportar(despacho, transcurrido, pila);
+        }
+    }
+
+    private void reportar(Despacho despacho, long transcurrido, StackTraceElement[] pila) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[EDT] Evento bloqueando el EDT desde hace ").append(transcurrido / 1_000_000)
+                .append(" ms: ").append(describir(despacho.evento)).append('\n');
+        int lineas = Math.min(pila.length, MAXIMO_LINEAS_PILA);
+        for (int i = 0; i < lineas; i++) {
+            sb.append("    at ").append(pila[i]).append('\n');
+        }
+        if (pila.length > lineas) {
+            sb.append("    ... ").append(pila.length - lineas).append(" más\n");
+        }
+        System.err.print(sb);
+    }
+
+    /**
+     * @return true si el EDT está esperando el siguiente evento (un diálogo
+     *         modal abierto), no ejecutando código
+     */
+    private static boolean esperandoEventos(StackTraceElement[] pila) {
+        for (StackTraceElement marco : pila) {
+            if (EventQueue.class.getName().equals(marco.getClassName())) {
+                return "getNextEvent".equals(marco.getMethodName());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describe la acción que originó un evento: el componente (texto del
+     * botón, tooltip o nombre) y la ventana que lo contiene.
+     */
+    private static String describir(AWTEvent evento) {
+        Object origen = evento.getSource();
+        String accion;
+        if (evento instanceof InvocationEvent) {
+            return "invokeLater de " + claseDelRunnable(evento.paramString());
+        } else if (evento instanceof ActionEvent) {
+            accion = "acción " + describirComponente(origen);
+        } else if (evento instanceof InputEvent) {
+            accion = evento.paramString().split(",", 2)[0].toLowerCase() + " en " + describirComponente(origen);
+        } else {
+            accion = evento.getClass().getSimpleName() + " en " + describirComponente(origen);
+        }
+        String ventana = tituloVentana(origen);
+        return ventana == null ? accion : accion + " en \"" + ventana + "\"";
+    }
+
+    /**
+     * Extrae la clase del Runnable de un InvocationEvent (no tiene un método
+     * público para obtenerlo): "runnable=ViajeFrame$$Lambda$72/0x...@1a2b" ->
+     * "ViajeFrame (lambda)".
+     */
+    private static String claseDelRunnable(String parametros) {
+        int inicio = parametros.indexOf("runnable=");
+        if (inicio < 0) {
+            return parametros;
+        }
+        inicio += "runnable=".length();
+        int fin = parametros.indexOf(',', inicio);
+        String runnable = parametros.substring(inicio, fin < 0 ? parametros.length() : fin);
+        int arroba = runnable.indexOf('@');
+        if (arroba >= 0) {
+            runnable = runnable.substring(0, arroba);
+        }
+        int lambda = runnable.indexOf("$$Lambda");
+        return lambda >= 0 ? runnable.substring(0, lambda) + " (lambda)" : runnable;
+    }
+
+    private static String describirComponente(Object origen) {
+        if (origen instanceof AbstractButton) {
+            AbstractButton boton = (AbstractButton) origen;
+            String texto = boton.getText();
+            if (texto == null || texto.isEmpty()) {
+                texto = boton.getToolTipText();
+            }
+            if (texto != null && !texto.isEmpty()) {
+                return "botón \"" + texto + "\"";
+            }
+        }
+        if (origen instanceof Component) {
+            Component componente = (Component) origen;
+            String nombre = componente.getName();
+            if ((nombre == null || nombre.isEmpty()) && componente instanceof JComponent) {
+                nombre = ((JComponent) componente).getToolTipText();
+            }
+            String tipo = componente.getClass().getSimpleName();
+            return nombre == null || nombre.isEmpty() ? tipo : tipo + " \"" + nombre + "\"";
+        }
+        return String.valueOf(origen);
+    }
+
+    private static String tituloVentana(Object origen) {
+        if (!(origen instanceof Component)) {
+            return null;
+        }
+        Window ventana = origen instanceof Window ? (Window) origen : SwingUtilities.getWindowAncestor((Component) origen);
+        if (ventana instanceof Frame) {
+            return ((Frame) ventana).getTitle();
+        }
+        if (ventana instanceof Dialog) {
+            return ((Dialog) ventana).getTitle();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package proyectoprogra.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder para cada exportación de viajes.
+ *
+ * Uso (el evento no cuesta nada si JFR está apagado):
+ * ExportEvent evento = new ExportEvent("xlsx", archivo);
+ * evento.begin();
+ * ... escribir ...
+ * evento.terminar(filas, bytes, true);
+ */
+@Name("proyectoprogra.Exportacion")
+@Label("Exportación de viajes")
+@Category({"ProyectoProgra", "Exportación"})
+@Description("Exportación de viajes a un archivo, con filas y tamaño")
+@StackTrace(false)
+public class ExportEvent extends Event {
+
+    @Label("Formato")
+    String formato;
+
+    @Label("Archivo")
+    String archivo;
+
+    @Label("Filas")
+    long filas;
+
+    @Label("Tamaño")
+    @DataAmount
+    long bytes;
+
+    @Label("Exitosa")
+    boolean exitosa;
+
+    /**
+     * @param formato Formato del archivo ("xlsx", "json")
+     * @param archivo Ruta del archivo generado
+     */
+    public ExportEvent(String formato, String archivo) {
+        this.formato = formato;
+        this.archivo = archivo;
+    }
+
+    /**
+     * Cierra el evento y lo registra si la grabación lo pide.
+     *
+     * @param filas Viajes escritos
+     * @param bytes Tamaño del archivo (0 si no se conoce)
+     * @param exitosa true si el archivo se generó completo
+     */
+    public void terminar(long filas, long bytes, boolean exitosa) {
+        end();
+        if (shouldCommit()) {
+            this.filas = filas;
+            this.bytes = bytes;
+            this.exitosa = exitosa;
+            commit();
+        }
+    }
+}
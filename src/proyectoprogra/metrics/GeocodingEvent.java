@@ -0,0 +1,56 @@
+package proyectoprogra.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder para cada consulta de coordenadas de una
+ * ciudad (MapaModal, servicio Nominatim).
+ */
+@Name("proyectoprogra.Geocodificacion")
+@Label("Geocodificación de ciudad")
+@Category({"ProyectoProgra", "Red"})
+@Description("Consulta HTTP de las coordenadas de una ciudad")
+@StackTrace(false)
+public class GeocodingEvent extends Event {
+
+    @Label("Ciudad")
+    String ciudad;
+
+    @Label("Latitud")
+    double latitud;
+
+    @Label("Longitud")
+    double longitud;
+
+    @Label("Encontrada")
+    boolean encontrada;
+
+    /**
+     * @param ciudad Nombre buscado
+     */
+    public GeocodingEvent(String ciudad) {
+        this.ciudad = ciudad;
+    }
+
+    /**
+     * Cierra el evento y lo registra si la grabación lo pide.
+     *
+     * @param encontrada true si el servicio retornó coordenadas
+     * @param latitud Latitud encontrada (0 si no se encontró)
+     * @param longitud Longitud encontrada (0 si no se encontró)
+     */
+    public void terminar(boolean encontrada, double latitud, double longitud) {
+        end();
+        if (shouldCommit()) {
+            this.encontrada = encontrada;
+            this.latitud = latitud;
+            this.longitud = longitud;
+            commit();
+        }
+    }
+}
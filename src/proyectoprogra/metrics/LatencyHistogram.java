@@ -0,0 +1,209 @@
+package proyectoprogra.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueos para una operación.
+ *
+ * Los valores (ns) se agrupan en cubetas log-lineales: cada potencia de dos
+ * se divide en SUBCUBETAS partes iguales, así que un percentil se reporta
+ * con un error relativo máximo de 1/SUBCUBETAS (6,25%) en cualquier escala,
+ * de microsegundos a horas, con memoria fija (8 KB por histograma).
+ *
+ * Características:
+ * - record() solo hace incrementos atómicos (sin locks ni asignaciones), por
+ *   lo que puede llamarse desde cualquier hilo en el camino crítico
+ * - Cuenta operaciones, errores y tiempo total; guarda el máximo exacto
+ * - snapshot() calcula p50/p95/p99 recorriendo las cubetas; una instantánea
+ *   tomada mientras se registran valores puede no incluir los más recientes
+ *
+ * Se publica por JMX como LatencyHistogramMBean (ver MetricsRegistry).
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+    // Bits de precisión dentro de cada potencia de dos
+    private static final int BITS_SUBCUBETA = 4;
+
+    // Subcubetas por potencia de dos
+    public static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+
+    /**
+     * Estado del histograma en un instante.
+     *
+     * @param count Operaciones registradas
+     * @param errors Operaciones que terminaron con error (incluidas en count)
+     * @param meanNanos Latencia media
+     * @param p50Nanos Percentil 50 (mediana)
+     * @param p95Nanos Percentil 95
+     * @param p99Nanos Percentil 99
+     * @param maxNanos Latencia máxima exacta
+     */
+    public record Snapshot(long count, long errors, long meanNanos, long p50Nanos, long p95Nanos, long p99Nanos,
+                           long maxNanos) {
+    }
+
+    private final String name;
+    private final AtomicLongArray cubetas = new AtomicLongArray(64 * SUBCUBETAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * @param name Nombre de la operación (por ejemplo "ViajeService.create")
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Registra una operación exitosa.
+     *
+     * @param nanos Duración en ns (los valores negativos se registran como 0)
+     */
+    public void record(long nanos) {
+        long valor = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(valor));
+        total.add(valor);
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+     * Registra una operación que terminó con error: cuenta su duración y el error.
+     *
+     * @param nanos Duración en ns
+     */
+    public void recordFailure(long nanos) {
+        record(nanos);
+        errores.increment();
+    }
+
+    /**
+     * @return Estado actual del histograma
+     */
+    public Snapshot snapshot() {
+        long[] copia = new long[cubetas.length()];
+        long cuenta = 0;
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = cubetas.get(i);
+            cuenta += copia[i];
+        }
+        long max = maximo.get();
+        if (cuenta == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new Snapshot(cuenta, errores.sum(), total.sum() / cuenta,
+                percentil(copia, cuenta, 0.50, max), percentil(copia, cuenta, 0.95, max),
+                percentil(copia, cuenta, 0.99, max), max);
+    }
+
+    /**
+     * Vuelve el histograma a cero. Las operaciones registradas durante el
+     * reinicio pueden conservarse o perderse.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < cubetas.length(); i++) {
+            cubetas.set(i, 0);
+        }
+        total.reset();
+        errores.reset();
+        maximo.set(0);
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot().count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errores.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return millis(snapshot().meanNanos());
+    }
+
+    @Override
+    public double getP50Millis() {
+        return millis(snapshot().p50Nanos());
+    }
+
+    @Override
+    public double getP95Millis() {
+        return millis(snapshot().p95Nanos());
+    }
+
+    @Override
+    public double getP99Millis() {
+        return millis(snapshot().p99Nanos());
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return millis(maximo.get());
+    }
+
+    @Override
+    public String toString() {
+        Snapshot s = snapshot();
+        return String.format(java.util.Locale.ROOT, "%s: n=%d err=%d media=%.3f p50=%.3f p95=%.3f p99=%.3f max=%.3f ms",
+                name, s.count(), s.errors(), millis(s.meanNanos()), millis(s.p50Nanos()), millis(s.p95Nanos()),
+                millis(s.p99Nanos()), millis(s.maxNanos()));
+    }
+
+    /**
+     * Cubeta de un valor: los valores menores que SUBCUBETAS tienen cubeta
+     * propia; los demás se ubican por su potencia de dos y los
+     * BITS_SUBCUBETA bits siguientes al más significativo.
+     */
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente << BITS_SUBCUBETA) | sub;
+    }
+
+    /**
+     * @return Mayor valor que cae en la cubeta
+     */
+    static long limiteSuperior(int indice) {
+        int exponente = indice >>> BITS_SUBCUBETA;
+        if (exponente < BITS_SUBCUBETA) {
+            return indice;
+        }
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        long inferior = (long) (SUBCUBETAS | (indice & (SUBCUBETAS - 1))) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+
+    private static long percentil(long[] copia, long cuenta, double p, long max) {
+        long rango = Math.max(1, (long) Math.ceil(p * cuenta));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                // El límite de la cubeta nunca supera el máximo observado
+                return Math.min(limiteSuperior(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
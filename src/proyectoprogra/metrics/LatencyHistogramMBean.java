@@ -0,0 +1,29 @@
+package proyectoprogra.metrics;
+
+/**
+ * Interfaz JMX de LatencyHistogram: atributos de solo lectura que se ven en
+ * jconsole bajo proyectoprogra:type=Latency,name=operación.
+ *
+ * Los tiempos se reportan en milisegundos.
+ */
+public interface LatencyHistogramMBean {
+
+    long getCount();
+
+    long getErrors();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    /**
+     * Vuelve el histograma a cero (por ejemplo, antes de una prueba de carga).
+     */
+    void reset();
+}
@@ -0,0 +1,176 @@
+package proyectoprogra.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro de métricas de latencia de la aplicación.
+ *
+ * Cada operación medida tiene un LatencyHistogram que se crea en el primer
+ * uso y se publica en el servidor de MBeans de la plataforma como
+ * proyectoprogra:type=Latency,name=operación, para verlo en vivo con jconsole
+ * o VisualVM (pestaña MBeans).
+ *
+ * Operaciones medidas:
+ * - ViajeService.* : cada operación de datos del servicio
+ * - OracleConnector.getConnection : obtener una conexión del pool
+ * - ExcelExporter.exportarViajesAExcel : exportación completa (sin los diálogos)
+ * - MapaModal.geocodificarCiudad : consulta a Nominatim
+ * - EDT.dispatch : cada evento de la interfaz (ver EdtWatchdog)
+ *
+ * Ejemplo de uso:
+ * return MetricsRegistry.time("ViajeService.listAll", () -> repository.listAll());
+ *
+ * Todas las operaciones son estáticas y seguras entre hilos.
+ */
+public class MetricsRegistry {
+
+    // Dominio de los nombres JMX
+    public static final String DOMINIO_JMX = "proyectoprogra";
+
+    /**
+     * Operación medida que puede lanzar una excepción verificada.
+     */
+    @FunctionalInterface
+    public interface Operacion<T, E extends Exception> {
+        T ejecutar() throws E;
+    }
+
+    private static final Map<String, LatencyHistogram> histogramas = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Retorna el histograma de una operación, creándolo y publicándolo por JMX
+     * si todavía no existe.
+     *
+     * @param nombre Nombre de la operación ("Clase.metodo")
+     * @return Histograma de la operación
+     */
+    public static LatencyHistogram histogram(String nombre) {
+        LatencyHistogram h = histogramas.get(nombre);
+        if (h != null) {
+            return h;
+        }
+        return histogramas.computeIfAbsent(nombre, n -> {
+            LatencyHistogram nuevo = new LatencyHistogram(n);
+            publicar(nuevo);
+            return nuevo;
+        });
+    }
+
+    /**
+     * Ejecuta una operación y registra su duración; si lanza una excepción,
+     * se registra como error y la excepción se propaga.
+     *
+     * @param nombre Nombre de la operación
+     * @param operacion Trabajo a medir
+     * @return Resultado de la operación
+     */
+    public static <T> T time(String nombre, Supplier<T> operacion) {
+        LatencyHistogram h = histogram(nombre);
+        long inicio = System.nanoTime();
+        boolean ok = false;
+        try {
+            T resultado = operacion.get();
+            ok = true;
+            return resultado;
+        } finally {
+            registrar(h, inicio, ok);
+        }
+    }
+
+    /**
+     * Igual que time(String, Supplier) para operaciones sin resultado.
+     */
+    public static void time(String nombre, Runnable operacion) {
+        time(nombre, () -> {
+            operacion.run();
+            return null;
+        });
+    }
+
+    /**
+     * Igual que time(String, Supplier) para operaciones que lanzan
+     * excepciones verificadas (SQLException, IOException...).
+     */
+    public static <T, E extends Exception> T timeChecked(String nombre, Operacion<T, E> operacion) throws E {
+        LatencyHistogram h = histogram(nombre);
+        long inicio = System.nanoTime();
+        boolean ok = false;
+        try {
+            T resultado = operacion.ejecutar();
+            ok = true;
+            return resultado;
+        } finally {
+            registrar(h, inicio, ok);
+        }
+    }
+
+    /**
+     * @return Instantánea de todas las operaciones, ordenadas por nombre
+     */
+    public static Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> resultado = new TreeMap<>();
+        for (LatencyHistogram h : histogramas.values()) {
+            resultado.put(h.getName(), h.snapshot());
+        }
+        return resultado;
+    }
+
+    /**
+     * Vuelve a cero todos los histogramas.
+     */
+    public static void resetAll() {
+        for (LatencyHistogram h : histogramas.values()) {
+            h.reset();
+        }
+    }
+
+    /**
+     * @return Texto con una línea por operación, ordenadas por nombre
+     */
+    public static String report() {
+        List<LatencyHistogram> lista = new ArrayList<>(histogramas.values());
+        lista.sort((a, b) -> a.getName().compareTo(b.getName()));
+        StringBuilder sb = new StringBuilder("=== LATENCIAS ===\n");
+        for (LatencyHistogram h : lista) {
+            sb.append("  ").append(h).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void registrar(LatencyHistogram h, long inicio, boolean ok) {
+        long duracion = System.nanoTime() - inicio;
+        if (ok) {
+            h.record(duracion);
+        } else {
+            h.recordFailure(duracion);
+        }
+    }
+
+    /**
+     * Publica el histograma por JMX. Si no se puede (nombre inválido, JMX no
+     * disponible), la métrica sigue funcionando dentro del proceso.
+     */
+    private static void publicar(LatencyHistogram h) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(DOMINIO_JMX + ":type=Latency,name=" + h.getName());
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(h, nombre);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("No se pudo publicar la métrica " + h.getName() + " por JMX: " + e.getMessage());
+        }
+    }
+}
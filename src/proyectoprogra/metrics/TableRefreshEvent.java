@@ -0,0 +1,48 @@
+package proyectoprogra.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder para cada actualización de la tabla de
+ * viajes de ViajeFrame: desde que se pide (en el EDT) hasta que la tabla
+ * muestra el resultado, incluida la consulta en segundo plano.
+ */
+@Name("proyectoprogra.RefrescoTabla")
+@Label("Refresco de la tabla de viajes")
+@Category({"ProyectoProgra", "Interfaz"})
+@Description("Consulta y redibujado de la tabla de viajes")
+@StackTrace(false)
+public class TableRefreshEvent extends Event {
+
+    @Label("Motivo")
+    @Description("Carga inicial, refrescar, búsqueda o rango de fechas")
+    String motivo;
+
+    @Label("Filas")
+    long filas;
+
+    /**
+     * @param motivo Qué pidió la actualización
+     */
+    public TableRefreshEvent(String motivo) {
+        this.motivo = motivo;
+    }
+
+    /**
+     * Cierra el evento y lo registra si la grabación lo pide.
+     *
+     * @param filas Viajes mostrados en la tabla
+     */
+    public void terminar(long filas) {
+        end();
+        if (shouldCommit()) {
+            this.filas = filas;
+            commit();
+        }
+    }
+}
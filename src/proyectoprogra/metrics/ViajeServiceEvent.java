@@ -0,0 +1,138 @@
+package proyectoprogra.metrics;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
+
+/**
+ * Evento de Java Flight Recorder para cada operación de ViajeService.
+ *
+ * Registra la operación, las sentencias SQL que ejecutó el repositorio
+ * (ver sql), las filas del resultado y si terminó bien, para relacionar una
+ * operación lenta con las pausas de GC o la contención de locks de la misma
+ * grabación.
+ *
+ * Con JFR apagado, medir() solo consulta isEnabled() y ejecuta la tarea; el
+ * JIT elimina el objeto del evento, así que el costo es despreciable.
+ *
+ * Ejemplo para grabar:
+ * java -XX:StartFlightRecording=filename=viajes.jfr,settings=profile -jar ProyectoProgra.jar
+ */
+@Name("proyectoprogra.ViajeService")
+@Label("Operación de ViajeService")
+@Category({"ProyectoProgra", "Base de datos"})
+@Description("Llamada a ViajeService con su SQL y número de filas")
+@StackTrace(false)
+public class ViajeServiceEvent extends Event {
+
+    // Evento de la operación en curso en cada hilo, para anotar su SQL
+    private static final ThreadLocal<ViajeServiceEvent> ACTUAL = new ThreadLocal<>();
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("SQL")
+    @Description("Sentencias ejecutadas, separadas por punto y coma (vacío si no hay base de datos)")
+    String sql;
+
+    @Label("Filas")
+    @Description("Filas del resultado (-1 si no se conocen, como en stream)")
+    long filas;
+
+    @Label("Exitosa")
+    boolean exitosa;
+
+    /**
+     * Ejecuta una operación del servicio dentro de un evento.
+     *
+     * @param operacion Nombre de la operación ("ViajeService.listAll")
+     * @param tarea Trabajo de la operación
+     * @return Resultado de la tarea
+     */
+    public static <T> T medir(String operacion, Supplier<T> tarea) {
+        ViajeServiceEvent evento = new ViajeServiceEvent();
+        if (!evento.isEnabled()) {
+            return tarea.get();
+        }
+
+        ViajeServiceEvent anterior = ACTUAL.get();
+        ACTUAL.set(evento);
+        evento.operacion = operacion;
+        evento.begin();
+        T resultado = null;
+        boolean ok = false;
+        try {
+            resultado = tarea.get();
+            ok = true;
+            return resultado;
+        } finally {
+            evento.end();
+            if (anterior == null) {
+                ACTUAL.remove();
+            } else {
+                ACTUAL.set(anterior);
+            }
+            if (evento.shouldCommit()) {
+                evento.exitosa = ok;
+                evento.filas = ok ? filas(resultado) : 0;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Anota una sentencia en el evento de la operación en curso de este hilo.
+     * Lo llama el repositorio de Oracle al preparar cada sentencia.
+     *
+     * @param sql Sentencia a ejecutar
+     * @return La misma sentencia, para usarlo en línea: con.prepareStatement(sql(texto))
+     */
+    public static String sql(String sql) {
+        ViajeServiceEvent evento = ACTUAL.get();
+        if (evento == null) {
+            return sql;
+        }
+        if (evento.sql == null) {
+            evento.sql = sql;
+        } else if (!evento.sql.contains(sql)) {
+            // Los lotes preparan la misma sentencia por cada fila: se anota una vez
+            evento.sql = evento.sql + ";\n" + sql;
+        }
+        return sql;
+    }
+
+    /**
+     * @return Número de filas de un resultado del servicio
+     */
+    private static long filas(Object resultado) {
+        if (resultado == null) {
+            return 0;
+        }
+        if (resultado instanceof Collection) {
+            return ((Collection<?>) resultado).size();
+        }
+        if (resultado instanceof BatchResult) {
+            return ((BatchResult) resultado).getRows().size();
+        }
+        if (resultado instanceof ViajeDelta) {
+            ViajeDelta delta = (ViajeDelta) resultado;
+            return delta.getModificados().size() + delta.getEliminados().size();
+        }
+        if (resultado instanceof Viaje) {
+            return 1;
+        }
+        if (resultado instanceof Boolean) {
+            return (Boolean) resultado ? 1 : 0;
+        }
+        // Conteos (countBetween) y Streams: las filas no se leen en la operación
+        return -1;
+    }
+}
@@ -0,0 +1,98 @@
+package proyectoprogra.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalización de textos para buscar sin distinguir mayúsculas, minúsculas
+ * ni acentos: "Sololá", "SOLOLA" y "solola" tienen la misma clave.
+ *
+ * Proceso:
+ * 1. Descomposición Unicode de compatibilidad (NFKD): "á" pasa a ser "a"
+ *    seguida del acento, y las variantes de ancho completo o las ligaduras
+ *    ("ｇｕａ", "ﬁ") pasan a sus letras comunes
+ * 2. Se quitan las marcas diacríticas (acentos, diéresis, tilde de la ñ)
+ * 3. Plegado de mayúsculas independiente del idioma del sistema
+ *    (Locale.ROOT): primero a mayúsculas y luego a minúsculas, para que
+ *    "ß" y "SS" coincidan
+ *
+ * Las claves de origen y destino de cada viaje se calculan una sola vez
+ * (Viaje.getClaveOrigen/getClaveDestino) y las búsquedas las comparan con
+ * la consulta normalizada, sin crear textos por cada viaje.
+ *
+ * Es seguro entre hilos.
+ */
+public final class ClaveBusqueda {
+
+    // Cantidad máxima de textos en el cache de claves (las ciudades se repiten mucho)
+    private static final int MAX_CACHE = 10_000;
+
+    // Claves ya calculadas por texto original; los viajes de una misma ciudad comparten la clave
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private ClaveBusqueda() {
+    }
+
+    /**
+     * Normaliza un texto (por ejemplo, una consulta de búsqueda).
+     *
+     * @param texto Texto a normalizar (null se trata como vacío)
+     * @return Texto sin acentos y en minúsculas
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        if (esAsciiMinuscula(texto)) {
+            return texto;
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFKD);
+        StringBuilder sinMarcas = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            int tipo = Character.getType(c);
+            if (tipo != Character.NON_SPACING_MARK && tipo != Character.COMBINING_SPACING_MARK
+                    && tipo != Character.ENCLOSING_MARK) {
+                sinMarcas.append(c);
+            }
+        }
+        return sinMarcas.toString().toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Clave de un campo de un viaje. Igual que normalizar, pero reutiliza la
+     * clave de textos ya vistos: cargar un millón de viajes entre cincuenta
+     * ciudades calcula cincuenta claves.
+     *
+     * @param texto Texto del campo (null se trata como vacío)
+     * @return Clave del texto
+     */
+    public static String clave(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String clave = CACHE.get(texto);
+        if (clave == null) {
+            clave = normalizar(texto);
+            if (CACHE.size() < MAX_CACHE) {
+                CACHE.putIfAbsent(texto, clave);
+            }
+        }
+        return clave;
+    }
+
+    /**
+     * @return true si el texto ya está normalizado (solo ASCII sin mayúsculas)
+     */
+    private static boolean esAsciiMinuscula(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+package proyectoprogra.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cambio pendiente de guardar sobre un viaje: creación, actualización o eliminación.
+ *
+ * Se usa en la escritura diferida de ViajeManager, donde los cambios se
+ * guardan en una cola y se envían a la base de datos por lotes. Es inmutable:
+ * guarda su propia copia del viaje.
+ *
+ * Los viajes creados que todavía no llegan a la base de datos usan un ID
+ * temporal negativo, que se reemplaza por el ID real al confirmarse el lote.
+ *
+ * Cada cambio registrado tiene una clave única (UUID). Un cambio combinado
+ * conserva las claves de todos los cambios que lo forman, en orden; la base
+ * de datos guarda las claves aplicadas para que reenviar un cambio (por
+ * ejemplo, al reproducir el diario local tras una caída) no lo aplique dos veces.
+ */
+public class MutacionViaje {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        CREAR,
+        ACTUALIZAR,
+        ELIMINAR
+    }
+
+    private final Tipo tipo;
+    // ID del viaje (negativo si es temporal)
+    private final int id;
+    // Datos del viaje; null en ELIMINAR
+    private final Viaje viaje;
+    // Claves de idempotencia de los cambios que forman este, del más antiguo al más reciente
+    private final List<String> claves;
+
+    private MutacionViaje(Tipo tipo, int id, Viaje viaje, List<String> claves) {
+        this.tipo = tipo;
+        this.id = id;
+        this.viaje = viaje == null ? null : copiar(viaje, id);
+        this.claves = Collections.unmodifiableList(new ArrayList<>(claves));
+    }
+
+    /**
+     * Reconstruye un cambio con una clave ya asignada (por ejemplo, leído del diario local).
+     *
+     * @param tipo Tipo de cambio
+     * @param id ID del viaje
+     * @param viaje Datos del viaje (null en ELIMINAR)
+     * @param clave Clave de idempotencia original
+     */
+    public static MutacionViaje de(Tipo tipo, int id, Viaje viaje, String clave) {
+        return new MutacionViaje(tipo, id, viaje, List.of(clave));
+    }
+
+    /**
+     * @param idTemporal ID temporal (negativo) asignado al viaje nuevo
+     * @param viaje Datos del viaje a crear
+     */
+    public static MutacionViaje crear(int idTemporal, Viaje viaje) {
+        return new MutacionViaje(Tipo.CREAR, idTemporal, viaje, List.of(nuevaClave()));
+    }
+
+    /**
+     * @param viaje Datos actualizados del viaje (con su ID)
+     */
+    public static MutacionViaje actualizar(Viaje viaje) {
+        return new MutacionViaje(Tipo.ACTUALIZAR, viaje.getId(), viaje, List.of(nuevaClave()));
+    }
+
+    /**
+     * @param id ID del viaje a eliminar
+     */
+    public static MutacionViaje eliminar(int id) {
+        return new MutacionViaje(Tipo.ELIMINAR, id, null, List.of(nuevaClave()));
+    }
+
+    /**
+     * Combina este cambio con uno posterior sobre el mismo viaje, de modo que
+     * solo se envíe a la base de datos el efecto final.
+     *
+     * Reglas:
+     * - CREAR + ACTUALIZAR = CREAR con los datos nuevos
+     * - CREAR + ELIMINAR = ELIMINAR del ID temporal: si la creación ya se
+     *   había aplicado (según su clave) se elimina el viaje creado; si no,
+     *   no se hace nada
+     * - ACTUALIZAR + ACTUALIZAR = ACTUALIZAR con los datos nuevos
+     * - ACTUALIZAR + ELIMINAR = ELIMINAR
+     * - En cualquier otro caso prevalece el cambio posterior
+     *
+     * El resultado conserva las claves de ambos cambios.
+     *
+     * @param posterior Cambio más reciente sobre el mismo ID
+     * @return Cambio combinado
+     */
+    public MutacionViaje combinar(MutacionViaje posterior) {
+        List<String> todas = new ArrayList<>(claves);
+        todas.addAll(posterior.claves);
+        if (tipo == Tipo.CREAR && posterior.tipo == Tipo.ACTUALIZAR) {
+            return new MutacionViaje(Tipo.CREAR, id, posterior.viaje, todas);
+        }
+        return new MutacionViaje(posterior.tipo, posterior.id, posterior.viaje, todas);
+    }
+
+    /**
+     * Retorna el mismo cambio aplicado a otro ID, conservando sus claves.
+     * Se usa para pasar de un ID temporal al ID real del viaje.
+     *
+     * @param nuevoId ID real del viaje
+     */
+    public MutacionViaje conId(int nuevoId) {
+        return new MutacionViaje(tipo, nuevoId, viaje, claves);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return Copia de los datos del viaje, o null si es una eliminación
+     */
+    public Viaje getViaje() {
+        return viaje == null ? null : copiar(viaje, id);
+    }
+
+    /**
+     * @return true si el ID es temporal (viaje todavía no creado en la base de datos)
+     */
+    public boolean isTemporal() {
+        return id < 0;
+    }
+
+    /**
+     * @return Claves de idempotencia, de la más antigua a la más reciente
+     */
+    public List<String> getClaves() {
+        return claves;
+    }
+
+    /**
+     * @return Clave del primer cambio (en CREAR, la que identifica la inserción)
+     */
+    public String getClave() {
+        return claves.get(0);
+    }
+
+    @Override
+    public String toString() {
+        return "MutacionViaje{" + tipo + ", id=" + id + '}';
+    }
+
+    private static String nuevaClave() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Viaje copiar(Viaje v, int id) {
+        return new Viaje(id, v.getOrigen(), v.getDestino(),
+                v.getFechaSalida() == null ? null : new Date(v.getFechaSalida().getTime()),
+                v.getFechaLlegada() == null ? null : new Date(v.getFechaLlegada().getTime()),
+                v.getEstado());
+    }
+}
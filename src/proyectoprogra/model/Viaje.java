@@ -20,6 +20,10 @@ public class Viaje {
     private Date fechaLlegada;
     // Estado actual del viaje
     private String estado;
+    // Claves de búsqueda de origen y destino (ver ClaveBusqueda); se calculan
+    // la primera vez que se piden y se descartan al cambiar el campo
+    private String claveOrigen;
+    private String claveDestino;
 
     // Estados posibles de un viaje
     public static final String ESTADO_EN_CURSO = "En curso";
@@ -53,6 +57,7 @@ public class Viaje {
 
     public void setOrigen(String origen) {
         this.origen = origen;
+        this.claveOrigen = null;
     }
 
     public String getDestino() {
@@ -61,6 +66,7 @@ public class Viaje {
 
     public void setDestino(String destino) {
         this.destino = destino;
+        this.claveDestino = null;
     }
 
     public Date getFechaSalida() {
@@ -87,6 +93,27 @@ public class Viaje {
         this.estado = estado;
     }
 
+    // Claves de búsqueda: origen y destino sin acentos y en minúsculas.
+    // Pueden calcularse desde varios hilos a la vez: todos obtienen la misma
+    // clave, y un String inmutable se publica de forma segura sin sincronizar
+    public String getClaveOrigen() {
+        String clave = claveOrigen;
+        if (clave == null) {
+            clave = ClaveBusqueda.clave(origen);
+            claveOrigen = clave;
+        }
+        return clave;
+    }
+
+    public String getClaveDestino() {
+        String clave = claveDestino;
+        if (clave == null) {
+            clave = ClaveBusqueda.clave(destino);
+            claveDestino = clave;
+        }
+        return clave;
+    }
+
     // Métodos Object
     
     // Dos viajes son iguales si tienen el mismo ID
@@ -0,0 +1,393 @@
+package proyectoprogra.repository;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
+
+/**
+ * Repositorio que agrega un cache de lectura a getById sobre otro repositorio.
+ *
+ * Características:
+ * - Capacidad máxima: al llenarse se descarta el viaje usado hace más tiempo (LRU)
+ * - Tiempo de vida: una entrada vencida se vuelve a leer del repositorio, lo
+ *   que limita cuánto tiempo se ven cambios hechos por otras aplicaciones
+ * - create y update guardan en el cache la fila retornada (update solo si
+ *   no hubo otra escritura mientras se ejecutaba); delete y los lotes de
+ *   update/delete invalidan los IDs afectados
+ * - listChangesSince invalida los viajes modificados o eliminados por otros clientes
+ * - archiveBefore invalida los viajes movidos al historial (el historial no se cachea)
+ * - Cuenta aciertos, fallos, descartes y vencimientos (ver getStats)
+ *
+ * El cache guarda copias: modificar un viaje retornado no altera el cache.
+ */
+public class CachingViajeRepository implements ViajeRepository {
+
+    // Capacidad por defecto del cache (número de viajes)
+    public static final int DEFAULT_CAPACIDAD = 1_000;
+
+    // Tiempo de vida por defecto de una entrada (ms)
+    public static final long DEFAULT_TTL_MS = 60_000;
+
+    /**
+     * Estadísticas del cache.
+     *
+     * @param hits Lecturas resueltas desde el cache
+     * @param misses Lecturas que tuvieron que ir al repositorio
+     * @param evictions Entradas descartadas por falta de espacio
+     * @param expirations Entradas descartadas por vencimiento
+     * @param size Entradas actuales
+     * @param capacity Capacidad máxima
+     */
+    public record CacheStats(long hits, long misses, long evictions, long expirations, int size, int capacity) {
+
+        /**
+         * @return Proporción de lecturas resueltas desde el cache (0 a 1)
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Entrada del cache: copia del viaje y momento de vencimiento (System.nanoTime).
+     */
+    private record Entrada(Viaje viaje, long vence) {
+    }
+
+    private final ViajeRepository delegate;
+    private final int capacidad;
+    private final long ttlNanos;
+
+    // Orden de acceso (true) para que la primera entrada sea la menos usada
+    private final LinkedHashMap<Integer, Entrada> entradas;
+
+    // Se incrementa en cada escritura; una lectura que empezó antes de una
+    // escritura no guarda su resultado, para no reinstalar un valor viejo
+    private long generacion = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Crea el cache con la capacidad y el tiempo de vida por defecto.
+     *
+     * @param delegate Repositorio con los datos
+     */
+    public CachingViajeRepository(ViajeRepository delegate) {
+        this(delegate, DEFAULT_CAPACIDAD, DEFAULT_TTL_MS);
+    }
+
+    /**
+     * @param delegate Repositorio con los datos
+     * @param capacidad Número máximo de viajes en el cache (positivo)
+     * @param ttlMillis Tiempo de vida de cada entrada en ms (positivo)
+     * @throws IllegalArgumentException si algún parámetro es inválido
+     */
+    public CachingViajeRepository(ViajeRepository delegate, int capacidad, long ttlMillis) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate no puede ser null");
+        }
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("capacidad debe ser positiva: " + capacidad);
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis debe ser positivo: " + ttlMillis);
+        }
+        this.delegate = delegate;
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada> eldest) {
+                if (size() > CachingViajeRepository.this.capacidad) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return Repositorio que contiene los datos
+     */
+    public ViajeRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Viaje getById(int id) {
+        long generacionLectura;
+        synchronized (this) {
+            Entrada entrada = entradas.get(id);
+            if (entrada != null) {
+                if (System.nanoTime() - entrada.vence() < 0) {
+                    hits.incrementAndGet();
+                    return copiar(entrada.viaje());
+                }
+                entradas.remove(id);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            generacionLectura = generacion;
+        }
+
+        // La lectura al repositorio se hace fuera del bloqueo
+        Viaje v = delegate.getById(id);
+
+        if (v != null) {
+            synchronized (this) {
+                if (generacion == generacionLectura) {
+                    guardar(v);
+                }
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public Viaje create(Viaje v) {
+        Viaje creado = delegate.create(v);
+        synchronized (this) {
+            generacion++;
+            guardar(creado);
+        }
+        return creado;
+    }
+
+    @Override
+    public Viaje update(Viaje v) {
+        // Invalidar antes de escribir: las lecturas en curso no guardan la versión anterior
+        long generacionEscritura = invalidar(v.getId());
+        Viaje actualizado = null;
+        try {
+            actualizado = delegate.update(v);
+        } finally {
+            synchronized (this) {
+                // Si hubo otra escritura mientras tanto (otro update, un delete),
+                // no se sabe cuál versión es la última: solo se invalida
+                if (actualizado != null && generacion == generacionEscritura) {
+                    guardar(actualizado);
+                } else {
+                    entradas.remove(v.getId());
+                }
+                generacion++;
+            }
+        }
+        return actualizado;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidar(id);
+        }
+    }
+
+    @Override
+    public BatchResult createAll(List<Viaje> viajes) {
+        // Los viajes nuevos no pueden estar en el cache
+        return delegate.createAll(viajes);
+    }
+
+    @Override
+    public BatchResult updateAll(List<Viaje> viajes) {
+        try {
+            return delegate.updateAll(viajes);
+        } finally {
+            synchronized (this) {
+                generacion++;
+                for (Viaje v : viajes) {
+                    entradas.remove(v.getId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            synchronized (this) {
+                generacion++;
+                for (int id : ids) {
+                    entradas.remove(id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public BatchResult applyMutations(List<MutacionViaje> mutaciones) {
+        BatchResult resultado = null;
+        try {
+            resultado = delegate.applyMutations(mutaciones);
+            return resultado;
+        } finally {
+            synchronized (this) {
+                generacion++;
+                for (MutacionViaje m : mutaciones) {
+                    entradas.remove(m.getId());
+                }
+                if (resultado != null) {
+                    // Los cambios sobre IDs temporales afectan al ID real retornado
+                    for (BatchResult.RowResult fila : resultado.getRows()) {
+                        entradas.remove(fila.id());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> archiveBefore(Date limite, int limit) {
+        List<Integer> archivados = delegate.archiveBefore(limite, limit);
+        synchronized (this) {
+            generacion++;
+            for (int id : archivados) {
+                entradas.remove(id);
+            }
+        }
+        return archivados;
+    }
+
+    @Override
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado, int afterId, int limit) {
+        return delegate.listBetween(desde, hasta, estado, afterId, limit);
+    }
+
+    @Override
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado) {
+        return delegate.listBetween(desde, hasta, estado);
+    }
+
+    @Override
+    public int countBetween(Date desde, Date hasta, String estado) {
+        return delegate.countBetween(desde, hasta, estado);
+    }
+
+    @Override
+    public List<Viaje> listHistory() {
+        return delegate.listHistory();
+    }
+
+    @Override
+    public List<Viaje> searchHistory(String query, int limit) {
+        return delegate.searchHistory(query, limit);
+    }
+
+    @Override
+    public ViajeDelta listChangesSince(Timestamp desde) {
+        ViajeDelta delta = delegate.listChangesSince(desde);
+        synchronized (this) {
+            generacion++;
+            if (delta.isCompleto()) {
+                entradas.clear();
+            } else {
+                for (Viaje v : delta.getModificados()) {
+                    entradas.remove(v.getId());
+                }
+                for (int id : delta.getEliminados()) {
+                    entradas.remove(id);
+                }
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public List<Viaje> listAll() {
+        return delegate.listAll();
+    }
+
+    @Override
+    public List<Viaje> listPage(int afterId, int limit) {
+        return delegate.listPage(afterId, limit);
+    }
+
+    @Override
+    public List<Viaje> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public Stream<Viaje> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public void setFetchSize(int fetchSize) {
+        delegate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public int getFetchSize() {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        delegate.setBatchSize(batchSize);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return delegate.getBatchSize();
+    }
+
+    /**
+     * Descarta todas las entradas del cache (las estadísticas se conservan).
+     */
+    public synchronized void clear() {
+        generacion++;
+        entradas.clear();
+    }
+
+    /**
+     * @return Estadísticas actuales del cache
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), expirations.get(),
+                entradas.size(), capacidad);
+    }
+
+    /**
+     * Descarta la entrada de un viaje y anula las lecturas en curso.
+     *
+     * @return Generación resultante, para detectar escrituras posteriores
+     */
+    private synchronized long invalidar(int id) {
+        generacion++;
+        entradas.remove(id);
+        return generacion;
+    }
+
+    /**
+     * Guarda una copia del viaje. Debe llamarse con el monitor tomado.
+     */
+    private void guardar(Viaje v) {
+        entradas.put(v.getId(), new Entrada(copiar(v), System.nanoTime() + ttlNanos));
+    }
+
+    private static Viaje copiar(Viaje v) {
+        return new Viaje(v.getId(), v.getOrigen(), v.getDestino(),
+                v.getFechaSalida() == null ? null : new java.util.Date(v.getFechaSalida().getTime()),
+                v.getFechaLlegada() == null ? null : new java.util.Date(v.getFechaLlegada().getTime()),
+                v.getEstado());
+    }
+}
@@ -0,0 +1,408 @@
+package proyectoprogra.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
+
+/**
+ * Implementación de ViajeRepository que guarda los viajes en la memoria del
+ * proceso, sin base de datos.
+ *
+ * Permite ejecutar la aplicación, los exportadores y las pruebas de
+ * rendimiento en equipos sin Oracle. Reproduce el comportamiento visible de
+ * OracleViajeRepository:
+ * - IDs generados de forma creciente, como la columna IDENTITY
+ * - Búsqueda por prefijo de origen/destino sin distinguir mayúsculas
+ * - Sincronización incremental con marcas de modificación y de eliminación
+ * - Lotes todo-o-nada (aquí nunca fallan, porque los datos ya vienen validados)
+ * - Historial de viajes archivados, que se reportan como eliminados en la sincronización
+ *
+ * Los datos se pierden al cerrar la aplicación. Todas las operaciones son
+ * seguras entre hilos: el estado se protege con el monitor de la instancia y
+ * los viajes guardados nunca se modifican (update los reemplaza), por lo que
+ * se pueden copiar fuera del bloqueo.
+ */
+public class InMemoryViajeRepository implements ViajeRepository {
+
+    // Viajes guardados, ordenados por ID
+    private final TreeMap<Integer, Viaje> viajes = new TreeMap<>();
+
+    // Viajes archivados (equivalente a VIAJE_HIST), ordenados por ID
+    private final TreeMap<Integer, Viaje> historial = new TreeMap<>();
+
+    // Momento de la última inserción o actualización de cada viaje (ms)
+    private final Map<Integer, Long> modificados = new HashMap<>();
+
+    // Momento de eliminación de cada viaje borrado (equivalente a VIAJE_ELIMINADO)
+    private final Map<Integer, Long> eliminados = new HashMap<>();
+
+    // ID de viaje registrado por cada clave de cambio aplicada (0 si no tiene)
+    private final Map<String, Integer> clavesAplicadas = new HashMap<>();
+
+    // Último ID generado
+    private int ultimoId = 0;
+
+    // Último instante asignado; garantiza marcas estrictamente crecientes
+    private long ultimoInstante = 0;
+
+    // Se guardan solo para cumplir el contrato; no afectan a este almacenamiento
+    private volatile int fetchSize = OracleViajeRepository.DEFAULT_FETCH_SIZE;
+    private volatile int batchSize = OracleViajeRepository.DEFAULT_BATCH_SIZE;
+
+    @Override
+    public synchronized Viaje create(Viaje v) {
+        return guardar(++ultimoId, v);
+    }
+
+    @Override
+    public Viaje getById(int id) {
+        Viaje v;
+        synchronized (this) {
+            v = viajes.get(id);
+        }
+        return v == null ? null : copiar(v);
+    }
+
+    @Override
+    public List<Viaje> listAll() {
+        return copiar(instantanea());
+    }
+
+    @Override
+    public List<Viaje> listPage(int afterId, int limit) {
+        List<Viaje> pagina = new ArrayList<>(Math.min(limit, 1024));
+        synchronized (this) {
+            for (Viaje v : viajes.tailMap(afterId, false).values()) {
+                if (pagina.size() == limit) {
+                    break;
+                }
+                pagina.add(v);
+            }
+        }
+        return copiar(pagina);
+    }
+
+    @Override
+    public List<Viaje> search(String query, int limit) {
+        return buscarPorPrefijo(instantanea(), query, limit);
+    }
+
+    @Override
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado, int afterId, int limit) {
+        List<Viaje> pagina = new ArrayList<>(Math.min(limit, 1024));
+        synchronized (this) {
+            for (Viaje v : viajes.tailMap(afterId, false).values()) {
+                if (pagina.size() == limit) {
+                    break;
+                }
+                if (enRango(v, desde, hasta, estado)) {
+                    pagina.add(v);
+                }
+            }
+        }
+        return copiar(pagina);
+    }
+
+    @Override
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado) {
+        List<Viaje> enRango = new ArrayList<>();
+        synchronized (this) {
+            for (Viaje v : viajes.values()) {
+                if (enRango(v, desde, hasta, estado)) {
+                    enRango.add(v);
+                }
+            }
+        }
+        return copiar(enRango);
+    }
+
+    @Override
+    public synchronized int countBetween(Date desde, Date hasta, String estado) {
+        int total = 0;
+        for (Viaje v : viajes.values()) {
+            if (enRango(v, desde, hasta, estado)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public ViajeDelta listChangesSince(Timestamp desde) {
+        List<Viaje> cambiados = new ArrayList<>();
+        List<Integer> borrados = new ArrayList<>();
+        Timestamp marca;
+
+        synchronized (this) {
+            marca = new Timestamp(siguienteInstante());
+
+            if (desde == null) {
+                cambiados.addAll(viajes.values());
+            } else {
+                // Mismo solape que en Oracle, para que la marca se use igual en ambos
+                long inicio = desde.getTime() - SOLAPE_SINCRONIZACION_MS;
+                for (Viaje v : viajes.values()) {
+                    if (modificados.get(v.getId()) > inicio) {
+                        cambiados.add(v);
+                    }
+                }
+                for (Map.Entry<Integer, Long> e : eliminados.entrySet()) {
+                    if (e.getValue() > inicio) {
+                        borrados.add(e.getKey());
+                    }
+                }
+            }
+        }
+
+        return new ViajeDelta(copiar(cambiados), borrados, marca, desde == null);
+    }
+
+    @Override
+    public Stream<Viaje> stream() {
+        return instantanea().stream().map(InMemoryViajeRepository::copiar);
+    }
+
+    @Override
+    public synchronized Viaje update(Viaje v) {
+        if (!viajes.containsKey(v.getId())) {
+            return null;
+        }
+        return guardar(v.getId(), v);
+    }
+
+    @Override
+    public synchronized boolean delete(int id) {
+        if (viajes.remove(id) == null) {
+            return false;
+        }
+        modificados.remove(id);
+        eliminados.put(id, siguienteInstante());
+        return true;
+    }
+
+    @Override
+    public synchronized BatchResult createAll(List<Viaje> lista) {
+        List<BatchResult.RowResult> filas = new ArrayList<>(lista.size());
+        for (int i = 0; i < lista.size(); i++) {
+            Viaje creado = guardar(++ultimoId, lista.get(i));
+            filas.add(new BatchResult.RowResult(i, creado.getId(), BatchResult.Status.OK, null));
+        }
+        return new BatchResult(filas, true);
+    }
+
+    @Override
+    public synchronized BatchResult updateAll(List<Viaje> lista) {
+        List<BatchResult.RowResult> filas = new ArrayList<>(lista.size());
+        for (int i = 0; i < lista.size(); i++) {
+            Viaje v = lista.get(i);
+            filas.add(resultado(i, v.getId(), update(v) != null));
+        }
+        return new BatchResult(filas, true);
+    }
+
+    @Override
+    public synchronized BatchResult deleteAll(int... ids) {
+        List<BatchResult.RowResult> filas = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            filas.add(resultado(i, ids[i], delete(ids[i])));
+        }
+        return new BatchResult(filas, true);
+    }
+
+    @Override
+    public synchronized BatchResult applyMutations(List<MutacionViaje> mutaciones) {
+        List<BatchResult.RowResult> filas = new ArrayList<>(mutaciones.size());
+        for (int i = 0; i < mutaciones.size(); i++) {
+            MutacionViaje m = mutaciones.get(i);
+            Integer idAplicado = clavesAplicadas.get(m.getClave());
+            int id = m.getId() > 0 ? m.getId() : (idAplicado == null ? 0 : idAplicado);
+
+            if (clavesAplicadas.keySet().containsAll(m.getClaves())) {
+                filas.add(new BatchResult.RowResult(i, id, BatchResult.Status.OK, "Cambio ya aplicado"));
+                continue;
+            }
+
+            boolean aplicado;
+            if (m.getTipo() == MutacionViaje.Tipo.CREAR && idAplicado == null) {
+                id = guardar(++ultimoId, m.getViaje()).getId();
+                aplicado = true;
+            } else if (id <= 0) {
+                // Cambio sobre un viaje temporal que nunca llegó a crearse
+                boolean nada = m.getTipo() == MutacionViaje.Tipo.ELIMINAR;
+                filas.add(new BatchResult.RowResult(i, 0,
+                        nada ? BatchResult.Status.OK : BatchResult.Status.NOT_FOUND,
+                        nada ? null : "El viaje con ID temporal " + m.getId() + " no llegó a crearse"));
+                continue;
+            } else if (m.getTipo() == MutacionViaje.Tipo.ELIMINAR) {
+                aplicado = delete(id);
+            } else {
+                Viaje v = m.getViaje();
+                v.setId(id);
+                aplicado = update(v) != null;
+            }
+
+            for (String clave : m.getClaves()) {
+                clavesAplicadas.putIfAbsent(clave, id);
+            }
+            filas.add(resultado(i, id, aplicado));
+        }
+        return new BatchResult(filas, true);
+    }
+
+    @Override
+    public synchronized List<Integer> archiveBefore(Date limite, int limit) {
+        List<Integer> archivados = new ArrayList<>();
+        for (Viaje v : viajes.values()) {
+            if (archivados.size() == limit) {
+                break;
+            }
+            if (v.getFechaLlegada().before(limite)) {
+                archivados.add(v.getId());
+            }
+        }
+        for (int id : archivados) {
+            historial.put(id, viajes.remove(id));
+            modificados.remove(id);
+            eliminados.put(id, siguienteInstante());
+        }
+        return archivados;
+    }
+
+    @Override
+    public List<Viaje> listHistory() {
+        return copiar(instantaneaHistorial());
+    }
+
+    @Override
+    public List<Viaje> searchHistory(String query, int limit) {
+        return buscarPorPrefijo(instantaneaHistorial(), query, limit);
+    }
+
+    @Override
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize debe ser positivo: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize debe ser positivo: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Guarda una copia del viaje con el ID indicado y registra la modificación.
+     * Debe llamarse con el monitor de la instancia tomado.
+     *
+     * @return Copia del viaje guardado, para retornar al llamador
+     */
+    private Viaje guardar(int id, Viaje v) {
+        Viaje guardado = copiar(v);
+        guardado.setId(id);
+        viajes.put(id, guardado);
+        modificados.put(id, siguienteInstante());
+        // Un ID reutilizado deja de figurar como eliminado
+        eliminados.remove(id);
+        return copiar(guardado);
+    }
+
+    /**
+     * Retorna el instante actual en ms, siempre mayor que el anterior,
+     * para que dos cambios seguidos nunca compartan marca.
+     * Debe llamarse con el monitor de la instancia tomado.
+     */
+    private long siguienteInstante() {
+        ultimoInstante = Math.max(ultimoInstante + 1, System.currentTimeMillis());
+        return ultimoInstante;
+    }
+
+    /**
+     * @return Lista de los viajes guardados (sin copiar), ordenada por ID
+     */
+    private synchronized List<Viaje> instantanea() {
+        return new ArrayList<>(viajes.values());
+    }
+
+    /**
+     * @return true si el viaje sale en [desde, hasta) y tiene el estado indicado (null = cualquiera)
+     */
+    private static boolean enRango(Viaje v, Date desde, Date hasta, String estado) {
+        long salida = v.getFechaSalida().getTime();
+        return salida >= desde.getTime() && salida < hasta.getTime()
+                && (estado == null || estado.equals(v.getEstado()));
+    }
+
+    /**
+     * @return Lista de los viajes archivados (sin copiar), ordenada por ID
+     */
+    private synchronized List<Viaje> instantaneaHistorial() {
+        return new ArrayList<>(historial.values());
+    }
+
+    /**
+     * Filtra por prefijo de origen o destino sin distinguir mayúsculas.
+     *
+     * @param lista Viajes ordenados por ID (sin copiar)
+     * @return Copias de hasta limit viajes que coinciden
+     */
+    private static List<Viaje> buscarPorPrefijo(List<Viaje> lista, String query, int limit) {
+        String prefijo = query.trim().toLowerCase(Locale.ROOT);
+
+        List<Viaje> encontrados = new ArrayList<>();
+        for (Viaje v : lista) {
+            if (encontrados.size() == limit) {
+                break;
+            }
+            if (v.getOrigen().toLowerCase(Locale.ROOT).startsWith(prefijo)
+                    || v.getDestino().toLowerCase(Locale.ROOT).startsWith(prefijo)) {
+                encontrados.add(v);
+            }
+        }
+        return copiar(encontrados);
+    }
+
+    private static BatchResult.RowResult resultado(int index, int id, boolean aplicado) {
+        return new BatchResult.RowResult(index, id,
+                aplicado ? BatchResult.Status.OK : BatchResult.Status.NOT_FOUND,
+                aplicado ? null : "No existe viaje con id=" + id);
+    }
+
+    private static List<Viaje> copiar(List<Viaje> lista) {
+        List<Viaje> copias = new ArrayList<>(lista.size());
+        for (Viaje v : lista) {
+            copias.add(copiar(v));
+        }
+        return copias;
+    }
+
+    private static Viaje copiar(Viaje v) {
+        return new Viaje(v.getId(), v.getOrigen(), v.getDestino(),
+                v.getFechaSalida() == null ? null : new java.util.Date(v.getFechaSalida().getTime()),
+                v.getFechaLlegada() == null ? null : new java.util.Date(v.getFechaLlegada().getTime()),
+                v.getEstado());
+    }
+}
@@ -0,0 +1,1368 @@
+package proyectoprogra.repository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import proyectoprogra.database.OracleConnector;
+import proyectoprogra.metrics.ViajeServiceEvent;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
+
+/**
+ * Implementación de ViajeRepository sobre la tabla VIAJE de Oracle.
+ *
+ * Todas las operaciones usan conexiones del pool de OracleConnector y
+ * sentencias parametrizadas. Los datos recibidos ya vienen validados por
+ * ViajeService, por lo que aquí solo se resuelve el acceso a la base de datos.
+ */
+public class OracleViajeRepository implements ViajeRepository {
+
+    // Columnas que se leen en todas las consultas de viajes
+    private static final String SELECT_COLUMNS = "SELECT id, origen, destino, fecha_salida, fecha_llegada, estado FROM VIAJE";
+
+    // Mismas columnas en el historial de viajes archivados (sql/migrations/V7__historial_viajes.sql)
+    private static final String HIST_SELECT_COLUMNS = "SELECT id, origen, destino, fecha_salida, fecha_llegada, estado FROM VIAJE_HIST";
+
+    // Columnas que retornan las sentencias de escritura (RETURNING ... INTO), en el orden de mapReturning
+    private static final String RETURNING_COLUMNS = "id, origen, destino, fecha_salida, fecha_llegada, estado";
+
+    // Sentencias de las operaciones por lotes (createAll, updateAll, deleteAll y applyMutations)
+    private static final String INSERT_SQL = "INSERT INTO VIAJE (origen, destino, fecha_salida, fecha_llegada, estado) VALUES (?,?,?,?,?)";
+    private static final String UPDATE_SQL = "UPDATE VIAJE SET origen=?, destino=?, fecha_salida=?, fecha_llegada=?, estado=? WHERE id=?";
+    private static final String DELETE_SQL = "DELETE FROM VIAJE WHERE id=?";
+
+    // Número máximo de valores en una lista IN de Oracle
+    private static final int MAX_VALORES_IN = 1000;
+
+    // Código de error ORA-00942 (la tabla o vista no existe)
+    private static final int ORA_TABLA_NO_EXISTE = 942;
+
+    // Número de filas por defecto que el driver trae en cada viaje de red
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    // Número de filas por defecto que se envían en cada executeBatch
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    // Indica si el driver retorna las llaves generadas de un lote completo.
+    // null mientras no se ha probado; se determina en el primer createAll.
+    private static volatile Boolean batchGeneratedKeysSupported = null;
+
+    // Número de filas que el driver trae por viaje de red en las lecturas masivas
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    // Número de filas que se envían a la base de datos en cada executeBatch
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Configura cuántas filas trae el driver en cada viaje de red al leer
+     * listas de viajes (listAll, listPage y stream).
+     *
+     * @param fetchSize Número de filas por viaje de red (debe ser positivo)
+     * @throws IllegalArgumentException si fetchSize no es positivo
+     */
+    @Override
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize debe ser positivo: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return Número de filas que el driver trae por viaje de red
+     */
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Configura cuántas filas se envían a la base de datos en cada
+     * executeBatch de createAll, updateAll y deleteAll.
+     *
+     * @param batchSize Número de filas por lote (debe ser positivo)
+     * @throws IllegalArgumentException si batchSize no es positivo
+     */
+    @Override
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize debe ser positivo: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return Número de filas que se envían en cada executeBatch
+     */
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Crea un nuevo viaje en la base de datos.
+     * 
+     * El INSERT usa RETURNING ... INTO para obtener la fila tal como quedó
+     * guardada (con el ID generado) en el mismo viaje de red, sin una
+     * segunda consulta. El bloque se ejecuta como una sola transacción.
+     * 
+     * @param v El objeto Viaje a crear (sin ID, se genera automáticamente)
+     * @return El objeto Viaje creado con el ID generado por la base de datos
+     * @throws RuntimeException si ocurre un error durante la inserción
+     */
+    @Override
+    public Viaje create(Viaje v) {
+        // Bloque PL/SQL que inserta y retorna la fila persistida (previene SQL injection con parámetros)
+        String sql = "BEGIN "
+                + "INSERT INTO VIAJE (origen, destino, fecha_salida, fecha_llegada, estado) VALUES (?,?,?,?,?) "
+                + "RETURNING " + RETURNING_COLUMNS + " INTO ?,?,?,?,?,?; "
+                + "END;";
+
+        // Try-with-resources para manejo automático de recursos
+        try (Connection con = OracleConnector.getConnection();
+             CallableStatement cs = con.prepareCall(ViajeServiceEvent.sql(sql)))
+        {
+
+            // Establecer los parámetros de entrada
+            cs.setString(1, v.getOrigen());
+            cs.setString(2, v.getDestino());
+            // Convertir java.util.Date a java.sql.Timestamp para la base de datos
+            cs.setTimestamp(3, new Timestamp(v.getFechaSalida().getTime()));
+            cs.setTimestamp(4, new Timestamp(v.getFechaLlegada().getTime()));
+            cs.setString(5, v.getEstado());
+
+            // Parámetros de salida con la fila insertada
+            registerReturning(cs, 6);
+
+            // Ejecutar la inserción
+            cs.execute();
+
+            // Verificar que la base de datos retornó el ID generado
+            Viaje creado = mapReturning(cs, 6);
+            if (creado.getId() <= 0) {
+                throw new SQLException("No se obtuvo ID generado para Viaje");
+            }
+            return creado;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al crear Viaje", e);
+        }
+    }
+
+    /**
+     * Busca un viaje por su ID único.
+     * 
+     * @param id El ID del viaje a buscar
+     * @return El objeto Viaje encontrado o null si no existe
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public Viaje getById(int id) {
+        // SQL para buscar un viaje específico por ID
+        String sql = SELECT_COLUMNS + " WHERE id = ?";
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            ps.setInt(1, id);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    // Convertir el ResultSet a objeto Viaje
+                    return mapRow(rs);
+                }
+                // Retornar null si no se encuentra el viaje
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al obtener Viaje por id=" + id, e);
+        }
+    }
+
+    /**
+     * Obtiene todos los viajes de la base de datos ordenados por ID.
+     * 
+     * @return Lista de todos los viajes en la base de datos
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public List<Viaje> listAll() {
+        try {
+            return listar(SELECT_COLUMNS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al listar Viajes", e);
+        }
+    }
+
+    /**
+     * Obtiene una página de viajes ordenados por ID usando paginación por clave
+     * (keyset): retorna los viajes cuyo ID es mayor que afterId.
+     *
+     * A diferencia de OFFSET, el costo de cada página no crece con el número
+     * de página porque la consulta arranca directamente desde el índice de la
+     * llave primaria.
+     *
+     * @param afterId ID del último viaje de la página anterior (0 para la primera página)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @return Lista con hasta limit viajes; vacía cuando no hay más páginas
+     * @throws RuntimeException si ocurre un error durante la consulta
+     *
+     * Ejemplo de recorrido completo:
+     * List<Viaje> pagina = service.listPage(0, 100);
+     * while (!pagina.isEmpty()) {
+     *     // procesar página
+     *     pagina = service.listPage(pagina.get(pagina.size() - 1).getId(), 100);
+     * }
+     */
+    @Override
+    public List<Viaje> listPage(int afterId, int limit) {
+        String sql = SELECT_COLUMNS + " WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+        List<Viaje> list = new ArrayList<>(Math.min(limit, fetchSize));
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            ps.setFetchSize(Math.min(limit, fetchSize));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al listar página de Viajes después de id=" + afterId, e);
+        }
+
+        return list;
+    }
+
+    /**
+     * Busca viajes cuyo origen o destino comienza con el texto indicado,
+     * sin distinguir mayúsculas/minúsculas.
+     *
+     * La búsqueda se resuelve en la base de datos usando los índices basados
+     * en función LOWER(origen) y LOWER(destino) definidos en
+     * sql/create_index_viaje_busqueda.sql, por lo que su costo depende del
+     * número de coincidencias y no del tamaño de la tabla.
+     *
+     * @param query Texto a buscar (se ignoran espacios al inicio y al final)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @return Viajes que coinciden ordenados por ID
+     * @throws RuntimeException si ocurre un error durante la consulta
+     *
+     * Ejemplo: search("guate", 50) encontrará viajes con origen="Guatemala"
+     * o destino="Guatemala - Zona 1"
+     */
+    @Override
+    public List<Viaje> search(String query, int limit) {
+        try {
+            return buscarPorPrefijo(SELECT_COLUMNS, query, limit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar Viajes con '" + query + "'", e);
+        }
+    }
+
+    /**
+     * Obtiene una página de los viajes que salen en [desde, hasta).
+     *
+     * El rango se resuelve con los índices de sql/migrations/V5: sin estado,
+     * un range scan de IDX_VIAJE_FECHA_SALIDA; con estado, de
+     * IDX_VIAJE_ESTADO_FECHA (estado, fecha_salida). Solo las filas del rango
+     * se ordenan por ID para la paginación.
+     *
+     * Las fechas se convierten a DATE en la consulta (CAST): comparar la
+     * columna DATE con un parámetro TIMESTAMP obligaría a Oracle a convertir
+     * la columna y no usaría el índice.
+     *
+     * @return Viajes del rango ordenados por ID
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public List<Viaje> listBetween(java.util.Date desde, java.util.Date hasta, String estado, int afterId, int limit) {
+        String sql = SELECT_COLUMNS + " WHERE " + condicionRango(estado)
+                + " AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+        List<Viaje> list = new ArrayList<>(Math.min(limit, fetchSize));
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            int i = bindRango(ps, desde, hasta, estado);
+            ps.setInt(i++, afterId);
+            ps.setInt(i, limit);
+            ps.setFetchSize(Math.min(limit, fetchSize));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al listar Viajes entre " + desde + " y " + hasta, e);
+        }
+
+        return list;
+    }
+
+    /**
+     * Obtiene todos los viajes que salen en [desde, hasta) con una sola
+     * consulta.
+     *
+     * El rango se recorre una sola vez con los mismos índices que la versión
+     * paginada y se ordena por ID una sola vez; las filas llegan en bloques
+     * de fetchSize por la misma conexión. Paginar por ID sobre un filtro de
+     * fecha_salida obligaría a recorrer y ordenar el rango completo en cada
+     * página.
+     *
+     * @return Viajes del rango ordenados por ID
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public List<Viaje> listBetween(java.util.Date desde, java.util.Date hasta, String estado) {
+        String sql = SELECT_COLUMNS + " WHERE " + condicionRango(estado) + " ORDER BY id";
+
+        List<Viaje> list = new ArrayList<>();
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            bindRango(ps, desde, hasta, estado);
+            ps.setFetchSize(fetchSize);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al listar Viajes entre " + desde + " y " + hasta, e);
+        }
+
+        return list;
+    }
+
+    /**
+     * Cuenta los viajes que salen en [desde, hasta). Con los índices de
+     * listBetween, Oracle cuenta recorriendo solo el índice, sin leer la tabla.
+     *
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public int countBetween(java.util.Date desde, java.util.Date hasta, String estado) {
+        String sql = "SELECT COUNT(*) FROM VIAJE WHERE " + condicionRango(estado);
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            bindRango(ps, desde, hasta, estado);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al contar Viajes entre " + desde + " y " + hasta, e);
+        }
+    }
+
+    /**
+     * @return Condición de rango de fecha de salida (y estado, si no es null)
+     */
+    private static String condicionRango(String estado) {
+        return (estado == null ? "" : "estado = ? AND ")
+                + "fecha_salida >= CAST(? AS DATE) AND fecha_salida < CAST(? AS DATE)";
+    }
+
+    /**
+     * Asigna los parámetros de condicionRango.
+     *
+     * @return Índice del siguiente parámetro
+     */
+    private static int bindRango(PreparedStatement ps, java.util.Date desde, java.util.Date hasta, String estado)
+            throws SQLException {
+        int i = 1;
+        if (estado != null) {
+            ps.setString(i++, estado);
+        }
+        ps.setTimestamp(i++, new Timestamp(desde.getTime()));
+        ps.setTimestamp(i++, new Timestamp(hasta.getTime()));
+        return i;
+    }
+
+    /**
+     * Obtiene los cambios de la tabla VIAJE desde una marca de sincronización.
+     *
+     * Usa la columna FECHA_MODIFICACION y la tabla VIAJE_ELIMINADO definidas en
+     * sql/alter_table_viaje_delta_sync.sql, de modo que el costo depende de la
+     * cantidad de cambios y no del tamaño de la tabla.
+     *
+     * Como FECHA_MODIFICACION se asigna al ejecutar la sentencia y no al
+     * confirmar la transacción, la consulta se solapa SOLAPE_SINCRONIZACION_MS
+     * con la marca anterior para no perder cambios confirmados tarde. Por eso
+     * un mismo cambio puede recibirse más de una vez: aplicarlo debe ser idempotente.
+     *
+     * @param desde Marca retornada por la sincronización anterior, o null para
+     *              una carga completa (todos los viajes, sin eliminados)
+     * @return Cambios desde la marca y la nueva marca de sincronización
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    @Override
+    public ViajeDelta listChangesSince(Timestamp desde) {
+        String sqlAhora = "SELECT SYSTIMESTAMP FROM DUAL";
+        String sqlModificados = SELECT_COLUMNS + " WHERE fecha_modificacion > ? ORDER BY id";
+        String sqlEliminados = "SELECT id FROM VIAJE_ELIMINADO WHERE fecha_eliminacion > ?";
+
+        try (Connection con = OracleConnector.getConnection()) {
+            // La marca nueva se toma antes de leer, para que la siguiente
+            // sincronización incluya todo lo que cambie durante esta lectura
+            Timestamp marca;
+            try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sqlAhora));
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                marca = rs.getTimestamp(1);
+            }
+
+            if (desde == null) {
+                // Carga completa
+                List<Viaje> todos = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(SELECT_COLUMNS + " ORDER BY id"))) {
+                    ps.setFetchSize(fetchSize);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            todos.add(mapRow(rs));
+                        }
+                    }
+                }
+                return new ViajeDelta(todos, new ArrayList<>(), marca, true);
+            }
+
+            Timestamp inicio = new Timestamp(desde.getTime() - SOLAPE_SINCRONIZACION_MS);
+
+            List<Viaje> modificados = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sqlModificados))) {
+                ps.setTimestamp(1, inicio);
+                ps.setFetchSize(fetchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        modificados.add(mapRow(rs));
+                    }
+                }
+            }
+
+            List<Integer> eliminados = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sqlEliminados))) {
+                ps.setTimestamp(1, inicio);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        eliminados.add(rs.getInt(1));
+                    }
+                }
+            }
+
+            return new ViajeDelta(modificados, eliminados, marca, false);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al obtener cambios de Viajes desde " + desde, e);
+        }
+    }
+
+    /**
+     * Recorre todos los viajes ordenados por ID como un Stream perezoso.
+     *
+     * Las filas se leen de la base de datos a medida que el Stream las consume
+     * (en bloques de fetchSize filas), por lo que nunca se mantiene la tabla
+     * completa en memoria. La conexión, el statement y el ResultSet permanecen
+     * abiertos hasta que el Stream se cierra, así que debe usarse siempre con
+     * try-with-resources.
+     *
+     * @return Stream de viajes que libera sus recursos al cerrarse
+     * @throws RuntimeException si ocurre un error al abrir la consulta o al leer filas
+     *
+     * Ejemplo de uso:
+     * try (Stream<Viaje> viajes = service.stream()) {
+     *     viajes.forEach(v -> procesar(v));
+     * } // la conexión se devuelve al pool automáticamente
+     */
+    @Override
+    public Stream<Viaje> stream() {
+        String sql = SELECT_COLUMNS + " ORDER BY id";
+
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = OracleConnector.getConnection();
+            ps = con.prepareStatement(ViajeServiceEvent.sql(sql));
+            ps.setFetchSize(fetchSize);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, ps, con);
+            throw new RuntimeException("Error al abrir el recorrido de Viajes", e);
+        }
+
+        final Connection conexion = con;
+        final PreparedStatement statement = ps;
+        final ResultSet resultSet = rs;
+
+        Spliterator<Viaje> cursor = new Spliterators.AbstractSpliterator<Viaje>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            // true una vez cerrado el ResultSet: las llamadas siguientes no lo vuelven a leer
+            private boolean terminado = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Viaje> action) {
+                if (terminado) {
+                    return false;
+                }
+                try {
+                    if (!resultSet.next()) {
+                        // Fin de los datos: liberar la conexión sin esperar al close() del Stream
+                        terminado = true;
+                        closeQuietly(resultSet, statement, conexion);
+                        return false;
+                    }
+                    action.accept(mapRow(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    terminado = true;
+                    closeQuietly(resultSet, statement, conexion);
+                    throw new RuntimeException("Error al leer Viajes", e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(cursor, false)
+                .onClose(() -> closeQuietly(resultSet, statement, conexion));
+    }
+
+    /**
+     * Actualiza un viaje existente en la base de datos.
+     * 
+     * El UPDATE usa RETURNING ... INTO para obtener la fila actualizada en el
+     * mismo viaje de red, sin volver a consultarla. El bloque se ejecuta como
+     * una sola transacción.
+     * 
+     * @param v El objeto Viaje con los datos actualizados (debe tener un ID válido)
+     * @return El objeto Viaje actualizado, o null si no existe un viaje con ese ID
+     * @throws RuntimeException si ocurre un error durante la actualización
+     */
+    @Override
+    public Viaje update(Viaje v) {
+        // Bloque PL/SQL que actualiza, retorna la fila y la cantidad de registros afectados
+        String sql = "BEGIN "
+                + "UPDATE VIAJE SET origen=?, destino=?, fecha_salida=?, fecha_llegada=?, estado=? WHERE id=? "
+                + "RETURNING " + RETURNING_COLUMNS + " INTO ?,?,?,?,?,?; "
+                + "? := SQL%ROWCOUNT; "
+                + "END;";
+
+        try (Connection con = OracleConnector.getConnection();
+             CallableStatement cs = con.prepareCall(ViajeServiceEvent.sql(sql))) {
+
+            // Establecer los parámetros para la actualización
+            cs.setString(1, v.getOrigen());
+            cs.setString(2, v.getDestino());
+            cs.setTimestamp(3, new Timestamp(v.getFechaSalida().getTime()));
+            cs.setTimestamp(4, new Timestamp(v.getFechaLlegada().getTime()));
+            cs.setString(5, v.getEstado());
+            cs.setInt(6, v.getId()); // ID para la cláusula WHERE
+
+            // Parámetros de salida: fila actualizada y registros afectados
+            registerReturning(cs, 7);
+            cs.registerOutParameter(13, Types.INTEGER);
+
+            cs.execute();
+
+            // Ningún registro afectado: el viaje no existe
+            if (cs.getInt(13) == 0) {
+                return null;
+            }
+
+            // Retornar el viaje tal como quedó en la base de datos
+            return mapReturning(cs, 7);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al actualizar Viaje id=" + v.getId(), e);
+        }
+    }
+
+    /**
+     * Elimina un viaje de la base de datos por su ID.
+     * 
+     * @param id El ID del viaje a eliminar
+     * @return true si se eliminó el viaje, false si no existía
+     * @throws RuntimeException si ocurre un error durante la eliminación
+     */
+    @Override
+    public boolean delete(int id) {
+        // SQL para eliminar un viaje por ID
+        String sql = "DELETE FROM VIAJE WHERE id=?";
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            ps.setInt(1, id);
+            int affected = ps.executeUpdate();
+            // Retornar true si se eliminó al menos un registro
+            return affected > 0;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al eliminar Viaje id=" + id, e);
+        }
+    }
+
+    /**
+     * Crea varios viajes en una sola transacción usando lotes JDBC.
+     *
+     * Las filas se envían en grupos de batchSize con executeBatch, y los IDs
+     * generados se leen de las llaves generadas del lote, sin volver a
+     * consultar cada fila.
+     *
+     * @param viajes Viajes a crear (sin ID, se generan automáticamente)
+     * @return Resultado por fila; en las filas OK, id es el ID generado
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    @Override
+    public BatchResult createAll(List<Viaje> viajes) {
+        return executeBatch("crear", INSERT_SQL, viajes, true,
+                v -> 0,
+                OracleViajeRepository::bindInsert);
+    }
+
+    /**
+     * Actualiza varios viajes en una sola transacción usando lotes JDBC.
+     *
+     * @param viajes Viajes con los datos actualizados (deben tener ID válido)
+     * @return Resultado por fila; NOT_FOUND para los IDs que no existen
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    @Override
+    public BatchResult updateAll(List<Viaje> viajes) {
+        return executeBatch("actualizar", UPDATE_SQL, viajes, false,
+                Viaje::getId,
+                OracleViajeRepository::bindUpdate);
+    }
+
+    /**
+     * Elimina varios viajes en una sola transacción usando lotes JDBC.
+     *
+     * @param ids IDs de los viajes a eliminar
+     * @return Resultado por ID; NOT_FOUND para los IDs que no existían
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    @Override
+    public BatchResult deleteAll(int... ids) {
+        List<Integer> lista = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            lista.add(id);
+        }
+
+        return executeBatch("eliminar", DELETE_SQL, lista, false,
+                id -> id,
+                (ps, id) -> ps.setInt(1, id));
+    }
+
+    /**
+     * Aplica una lista de cambios en una sola transacción, registrando sus
+     * claves de idempotencia en VIAJE_MUTACION_APLICADA
+     * (sql/create_table_viaje_mutacion_aplicada.sql).
+     *
+     * Proceso:
+     * 1. Consulta cuáles claves ya se aplicaron (y el ID creado por cada una)
+     * 2. Omite los cambios cuyas claves ya están todas aplicadas; una creación
+     *    ya aplicada con cambios posteriores se convierte en actualización
+     * 3. Envía inserciones, actualizaciones y eliminaciones por lotes
+     * 4. Guarda las claves nuevas y confirma todo junto
+     *
+     * @param mutaciones Cambios a aplicar, ya validados
+     * @return Resultado por cambio; en las creaciones, id es el ID generado
+     * @throws UnsupportedOperationException si la tabla VIAJE_MUTACION_APLICADA no existe
+     * @throws RuntimeException si ocurre un error no atribuible a un cambio (p. ej. conexión)
+     */
+    @Override
+    public BatchResult applyMutations(List<MutacionViaje> mutaciones) {
+        if (mutaciones.isEmpty()) {
+            return new BatchResult(List.of(), true);
+        }
+
+        int n = mutaciones.size();
+        BatchResult.RowResult[] resultados = new BatchResult.RowResult[n];
+        // Datos que se envían por posición, con el ID efectivo del viaje
+        List<Viaje> datos = new ArrayList<>(n);
+        List<Integer> insertar = new ArrayList<>();
+        List<Integer> actualizar = new ArrayList<>();
+        List<Integer> eliminar = new ArrayList<>();
+        int[] afectados = new int[n];
+        int[] ids = new int[n];
+
+        try (Connection con = OracleConnector.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Map<String, Integer> aplicadas = buscarClavesAplicadas(con, mutaciones);
+
+                // Clasificar cada cambio según las claves ya aplicadas
+                for (int i = 0; i < n; i++) {
+                    MutacionViaje m = mutaciones.get(i);
+                    Integer idAplicado = aplicadas.get(m.getClave());
+                    // Un ID temporal se resuelve con el ID creado por la primera clave
+                    int id = m.getId() > 0 ? m.getId() : (idAplicado == null ? 0 : idAplicado);
+
+                    Viaje v = m.getViaje() == null ? new Viaje() : m.getViaje();
+                    v.setId(id);
+                    datos.add(v);
+
+                    if (aplicadas.keySet().containsAll(m.getClaves())) {
+                        resultados[i] = new BatchResult.RowResult(i, id, BatchResult.Status.OK, "Cambio ya aplicado");
+                    } else if (m.getTipo() == MutacionViaje.Tipo.CREAR) {
+                        (idAplicado == null ? insertar : actualizar).add(i);
+                    } else if (id <= 0) {
+                        // Cambio sobre un viaje temporal que nunca llegó a crearse
+                        boolean nada = m.getTipo() == MutacionViaje.Tipo.ELIMINAR;
+                        resultados[i] = new BatchResult.RowResult(i, 0,
+                                nada ? BatchResult.Status.OK : BatchResult.Status.NOT_FOUND,
+                                nada ? null : "El viaje con ID temporal " + m.getId() + " no llegó a crearse");
+                    } else {
+                        (m.getTipo() == MutacionViaje.Tipo.ACTUALIZAR ? actualizar : eliminar).add(i);
+                    }
+                }
+
+                for (int inicio = 0; inicio < insertar.size(); inicio += batchSize) {
+                    List<Integer> lote = insertar.subList(inicio, Math.min(inicio + batchSize, insertar.size()));
+                    insertChunk(con, INSERT_SQL, datos, lote, OracleViajeRepository::bindInsert, afectados, ids);
+                }
+                for (int inicio = 0; inicio < actualizar.size(); inicio += batchSize) {
+                    List<Integer> lote = actualizar.subList(inicio, Math.min(inicio + batchSize, actualizar.size()));
+                    updateChunk(con, UPDATE_SQL, datos, lote, OracleViajeRepository::bindUpdate, afectados);
+                }
+                for (int inicio = 0; inicio < eliminar.size(); inicio += batchSize) {
+                    List<Integer> lote = eliminar.subList(inicio, Math.min(inicio + batchSize, eliminar.size()));
+                    updateChunk(con, DELETE_SQL, datos, lote, (ps, v) -> ps.setInt(1, v.getId()), afectados);
+                }
+                for (int i : actualizar) {
+                    ids[i] = datos.get(i).getId();
+                }
+                for (int i : eliminar) {
+                    ids[i] = datos.get(i).getId();
+                }
+
+                registrarClaves(con, mutaciones, resultados, aplicadas, ids);
+                con.commit();
+            } catch (BatchRowException e) {
+                // Un cambio concreto falló: deshacer todo y reportar cuál fue
+                con.rollback();
+                for (int i = 0; i < n; i++) {
+                    if (resultados[i] == null || i == e.position) {
+                        boolean culpable = i == e.position;
+                        resultados[i] = new BatchResult.RowResult(i, 0,
+                                culpable ? BatchResult.Status.FAILED : BatchResult.Status.ROLLED_BACK,
+                                culpable ? e.getMessage() : "Transacción deshecha por el error del cambio " + e.position);
+                    }
+                }
+                return new BatchResult(List.of(resultados), false);
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al aplicar " + n + " cambios de Viajes", e);
+        }
+
+        // Transacción confirmada: resultado de los cambios enviados
+        for (int i = 0; i < n; i++) {
+            if (resultados[i] == null) {
+                boolean aplicado = afectados[i] > 0 || afectados[i] == Statement.SUCCESS_NO_INFO;
+                resultados[i] = new BatchResult.RowResult(i, ids[i],
+                        aplicado ? BatchResult.Status.OK : BatchResult.Status.NOT_FOUND,
+                        aplicado ? null : "No existe viaje con id=" + ids[i]);
+            }
+        }
+        return new BatchResult(List.of(resultados), true);
+    }
+
+    /**
+     * Consulta cuáles claves de los cambios ya están en VIAJE_MUTACION_APLICADA.
+     *
+     * @return ID de viaje registrado por cada clave aplicada (0 si no tiene)
+     * @throws UnsupportedOperationException si la tabla no existe
+     */
+    private Map<String, Integer> buscarClavesAplicadas(Connection con, List<MutacionViaje> mutaciones)
+            throws SQLException {
+        List<String> claves = new ArrayList<>();
+        for (MutacionViaje m : mutaciones) {
+            claves.addAll(m.getClaves());
+        }
+
+        Map<String, Integer> aplicadas = new HashMap<>();
+        for (int inicio = 0; inicio < claves.size(); inicio += MAX_VALORES_IN) {
+            List<String> grupo = claves.subList(inicio, Math.min(inicio + MAX_VALORES_IN, claves.size()));
+            String sql = "SELECT clave, id_viaje FROM VIAJE_MUTACION_APLICADA WHERE clave IN ("
+                    + String.join(",", Collections.nCopies(grupo.size(), "?")) + ")";
+            try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+                for (int k = 0; k < grupo.size(); k++) {
+                    ps.setString(k + 1, grupo.get(k));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        aplicadas.put(rs.getString(1), rs.getInt(2));
+                    }
+                }
+            } catch (SQLException e) {
+                if (e.getErrorCode() == ORA_TABLA_NO_EXISTE) {
+                    throw new UnsupportedOperationException("La tabla VIAJE_MUTACION_APLICADA no existe; "
+                            + "ejecutar sql/create_table_viaje_mutacion_aplicada.sql", e);
+                }
+                throw e;
+            }
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Guarda las claves nuevas de los cambios procesados, con el ID del viaje afectado.
+     */
+    private void registrarClaves(Connection con, List<MutacionViaje> mutaciones, BatchResult.RowResult[] resultados,
+                                 Map<String, Integer> aplicadas, int[] ids) throws SQLException {
+        String sql = "INSERT INTO VIAJE_MUTACION_APLICADA (clave, id_viaje) VALUES (?, ?)";
+
+        // Posición del cambio al que pertenece cada clave, para reportar errores
+        List<Integer> posiciones = new ArrayList<>();
+        List<String> claves = new ArrayList<>();
+        for (int i = 0; i < mutaciones.size(); i++) {
+            // Los cambios sin efecto (ya aplicados o sobre viajes que no existen) no se registran
+            if (resultados[i] != null) {
+                continue;
+            }
+            for (String clave : mutaciones.get(i).getClaves()) {
+                if (!aplicadas.containsKey(clave)) {
+                    posiciones.add(i);
+                    claves.add(clave);
+                }
+            }
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+            for (int inicio = 0; inicio < claves.size(); inicio += batchSize) {
+                int fin = Math.min(inicio + batchSize, claves.size());
+                for (int k = inicio; k < fin; k++) {
+                    int id = ids[posiciones.get(k)];
+                    ps.setString(1, claves.get(k));
+                    if (id > 0) {
+                        ps.setInt(2, id);
+                    } else {
+                        ps.setNull(2, Types.INTEGER);
+                    }
+                    ps.addBatch();
+                }
+                executeBatch(ps, posiciones.subList(inicio, fin));
+            }
+        }
+    }
+
+    /**
+     * Mueve a VIAJE_HIST hasta limit viajes que llegaron antes de limite, en
+     * una sola transacción.
+     *
+     * Proceso:
+     * 1. Bloquea los viajes a mover (FOR UPDATE SKIP LOCKED), de modo que un
+     *    viaje que otro usuario está editando se archiva en el siguiente lote.
+     *    El límite se aplica al leer el cursor y no con ROWNUM: ROWNUM se
+     *    evalúa antes de saltar las filas bloqueadas y el lote saldría corto,
+     *    mientras que con SKIP LOCKED cada fila se bloquea al leerla
+     * 2. Copia las filas a VIAJE_HIST y las borra de VIAJE por lotes de batchSize
+     * 3. Confirma todo junto: un viaje nunca queda en ambas tablas ni en ninguna
+     *
+     * El borrado dispara TRG_VIAJE_ELIMINADO, así que los clientes quitan los
+     * viajes archivados en su siguiente sincronización incremental.
+     *
+     * @param limite Fecha de llegada a partir de la cual un viaje sigue activo
+     * @param limit Número máximo de viajes a mover
+     * @return IDs de los viajes movidos
+     * @throws UnsupportedOperationException si la tabla VIAJE_HIST no existe
+     * @throws RuntimeException si ocurre un error durante la transacción
+     */
+    @Override
+    public List<Integer> archiveBefore(java.util.Date limite, int limit) {
+        String seleccion = "SELECT id FROM VIAJE WHERE fecha_llegada < CAST(? AS DATE) FOR UPDATE SKIP LOCKED";
+        String copia = "INSERT INTO VIAJE_HIST (id, origen, destino, fecha_salida, fecha_llegada, estado) "
+                + "SELECT id, origen, destino, fecha_salida, fecha_llegada, estado FROM VIAJE WHERE id=?";
+
+        List<Integer> ids = new ArrayList<>(Math.min(limit, 1024));
+
+        try (Connection con = OracleConnector.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(seleccion))) {
+                    ps.setTimestamp(1, new Timestamp(limite.getTime()));
+                    // Solo se leen (y bloquean) las filas del lote
+                    ps.setMaxRows(limit);
+                    ps.setFetchSize(Math.min(limit, fetchSize));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (ids.size() < limit && rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+
+                try (PreparedStatement insert = con.prepareStatement(ViajeServiceEvent.sql(copia));
+                     PreparedStatement delete = con.prepareStatement(ViajeServiceEvent.sql(DELETE_SQL))) {
+                    for (int inicio = 0; inicio < ids.size(); inicio += batchSize) {
+                        for (int id : ids.subList(inicio, Math.min(inicio + batchSize, ids.size()))) {
+                            insert.setInt(1, id);
+                            insert.addBatch();
+                            delete.setInt(1, id);
+                            delete.addBatch();
+                        }
+                        insert.executeBatch();
+                        delete.executeBatch();
+                    }
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw historialNoDisponible(e, "Error al archivar Viajes que llegaron antes de " + limite);
+        }
+
+        return ids;
+    }
+
+    /**
+     * @return Todos los viajes de VIAJE_HIST ordenados por ID
+     * @throws UnsupportedOperationException si la tabla VIAJE_HIST no existe
+     */
+    @Override
+    public List<Viaje> listHistory() {
+        try {
+            return listar(HIST_SELECT_COLUMNS);
+        } catch (SQLException e) {
+            throw historialNoDisponible(e, "Error al listar el historial de Viajes");
+        }
+    }
+
+    /**
+     * Busca en VIAJE_HIST con los índices LOWER(origen) y LOWER(destino) del historial.
+     *
+     * @throws UnsupportedOperationException si la tabla VIAJE_HIST no existe
+     */
+    @Override
+    public List<Viaje> searchHistory(String query, int limit) {
+        try {
+            return buscarPorPrefijo(HIST_SELECT_COLUMNS, query, limit);
+        } catch (SQLException e) {
+            throw historialNoDisponible(e, "Error al buscar en el historial de Viajes con '" + query + "'");
+        }
+    }
+
+    /**
+     * Lee todas las filas de una consulta de viajes, ordenadas por ID.
+     *
+     * @param select SELECT_COLUMNS o HIST_SELECT_COLUMNS
+     */
+    private List<Viaje> listar(String select) throws SQLException {
+        List<Viaje> list = new ArrayList<>();
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(select + " ORDER BY id"))) {
+
+            ps.setFetchSize(fetchSize);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                // Iterar por todos los resultados y convertirlos a objetos Viaje
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Busca por prefijo de origen o destino sin distinguir mayúsculas.
+     *
+     * @param select SELECT_COLUMNS o HIST_SELECT_COLUMNS
+     */
+    private List<Viaje> buscarPorPrefijo(String select, String query, int limit) throws SQLException {
+        List<Viaje> list = new ArrayList<>();
+
+        // Patrón de prefijo con los comodines de LIKE escapados
+        String patron = escapeLike(query.trim().toLowerCase(Locale.ROOT)) + "%";
+
+        // Cada rama usa su propio índice; UNION elimina los viajes que coinciden en ambas
+        String sql = "SELECT * FROM ("
+                + select + " WHERE LOWER(origen) LIKE ? ESCAPE '\\'"
+                + " UNION "
+                + select + " WHERE LOWER(destino) LIKE ? ESCAPE '\\'"
+                + ") ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+        try (Connection con = OracleConnector.getConnection();
+             PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+
+            ps.setString(1, patron);
+            ps.setString(2, patron);
+            ps.setInt(3, limit);
+            ps.setFetchSize(Math.min(limit, fetchSize));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Convierte un error de las operaciones de historial: si falta la tabla
+     * VIAJE_HIST se reporta como UnsupportedOperationException.
+     */
+    private static RuntimeException historialNoDisponible(SQLException e, String mensaje) {
+        if (e.getErrorCode() == ORA_TABLA_NO_EXISTE) {
+            return new UnsupportedOperationException("La tabla VIAJE_HIST no existe; "
+                    + "ejecutar sql/migrations/V7__historial_viajes.sql", e);
+        }
+        return new RuntimeException(mensaje, e);
+    }
+
+    /**
+     * Asigna los parámetros de una fila a un PreparedStatement de un lote.
+     */
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    /**
+     * Error asociado a una fila concreta de un lote.
+     */
+    private static class BatchRowException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        private final int position;
+
+        BatchRowException(int position, SQLException cause) {
+            super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+            this.position = position;
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia DML por lotes dentro de una sola transacción.
+     *
+     * Proceso:
+     * 1. Envía las filas en grupos de batchSize con executeBatch
+     * 2. Si se piden llaves generadas, las lee del lote (o fila por fila si el
+     *    driver no las retorna para lotes completos)
+     * 3. Confirma la transacción; si una fila falla, la deshace completa
+     *
+     * @param operacion Nombre de la operación para los mensajes de error
+     * @param sql Sentencia DML parametrizada
+     * @param items Filas de entrada, ya validadas
+     * @param generatedKeys true para leer el ID generado de cada fila insertada
+     * @param idOf Obtiene el ID de una fila (para operaciones sin llaves generadas)
+     * @param binder Asigna los parámetros de una fila
+     * @return Resultado por fila
+     */
+    private <T> BatchResult executeBatch(String operacion, String sql, List<T> items, boolean generatedKeys,
+                                         ToIntFunction<T> idOf,
+                                         RowBinder<T> binder) {
+        if (items.isEmpty()) {
+            return new BatchResult(List.of(), true);
+        }
+
+        BatchResult.RowResult[] resultados = new BatchResult.RowResult[items.size()];
+        List<Integer> filas = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            filas.add(i);
+        }
+
+        // Cantidad de registros afectados e ID final de cada fila
+        int[] afectados = new int[items.size()];
+        int[] ids = new int[items.size()];
+
+        try (Connection con = OracleConnector.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                for (int inicio = 0; inicio < filas.size(); inicio += batchSize) {
+                    List<Integer> lote = filas.subList(inicio, Math.min(inicio + batchSize, filas.size()));
+                    if (generatedKeys) {
+                        insertChunk(con, sql, items, lote, binder, afectados, ids);
+                    } else {
+                        updateChunk(con, sql, items, lote, binder, afectados);
+                        for (int i : lote) {
+                            ids[i] = idOf.applyAsInt(items.get(i));
+                        }
+                    }
+                }
+                con.commit();
+            } catch (BatchRowException e) {
+                // Una fila concreta falló: deshacer todo y reportar cuál fue
+                con.rollback();
+                for (int i : filas) {
+                    boolean culpable = i == e.position;
+                    resultados[i] = new BatchResult.RowResult(i, generatedKeys ? 0 : idOf.applyAsInt(items.get(i)),
+                            culpable ? BatchResult.Status.FAILED : BatchResult.Status.ROLLED_BACK,
+                            culpable ? e.getMessage() : "Transacción deshecha por el error de la fila " + e.position);
+                }
+                return new BatchResult(List.of(resultados), false);
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al " + operacion + " Viajes por lotes", e);
+        }
+
+        // Transacción confirmada: construir el resultado de cada fila
+        for (int i : filas) {
+            // Statement.SUCCESS_NO_INFO indica que el driver no informó el conteo
+            boolean aplicado = afectados[i] > 0 || afectados[i] == Statement.SUCCESS_NO_INFO;
+            resultados[i] = new BatchResult.RowResult(i, ids[i],
+                    aplicado ? BatchResult.Status.OK : BatchResult.Status.NOT_FOUND,
+                    aplicado ? null : "No existe viaje con id=" + ids[i]);
+        }
+        return new BatchResult(List.of(resultados), true);
+    }
+
+    /**
+     * Ejecuta un grupo de UPDATE/DELETE con executeBatch.
+     */
+    private <T> void updateChunk(Connection con, String sql, List<T> items, List<Integer> lote,
+                                 RowBinder<T> binder, int[] afectados) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql))) {
+            for (int i : lote) {
+                binder.bind(ps, items.get(i));
+                ps.addBatch();
+            }
+            int[] conteos = executeBatch(ps, lote);
+            for (int k = 0; k < lote.size(); k++) {
+                afectados[lote.get(k)] = conteos[k];
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un grupo de INSERT con executeBatch y lee los IDs generados.
+     *
+     * Si el driver no retorna una llave por cada fila del lote, el grupo se
+     * deshace hasta un savepoint y se repite fila por fila; el resultado de
+     * esa prueba se recuerda para no repetirla en los siguientes lotes.
+     */
+    private <T> void insertChunk(Connection con, String sql, List<T> items, List<Integer> lote,
+                                 RowBinder<T> binder, int[] afectados, int[] ids) throws SQLException {
+        Boolean soportado = batchGeneratedKeysSupported;
+
+        if (soportado == null || soportado) {
+            Savepoint savepoint = soportado == null ? con.setSavepoint() : null;
+            try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql), new String[]{"ID"})) {
+                for (int i : lote) {
+                    binder.bind(ps, items.get(i));
+                    ps.addBatch();
+                }
+                int[] conteos = executeBatch(ps, lote);
+
+                int k = 0;
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next() && k < lote.size()) {
+                        ids[lote.get(k)] = rs.getInt(1);
+                        afectados[lote.get(k)] = conteos[k];
+                        k++;
+                    }
+                } catch (SQLFeatureNotSupportedException e) {
+                    k = -1;
+                }
+
+                if (k == lote.size()) {
+                    batchGeneratedKeysSupported = Boolean.TRUE;
+                    return;
+                }
+                if (savepoint == null) {
+                    throw new SQLException("El driver no retornó las llaves generadas del lote");
+                }
+            }
+            // El driver no retorna llaves para lotes: deshacer el grupo y repetir fila por fila
+            con.rollback(savepoint);
+            batchGeneratedKeysSupported = Boolean.FALSE;
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(ViajeServiceEvent.sql(sql), new String[]{"ID"})) {
+            for (int i : lote) {
+                binder.bind(ps, items.get(i));
+                try {
+                    afectados[i] = ps.executeUpdate();
+                } catch (SQLException e) {
+                    throw new BatchRowException(i, e);
+                }
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (!rs.next()) {
+                        throw new SQLException("No se obtuvo ID generado para Viaje");
+                    }
+                    ids[i] = rs.getInt(1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Llama a executeBatch y traduce un BatchUpdateException en el error de
+     * la fila que lo provocó. Según el driver, la fila fallida es la primera
+     * marcada como EXECUTE_FAILED o, si el driver se detuvo en ella, la
+     * siguiente a los conteos recibidos.
+     */
+    private static int[] executeBatch(PreparedStatement ps, List<Integer> lote) throws SQLException {
+        try {
+            return ps.executeBatch();
+        } catch (BatchUpdateException e) {
+            int[] conteos = e.getUpdateCounts();
+            int fallida = conteos == null ? 0 : conteos.length;
+            if (conteos != null) {
+                for (int k = 0; k < conteos.length; k++) {
+                    if (conteos[k] == Statement.EXECUTE_FAILED) {
+                        fallida = k;
+                        break;
+                    }
+                }
+            }
+            throw new BatchRowException(lote.get(Math.min(fallida, lote.size() - 1)), e);
+        }
+    }
+
+    /**
+     * Asigna los parámetros de INSERT_SQL.
+     */
+    private static void bindInsert(PreparedStatement ps, Viaje v) throws SQLException {
+        ps.setString(1, v.getOrigen());
+        ps.setString(2, v.getDestino());
+        ps.setTimestamp(3, new Timestamp(v.getFechaSalida().getTime()));
+        ps.setTimestamp(4, new Timestamp(v.getFechaLlegada().getTime()));
+        ps.setString(5, v.getEstado());
+    }
+
+    /**
+     * Asigna los parámetros de UPDATE_SQL.
+     */
+    private static void bindUpdate(PreparedStatement ps, Viaje v) throws SQLException {
+        bindInsert(ps, v);
+        ps.setInt(6, v.getId());
+    }
+
+    /**
+     * Registra los parámetros de salida de una cláusula RETURNING ... INTO
+     * con las columnas de RETURNING_COLUMNS.
+     *
+     * @param cs El CallableStatement a configurar
+     * @param primero Índice del primer parámetro de salida
+     * @throws SQLException si no se pueden registrar los parámetros
+     */
+    private static void registerReturning(CallableStatement cs, int primero) throws SQLException {
+        cs.registerOutParameter(primero, Types.INTEGER);
+        cs.registerOutParameter(primero + 1, Types.VARCHAR);
+        cs.registerOutParameter(primero + 2, Types.VARCHAR);
+        cs.registerOutParameter(primero + 3, Types.TIMESTAMP);
+        cs.registerOutParameter(primero + 4, Types.TIMESTAMP);
+        cs.registerOutParameter(primero + 5, Types.VARCHAR);
+    }
+
+    /**
+     * Equivalente de mapRow para los parámetros de salida de RETURNING ... INTO.
+     *
+     * @param cs El CallableStatement ya ejecutado
+     * @param primero Índice del primer parámetro de salida
+     * @return Un objeto Viaje con los datos retornados
+     * @throws SQLException si ocurre un error al leer los parámetros
+     */
+    private static Viaje mapReturning(CallableStatement cs, int primero) throws SQLException {
+        Viaje v = new Viaje();
+
+        v.setId(cs.getInt(primero));
+        v.setOrigen(cs.getString(primero + 1));
+        v.setDestino(cs.getString(primero + 2));
+
+        Timestamp tsSalida = cs.getTimestamp(primero + 3);
+        Timestamp tsLlegada = cs.getTimestamp(primero + 4);
+
+        v.setFechaSalida(tsSalida == null ? null : new java.util.Date(tsSalida.getTime()));
+        v.setFechaLlegada(tsLlegada == null ? null : new java.util.Date(tsLlegada.getTime()));
+        v.setEstado(cs.getString(primero + 5));
+
+        return v;
+    }
+
+    /**
+     * Escapa los comodines de LIKE (% y _) y el carácter de escape (\)
+     * para que el texto del usuario se compare de forma literal.
+     *
+     * @param texto Texto a escapar
+     * @return Texto seguro para usar en un patrón LIKE ... ESCAPE '\'
+     */
+    private static String escapeLike(String texto) {
+        return texto.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    /**
+     * Cierra los recursos JDBC indicados ignorando los errores de cierre.
+     * Los recursos null o ya cerrados se omiten.
+     *
+     * @param recursos Recursos a cerrar, en el orden en que deben cerrarse
+     */
+    private static void closeQuietly(AutoCloseable... recursos) {
+        for (AutoCloseable recurso : recursos) {
+            if (recurso == null) {
+                continue;
+            }
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                // Un error al cerrar no debe ocultar el resultado de la operación
+            }
+        }
+    }
+
+    /**
+     * Método auxiliar para convertir una fila del ResultSet en un objeto Viaje.
+     * Este patrón se conoce como "Row Mapper" y evita duplicación de código.
+     * Visible en el paquete para MapRowBenchmark (bench/src).
+     * 
+     * @param rs El ResultSet posicionado en la fila a convertir
+     * @return Un objeto Viaje con los datos de la fila
+     * @throws SQLException si ocurre un error al leer los datos
+     */
+    Viaje mapRow(ResultSet rs) throws SQLException {
+        Viaje v = new Viaje();
+
+        // Mapear los campos básicos
+        v.setId(rs.getInt("id"));
+        v.setOrigen(rs.getString("origen"));
+        v.setDestino(rs.getString("destino"));
+
+        // Obtener los timestamps de la base de datos
+        Timestamp tsSalida = rs.getTimestamp("fecha_salida");
+        Timestamp tsLlegada = rs.getTimestamp("fecha_llegada");
+
+        // Convertir Timestamp a java.util.Date (manejar valores null)
+        v.setFechaSalida(tsSalida == null ? null : new java.util.Date(tsSalida.getTime()));
+        v.setFechaLlegada(tsLlegada == null ? null : new java.util.Date(tsLlegada.getTime()));
+        v.setEstado(rs.getString("estado"));
+
+        return v;
+    }
+}
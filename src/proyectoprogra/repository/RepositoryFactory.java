@@ -0,0 +1,100 @@
+package proyectoprogra.repository;
+
+import java.util.Locale;
+
+/**
+ * Elige el almacenamiento de viajes que usa toda la aplicación.
+ *
+ * El almacenamiento se selecciona con la propiedad del sistema viajes.backend:
+ * - oracle (por defecto): tabla VIAJE de Oracle, a través de OracleConnector
+ * - memoria: InMemoryViajeRepository, para trabajar sin base de datos
+ *
+ * Ejemplo para ejecutar la aplicación sin Oracle:
+ * java -Dviajes.backend=memoria -jar ProyectoProgra.jar
+ *
+ * Con Oracle, las lecturas por ID pasan por un CachingViajeRepository.
+ *
+ * Todas las instancias de ViajeService creadas con el constructor por defecto
+ * comparten el mismo repositorio, de modo que la interfaz, los exportadores y
+ * las pruebas de rendimiento ven los mismos datos.
+ */
+public class RepositoryFactory {
+
+    // Propiedad del sistema que selecciona el almacenamiento
+    public static final String BACKEND_PROPERTY = "viajes.backend";
+
+    public static final String BACKEND_ORACLE = "oracle";
+    public static final String BACKEND_MEMORIA = "memoria";
+
+    // Repositorio compartido; se crea en el primer uso
+    private static ViajeRepository instancia;
+
+    private RepositoryFactory() {
+    }
+
+    /**
+     * Retorna el repositorio compartido, creándolo según viajes.backend
+     * si todavía no existe.
+     *
+     * @return Repositorio de viajes de la aplicación
+     * @throws IllegalArgumentException si viajes.backend tiene un valor desconocido
+     */
+    public static synchronized ViajeRepository getDefault() {
+        if (instancia == null) {
+            instancia = crear(getBackend());
+        }
+        return instancia;
+    }
+
+    /**
+     * Reemplaza el repositorio compartido. Útil en las pruebas de rendimiento
+     * para empezar cada medición con datos limpios.
+     *
+     * @param repositorio Nuevo repositorio compartido
+     * @throws IllegalArgumentException si repositorio es null
+     */
+    public static synchronized void setDefault(ViajeRepository repositorio) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("repositorio no puede ser null");
+        }
+        instancia = repositorio;
+    }
+
+    /**
+     * @return Nombre del almacenamiento configurado (oracle o memoria)
+     */
+    public static String getBackend() {
+        return System.getProperty(BACKEND_PROPERTY, BACKEND_ORACLE).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true si la aplicación trabaja contra Oracle y necesita conexión
+     */
+    public static boolean isOracle() {
+        ViajeRepository repositorio = getDefault();
+        if (repositorio instanceof CachingViajeRepository) {
+            repositorio = ((CachingViajeRepository) repositorio).getDelegate();
+        }
+        return repositorio instanceof OracleViajeRepository;
+    }
+
+    /**
+     * Crea un repositorio nuevo del tipo indicado.
+     *
+     * @param backend oracle o memoria
+     * @return Repositorio nuevo, independiente del compartido
+     * @throws IllegalArgumentException si el tipo es desconocido
+     */
+    public static ViajeRepository crear(String backend) {
+        switch (backend) {
+            case BACKEND_ORACLE:
+                // Cada getById a Oracle es un viaje de red: se cachean las lecturas por ID
+                return new CachingViajeRepository(new OracleViajeRepository());
+            case BACKEND_MEMORIA:
+                return new InMemoryViajeRepository();
+            default:
+                throw new IllegalArgumentException("Valor inválido para " + BACKEND_PROPERTY + ": '" + backend
+                        + "'. Debe ser '" + BACKEND_ORACLE + "' o '" + BACKEND_MEMORIA + "'");
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package proyectoprogra.repository;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
+
+/**
+ * Almacenamiento de viajes usado por ViajeService.
+ *
+ * Separa las reglas del servicio (validación, mensajes de error) del lugar
+ * donde se guardan los datos, para poder ejecutar la aplicación, los
+ * exportadores y las pruebas de rendimiento contra Oracle o contra un
+ * almacenamiento local sin base de datos.
+ *
+ * Contrato común a todas las implementaciones:
+ * - Los viajes recibidos ya fueron validados por ViajeService
+ * - Los viajes retornados son copias: modificarlos no altera los datos guardados
+ * - Las listas se retornan ordenadas por ID
+ * - Los errores de acceso a datos se lanzan como RuntimeException
+ * - Las lecturas y escrituras trabajan sobre los viajes activos; los viajes
+ *   archivados (archiveBefore) solo se leen con listHistory y searchHistory
+ *
+ * Implementaciones disponibles:
+ * - OracleViajeRepository: tabla VIAJE de Oracle (por defecto)
+ * - InMemoryViajeRepository: memoria del proceso, sin conexión a base de datos
+ *
+ * La implementación que usa la aplicación se elige con RepositoryFactory.
+ */
+public interface ViajeRepository {
+
+    // Solape de la sincronización incremental con la marca anterior (ms), para
+    // cubrir transacciones que se confirman después de asignar FECHA_MODIFICACION
+    long SOLAPE_SINCRONIZACION_MS = 10_000;
+
+    /**
+     * Inserta un viaje y retorna la fila tal como quedó guardada.
+     *
+     * @param v Viaje a crear (sin ID, se genera automáticamente)
+     * @return El viaje creado con el ID generado
+     */
+    Viaje create(Viaje v);
+
+    /**
+     * @param id ID del viaje a buscar
+     * @return El viaje encontrado, o null si no existe
+     */
+    Viaje getById(int id);
+
+    /**
+     * @return Todos los viajes ordenados por ID
+     */
+    List<Viaje> listAll();
+
+    /**
+     * Obtiene una página de viajes cuyo ID es mayor que afterId.
+     *
+     * @param afterId ID del último viaje de la página anterior (0 para la primera página)
+     * @param limit Número máximo de viajes a retornar (positivo)
+     * @return Lista con hasta limit viajes; vacía cuando no hay más páginas
+     */
+    List<Viaje> listPage(int afterId, int limit);
+
+    /**
+     * Busca viajes cuyo origen o destino comienza con el texto indicado,
+     * sin distinguir mayúsculas/minúsculas.
+     *
+     * @param query Texto a buscar (no vacío)
+     * @param limit Número máximo de viajes a retornar (positivo)
+     * @return Viajes que coinciden ordenados por ID
+     */
+    List<Viaje> search(String query, int limit);
+
+    /**
+     * Obtiene una página de los viajes que salen en un rango de fechas,
+     * con paginación por clave (ID mayor que afterId).
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes, o null para cualquier estado
+     * @param afterId ID del último viaje de la página anterior (0 para la primera página)
+     * @param limit Número máximo de viajes a retornar (positivo)
+     * @return Viajes con fecha de salida en [desde, hasta) ordenados por ID
+     */
+    List<Viaje> listBetween(Date desde, Date hasta, String estado, int afterId, int limit);
+
+    /**
+     * Obtiene todos los viajes que salen en un rango de fechas con una sola
+     * lectura del rango (sin paginar).
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes, o null para cualquier estado
+     * @return Viajes con fecha de salida en [desde, hasta) ordenados por ID
+     */
+    List<Viaje> listBetween(Date desde, Date hasta, String estado);
+
+    /**
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes, o null para cualquier estado
+     * @return Número de viajes con fecha de salida en [desde, hasta)
+     */
+    int countBetween(Date desde, Date hasta, String estado);
+
+    /**
+     * Obtiene los cambios desde una marca de sincronización.
+     * Un mismo cambio puede recibirse más de una vez: aplicarlo debe ser idempotente.
+     *
+     * @param desde Marca de la sincronización anterior, o null para una carga completa
+     * @return Cambios desde la marca y la nueva marca de sincronización
+     */
+    ViajeDelta listChangesSince(Timestamp desde);
+
+    /**
+     * Recorre todos los viajes ordenados por ID como un Stream perezoso.
+     * Debe usarse con try-with-resources para liberar los recursos del recorrido.
+     *
+     * @return Stream de viajes que libera sus recursos al cerrarse
+     */
+    Stream<Viaje> stream();
+
+    /**
+     * Actualiza un viaje existente y retorna la fila tal como quedó guardada.
+     *
+     * @param v Viaje con los datos actualizados (ID positivo)
+     * @return El viaje actualizado, o null si no existe un viaje con ese ID
+     */
+    Viaje update(Viaje v);
+
+    /**
+     * @param id ID del viaje a eliminar
+     * @return true si se eliminó el viaje, false si no existía
+     */
+    boolean delete(int id);
+
+    /**
+     * Crea varios viajes en una sola transacción.
+     *
+     * @param viajes Viajes a crear
+     * @return Resultado por fila, en el orden de la entrada
+     */
+    BatchResult createAll(List<Viaje> viajes);
+
+    /**
+     * Actualiza varios viajes en una sola transacción.
+     *
+     * @param viajes Viajes con los datos actualizados (ID positivo)
+     * @return Resultado por fila; NOT_FOUND para los IDs que no existen
+     */
+    BatchResult updateAll(List<Viaje> viajes);
+
+    /**
+     * Elimina varios viajes en una sola transacción.
+     *
+     * @param ids IDs de los viajes a eliminar (positivos)
+     * @return Resultado por ID; NOT_FOUND para los IDs que no existían
+     */
+    BatchResult deleteAll(int... ids);
+
+    /**
+     * Aplica una lista de cambios en una sola transacción, de forma idempotente:
+     * las claves de cada cambio (MutacionViaje.getClaves) se guardan junto con
+     * el cambio, y los cambios cuyas claves ya se aplicaron se omiten.
+     *
+     * Los cambios sobre un ID temporal se resuelven con el ID que generó la
+     * creación de su primera clave; si esa creación nunca se aplicó, una
+     * eliminación no hace nada y una actualización se reporta como NOT_FOUND.
+     *
+     * @param mutaciones Cambios a aplicar, ya validados
+     * @return Resultado por cambio, en el orden de la entrada; id es el ID real del viaje
+     * @throws UnsupportedOperationException si el almacenamiento no puede guardar las claves
+     */
+    BatchResult applyMutations(List<MutacionViaje> mutaciones);
+
+    /**
+     * Mueve al historial, en una sola transacción, hasta limit viajes cuya
+     * fecha de llegada es anterior a limite. Los viajes movidos dejan de ser
+     * activos y la sincronización incremental los reporta como eliminados.
+     *
+     * @param limite Fecha de llegada a partir de la cual un viaje sigue activo
+     * @param limit Número máximo de viajes a mover (positivo)
+     * @return IDs de los viajes movidos; menos de limit cuando ya no quedan más
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     */
+    List<Integer> archiveBefore(Date limite, int limit);
+
+    /**
+     * @return Todos los viajes archivados ordenados por ID
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     */
+    List<Viaje> listHistory();
+
+    /**
+     * Busca en el historial con las mismas reglas que search.
+     *
+     * @param query Texto a buscar (no vacío)
+     * @param limit Número máximo de viajes a retornar (positivo)
+     * @return Viajes archivados que coinciden ordenados por ID
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     */
+    List<Viaje> searchHistory(String query, int limit);
+
+    /**
+     * Configura cuántas filas se leen por viaje de red en las lecturas masivas.
+     * Las implementaciones sin red pueden ignorar el valor.
+     *
+     * @param fetchSize Número de filas (positivo)
+     */
+    void setFetchSize(int fetchSize);
+
+    int getFetchSize();
+
+    /**
+     * Configura cuántas filas se envían por lote en createAll, updateAll y deleteAll.
+     * Las implementaciones sin red pueden ignorar el valor.
+     *
+     * @param batchSize Número de filas (positivo)
+     */
+    void setBatchSize(int batchSize);
+
+    int getBatchSize();
+}
@@ -0,0 +1,112 @@
+package proyectoprogra.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una operación por lotes de ViajeService
+ * (createAll, updateAll o deleteAll).
+ *
+ * Contiene un resultado por cada fila de entrada, en el mismo orden en que
+ * se recibieron, e indica si la transacción completa se confirmó.
+ *
+ * Reglas:
+ * - Las filas inválidas se reportan como INVALID y no se envían a la base de datos
+ * - Si el lote falla, la transacción se deshace completa: la fila que causó el
+ *   error queda como FAILED y las demás como ROLLED_BACK
+ */
+public class BatchResult {
+
+    /**
+     * Estado final de una fila del lote.
+     */
+    public enum Status {
+        // La fila se aplicó y la transacción se confirmó
+        OK,
+        // La fila no afectó ningún registro (update/delete de un ID inexistente)
+        NOT_FOUND,
+        // La fila no pasó la validación y no se envió a la base de datos
+        INVALID,
+        // La fila provocó el error que deshizo la transacción
+        FAILED,
+        // La fila no se aplicó porque otra fila hizo fallar la transacción
+        ROLLED_BACK
+    }
+
+    /**
+     * Resultado de una fila del lote.
+     *
+     * @param index Posición de la fila en la entrada (0-based)
+     * @param id ID del viaje (el generado en createAll; 0 si no aplica)
+     * @param status Estado final de la fila
+     * @param message Detalle del error, o null si la fila terminó en OK
+     */
+    public record RowResult(int index, int id, Status status, String message) {
+    }
+
+    private final List<RowResult> rows;
+    private final boolean committed;
+
+    public BatchResult(List<RowResult> rows, boolean committed) {
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+        this.committed = committed;
+    }
+
+    /**
+     * @return Resultados por fila, en el orden de la entrada
+     */
+    public List<RowResult> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return true si la transacción se confirmó en la base de datos
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return Número de filas que terminaron en estado OK
+     */
+    public int getSuccessCount() {
+        return count(Status.OK);
+    }
+
+    /**
+     * @param status Estado a contar
+     * @return Número de filas que terminaron en el estado indicado
+     */
+    public int count(Status status) {
+        int total = 0;
+        for (RowResult row : rows) {
+            if (row.status() == status) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Retorna los IDs de las filas que terminaron en OK, en el orden de la entrada.
+     * En createAll son los IDs generados por la base de datos.
+     *
+     * @return IDs de las filas aplicadas
+     */
+    public int[] getIds() {
+        return rows.stream()
+                .filter(r -> r.status() == Status.OK)
+                .mapToInt(RowResult::id)
+                .toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "rows=" + rows.size() +
+                ", ok=" + getSuccessCount() +
+                ", committed=" + committed +
+                '}';
+    }
+}
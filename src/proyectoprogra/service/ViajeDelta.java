@@ -0,0 +1,64 @@
+package proyectoprogra.service;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Conjunto de cambios de la tabla VIAJE desde una marca de sincronización,
+ * retornado por ViajeService.listChangesSince.
+ *
+ * Contiene los viajes insertados o actualizados, los IDs de los viajes
+ * eliminados y la nueva marca que debe usarse en la siguiente sincronización.
+ */
+public class ViajeDelta {
+    // Viajes insertados o actualizados, ordenados por ID
+    private final List<Viaje> modificados;
+    // IDs de los viajes eliminados
+    private final List<Integer> eliminados;
+    // Marca de sincronización para la siguiente consulta
+    private final Timestamp marca;
+    // true si es una carga completa (el cache debe reemplazarse, no combinarse)
+    private final boolean completo;
+
+    public ViajeDelta(List<Viaje> modificados, List<Integer> eliminados, Timestamp marca, boolean completo) {
+        this.modificados = Collections.unmodifiableList(modificados);
+        this.eliminados = Collections.unmodifiableList(eliminados);
+        this.marca = marca;
+        this.completo = completo;
+    }
+
+    public List<Viaje> getModificados() {
+        return modificados;
+    }
+
+    public List<Integer> getEliminados() {
+        return eliminados;
+    }
+
+    public Timestamp getMarca() {
+        return marca;
+    }
+
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    /**
+     * @return Número total de cambios (modificados + eliminados)
+     */
+    public int size() {
+        return modificados.size() + eliminados.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ViajeDelta{" +
+                "modificados=" + modificados.size() +
+                ", eliminados=" + eliminados.size() +
+                ", marca=" + marca +
+                ", completo=" + completo +
+                '}';
+    }
+}
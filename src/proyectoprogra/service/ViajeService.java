@@ -1,26 +1,124 @@
 package proyectoprogra.service;
 
-import java.sql.*;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
-import proyectoprogra.database.OracleConnector;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import proyectoprogra.metrics.MetricsRegistry;
+import proyectoprogra.metrics.ViajeServiceEvent;
+import proyectoprogra.model.MutacionViaje;
 import proyectoprogra.model.Viaje;
+import proyectoprogra.repository.CachingViajeRepository;
+import proyectoprogra.repository.RepositoryFactory;
+import proyectoprogra.repository.ViajeRepository;
 
 /**
  * Servicio para manejar las operaciones CRUD (Crear, Leer, Actualizar, Eliminar)
- * de la entidad Viaje en la base de datos Oracle.
- * 
- * Esta clase implementa el patrón DAO (Data Access Object) y maneja todas
- * las operaciones de persistencia relacionadas con los viajes.
+ * de la entidad Viaje.
+ *
+ * El servicio valida los datos y aplica las reglas de negocio; el acceso a
+ * los datos lo resuelve un ViajeRepository (Oracle por defecto, o memoria
+ * para trabajar sin base de datos; ver RepositoryFactory).
+ *
+ * Cada operación de datos registra su latencia en MetricsRegistry como
+ * "ViajeService.operación" (visible por JMX) y, con Java Flight Recorder
+ * activo, un ViajeServiceEvent con el SQL ejecutado y las filas.
+ *
+ * Las lecturas trabajan sobre los viajes activos. Los viajes terminados que
+ * ArchivadorViajes movió al historial solo se incluyen al pedirlo de forma
+ * explícita (listAll(true), search(query, limit, true) y listHistory).
  */
 public class ViajeService {
 
+    // Solape de la sincronización incremental con la marca anterior (ms), para
+    // cubrir transacciones que se confirman después de asignar FECHA_MODIFICACION
+    public static final long SOLAPE_SINCRONIZACION_MS = ViajeRepository.SOLAPE_SINCRONIZACION_MS;
+
+    // Almacenamiento de los viajes
+    private final ViajeRepository repository;
+
+    /**
+     * Crea el servicio sobre el repositorio compartido de la aplicación.
+     */
+    public ViajeService() {
+        this(RepositoryFactory.getDefault());
+    }
+
+    /**
+     * Crea el servicio sobre un repositorio específico.
+     *
+     * @param repository Almacenamiento de los viajes
+     * @throws IllegalArgumentException si repository es null
+     */
+    public ViajeService(ViajeRepository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("repository no puede ser null");
+        }
+        this.repository = repository;
+    }
+
+    /**
+     * @return Repositorio que usa este servicio
+     */
+    public ViajeRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return Estadísticas del cache de getById, o null si el repositorio no usa cache
+     */
+    public CachingViajeRepository.CacheStats getCacheStats() {
+        if (repository instanceof CachingViajeRepository) {
+            return ((CachingViajeRepository) repository).getStats();
+        }
+        return null;
+    }
+
+    /**
+     * Configura cuántas filas trae el driver en cada viaje de red al leer
+     * listas de viajes (listAll, listPage y stream).
+     *
+     * @param fetchSize Número de filas por viaje de red (debe ser positivo)
+     * @throws IllegalArgumentException si fetchSize no es positivo
+     */
+    public void setFetchSize(int fetchSize) {
+        repository.setFetchSize(fetchSize);
+    }
+
+    /**
+     * @return Número de filas que el driver trae por viaje de red
+     */
+    public int getFetchSize() {
+        return repository.getFetchSize();
+    }
+
+    /**
+     * Configura cuántas filas se envían a la base de datos en cada
+     * executeBatch de createAll, updateAll y deleteAll.
+     *
+     * @param batchSize Número de filas por lote (debe ser positivo)
+     * @throws IllegalArgumentException si batchSize no es positivo
+     */
+    public void setBatchSize(int batchSize) {
+        repository.setBatchSize(batchSize);
+    }
+
     /**
-     * Crea un nuevo viaje en la base de datos.
-     * 
+     * @return Número de filas que se envían en cada executeBatch
+     */
+    public int getBatchSize() {
+        return repository.getBatchSize();
+    }
+
+    /**
+     * Crea un nuevo viaje.
+     *
      * @param v El objeto Viaje a crear (sin ID, se genera automáticamente)
-     * @return El objeto Viaje creado con el ID generado por la base de datos
+     * @return El objeto Viaje creado con el ID generado
      * @throws RuntimeException si ocurre un error durante la inserción
      * @throws IllegalArgumentException si los datos del viaje no son válidos
      */
@@ -28,180 +126,507 @@ public class ViajeService {
         // Validar los datos del viaje antes de insertarlo
         validate(v);
 
-        // SQL para insertar un nuevo viaje con parámetros preparados (previene SQL injection)
-        String sql = "INSERT INTO VIAJE (origen, destino, fecha_salida, fecha_llegada, estado) VALUES (?,?,?,?,?)";
-
-        // Try-with-resources para manejo automático de recursos
-        try (Connection con = OracleConnector.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql, new String[]{"ID"}))
-        {
-
-            // Establecer los parámetros del PreparedStatement
-            ps.setString(1, v.getOrigen());
-            ps.setString(2, v.getDestino());
-            // Convertir java.util.Date a java.sql.Timestamp para la base de datos
-            ps.setTimestamp(3, new Timestamp(v.getFechaSalida().getTime()));
-            ps.setTimestamp(4, new Timestamp(v.getFechaLlegada().getTime()));
-            ps.setString(5, v.getEstado());
-
-            // Ejecutar la inserción
-            int affected = ps.executeUpdate();
-            
-            // Verificar que se insertó al menos un registro
-            if (affected == 0) {
-                throw new SQLException("No se insertó ningún registro de Viaje");
-            }
-
-            // Obtener el ID generado automáticamente por la base de datos
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    int generatedId = rs.getInt(1);
-                    // Retornar el viaje completo con el ID generado
-                    return getById(generatedId);
-                } else {
-                    throw new SQLException("No se obtuvo ID generado para Viaje");
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al crear Viaje", e);
-        }
+        return medir("ViajeService.create", () -> repository.create(v));
     }
 
     /**
      * Busca un viaje por su ID único.
-     * 
+     *
+     * Con el repositorio por defecto de Oracle, la lectura pasa por un cache
+     * LRU con tiempo de vida que se invalida al actualizar o eliminar
+     * (ver CachingViajeRepository y getCacheStats).
+     *
      * @param id El ID del viaje a buscar
      * @return El objeto Viaje encontrado o null si no existe
      * @throws RuntimeException si ocurre un error durante la consulta
      */
     public Viaje getById(int id) {
-        // SQL para buscar un viaje específico por ID
-        String sql = "SELECT id, origen, destino, fecha_salida, fecha_llegada, estado FROM VIAJE WHERE id = ?";
+        return medir("ViajeService.getById", () -> repository.getById(id));
+    }
 
-        try (Connection con = OracleConnector.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+    /**
+     * Obtiene todos los viajes activos ordenados por ID (sin el historial).
+     *
+     * @return Lista de todos los viajes activos
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public List<Viaje> listAll() {
+        return medir("ViajeService.listAll", () -> repository.listAll());
+    }
 
-            ps.setInt(1, id);
+    /**
+     * Obtiene todos los viajes ordenados por ID, incluyendo o no los archivados.
+     *
+     * @param incluirHistorial true para agregar los viajes del historial
+     * @return Lista de viajes ordenada por ID
+     * @throws UnsupportedOperationException si se pide el historial y el almacenamiento no lo tiene
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public List<Viaje> listAll(boolean incluirHistorial) {
+        if (!incluirHistorial) {
+            return listAll();
+        }
+        return medir("ViajeService.listAllConHistorial",
+                () -> unirPorId(repository.listAll(), repository.listHistory(), Integer.MAX_VALUE));
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    // Convertir el ResultSet a objeto Viaje
-                    return mapRow(rs);
-                }
-                // Retornar null si no se encuentra el viaje
-                return null;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al obtener Viaje por id=" + id, e);
+    /**
+     * Obtiene los viajes archivados ordenados por ID.
+     *
+     * @return Lista de los viajes del historial
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public List<Viaje> listHistory() {
+        return medir("ViajeService.listHistory", () -> repository.listHistory());
+    }
+
+    /**
+     * Mueve al historial hasta limit viajes que llegaron antes de limite, en
+     * una sola transacción. Lo usa ArchivadorViajes, que llama en bucle hasta
+     * que un lote no mueve ningún viaje: un lote puede traer menos de limit
+     * IDs aunque queden viajes por archivar (los bloqueados se saltan).
+     *
+     * @param limite Fecha de llegada a partir de la cual un viaje sigue activo
+     * @param limit Número máximo de viajes a mover (debe ser positivo)
+     * @return IDs de los viajes movidos
+     * @throws IllegalArgumentException si limite es null o limit no es positivo
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     * @throws RuntimeException si ocurre un error durante la transacción
+     */
+    public List<Integer> archiveBefore(Date limite, int limit) {
+        if (limite == null) {
+            throw new IllegalArgumentException("limite no puede ser null");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit debe ser positivo: " + limit);
         }
+
+        return medir("ViajeService.archiveBefore", () -> repository.archiveBefore(limite, limit));
     }
 
     /**
-     * Obtiene todos los viajes de la base de datos ordenados por ID.
-     * 
-     * @return Lista de todos los viajes en la base de datos
+     * Obtiene una página de viajes ordenados por ID usando paginación por clave
+     * (keyset): retorna los viajes cuyo ID es mayor que afterId.
+     *
+     * A diferencia de OFFSET, el costo de cada página no crece con el número
+     * de página porque la consulta arranca directamente desde el índice de la
+     * llave primaria.
+     *
+     * @param afterId ID del último viaje de la página anterior (0 para la primera página)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @return Lista con hasta limit viajes; vacía cuando no hay más páginas
+     * @throws IllegalArgumentException si limit no es positivo
      * @throws RuntimeException si ocurre un error durante la consulta
+     *
+     * Ejemplo de recorrido completo:
+     * List<Viaje> pagina = service.listPage(0, 100);
+     * while (!pagina.isEmpty()) {
+     *     // procesar página
+     *     pagina = service.listPage(pagina.get(pagina.size() - 1).getId(), 100);
+     * }
      */
-    public List<Viaje> listAll() {
-        // SQL para obtener todos los viajes ordenados por ID
-        String sql = "SELECT id, origen, destino, fecha_salida, fecha_llegada, estado FROM VIAJE ORDER BY id";
+    public List<Viaje> listPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit debe ser positivo: " + limit);
+        }
 
-        List<Viaje> list = new ArrayList<>();
+        return medir("ViajeService.listPage", () -> repository.listPage(afterId, limit));
+    }
 
-        try (Connection con = OracleConnector.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
+    /**
+     * Obtiene una página de los viajes que salen en un rango de fechas,
+     * ordenados por ID, con paginación por clave igual que listPage.
+     *
+     * En Oracle el rango se resuelve con un range scan de los índices sobre
+     * fecha_salida (sql/migrations/V5__indices_fecha_estado_ciudad.sql), sin
+     * recorrer la tabla completa.
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes (Viaje.ESTADO_*), o null para cualquiera
+     * @param afterId ID del último viaje de la página anterior (0 para la primera página)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @return Viajes con fecha de salida en [desde, hasta); vacía cuando no hay más páginas
+     * @throws IllegalArgumentException si el rango, el estado o limit no son válidos
+     * @throws RuntimeException si ocurre un error durante la consulta
+     *
+     * Ejemplo: viajes que salen hoy, en páginas de 100
+     * List<Viaje> pagina = service.listBetween(hoy, manana, null, 0, 100);
+     */
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado, int afterId, int limit) {
+        validarRango(desde, hasta, estado);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit debe ser positivo: " + limit);
+        }
 
-            // Iterar por todos los resultados y convertirlos a objetos Viaje
-            while (rs.next()) {
-                list.add(mapRow(rs));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al listar Viajes", e);
+        return medir("ViajeService.listBetween",
+                () -> repository.listBetween(desde, hasta, estado, afterId, limit));
+    }
+
+    /**
+     * Obtiene todos los viajes que salen en un rango de fechas con una sola
+     * consulta: el rango se recorre y se ordena una vez, y las filas llegan
+     * en bloques de fetchSize viajes por la misma conexión.
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes (Viaje.ESTADO_*), o null para cualquiera
+     * @return Viajes con fecha de salida en [desde, hasta) ordenados por ID
+     * @throws IllegalArgumentException si el rango o el estado no son válidos
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public List<Viaje> listBetween(Date desde, Date hasta, String estado) {
+        validarRango(desde, hasta, estado);
+
+        return medir("ViajeService.listBetween", () -> repository.listBetween(desde, hasta, estado));
+    }
+
+    /**
+     * Cuenta los viajes que salen en un rango de fechas sin leerlos.
+     *
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param estado Estado de los viajes (Viaje.ESTADO_*), o null para cualquiera
+     * @return Número de viajes con fecha de salida en [desde, hasta)
+     * @throws IllegalArgumentException si el rango o el estado no son válidos
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public int countBetween(Date desde, Date hasta, String estado) {
+        validarRango(desde, hasta, estado);
+
+        return medir("ViajeService.countBetween", () -> repository.countBetween(desde, hasta, estado));
+    }
+
+    /**
+     * Busca viajes cuyo origen o destino comienza con el texto indicado,
+     * sin distinguir mayúsculas/minúsculas.
+     *
+     * En Oracle la búsqueda usa los índices basados en función LOWER(origen)
+     * y LOWER(destino) definidos en sql/create_index_viaje_busqueda.sql.
+     *
+     * @param query Texto a buscar (se ignoran espacios al inicio y al final)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @return Viajes que coinciden ordenados por ID; vacía si query es null o vacío
+     * @throws IllegalArgumentException si limit no es positivo
+     * @throws RuntimeException si ocurre un error durante la consulta
+     *
+     * Ejemplo: search("guate", 50) encontrará viajes con origen="Guatemala"
+     * o destino="Guatemala - Zona 1"
+     */
+    public List<Viaje> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit debe ser positivo: " + limit);
         }
 
-        return list;
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return medir("ViajeService.search", () -> repository.search(query, limit));
+    }
+
+    /**
+     * Busca como search(query, limit), incluyendo o no los viajes archivados.
+     *
+     * @param query Texto a buscar (se ignoran espacios al inicio y al final)
+     * @param limit Número máximo de viajes a retornar (debe ser positivo)
+     * @param incluirHistorial true para buscar también en el historial
+     * @return Viajes que coinciden ordenados por ID
+     * @throws IllegalArgumentException si limit no es positivo
+     * @throws UnsupportedOperationException si se pide el historial y el almacenamiento no lo tiene
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public List<Viaje> search(String query, int limit, boolean incluirHistorial) {
+        List<Viaje> activos = search(query, limit);
+        if (!incluirHistorial || query == null || query.isBlank()) {
+            return activos;
+        }
+        List<Viaje> archivados = medir("ViajeService.searchHistory",
+                () -> repository.searchHistory(query, limit));
+        return unirPorId(activos, archivados, limit);
     }
 
     /**
-     * Actualiza un viaje existente en la base de datos.
-     * 
+     * Obtiene los cambios de los viajes desde una marca de sincronización.
+     *
+     * La consulta se solapa SOLAPE_SINCRONIZACION_MS con la marca anterior
+     * para no perder cambios confirmados tarde. Por eso un mismo cambio puede
+     * recibirse más de una vez: aplicarlo debe ser idempotente.
+     *
+     * @param desde Marca retornada por la sincronización anterior, o null para
+     *              una carga completa (todos los viajes, sin eliminados)
+     * @return Cambios desde la marca y la nueva marca de sincronización
+     * @throws RuntimeException si ocurre un error durante la consulta
+     */
+    public ViajeDelta listChangesSince(Timestamp desde) {
+        return medir("ViajeService.listChangesSince", () -> repository.listChangesSince(desde));
+    }
+
+    /**
+     * Recorre todos los viajes ordenados por ID como un Stream perezoso.
+     *
+     * Los viajes se leen a medida que el Stream los consume, por lo que nunca
+     * se mantiene la tabla completa en memoria. Debe usarse siempre con
+     * try-with-resources para liberar la conexión.
+     *
+     * @return Stream de viajes que libera sus recursos al cerrarse
+     * @throws RuntimeException si ocurre un error al abrir la consulta o al leer filas
+     *
+     * Ejemplo de uso:
+     * try (Stream<Viaje> viajes = service.stream()) {
+     *     viajes.forEach(v -> procesar(v));
+     * } // la conexión se devuelve al pool automáticamente
+     */
+    public Stream<Viaje> stream() {
+        // Se mide la apertura del recorrido; la lectura de las filas ocurre al consumir el Stream
+        return medir("ViajeService.stream", () -> repository.stream());
+    }
+
+    /**
+     * Actualiza un viaje existente.
+     *
      * @param v El objeto Viaje con los datos actualizados (debe tener un ID válido)
-     * @return El objeto Viaje actualizado
+     * @return El objeto Viaje actualizado, tal como quedó guardado
      * @throws IllegalArgumentException si el ID es inválido o los datos no son válidos
      * @throws NoSuchElementException si el viaje no existe
      * @throws RuntimeException si ocurre un error durante la actualización
      */
     public Viaje update(Viaje v) {
         // Verificar que el viaje tenga un ID válido para actualizar
-        if (v.getId() <= 0) {
+        if (v == null || v.getId() <= 0) {
             throw new IllegalArgumentException("id inválido para update");
         }
 
         // Validar los datos del viaje
         validate(v);
 
-        // SQL para actualizar un viaje existente
-        String sql = "UPDATE VIAJE SET origen=?, destino=?, fecha_salida=?, fecha_llegada=?, estado=? WHERE id=?";
+        Viaje actualizado = medir("ViajeService.update", () -> repository.update(v));
+        if (actualizado == null) {
+            throw new NoSuchElementException("No existe viaje con id=" + v.getId());
+        }
+        return actualizado;
+    }
+
+    /**
+     * Elimina un viaje por su ID.
+     *
+     * @param id El ID del viaje a eliminar
+     * @return true si se eliminó el viaje, false si no existía
+     * @throws RuntimeException si ocurre un error durante la eliminación
+     */
+    public boolean delete(int id) {
+        return medir("ViajeService.delete", () -> repository.delete(id));
+    }
 
-        try (Connection con = OracleConnector.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+    /**
+     * Crea varios viajes en una sola transacción.
+     *
+     * En Oracle las filas se envían en grupos de batchSize con executeBatch,
+     * y los IDs generados se leen de las llaves generadas del lote.
+     *
+     * @param viajes Viajes a crear (sin ID, se generan automáticamente)
+     * @return Resultado por fila; en las filas OK, id es el ID generado
+     * @throws IllegalArgumentException si la lista es null
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    public BatchResult createAll(List<Viaje> viajes) {
+        if (viajes == null) {
+            throw new IllegalArgumentException("La lista de viajes no puede ser null");
+        }
+
+        return medir("ViajeService.createAll",
+                () -> executeBatch(viajes, this::validationError, repository::createAll));
+    }
 
-            // Establecer los parámetros para la actualización
-            ps.setString(1, v.getOrigen());
-            ps.setString(2, v.getDestino());
-            ps.setTimestamp(3, new Timestamp(v.getFechaSalida().getTime()));
-            ps.setTimestamp(4, new Timestamp(v.getFechaLlegada().getTime()));
-            ps.setString(5, v.getEstado());
-            ps.setInt(6, v.getId()); // ID para la cláusula WHERE
+    /**
+     * Actualiza varios viajes en una sola transacción.
+     *
+     * @param viajes Viajes con los datos actualizados (deben tener ID válido)
+     * @return Resultado por fila; NOT_FOUND para los IDs que no existen
+     * @throws IllegalArgumentException si la lista es null
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    public BatchResult updateAll(List<Viaje> viajes) {
+        if (viajes == null) {
+            throw new IllegalArgumentException("La lista de viajes no puede ser null");
+        }
 
-            int affected = ps.executeUpdate();
+        return medir("ViajeService.updateAll", () -> executeBatch(viajes,
+                v -> v != null && v.getId() <= 0 ? "id inválido para update" : validationError(v),
+                repository::updateAll));
+    }
 
-            // Verificar que se actualizó al menos un registro
-            if (affected == 0) {
-                throw new NoSuchElementException("No existe viaje con id=" + v.getId());
+    /**
+     * Elimina varios viajes en una sola transacción.
+     *
+     * @param ids IDs de los viajes a eliminar
+     * @return Resultado por ID; NOT_FOUND para los IDs que no existían
+     * @throws IllegalArgumentException si ids es null
+     * @throws RuntimeException si ocurre un error no atribuible a una fila (p. ej. conexión)
+     */
+    public BatchResult deleteAll(int... ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("ids no puede ser null");
+        }
+
+        List<Integer> lista = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            lista.add(id);
+        }
+
+        return medir("ViajeService.deleteAll", () -> executeBatch(lista,
+                id -> id <= 0 ? "id inválido para delete: " + id : null,
+                validos -> repository.deleteAll(validos.stream().mapToInt(Integer::intValue).toArray())));
+    }
+
+    /**
+     * Aplica una lista de cambios (creaciones, actualizaciones y eliminaciones)
+     * en una sola transacción, de forma idempotente.
+     *
+     * Cada cambio lleva sus claves únicas; el repositorio las guarda junto con
+     * el cambio y omite los cambios cuyas claves ya se aplicaron, por lo que
+     * reenviar la misma lista (por ejemplo, al reproducir el diario local
+     * después de una caída) no duplica viajes. Ver ViajeRepository.applyMutations.
+     *
+     * @param mutaciones Cambios a aplicar, en orden
+     * @return Resultado por cambio; en las filas OK, id es el ID real del viaje
+     * @throws IllegalArgumentException si la lista es null
+     * @throws UnsupportedOperationException si la base de datos no tiene la tabla
+     *         de claves (sql/create_table_viaje_mutacion_aplicada.sql)
+     * @throws RuntimeException si ocurre un error no atribuible a un cambio (p. ej. conexión)
+     */
+    public BatchResult applyMutations(List<MutacionViaje> mutaciones) {
+        if (mutaciones == null) {
+            throw new IllegalArgumentException("La lista de cambios no puede ser null");
+        }
+
+        return medir("ViajeService.applyMutations", () -> executeBatch(mutaciones, m -> {
+            if (m == null) {
+                return "El cambio no puede ser null";
             }
+            if (m.getId() == 0) {
+                return "id inválido para " + m.getTipo();
+            }
+            return m.getTipo() == MutacionViaje.Tipo.ELIMINAR ? null : validationError(m.getViaje());
+        }, repository::applyMutations));
+    }
 
-            // Retornar el viaje actualizado desde la base de datos
-            return getById(v.getId());
+    /**
+     * Ejecuta una operación del repositorio midiendo su latencia
+     * (MetricsRegistry) y emitiendo su evento de JFR (ViajeServiceEvent).
+     */
+    private static <T> T medir(String operacion, Supplier<T> tarea) {
+        return MetricsRegistry.time(operacion, () -> ViajeServiceEvent.medir(operacion, tarea));
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al actualizar Viaje id=" + v.getId(), e);
+    /**
+     * Valida los parámetros de listBetween y countBetween.
+     *
+     * @throws IllegalArgumentException si falta una fecha, hasta es anterior
+     *         a desde o el estado no es null ni uno de los permitidos
+     */
+    private static void validarRango(Date desde, Date hasta, String estado) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("desde y hasta son requeridos");
+        }
+        if (hasta.before(desde)) {
+            throw new IllegalArgumentException("hasta no puede ser antes de desde");
+        }
+        if (estado != null && !Viaje.ESTADO_EN_CURSO.equals(estado) && !Viaje.ESTADO_PENDIENTE.equals(estado)) {
+            throw new IllegalArgumentException("estado inválido: " + estado);
         }
     }
 
     /**
-     * Elimina un viaje de la base de datos por su ID.
-     * 
-     * @param id El ID del viaje a eliminar
-     * @return true si se eliminó el viaje, false si no existía
-     * @throws RuntimeException si ocurre un error durante la eliminación
+     * Une dos listas ordenadas por ID con IDs distintos (activos e historial)
+     * en una sola lista ordenada.
+     *
+     * @param limit Número máximo de viajes del resultado
      */
-    public boolean delete(int id) {
-        // SQL para eliminar un viaje por ID
-        String sql = "DELETE FROM VIAJE WHERE id=?";
+    private static List<Viaje> unirPorId(List<Viaje> a, List<Viaje> b, int limit) {
+        List<Viaje> unidos = new ArrayList<>(Math.min(a.size() + b.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (unidos.size() < limit && (i < a.size() || j < b.size())) {
+            if (j == b.size() || (i < a.size() && a.get(i).getId() < b.get(j).getId())) {
+                unidos.add(a.get(i++));
+            } else {
+                unidos.add(b.get(j++));
+            }
+        }
+        return unidos;
+    }
+
+    /**
+     * Valida las filas de un lote y envía solo las válidas al repositorio.
+     *
+     * Las filas inválidas se reportan como INVALID y no llegan al
+     * almacenamiento. Los resultados del repositorio se reubican en la
+     * posición que cada fila tenía en la entrada original.
+     *
+     * @param items Filas de entrada
+     * @param validator Retorna el mensaje de error de validación de una fila, o null si es válida
+     * @param operacion Ejecuta el lote de filas válidas en el repositorio
+     * @return Resultado por fila, en el orden de la entrada
+     */
+    private <T> BatchResult executeBatch(List<T> items, Function<T, String> validator,
+                                         Function<List<T>, BatchResult> operacion) {
+        BatchResult.RowResult[] resultados = new BatchResult.RowResult[items.size()];
+        List<Integer> posiciones = new ArrayList<>(items.size());
+        List<T> validos = new ArrayList<>(items.size());
+
+        // Validación previa: las filas inválidas no llegan al repositorio
+        for (int i = 0; i < items.size(); i++) {
+            String error;
+            try {
+                error = validator.apply(items.get(i));
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                resultados[i] = new BatchResult.RowResult(i, 0, BatchResult.Status.INVALID, error);
+            } else {
+                posiciones.add(i);
+                validos.add(items.get(i));
+            }
+        }
 
-        try (Connection con = OracleConnector.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        if (validos.isEmpty()) {
+            return new BatchResult(List.of(resultados), true);
+        }
 
-            ps.setInt(1, id);
-            int affected = ps.executeUpdate();
-            // Retornar true si se eliminó al menos un registro
-            return affected > 0;
+        BatchResult parcial = operacion.apply(validos);
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al eliminar Viaje id=" + id, e);
+        // Posición en la entrada de la fila que hizo fallar el lote, si la hubo
+        int fallida = -1;
+        for (BatchResult.RowResult fila : parcial.getRows()) {
+            if (fila.status() == BatchResult.Status.FAILED) {
+                fallida = posiciones.get(fila.index());
+            }
         }
+
+        // Traducir la posición dentro del lote válido a la posición en la entrada
+        for (BatchResult.RowResult fila : parcial.getRows()) {
+            int i = posiciones.get(fila.index());
+            String mensaje = fila.status() == BatchResult.Status.ROLLED_BACK && fallida >= 0
+                    ? "Transacción deshecha por el error de la fila " + fallida
+                    : fila.message();
+            resultados[i] = new BatchResult.RowResult(i, fila.id(), fila.status(), mensaje);
+        }
+        return new BatchResult(List.of(resultados), parcial.isCommitted());
     }
 
     /**
      * Valida que los datos de un viaje sean correctos antes de guardarlo.
-     * 
+     *
+     * Es público para que quien difiere la escritura (ViajeManager) pueda
+     * rechazar un viaje inválido en el momento, antes de encolarlo.
+     *
      * @param v El objeto Viaje a validar
      * @throws IllegalArgumentException si algún dato es inválido
      */
-    private void validate(Viaje v) {
+    public void validate(Viaje v) {
         // Verificar que el objeto no sea null
         if (v == null) {
             throw new IllegalArgumentException("Viaje no puede ser null");
@@ -241,30 +666,18 @@ public class ViajeService {
     }
 
     /**
-     * Método auxiliar para convertir una fila del ResultSet en un objeto Viaje.
-     * Este patrón se conoce como "Row Mapper" y evita duplicación de código.
-     * 
-     * @param rs El ResultSet posicionado en la fila a convertir
-     * @return Un objeto Viaje con los datos de la fila
-     * @throws SQLException si ocurre un error al leer los datos
+     * Valida un viaje y retorna el mensaje de error en lugar de lanzar la excepción.
+     * Se usa en las operaciones por lotes para reportar el error por fila.
+     *
+     * @param v El objeto Viaje a validar
+     * @return El mensaje de error, o null si el viaje es válido
      */
-    private Viaje mapRow(ResultSet rs) throws SQLException {
-        Viaje v = new Viaje();
-
-        // Mapear los campos básicos
-        v.setId(rs.getInt("id"));
-        v.setOrigen(rs.getString("origen"));
-        v.setDestino(rs.getString("destino"));
-
-        // Obtener los timestamps de la base de datos
-        Timestamp tsSalida = rs.getTimestamp("fecha_salida");
-        Timestamp tsLlegada = rs.getTimestamp("fecha_llegada");
-
-        // Convertir Timestamp a java.util.Date (manejar valores null)
-        v.setFechaSalida(tsSalida == null ? null : new java.util.Date(tsSalida.getTime()));
-        v.setFechaLlegada(tsLlegada == null ? null : new java.util.Date(tsLlegada.getTime()));
-        v.setEstado(rs.getString("estado"));
-
-        return v;
+    private String validationError(Viaje v) {
+        try {
+            validate(v);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
     }
 }
@@ -0,0 +1,212 @@
+package proyectoprogra.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Fachada asíncrona de ViajeService.
+ *
+ * Ejecuta las operaciones de base de datos fuera del Event Dispatch Thread y
+ * retorna CompletableFuture, para que la interfaz gráfica no se congele
+ * mientras espera a Oracle.
+ *
+ * Características:
+ * - Usa hilos virtuales cuando la JVM los soporta (Java 21+); en Java 17
+ *   usa un pool de hilos daemon
+ * - Cada lectura tiene un tiempo máximo: al agotarse, el futuro termina
+ *   con TimeoutException
+ * - Las escrituras (create, update, delete, submitEscritura) no tienen tiempo
+ *   máximo: un INSERT que tarda puede confirmarse igual, y reportarlo como
+ *   fallido llevaría al usuario a repetirlo y duplicar el viaje
+ * - Cancelar el futuro (o que se agote el tiempo) no interrumpe el hilo que
+ *   ejecuta la operación: interrumpir una llamada JDBC puede dejar inservible
+ *   la conexión del pool. La operación termina sola y su resultado se descarta
+ * - enEdt() entrega el resultado en el Event Dispatch Thread, listo para
+ *   actualizar componentes Swing
+ *
+ * Ejemplo de uso desde la interfaz:
+ * ViajeServiceAsync.enEdt(async.create(viaje))
+ *     .thenAccept(creado -> tableModel.refrescarTabla())
+ *     .exceptionally(error -> { mostrarError(error); return null; });
+ */
+public class ViajeServiceAsync {
+
+    // Tiempo máximo por defecto de cada operación (ms)
+    public static final long DEFAULT_TIMEOUT_MS = 30_000;
+
+    // Executor compartido por todas las instancias
+    private static final ExecutorService EXECUTOR = crearExecutor();
+
+    private final ViajeService service;
+    private final long timeoutMillis;
+
+    /**
+     * Crea la fachada sobre un ViajeService nuevo con el tiempo máximo por defecto.
+     */
+    public ViajeServiceAsync() {
+        this(new ViajeService(), DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Crea la fachada sobre un ViajeService existente.
+     *
+     * @param service Servicio que ejecuta las operaciones
+     * @param timeoutMillis Tiempo máximo de cada operación en milisegundos
+     * @throws IllegalArgumentException si service es null o timeoutMillis no es positivo
+     */
+    public ViajeServiceAsync(ViajeService service, long timeoutMillis) {
+        if (service == null) {
+            throw new IllegalArgumentException("service no puede ser null");
+        }
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis debe ser positivo: " + timeoutMillis);
+        }
+        this.service = service;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public CompletableFuture<Viaje> create(Viaje v) {
+        return submitEscritura(() -> service.create(v));
+    }
+
+    public CompletableFuture<Viaje> getById(int id) {
+        return submit(() -> service.getById(id));
+    }
+
+    public CompletableFuture<List<Viaje>> listAll() {
+        return submit(service::listAll);
+    }
+
+    public CompletableFuture<List<Viaje>> listPage(int afterId, int limit) {
+        return submit(() -> service.listPage(afterId, limit));
+    }
+
+    public CompletableFuture<List<Viaje>> search(String query, int limit) {
+        return submit(() -> service.search(query, limit));
+    }
+
+    public CompletableFuture<Viaje> update(Viaje v) {
+        return submitEscritura(() -> service.update(v));
+    }
+
+    public CompletableFuture<Boolean> delete(int id) {
+        return submitEscritura(() -> service.delete(id));
+    }
+
+    /**
+     * Ejecuta una lectura arbitraria en el executor de la fachada, con el
+     * mismo tiempo máximo que las lecturas del servicio. Útil para
+     * operaciones compuestas (por ejemplo, las de ViajeManager).
+     *
+     * Si el futuro se cancela o se agota el tiempo, la tarea sigue hasta
+     * terminar y su resultado se descarta.
+     *
+     * @param tarea Tarea sin efectos en la base de datos, a ejecutar fuera del hilo llamador
+     * @return Futuro con el resultado de la tarea
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> tarea) {
+        return ejecutar(tarea).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ejecuta una escritura arbitraria en el executor de la fachada, sin
+     * tiempo máximo: el futuro termina cuando la base de datos confirma o
+     * rechaza la operación.
+     *
+     * @param tarea Tarea que modifica datos, a ejecutar fuera del hilo llamador
+     * @return Futuro con el resultado de la tarea
+     */
+    public <T> CompletableFuture<T> submitEscritura(Supplier<T> tarea) {
+        return ejecutar(tarea);
+    }
+
+    private static <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                // No tiene efecto si el futuro ya se canceló o venció
+                resultado.complete(tarea.get());
+            } catch (Throwable t) {
+                resultado.completeExceptionally(t);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Retorna un futuro que se completa en el Event Dispatch Thread con el
+     * mismo resultado (o error) que el futuro original.
+     *
+     * Cancelar el futuro retornado cancela también el original (sin
+     * interrumpir la operación: su resultado se descarta).
+     *
+     * @param futuro Futuro que se completa en un hilo de fondo
+     * @return Futuro cuyas etapas dependientes se ejecutan en el EDT
+     */
+    public static <T> CompletableFuture<T> enEdt(CompletableFuture<T> futuro) {
+        CompletableFuture<T> edt = new CompletableFuture<>();
+
+        futuro.whenComplete((valor, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                edt.completeExceptionally(error);
+            } else {
+                edt.complete(valor);
+            }
+        }));
+
+        edt.whenComplete((valor, error) -> {
+            if (edt.isCancelled()) {
+                futuro.cancel(false);
+            }
+        });
+
+        return edt;
+    }
+
+    /**
+     * Obtiene la causa real de un error de un CompletableFuture, quitando las
+     * envolturas CompletionException/ExecutionException.
+     *
+     * @param error Error recibido en exceptionally/whenComplete
+     * @return La excepción original
+     */
+    public static Throwable causa(Throwable error) {
+        Throwable actual = error;
+        while ((actual instanceof CompletionException || actual instanceof ExecutionException)
+                && actual.getCause() != null) {
+            actual = actual.getCause();
+        }
+        return actual;
+    }
+
+    /**
+     * Crea el executor de la fachada: hilos virtuales si la JVM los soporta
+     * (Java 21+), o un pool de hilos daemon en Java 17.
+     */
+    private static ExecutorService crearExecutor() {
+        try {
+            // Se busca por reflexión para seguir compilando con Java 17
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            ThreadFactory fabrica = r -> {
+                Thread t = new Thread(r, "viaje-async-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newCachedThreadPool(fabrica);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package proyectoprogra.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import proyectoprogra.model.ClaveBusqueda;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Almacén de viajes en memoria indexado por ID, con instantáneas inmutables
+ * (copy-on-write) para los lectores.
+ *
+ * Los viajes se guardan en un arreglo ordenado por ID que nunca se modifica:
+ * cada cambio arma un arreglo nuevo y lo publica con una sola escritura
+ * volatile.
+ *
+ * Características:
+ * - Los lectores (tabla, búsqueda, exportación) no toman ningún bloqueo ni
+ *   copian la lista: instantanea() retorna la versión publicada, que no
+ *   cambia aunque otro hilo guarde o quite viajes mientras se recorre
+ * - Búsqueda por ID con búsqueda binaria, O(log n)
+ * - Un conjunto de Cambios (por ejemplo, una sincronización con la base de
+ *   datos) se aplica en una sola pasada y se publica de una vez: ningún
+ *   lector ve la mitad de los cambios
+ * - Las escrituras se serializan con el monitor del almacén; cada una copia
+ *   el arreglo (O(n)), así que conviene agrupar los cambios en Cambios
+ * - Búsqueda de texto contenido en el origen o el destino (buscar) con un
+ *   IndiceTrigramas inmutable que se publica dentro de cada instantánea
+ * - Sugerencias de ciudades por prefijo (sugerirCiudades) con un
+ *   TrieCiudades que también se actualiza con cada cambio
+ * - Búsqueda tolerante a errores de escritura (buscarAproximado) con un
+ *   ArbolBKCiudades de las ciudades conocidas
+ *
+ * Cada instantánea lleva su propio índice, que cubre exactamente sus
+ * viajes: un cambio suelto crea un índice nuevo que comparte con el
+ * anterior las listas de los trigramas que no cambiaron, y reemplazar todo
+ * el contenido lo reconstruye. Las búsquedas leen el índice de la
+ * instantánea que tomaron, sin bloqueos.
+ *
+ * Los objetos Viaje se comparten entre instantáneas: quien quiera
+ * modificar un viaje debe hacerlo sobre una copia y guardarla.
+ */
+public class AlmacenViajes {
+
+    private static final Viaje[] VACIO = new Viaje[0];
+
+    private static final Comparator<Viaje> POR_ID = Comparator.comparingInt(Viaje::getId);
+
+    // Instantánea publicada; se reemplaza completa en cada cambio
+    private volatile Instantanea actual = new Instantanea(VACIO, IndiceTrigramas.VACIO);
+
+    // Ciudades conocidas para autocompletar; se reemplaza al reemplazar todo el contenido
+    private volatile TrieCiudades ciudades = new TrieCiudades();
+
+    // Ciudades conocidas para la búsqueda aproximada; se reemplaza al reemplazar todo el contenido
+    private volatile ArbolBKCiudades diccionario = new ArbolBKCiudades();
+
+    /**
+     * @return Todos los viajes ordenados por ID, como lista inmutable que no
+     *         cambia con las escrituras posteriores
+     */
+    public List<Viaje> instantanea() {
+        return actual;
+    }
+
+    /**
+     * @param id ID del viaje
+     * @return El viaje con ese ID, o null si no está en el almacén
+     */
+    public Viaje obtener(int id) {
+        return obtener(actual, id);
+    }
+
+    /**
+     * @return Cantidad de viajes en el almacén
+     */
+    public int tamano() {
+        return actual.size();
+    }
+
+    /**
+     * Busca los viajes cuyo origen o destino contiene el texto, sin
+     * distinguir mayúsculas, minúsculas ni acentos (ver ClaveBusqueda).
+     *
+     * Con textos de al menos IndiceTrigramas.LARGO_TRIGRAMA caracteres se
+     * usa el índice; los más cortos recorren los viajes hasta juntar el
+     * límite de resultados.
+     *
+     * @param texto Texto a buscar (no null)
+     * @param limite Cantidad máxima de resultados
+     * @return Viajes que coinciden, ordenados por ID
+     */
+    public List<Viaje> buscar(String texto, int limite) {
+        return buscar(texto, limite, viaje -> true);
+    }
+
+    /**
+     * Igual que buscar(texto, limite), contando solo los viajes que además
+     * cumplen un filtro (por ejemplo, un rango de fechas): el límite se
+     * aplica después del filtro.
+     *
+     * @param texto Texto a buscar (no null)
+     * @param limite Cantidad máxima de resultados
+     * @param filtro Condición adicional de cada viaje
+     * @return Viajes que coinciden, ordenados por ID
+     */
+    public List<Viaje> buscar(String texto, int limite, Predicate<Viaje> filtro) {
+        Instantanea instantanea = actual;
+        String consulta = ClaveBusqueda.normalizar(texto);
+        List<Viaje> resultados = new ArrayList<>();
+        if (limite <= 0) {
+            return resultados;
+        }
+
+        boolean indexada = instantanea.indice.recorrer(consulta, id -> {
+            int pos = instantanea.posicion(id);
+            // Los trigramas pueden venir de campos o posiciones distintas
+            if (pos >= 0 && contiene(instantanea.viajes[pos], consulta) && filtro.test(instantanea.viajes[pos])) {
+                resultados.add(instantanea.viajes[pos]);
+            }
+            return resultados.size() < limite;
+        });
+        if (!indexada) {
+            for (Viaje viaje : instantanea.viajes) {
+                if (contiene(viaje, consulta) && filtro.test(viaje)) {
+                    resultados.add(viaje);
+                    if (resultados.size() == limite) {
+                        break;
+                    }
+                }
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Busca viajes tolerando errores de escritura en el nombre de la ciudad.
+     *
+     * Primero van los viajes que contienen el texto (como buscar); después,
+     * los de las ciudades cuyo nombre, o alguna de sus palabras, está a
+     * pocas letras de distancia del texto (ver distanciaPermitida): primero
+     * las más parecidas y, a igual distancia, las más usadas. Los viajes de
+     * una misma ciudad quedan ordenados por ID.
+     *
+     * @param texto Texto a buscar (no null)
+     * @param limite Cantidad máxima de resultados
+     * @return Viajes que coinciden, del más al menos parecido
+     */
+    public List<Viaje> buscarAproximado(String texto, int limite) {
+        return buscarAproximado(texto, limite, viaje -> true);
+    }
+
+    /**
+     * Igual que buscarAproximado(texto, limite), contando solo los viajes
+     * que además cumplen un filtro.
+     *
+     * @param texto Texto a buscar (no null)
+     * @param limite Cantidad máxima de resultados
+     * @param filtro Condición adicional de cada viaje
+     * @return Viajes que coinciden, del más al menos parecido
+     */
+    public List<Viaje> buscarAproximado(String texto, int limite, Predicate<Viaje> filtro) {
+        List<Viaje> resultados = buscar(texto, limite, filtro);
+        if (resultados.size() >= limite) {
+            return resultados;
+        }
+        Set<Integer> vistos = new HashSet<>();
+        for (Viaje viaje : resultados) {
+            vistos.add(viaje.getId());
+        }
+
+        Instantanea instantanea = actual;
+        for (String ciudad : ordenarPorParecido(ciudadesSimilares(texto))) {
+            boolean completo = recorrerViajesDeCiudad(instantanea, ciudad, viaje -> {
+                if (filtro.test(viaje) && vistos.add(viaje.getId())) {
+                    resultados.add(viaje);
+                }
+                return resultados.size() < limite;
+            });
+            if (!completo) {
+                break;
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Ciudades parecidas a un texto, para la búsqueda aproximada.
+     *
+     * @param texto Texto escrito (se normaliza con ClaveBusqueda)
+     * @return Claves de búsqueda de las ciudades con su distancia al texto
+     */
+    public Map<String, Integer> ciudadesSimilares(String texto) {
+        String consulta = ClaveBusqueda.normalizar(texto.trim());
+        return diccionario.buscar(consulta, distanciaPermitida(consulta.length()));
+    }
+
+    /**
+     * Errores de escritura que se toleran según el largo del texto: con
+     * textos cortos, una letra de diferencia ya lleva a otra ciudad.
+     *
+     * @param largo Largo del texto buscado
+     * @return 0 hasta 2 letras, 1 de 3 a 5 letras, 2 desde 6 letras
+     */
+    public static int distanciaPermitida(int largo) {
+        if (largo <= 2) {
+            return 0;
+        }
+        return largo <= 5 ? 1 : 2;
+    }
+
+    /**
+     * @return Claves de las ciudades de menor a mayor distancia y, a igual
+     *         distancia, de la más a la menos usada
+     */
+    private List<String> ordenarPorParecido(Map<String, Integer> similares) {
+        TrieCiudades frecuencias = ciudades;
+        List<String> ordenadas = new ArrayList<>(similares.keySet());
+        Map<String, Integer> usos = new HashMap<>();
+        for (String ciudad : ordenadas) {
+            usos.put(ciudad, frecuencias.frecuencia(ciudad));
+        }
+        ordenadas.sort(Comparator.comparing((String c) -> similares.get(c))
+                .thenComparing(c -> usos.get(c), Comparator.reverseOrder())
+                .thenComparing(Comparator.naturalOrder()));
+        return ordenadas;
+    }
+
+    /**
+     * Recorre en orden de ID los viajes con una ciudad como origen o destino.
+     *
+     * @param ciudad Clave de búsqueda de la ciudad
+     * @param visitar Recibe cada viaje; retorna false para terminar
+     * @return false si visitar terminó el recorrido
+     */
+    private static boolean recorrerViajesDeCiudad(Instantanea instantanea, String ciudad, Predicate<Viaje> visitar) {
+        boolean[] seguir = {true};
+        boolean indexada = instantanea.indice.recorrer(ciudad, id -> {
+            int pos = instantanea.posicion(id);
+            if (pos >= 0 && esDeCiudad(instantanea.viajes[pos], ciudad)) {
+                seguir[0] = visitar.test(instantanea.viajes[pos]);
+            }
+            return seguir[0];
+        });
+        if (!indexada) {
+            for (Viaje viaje : instantanea.viajes) {
+                if (esDeCiudad(viaje, ciudad) && !visitar.test(viaje)) {
+                    return false;
+                }
+            }
+        }
+        return seguir[0];
+    }
+
+    private static boolean esDeCiudad(Viaje viaje, String ciudad) {
+        return viaje.getClaveOrigen().equals(ciudad) || viaje.getClaveDestino().equals(ciudad);
+    }
+
+    /**
+     * Sugiere ciudades (orígenes y destinos de los viajes del almacén) que
+     * comienzan con el texto, de la más a la menos usada.
+     *
+     * @param prefijo Texto escrito
+     * @param limite Cantidad máxima de sugerencias
+     * @return Nombres de ciudades
+     */
+    public List<String> sugerirCiudades(String prefijo, int limite) {
+        return ciudades.sugerir(prefijo, limite);
+    }
+
+    /**
+     * @return true si el origen o el destino contienen la consulta (ya
+     *         normalizada); compara con las claves precalculadas del viaje
+     */
+    private static boolean contiene(Viaje viaje, String consulta) {
+        return viaje.getClaveOrigen().contains(consulta) || viaje.getClaveDestino().contains(consulta);
+    }
+
+    /**
+     * Inserta o reemplaza un viaje (según su ID).
+     *
+     * @param viaje Viaje a guardar
+     */
+    public synchronized void guardar(Viaje viaje) {
+        Instantanea instantanea = actual;
+        Viaje[] anterior = instantanea.viajes;
+        int pos = instantanea.posicion(viaje.getId());
+        Viaje[] nuevo;
+        agregarAlDiccionario(diccionario, viaje);
+        if (pos >= 0) {
+            nuevo = anterior.clone();
+            nuevo[pos] = viaje;
+        } else {
+            // Los IDs nuevos suelen ser los mayores: normalmente se agrega al final
+            int insercion = -(pos + 1);
+            nuevo = new Viaje[anterior.length + 1];
+            System.arraycopy(anterior, 0, nuevo, 0, insercion);
+            nuevo[insercion] = viaje;
+            System.arraycopy(anterior, insercion, nuevo, insercion + 1, anterior.length - insercion);
+        }
+        actual = new Instantanea(nuevo, instantanea.indice.conCambio(pos >= 0 ? anterior[pos] : null, viaje));
+        if (pos >= 0) {
+            ciudades.quitar(anterior[pos]);
+        }
+        ciudades.agregar(viaje);
+    }
+
+    /**
+     * Quita un viaje si está presente.
+     *
+     * @param id ID del viaje
+     * @return true si el viaje estaba en el almacén
+     */
+    public synchronized boolean quitar(int id) {
+        Instantanea instantanea = actual;
+        Viaje[] anterior = instantanea.viajes;
+        int pos = instantanea.posicion(id);
+        if (pos < 0) {
+            return false;
+        }
+        Viaje[] nuevo = new Viaje[anterior.length - 1];
+        System.arraycopy(anterior, 0, nuevo, 0, pos);
+        System.arraycopy(anterior, pos + 1, nuevo, pos, anterior.length - pos - 1);
+        actual = new Instantanea(nuevo, instantanea.indice.conCambio(anterior[pos], null));
+        ciudades.quitar(anterior[pos]);
+        return true;
+    }
+
+    /**
+     * Aplica un conjunto de cambios y publica el resultado de una vez.
+     *
+     * El costo es O(n + k log k), con k la cantidad de cambios, más la
+     * actualización del índice (o su reconstrucción, si se reemplaza todo
+     * el contenido).
+     *
+     * @param cambios Cambios a aplicar
+     */
+    public synchronized void aplicar(Cambios cambios) {
+        Instantanea instantanea = actual;
+        Viaje[] base;
+        if (cambios.base != null) {
+            base = cambios.base.toArray(VACIO);
+            Arrays.sort(base, POR_ID);
+        } else {
+            base = instantanea.viajes;
+        }
+
+        Viaje[] resultado = cambios.porId.isEmpty() ? base : mezclar(base, cambios.porId);
+        if (cambios.base != null) {
+            ArbolBKCiudades nuevoDiccionario = new ArbolBKCiudades();
+            for (Viaje viaje : resultado) {
+                agregarAlDiccionario(nuevoDiccionario, viaje);
+            }
+            actual = new Instantanea(resultado, IndiceTrigramas.construir(resultado));
+            ciudades = TrieCiudades.construir(resultado);
+            diccionario = nuevoDiccionario;
+            return;
+        }
+
+        List<Viaje> anteriores = new ArrayList<>(cambios.porId.size());
+        List<Viaje> actuales = new ArrayList<>(cambios.porId.size());
+        for (Map.Entry<Integer, Viaje> cambio : cambios.porId.entrySet()) {
+            anteriores.add(obtener(instantanea, cambio.getKey()));
+            actuales.add(cambio.getValue());
+            if (cambio.getValue() != null) {
+                agregarAlDiccionario(diccionario, cambio.getValue());
+            }
+        }
+        actual = new Instantanea(resultado, instantanea.indice.conCambios(anteriores, actuales));
+        for (int i = 0; i < anteriores.size(); i++) {
+            Viaje anterior = anteriores.get(i);
+            if (anterior != null) {
+                ciudades.quitar(anterior);
+            }
+            if (actuales.get(i) != null) {
+                ciudades.agregar(actuales.get(i));
+            }
+        }
+    }
+
+    private static void agregarAlDiccionario(ArbolBKCiudades diccionario, Viaje viaje) {
+        diccionario.agregarCiudad(viaje.getClaveOrigen());
+        diccionario.agregarCiudad(viaje.getClaveDestino());
+    }
+
+    private static Viaje obtener(Instantanea instantanea, int id) {
+        int pos = instantanea.posicion(id);
+        return pos >= 0 ? instantanea.viajes[pos] : null;
+    }
+
+    /**
+     * Mezcla un arreglo ordenado por ID con cambios ordenados por ID.
+     */
+    private static Viaje[] mezclar(Viaje[] base, TreeMap<Integer, Viaje> porId) {
+        List<Viaje> resultado = new ArrayList<>(base.length + porId.size());
+        int i = 0;
+        for (Map.Entry<Integer, Viaje> cambio : porId.entrySet()) {
+            int id = cambio.getKey();
+            while (i < base.length && base[i].getId() < id) {
+                resultado.add(base[i++]);
+            }
+            if (i < base.length && base[i].getId() == id) {
+                // El cambio reemplaza (o quita) al viaje existente
+                i++;
+            }
+            if (cambio.getValue() != null) {
+                resultado.add(cambio.getValue());
+            }
+        }
+        while (i < base.length) {
+            resultado.add(base[i++]);
+        }
+        return resultado.toArray(VACIO);
+    }
+
+    /**
+     * Cambios que se aplican juntos con AlmacenViajes.aplicar.
+     *
+     * Si un ID se guarda y se quita, vale el último cambio registrado.
+     * No es seguro entre hilos: lo arma un solo hilo antes de aplicarlo.
+     */
+    public static final class Cambios {
+
+        // Contenido que reemplaza al actual (null = partir del contenido actual)
+        private List<Viaje> base;
+
+        // Cambios ordenados por ID; el valor null indica que el viaje se quita
+        private final TreeMap<Integer, Viaje> porId = new TreeMap<>();
+
+        /**
+         * Reemplaza todo el contenido del almacén por los viajes indicados
+         * (en cualquier orden). Descarta los cambios registrados antes.
+         *
+         * @param viajes Viajes que forman el nuevo contenido
+         * @return Estos mismos cambios
+         */
+        public Cambios reemplazarTodo(Collection<Viaje> viajes) {
+            base = new ArrayList<>(viajes);
+            porId.clear();
+            return this;
+        }
+
+        /**
+         * @param viaje Viaje a insertar o reemplazar
+         * @return Estos mismos cambios
+         */
+        public Cambios guardar(Viaje viaje) {
+            porId.put(viaje.getId(), viaje);
+            return this;
+        }
+
+        /**
+         * @param id ID del viaje a quitar
+         * @return Estos mismos cambios
+         */
+        public Cambios quitar(int id) {
+            porId.put(id, null);
+            return this;
+        }
+    }
+
+    /**
+     * Versión publicada del almacén: lista inmutable sobre un arreglo
+     * ordenado por ID, con el índice de trigramas de exactamente esos viajes.
+     */
+    private static final class Instantanea extends AbstractList<Viaje> implements RandomAccess {
+
+        private final Viaje[] viajes;
+        private final IndiceTrigramas indice;
+
+        Instantanea(Viaje[] viajes, IndiceTrigramas indice) {
+            this.viajes = viajes;
+            this.indice = indice;
+        }
+
+        @Override
+        public Viaje get(int index) {
+            return viajes[index];
+        }
+
+        @Override
+        public int size() {
+            return viajes.length;
+        }
+
+        /**
+         * @param id ID del viaje a buscar
+         * @return Posición del viaje, o (-(punto de inserción) - 1) si no está
+         */
+        int posicion(int id) {
+            int bajo = 0;
+            int alto = viajes.length - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                int idMedio = viajes[medio].getId();
+                if (idMedio < id) {
+                    bajo = medio + 1;
+                } else if (idMedio > id) {
+                    alto = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -(bajo + 1);
+        }
+    }
+}
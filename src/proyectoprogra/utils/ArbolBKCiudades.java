@@ -0,0 +1,163 @@
+package proyectoprogra.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Árbol BK (Burkhard-Keller) de los nombres de ciudades, para encontrar las
+ * que se parecen a un texto con errores de escritura ("quetzaltengo"
+ * encuentra "quetzaltenango").
+ *
+ * Cada nodo guarda un término y sus hijos según la distancia de Levenshtein
+ * al término del nodo. Al buscar con tolerancia k, de un nodo a distancia d
+ * solo se visitan los hijos con distancia entre d - k y d + k (desigualdad
+ * triangular): se compara con una fracción pequeña del diccionario.
+ *
+ * Características:
+ * - Los términos son las claves de búsqueda de las ciudades (ClaveBusqueda,
+ *   sin acentos y en minúsculas) y también cada palabra de al menos
+ *   LARGO_MINIMO_PALABRA letras: "quiche" encuentra "santa cruz del quiche"
+ * - El diccionario solo crece: una ciudad que ya no tiene viajes sigue en el
+ *   árbol hasta que se reconstruye (al recargar todos los viajes), y no
+ *   aporta resultados porque no tiene viajes
+ *
+ * Es seguro entre hilos (todos los métodos se sincronizan sobre el árbol).
+ */
+public class ArbolBKCiudades {
+
+    // Palabras más cortas no se agregan como términos propios ("de", "san")
+    public static final int LARGO_MINIMO_PALABRA = 4;
+
+    private Nodo raiz;
+
+    // Ciudades ya agregadas (claves de búsqueda)
+    private final Set<String> ciudades = new HashSet<>();
+
+    /**
+     * Agrega una ciudad al diccionario. Agregar una ciudad conocida no tiene
+     * costo.
+     *
+     * @param clave Clave de búsqueda de la ciudad (ver ClaveBusqueda)
+     */
+    public synchronized void agregarCiudad(String clave) {
+        if (clave == null || clave.trim().isEmpty() || !ciudades.add(clave)) {
+            return;
+        }
+        agregarTermino(clave, clave);
+        for (String palabra : clave.split("[\\s\\-,.]+")) {
+            if (palabra.length() >= LARGO_MINIMO_PALABRA && !palabra.equals(clave)) {
+                agregarTermino(palabra, clave);
+            }
+        }
+    }
+
+    /**
+     * Busca las ciudades con un término a lo sumo a la distancia indicada
+     * de la consulta.
+     *
+     * @param consulta Texto ya normalizado (ver ClaveBusqueda.normalizar)
+     * @param distanciaMaxima Cantidad máxima de letras insertadas, borradas o cambiadas
+     * @return Claves de las ciudades encontradas con su menor distancia
+     */
+    public synchronized Map<String, Integer> buscar(String consulta, int distanciaMaxima) {
+        Map<String, Integer> encontradas = new HashMap<>();
+        if (raiz == null) {
+            return encontradas;
+        }
+        int[] anterior = new int[consulta.length() + 1];
+        int[] actual = new int[consulta.length() + 1];
+
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.push(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.pop();
+            int distancia = distancia(nodo.termino, consulta, anterior, actual);
+            if (distancia <= distanciaMaxima) {
+                for (String ciudad : nodo.ciudades) {
+                    encontradas.merge(ciudad, distancia, Math::min);
+                }
+            }
+            for (Map.Entry<Integer, Nodo> hijo : nodo.hijos.entrySet()) {
+                if (Math.abs(hijo.getKey() - distancia) <= distanciaMaxima) {
+                    pendientes.push(hijo.getValue());
+                }
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * @return Cantidad de ciudades del diccionario
+     */
+    public synchronized int cantidad() {
+        return ciudades.size();
+    }
+
+    private void agregarTermino(String termino, String ciudad) {
+        if (raiz == null) {
+            raiz = new Nodo(termino);
+            raiz.ciudades.add(ciudad);
+            return;
+        }
+        int[] anterior = new int[termino.length() + 1];
+        int[] actual = new int[termino.length() + 1];
+        Nodo nodo = raiz;
+        while (true) {
+            int distancia = distancia(nodo.termino, termino, anterior, actual);
+            if (distancia == 0) {
+                // El término ya existe (por ejemplo, la misma palabra en dos ciudades)
+                nodo.ciudades.add(ciudad);
+                return;
+            }
+            Nodo hijo = nodo.hijos.get(distancia);
+            if (hijo == null) {
+                hijo = new Nodo(termino);
+                hijo.ciudades.add(ciudad);
+                nodo.hijos.put(distancia, hijo);
+                return;
+            }
+            nodo = hijo;
+        }
+    }
+
+    /**
+     * Distancia de Levenshtein entre dos textos, con dos filas de trabajo
+     * de largo b.length() + 1 que se reutilizan entre llamadas.
+     */
+    static int distancia(String a, String b, int[] anterior, int[] actual) {
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            char letra = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cambio = anterior[j - 1] + (letra == b.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(cambio, Math.min(anterior[j] + 1, actual[j - 1] + 1));
+            }
+            int[] intercambio = anterior;
+            anterior = actual;
+            actual = intercambio;
+        }
+        return anterior[b.length()];
+    }
+
+    /**
+     * Nodo del árbol: un término, las ciudades que lo contienen y los hijos
+     * por distancia.
+     */
+    private static final class Nodo {
+
+        private final String termino;
+        private final Set<String> ciudades = new HashSet<>(2);
+        private final Map<Integer, Nodo> hijos = new HashMap<>(4);
+
+        Nodo(String termino) {
+            this.termino = termino;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package proyectoprogra.utils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import proyectoprogra.database.OracleConnector;
+import proyectoprogra.service.ViajeService;
+
+/**
+ * Tarea de fondo que mueve al historial los viajes terminados hace tiempo.
+ *
+ * VIAJE solo debería contener los viajes con los que se trabaja: la carga
+ * inicial, la búsqueda y la exportación recorren toda la tabla activa. Esta
+ * tarea archiva periódicamente los viajes cuya fecha de llegada es anterior
+ * al horizonte (viajes.archivo.dias), usando ViajeService.archiveBefore.
+ *
+ * Está desactivado por defecto: la interfaz todavía no muestra el historial,
+ * así que un viaje archivado deja de verse en la aplicación. Se activa con
+ * -Dviajes.archivo.dias=N (por ejemplo 180).
+ *
+ * Comportamiento:
+ * - Primera ejecución RETRASO_INICIAL_MS después de iniciar, para no competir
+ *   con el arranque; luego cada INTERVALO_HORAS
+ * - Mueve lotes de viajes.archivo.lote viajes, cada uno en su propia
+ *   transacción, con una pausa entre lotes para no acaparar la base de datos
+ * - Termina la ejecución cuando un lote no mueve ningún viaje: un lote puede
+ *   traer menos viajes que su tamaño aunque queden otros (los que se están
+ *   editando se saltan)
+ *
+ * Casos de fallo:
+ * - Sin tabla de historial (sql/migrations/V7__historial_viajes.sql): avisa
+ *   una vez y se detiene
+ * - Error de conexión u otro error de la base de datos: lo informa y lo
+ *   reintenta en la siguiente ejecución; los lotes ya confirmados se conservan
+ *
+ * Los viajes archivados desaparecen de la lista en la siguiente
+ * sincronización incremental, igual que un viaje eliminado.
+ */
+public class ArchivadorViajes {
+
+    // Propiedad del sistema con la antigüedad (días desde la llegada) para archivar; 0 lo desactiva
+    public static final String PROPIEDAD_DIAS = "viajes.archivo.dias";
+
+    // Propiedad del sistema con el número de viajes que se mueven por transacción
+    public static final String PROPIEDAD_LOTE = "viajes.archivo.lote";
+
+    // Desactivado salvo que se indique viajes.archivo.dias
+    public static final int DIAS_POR_DEFECTO = 0;
+    public static final int LOTE_POR_DEFECTO = 500;
+
+    // Espera antes de la primera ejecución (ms)
+    public static final long RETRASO_INICIAL_MS = 60_000;
+
+    // Tiempo entre ejecuciones (horas)
+    public static final long INTERVALO_HORAS = 6;
+
+    // Pausa entre lotes de una misma ejecución (ms)
+    public static final long PAUSA_ENTRE_LOTES_MS = 200;
+
+    private final ViajeService service;
+    private final int dias;
+    private final int lote;
+    private final ScheduledExecutorService programador;
+
+    /**
+     * @param service Servicio de viajes
+     * @param dias Días desde la llegada para archivar un viaje (positivo)
+     * @param lote Viajes por transacción (positivo)
+     * @throws IllegalArgumentException si algún parámetro es inválido
+     */
+    public ArchivadorViajes(ViajeService service, int dias, int lote) {
+        if (service == null) {
+            throw new IllegalArgumentException("service no puede ser null");
+        }
+        if (dias <= 0) {
+            throw new IllegalArgumentException("dias debe ser positivo: " + dias);
+        }
+        if (lote <= 0) {
+            throw new IllegalArgumentException("lote debe ser positivo: " + lote);
+        }
+        this.service = service;
+        this.dias = dias;
+        this.lote = lote;
+        this.programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "archivador-viajes");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+    }
+
+    /**
+     * Inicia el archivado periódico con la configuración de las propiedades
+     * del sistema.
+     *
+     * @param service Servicio de viajes
+     * @return Archivador iniciado, o null si está desactivado (viajes.archivo.dias
+     *         sin indicar o 0)
+     */
+    public static ArchivadorViajes iniciarDesdePropiedades(ViajeService service) {
+        int dias = Integer.getInteger(PROPIEDAD_DIAS, DIAS_POR_DEFECTO);
+        if (dias <= 0) {
+            return null;
+        }
+        ArchivadorViajes archivador = new ArchivadorViajes(service, dias,
+                Math.max(1, Integer.getInteger(PROPIEDAD_LOTE, LOTE_POR_DEFECTO)));
+        archivador.iniciar();
+        return archivador;
+    }
+
+    /**
+     * Programa las ejecuciones periódicas en el hilo del archivador.
+     */
+    public void iniciar() {
+        programador.scheduleWithFixedDelay(this::ejecutarProgramado,
+                RETRASO_INICIAL_MS, TimeUnit.HOURS.toMillis(INTERVALO_HORAS), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene las ejecuciones programadas. Un lote en curso termina su transacción.
+     */
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /**
+     * Archiva ahora, en el hilo que llama, todos los viajes que llegaron
+     * antes del horizonte.
+     *
+     * @return Número de viajes movidos al historial
+     * @throws UnsupportedOperationException si el almacenamiento no tiene historial
+     * @throws RuntimeException si falla un lote (los anteriores quedan confirmados)
+     */
+    public int ejecutar() {
+        Date limite = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(dias));
+        int total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Integer> movidos = service.archiveBefore(limite, lote);
+            if (movidos.isEmpty()) {
+                break;
+            }
+            total += movidos.size();
+            try {
+                Thread.sleep(PAUSA_ENTRE_LOTES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return total;
+    }
+
+    private void ejecutarProgramado() {
+        try {
+            long inicio = System.nanoTime();
+            int total = ejecutar();
+            if (total > 0) {
+                System.out.println("Archivados " + total + " viajes con llegada de hace más de " + dias + " días ("
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms)");
+            }
+        } catch (UnsupportedOperationException e) {
+            System.err.println("Archivado de viajes desactivado: " + e.getMessage());
+            detener();
+        } catch (RuntimeException e) {
+            // Una excepción no atrapada cancelaría las ejecuciones siguientes
+            System.err.println((OracleConnector.isConnectionError(e) ? "Sin conexión para archivar viajes: "
+                    : "Error al archivar viajes: ") + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,798 @@
+package proyectoprogra.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import proyectoprogra.database.OracleConnector;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeService;
+
+/**
+ * Cola de escritura diferida (write-behind) de viajes.
+ *
+ * Los cambios se registran en memoria y un hilo de fondo los envía a la base
+ * de datos por lotes (ViajeService.applyMutations), de modo que guardar un
+ * viaje no espera a su propio commit.
+ *
+ * Características:
+ * - Combina los cambios sobre un mismo viaje (ver MutacionViaje.combinar):
+ *   diez ediciones seguidas del mismo viaje se envían como una sola
+ * - Envía un lote al juntar TAMANO_LOTE cambios, o cuando el cambio más
+ *   antiguo lleva RETRASO_MAXIMO_MS esperando
+ * - Si la base de datos falla, los cambios vuelven a la cola y se reintentan;
+ *   un cambio que falla MAX_INTENTOS veces se descarta y se informa
+ * - Si se pierde la conexión, deja de enviar y consulta el verificador de
+ *   conexión con esperas crecientes (hasta ESPERA_MAXIMA_SIN_CONEXION_MS);
+ *   al recuperarla reproduce los cambios acumulados en transacciones de
+ *   hasta MAX_CAMBIOS_POR_ENVIO cambios
+ * - Con MAX_PENDIENTES cambios en espera, encolar bloquea hasta que haya
+ *   espacio, para no acumular memoria sin límite
+ *
+ * Garantías:
+ * - flush() espera a que todos los cambios registrados estén confirmados
+ * - cerrar() envía los cambios pendientes antes de terminar (se llama al
+ *   salir de la aplicación)
+ * - Con un DiarioMutaciones, cada cambio se escribe en el diario local antes
+ *   de aceptarse (ver asegurar): si el proceso termina de forma abrupta,
+ *   restaurar() los recupera al volver a iniciar. Sin diario, los cambios no
+ *   enviados se pierden
+ * - Cada cambio lleva claves de idempotencia: reenviar un cambio que ya se
+ *   aplicó no lo aplica dos veces. Si la base de datos no tiene la tabla de
+ *   claves (sql/create_table_viaje_mutacion_aplicada.sql), se usan
+ *   createAll, updateAll y deleteAll sin esa garantía
+ *
+ * Todos los métodos públicos son seguros entre hilos. Los avisos al Listener
+ * se hacen desde el hilo de la cola, sin tener el monitor de la cola tomado.
+ */
+public class ColaEscrituraViajes {
+
+    // Cambios que se acumulan antes de enviar un lote sin esperar el retraso
+    public static final int TAMANO_LOTE = 100;
+
+    // Tiempo máximo que un cambio espera en la cola antes de enviarse (ms)
+    public static final long RETRASO_MAXIMO_MS = 500;
+
+    // Cambios en espera a partir de los cuales encolar bloquea
+    public static final int MAX_PENDIENTES = 10_000;
+
+    // Intentos fallidos de un cambio antes de descartarlo
+    public static final int MAX_INTENTOS = 5;
+
+    // Cambios que se envían como máximo en una transacción
+    public static final int MAX_CAMBIOS_POR_ENVIO = 500;
+
+    // Pausa antes de reintentar después de un error de la base de datos (ms)
+    private static final long ESPERA_REINTENTO_MS = 2_000;
+
+    // Espera máxima entre verificaciones de conexión mientras no hay base de datos (ms)
+    public static final long ESPERA_MAXIMA_SIN_CONEXION_MS = 30_000;
+
+    /**
+     * Recibe el resultado de los cambios enviados por la cola.
+     */
+    public interface Listener {
+
+        /**
+         * Un viaje creado con ID temporal ya existe en la base de datos.
+         *
+         * @param idTemporal ID temporal que tenía el viaje
+         * @param creado Viaje tal como quedó guardado, con su ID real
+         */
+        void creado(int idTemporal, Viaje creado);
+
+        /**
+         * Un cambio no se pudo aplicar y se descartó.
+         *
+         * @param mutacion Cambio descartado
+         * @param motivo Descripción del error
+         */
+        void descartado(MutacionViaje mutacion, String motivo);
+    }
+
+    /**
+     * Estadísticas de la cola.
+     *
+     * @param pendientes Cambios en espera
+     * @param enVuelo Cambios que se están enviando
+     * @param encolados Cambios registrados desde el inicio
+     * @param combinados Cambios que se combinaron con uno anterior del mismo viaje
+     * @param lotes Transacciones enviadas a la base de datos
+     * @param confirmados Cambios confirmados en la base de datos
+     * @param reintentos Cambios que volvieron a la cola por un error
+     * @param descartados Cambios descartados
+     * @param sinConexion true si la cola espera a que vuelva la conexión
+     */
+    public record Estadisticas(int pendientes, int enVuelo, long encolados, long combinados,
+                               long lotes, long confirmados, long reintentos, long descartados,
+                               boolean sinConexion) {
+    }
+
+    private final ViajeService service;
+    private final Listener listener;
+    private final Thread hilo;
+
+    // Diario local de los cambios (null = solo en memoria)
+    private final DiarioMutaciones diario;
+
+    // Comprueba si la base de datos volvió (null = reintentar a intervalos fijos)
+    private final BooleanSupplier verificador;
+
+    // Cambios en espera por ID de viaje, en orden de llegada
+    private final LinkedHashMap<Integer, MutacionViaje> pendientes = new LinkedHashMap<>();
+
+    // Cambios que el hilo de fondo está enviando
+    private List<MutacionViaje> enVuelo = List.of();
+
+    // Intentos fallidos por ID de viaje
+    private final Map<Integer, Integer> intentos = new HashMap<>();
+
+    // ID real asignado a cada ID temporal ya creado en la base de datos
+    private final Map<Integer, Integer> idsReales = new HashMap<>();
+
+    private int ultimoTemporal = 0;
+    // Momento (System.nanoTime) en que llegó el cambio en espera más antiguo
+    private long primeraPendiente;
+    // Momento (System.nanoTime) antes del cual no se reintenta tras un error
+    private long reintentarDesde;
+    // Hilos esperando en flush(): mientras haya alguno, se envía sin esperar el retraso
+    private int esperandoFlush = 0;
+    private boolean cerrada = false;
+    // La última operación falló por falta de conexión
+    private boolean sinConexion = false;
+    // false si la base de datos no tiene la tabla de claves de idempotencia
+    private volatile boolean usarClaves = true;
+    // Hay registros en el diario desde la última compactación
+    private boolean diarioConDatos = false;
+
+    private long encolados, combinados, lotes, confirmados, reintentos, descartados;
+
+    /**
+     * Crea una cola sin diario local e inicia su hilo de fondo.
+     *
+     * @param service Servicio con el que se guardan los cambios
+     * @param listener Recibe los viajes creados y los cambios descartados
+     * @throws IllegalArgumentException si algún parámetro es null
+     */
+    public ColaEscrituraViajes(ViajeService service, Listener listener) {
+        this(service, listener, null, null);
+    }
+
+    /**
+     * Crea la cola e inicia su hilo de fondo.
+     *
+     * @param service Servicio con el que se guardan los cambios
+     * @param listener Recibe los viajes creados y los cambios descartados
+     * @param diario Diario local donde se registran los cambios, o null
+     * @param verificador Indica si la base de datos está disponible (por
+     *                    ejemplo OracleConnector::verifyConnection), o null
+     * @throws IllegalArgumentException si service o listener son null
+     */
+    public ColaEscrituraViajes(ViajeService service, Listener listener,
+                               DiarioMutaciones diario, BooleanSupplier verificador) {
+        if (service == null || listener == null) {
+            throw new IllegalArgumentException("service y listener son requeridos");
+        }
+        this.service = service;
+        this.listener = listener;
+        this.diario = diario;
+        this.verificador = verificador;
+        this.hilo = new Thread(this::ejecutar, "escritura-viajes");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * @return Un ID temporal nuevo (negativo) para un viaje que se creará
+     */
+    public synchronized int nuevoIdTemporal() {
+        return --ultimoTemporal;
+    }
+
+    /**
+     * Traduce un ID temporal al ID real si el viaje ya se creó en la base de datos.
+     *
+     * @param id ID de un viaje (real o temporal)
+     * @return El ID real, o el mismo ID si todavía no hay uno real
+     */
+    public synchronized int resolverId(int id) {
+        if (id < 0) {
+            Integer real = idsReales.get(id);
+            if (real != null) {
+                return real;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Espera hasta que la cola tenga espacio para más cambios.
+     * Debe llamarse antes de encolar y sin tener otros bloqueos tomados.
+     *
+     * @throws IllegalStateException si el hilo se interrumpe mientras espera
+     */
+    public synchronized void esperarEspacio() {
+        while (pendientes.size() >= MAX_PENDIENTES && !cerrada) {
+            notifyAll();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando espacio en la cola de escritura", e);
+            }
+        }
+    }
+
+    /**
+     * Registra un cambio, combinándolo con el pendiente del mismo viaje si lo hay.
+     * No bloquea: la espera por espacio se hace con esperarEspacio().
+     *
+     * Con diario, el cambio se escribe en él pero no se espera al disco: el
+     * llamador debe llamar a asegurar con la posición retornada, sin tener
+     * otros bloqueos tomados, para que varios cambios compartan un fsync.
+     *
+     * @param mutacion Cambio a registrar
+     * @return Posición del diario que hay que asegurar (0 sin diario)
+     * @throws IllegalStateException si la cola está cerrada
+     */
+    public synchronized long encolar(MutacionViaje mutacion) {
+        if (cerrada) {
+            throw new IllegalStateException("La cola de escritura está cerrada");
+        }
+        long posicion = 0;
+        if (diario != null) {
+            try {
+                posicion = diario.registrar(mutacion);
+                diarioConDatos = true;
+            } catch (IOException e) {
+                // El cambio se acepta igual: solo se pierde si el proceso termina antes de guardarlo
+                System.err.println("No se pudo escribir el cambio en el diario local de viajes: " + e.getMessage());
+            }
+        }
+        encolados++;
+        if (pendientes.containsKey(mutacion.getId())) {
+            combinados++;
+        }
+        agregar(mutacion);
+        if (pendientes.size() >= TAMANO_LOTE) {
+            notifyAll();
+        }
+        return posicion;
+    }
+
+    /**
+     * Espera a que el diario local esté en el disco hasta la posición
+     * indicada. Debe llamarse sin tener bloqueos tomados.
+     *
+     * @param posicion Posición retornada por encolar
+     * @return true si el cambio quedó en el disco (o no hay diario)
+     */
+    public boolean asegurar(long posicion) {
+        if (diario == null || posicion <= 0) {
+            return true;
+        }
+        try {
+            diario.forzar(posicion);
+            return true;
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar el diario local de viajes en el disco: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Carga los cambios pendientes del diario local (de una ejecución
+     * anterior) para enviarlos a la base de datos.
+     *
+     * @return Número de cambios recuperados
+     */
+    public int restaurar() {
+        if (diario == null) {
+            return 0;
+        }
+        DiarioMutaciones.Contenido contenido;
+        try {
+            contenido = diario.leer();
+        } catch (IOException e) {
+            System.err.println("No se pudo leer el diario local de viajes: " + e.getMessage());
+            return 0;
+        }
+        synchronized (this) {
+            idsReales.putAll(contenido.idsReales());
+            ultimoTemporal = Math.min(ultimoTemporal, contenido.menorTemporal());
+            for (MutacionViaje m : contenido.pendientes()) {
+                encolados++;
+                if (pendientes.containsKey(m.getId())) {
+                    combinados++;
+                }
+                agregar(m);
+            }
+            diarioConDatos = true;
+            compactarSiVacia();
+            notifyAll();
+        }
+        return contenido.pendientes().size();
+    }
+
+    /**
+     * @return true si hay cambios sin confirmar (en espera o enviándose)
+     */
+    public synchronized boolean tienePendientes() {
+        return !pendientes.isEmpty() || !enVuelo.isEmpty();
+    }
+
+    /**
+     * @return false si ya se sabe que la base de datos no guarda claves de
+     *         idempotencia (los cambios se envían sin ellas)
+     */
+    public boolean isUsarClaves() {
+        return usarClaves;
+    }
+
+    /**
+     * @return true si la cola espera a que vuelva la conexión con la base de datos
+     */
+    public synchronized boolean isSinConexion() {
+        return sinConexion;
+    }
+
+    /**
+     * @return Cambios enviándose y en espera, en el orden en que deben aplicarse
+     */
+    public synchronized List<MutacionViaje> getPendientes() {
+        List<MutacionViaje> todos = new ArrayList<>(enVuelo.size() + pendientes.size());
+        todos.addAll(enVuelo);
+        todos.addAll(pendientes.values());
+        return todos;
+    }
+
+    /**
+     * Envía de inmediato los cambios en espera y espera a que se confirmen.
+     *
+     * @param timeoutMillis Tiempo máximo de espera en ms
+     * @return true si no quedan cambios sin confirmar
+     */
+    public synchronized boolean flush(long timeoutMillis) {
+        esperandoFlush++;
+        notifyAll();
+        try {
+            return esperarVacia(timeoutMillis);
+        } finally {
+            esperandoFlush--;
+        }
+    }
+
+    /**
+     * Cierra la cola: no acepta más cambios y envía los pendientes.
+     *
+     * @param timeoutMillis Tiempo máximo de espera en ms
+     * @return true si todos los cambios quedaron confirmados
+     */
+    public synchronized boolean cerrar(long timeoutMillis) {
+        cerrada = true;
+        notifyAll();
+        boolean vacia = esperarVacia(timeoutMillis);
+        if (!vacia) {
+            System.err.println("Cola de escritura cerrada con " + (pendientes.size() + enVuelo.size())
+                    + " cambios de viajes sin guardar"
+                    + (diario == null ? "" : "; quedan en " + diario.getRuta() + " y se enviarán al volver a iniciar"));
+        }
+        return vacia;
+    }
+
+    /**
+     * @return Estadísticas actuales de la cola
+     */
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(pendientes.size(), enVuelo.size(), encolados, combinados,
+                lotes, confirmados, reintentos, descartados, sinConexion);
+    }
+
+    /**
+     * Espera a que no queden cambios en espera ni enviándose.
+     * Debe llamarse con el monitor tomado.
+     */
+    private boolean esperarVacia(long timeoutMillis) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!pendientes.isEmpty() || !enVuelo.isEmpty()) {
+            long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            if (restante <= 0) {
+                return false;
+            }
+            try {
+                wait(restante);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Agrega un cambio nuevo a la cola, combinándolo con el pendiente del
+     * mismo viaje. Debe llamarse con el monitor tomado.
+     *
+     * @param mutacion Cambio a agregar
+     */
+    private void agregar(MutacionViaje mutacion) {
+        if (pendientes.isEmpty()) {
+            primeraPendiente = System.nanoTime();
+        }
+        // El cambio combinado conserva la posición del primero, para que los
+        // viajes se creen en el orden en que se registraron
+        pendientes.merge(mutacion.getId(), mutacion, MutacionViaje::combinar);
+    }
+
+    /**
+     * Devuelve al principio de la cola cambios que ya se habían enviado, para
+     * que se reintenten antes que los llegados después, combinándolos con los
+     * cambios posteriores del mismo viaje. Debe llamarse con el monitor tomado.
+     *
+     * @param cambios Cambios a devolver, en su orden original
+     */
+    private void devolver(List<MutacionViaje> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        if (pendientes.isEmpty()) {
+            primeraPendiente = System.nanoTime();
+        }
+        LinkedHashMap<Integer, MutacionViaje> ordenados = new LinkedHashMap<>();
+        for (MutacionViaje m : cambios) {
+            ordenados.put(m.getId(), m);
+        }
+        for (MutacionViaje posterior : pendientes.values()) {
+            MutacionViaje anterior = ordenados.get(posterior.getId());
+            ordenados.put(posterior.getId(), anterior == null ? posterior : anterior.combinar(posterior));
+        }
+        pendientes.clear();
+        pendientes.putAll(ordenados);
+    }
+
+    /**
+     * Ciclo del hilo de fondo: espera a que haya un lote listo y lo envía.
+     */
+    private void ejecutar() {
+        while (true) {
+            List<MutacionViaje> lote;
+            synchronized (this) {
+                try {
+                    while (true) {
+                        if (pendientes.isEmpty() && cerrada) {
+                            notifyAll();
+                            return;
+                        }
+                        long espera = esperaHastaEnvio();
+                        if (espera == 0) {
+                            break;
+                        }
+                        wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(espera)));
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Tras una caída puede haber miles de cambios: enviarlos en varias transacciones
+                lote = new ArrayList<>(Math.min(pendientes.size(), MAX_CAMBIOS_POR_ENVIO));
+                Iterator<MutacionViaje> it = pendientes.values().iterator();
+                while (it.hasNext() && lote.size() < MAX_CAMBIOS_POR_ENVIO) {
+                    lote.add(it.next());
+                    it.remove();
+                }
+                enVuelo = lote;
+                // Hay espacio de nuevo para los hilos que esperan en esperarEspacio()
+                notifyAll();
+            }
+
+            try {
+                enviar(lote);
+            } catch (RuntimeException e) {
+                // Error inesperado (no de la base de datos): no detener el hilo
+                System.err.println("Error en la cola de escritura de viajes: " + e.getMessage());
+                synchronized (this) {
+                    devolver(lote);
+                    reintentarDesde = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_REINTENTO_MS);
+                }
+            } finally {
+                synchronized (this) {
+                    enVuelo = List.of();
+                    compactarSiVacia();
+                    notifyAll();
+                }
+            }
+
+            if (isSinConexion() && verificador != null) {
+                esperarConexion();
+            }
+        }
+    }
+
+    /**
+     * Espera a que vuelva la conexión con la base de datos, consultando el
+     * verificador con esperas crecientes. Mientras tanto los cambios se siguen
+     * aceptando (y registrando en el diario).
+     */
+    private void esperarConexion() {
+        long espera = ESPERA_REINTENTO_MS;
+        System.err.println("Sin conexión con la base de datos: los cambios de viajes se guardarán al reconectar");
+        while (true) {
+            // Esperar el tiempo completo aunque lleguen avisos de cambios nuevos
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(espera);
+            synchronized (this) {
+                try {
+                    for (long restante = espera; restante > 0;
+                            restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())) {
+                        wait(restante);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (verificador.getAsBoolean()) {
+                int cambios;
+                synchronized (this) {
+                    sinConexion = false;
+                    reintentarDesde = System.nanoTime();
+                    cambios = pendientes.size();
+                    notifyAll();
+                }
+                System.out.println("Conexión recuperada: se envían " + cambios + " cambios de viajes pendientes");
+                return;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_SIN_CONEXION_MS);
+        }
+    }
+
+    /**
+     * Vacía el diario local si no quedan cambios sin confirmar.
+     * Debe llamarse con el monitor tomado.
+     */
+    private void compactarSiVacia() {
+        if (diario == null || !diarioConDatos || !pendientes.isEmpty() || !enVuelo.isEmpty()) {
+            return;
+        }
+        try {
+            diario.compactar();
+            diarioConDatos = false;
+        } catch (IOException e) {
+            System.err.println("No se pudo compactar el diario local de viajes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Calcula cuánto falta para enviar el siguiente lote.
+     * Debe llamarse con el monitor tomado.
+     *
+     * @return 0 si hay que enviar ya, o los nanosegundos que faltan (Long.MAX_VALUE si no hay nada)
+     */
+    private long esperaHastaEnvio() {
+        if (pendientes.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long ahora = System.nanoTime();
+        boolean urgente = esperandoFlush > 0 || cerrada;
+        if (!urgente && reintentarDesde - ahora > 0) {
+            return reintentarDesde - ahora;
+        }
+        if (urgente || pendientes.size() >= TAMANO_LOTE) {
+            return 0;
+        }
+        long vence = primeraPendiente + TimeUnit.MILLISECONDS.toNanos(RETRASO_MAXIMO_MS);
+        return Math.max(0, vence - ahora);
+    }
+
+    /**
+     * Envía un lote de cambios en una sola transacción con sus claves de
+     * idempotencia, o con una transacción por tipo de cambio si la base de
+     * datos no puede guardar las claves.
+     */
+    private void enviar(List<MutacionViaje> lote) {
+        // Cambios sobre un viaje creado en un lote anterior: usar su ID real.
+        // Los que siguen con ID temporal los resuelve la base de datos por su clave.
+        List<MutacionViaje> cambios = new ArrayList<>(lote.size());
+        for (MutacionViaje m : lote) {
+            if (m.isTemporal() && m.getTipo() != MutacionViaje.Tipo.CREAR) {
+                int real = resolverId(m.getId());
+                if (real > 0) {
+                    m = m.conId(real);
+                }
+            }
+            cambios.add(m);
+        }
+
+        if (usarClaves) {
+            try {
+                procesar(cambios, () -> service.applyMutations(cambios));
+                return;
+            } catch (UnsupportedOperationException e) {
+                usarClaves = false;
+                System.err.println("La base de datos no guarda claves de idempotencia (" + e.getMessage()
+                        + "); los cambios se envían sin protección contra duplicados");
+            }
+        }
+        enviarPorTipo(cambios);
+    }
+
+    /**
+     * Envía un lote de cambios sin claves: una transacción por tipo de cambio.
+     */
+    private void enviarPorTipo(List<MutacionViaje> lote) {
+        List<MutacionViaje> crear = new ArrayList<>();
+        List<MutacionViaje> actualizar = new ArrayList<>();
+        List<MutacionViaje> eliminar = new ArrayList<>();
+
+        for (MutacionViaje m : lote) {
+            if (m.getTipo() == MutacionViaje.Tipo.CREAR) {
+                crear.add(m);
+            } else if (m.isTemporal()) {
+                // El viaje temporal nunca llegó a crearse
+                if (m.getTipo() == MutacionViaje.Tipo.ELIMINAR) {
+                    terminar(m, 0);
+                } else {
+                    descartar(m, "El viaje con ID temporal " + m.getId() + " no llegó a crearse");
+                }
+            } else {
+                (m.getTipo() == MutacionViaje.Tipo.ACTUALIZAR ? actualizar : eliminar).add(m);
+            }
+        }
+
+        if (!crear.isEmpty()) {
+            List<Viaje> viajes = new ArrayList<>(crear.size());
+            for (MutacionViaje m : crear) {
+                viajes.add(m.getViaje());
+            }
+            procesar(crear, () -> service.createAll(viajes));
+        }
+        if (!actualizar.isEmpty()) {
+            List<Viaje> viajes = new ArrayList<>(actualizar.size());
+            for (MutacionViaje m : actualizar) {
+                viajes.add(m.getViaje());
+            }
+            procesar(actualizar, () -> service.updateAll(viajes));
+        }
+        if (!eliminar.isEmpty()) {
+            int[] ids = eliminar.stream().mapToInt(MutacionViaje::getId).toArray();
+            procesar(eliminar, () -> service.deleteAll(ids));
+        }
+    }
+
+    /**
+     * Ejecuta una operación por lotes y clasifica el resultado de cada cambio.
+     *
+     * @param cambios Cambios enviados, en el mismo orden que la entrada de la operación
+     * @param operacion Llamada a applyMutations, createAll, updateAll o deleteAll
+     * @throws UnsupportedOperationException si la operación no está disponible
+     */
+    private void procesar(List<MutacionViaje> cambios, Supplier<BatchResult> operacion) {
+        BatchResult resultado;
+        try {
+            resultado = operacion.get();
+        } catch (UnsupportedOperationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Error de conexión o de la base de datos: reintentar todo el grupo más tarde
+            boolean conexion = OracleConnector.isConnectionError(e);
+            if (!conexion) {
+                System.err.println("Error al guardar " + cambios.size() + " cambios de viajes, se reintentará: "
+                        + e.getMessage());
+            }
+            synchronized (this) {
+                sinConexion = conexion;
+            }
+            reencolar(cambios, null);
+            return;
+        }
+
+        synchronized (this) {
+            lotes++;
+            sinConexion = false;
+        }
+
+        List<MutacionViaje> reintentar = new ArrayList<>();
+        MutacionViaje fallido = null;
+
+        for (BatchResult.RowResult fila : resultado.getRows()) {
+            MutacionViaje m = cambios.get(fila.index());
+            switch (fila.status()) {
+                case OK:
+                    synchronized (this) {
+                        confirmados++;
+                        intentos.remove(m.getId());
+                        if (m.getTipo() == MutacionViaje.Tipo.CREAR) {
+                            idsReales.put(m.getId(), fila.id());
+                        }
+                    }
+                    terminar(m, fila.id());
+                    if (m.getTipo() == MutacionViaje.Tipo.CREAR) {
+                        Viaje creado = m.getViaje();
+                        creado.setId(fila.id());
+                        listener.creado(m.getId(), creado);
+                    }
+                    break;
+                case NOT_FOUND:
+                case INVALID:
+                    descartar(m, fila.message());
+                    break;
+                case FAILED:
+                    fallido = m;
+                    reintentar.add(m);
+                    break;
+                case ROLLED_BACK:
+                default:
+                    reintentar.add(m);
+                    break;
+            }
+        }
+
+        if (!reintentar.isEmpty()) {
+            reencolar(reintentar, fallido);
+        }
+    }
+
+    /**
+     * Devuelve cambios a la cola para reintentarlos, combinándolos con los
+     * cambios más recientes del mismo viaje que hayan llegado mientras tanto.
+     *
+     * @param cambios Cambios a reintentar
+     * @param fallido Cambio que provocó el error (cuenta un intento), o null
+     *                si el error no es atribuible a un cambio concreto
+     */
+    private void reencolar(List<MutacionViaje> cambios, MutacionViaje fallido) {
+        MutacionViaje agotado = null;
+        String motivo = null;
+        synchronized (this) {
+            List<MutacionViaje> devueltos = new ArrayList<>(cambios.size());
+            for (MutacionViaje m : cambios) {
+                if (m == fallido) {
+                    int n = intentos.merge(m.getId(), 1, Integer::sum);
+                    if (n >= MAX_INTENTOS) {
+                        agotado = m;
+                        motivo = "Se agotaron los " + MAX_INTENTOS + " intentos de guardar el cambio";
+                        continue;
+                    }
+                }
+                reintentos++;
+                devueltos.add(m);
+            }
+            devolver(devueltos);
+            reintentarDesde = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_REINTENTO_MS);
+        }
+        if (agotado != null) {
+            descartar(agotado, motivo);
+        }
+    }
+
+    /**
+     * Marca un cambio como terminado en el diario para que no se reproduzca.
+     */
+    private void terminar(MutacionViaje mutacion, int idViaje) {
+        if (diario == null) {
+            return;
+        }
+        try {
+            diario.confirmar(mutacion, idViaje);
+        } catch (IOException e) {
+            // Si se reproduce, la base de datos lo omite por su clave
+            System.err.println("No se pudo confirmar el cambio en el diario local de viajes: " + e.getMessage());
+        }
+    }
+
+    private void descartar(MutacionViaje mutacion, String motivo) {
+        synchronized (this) {
+            descartados++;
+            intentos.remove(mutacion.getId());
+        }
+        terminar(mutacion, 0);
+        System.err.println("Cambio de viaje descartado (" + mutacion + "): " + motivo);
+        listener.descartado(mutacion, motivo);
+    }
+}
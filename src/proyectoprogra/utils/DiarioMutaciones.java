@@ -0,0 +1,361 @@
+package proyectoprogra.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import proyectoprogra.model.MutacionViaje;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Diario local (append-only) de los cambios de viajes pendientes de guardar.
+ *
+ * La cola de escritura registra aquí cada cambio antes de aceptarlo, de modo
+ * que si la base de datos no está disponible, o la aplicación se cierra antes
+ * de enviarlo, el cambio se recupera al volver a iniciar y se reproduce con
+ * sus claves de idempotencia (ver ViajeService.applyMutations).
+ *
+ * Formato: un registro por línea, con los campos separados por tabuladores
+ * - M clave tipo id origen destino salida llegada estado: cambio registrado
+ *   (fechas en ms desde 1970; campos vacíos en ELIMINAR)
+ * - C clave idViaje: cambio confirmado o descartado (idViaje es el ID real
+ *   en las creaciones, 0 si no tiene)
+ *
+ * Características:
+ * - Las escrituras se agregan al final con un FileChannel; solo se pagan
+ *   los fsync (force) de los registros M, y se agrupan: un force cubre todos
+ *   los registros escritos hasta ese momento por cualquier hilo
+ * - Las confirmaciones no se fuerzan: si se pierden, el cambio se reproduce
+ *   y la base de datos lo omite por su clave
+ * - Una última línea incompleta (corte de energía a mitad de escritura) se
+ *   descarta al abrir el diario
+ * - compactar() vacía el archivo cuando no quedan cambios pendientes
+ *
+ * Todos los métodos son seguros entre hilos.
+ */
+public class DiarioMutaciones implements AutoCloseable {
+
+    // Propiedad del sistema con la ruta del diario (-Dviajes.diario=...)
+    public static final String PROPIEDAD_RUTA = "viajes.diario";
+
+    private static final String REGISTRO_CAMBIO = "M";
+    private static final String REGISTRO_CONFIRMACION = "C";
+    private static final int CAMPOS_CAMBIO = 9;
+    private static final int CAMPOS_CONFIRMACION = 3;
+
+    /**
+     * Contenido recuperado del diario.
+     *
+     * @param pendientes Cambios sin confirmar, en el orden en que se registraron
+     * @param idsReales ID real de cada ID temporal cuya creación ya se confirmó
+     * @param menorTemporal Menor ID temporal usado (0 si no hay), para no repetirlos
+     */
+    public record Contenido(List<MutacionViaje> pendientes, Map<Integer, Integer> idsReales, int menorTemporal) {
+    }
+
+    private final Path ruta;
+    private final FileChannel canal;
+
+    // Bytes escritos en el archivo (protegido por el monitor de la instancia)
+    private long escrito;
+
+    // Bytes que ya están en el disco (protegido por bloqueoForzado)
+    private long forzado;
+    private final Object bloqueoForzado = new Object();
+
+    /**
+     * Abre (o crea) el diario en la ruta indicada.
+     *
+     * @param ruta Archivo del diario; los directorios se crean si no existen
+     * @throws IOException si el archivo no se puede abrir
+     */
+    public DiarioMutaciones(Path ruta) throws IOException {
+        this.ruta = ruta;
+        Path directorio = ruta.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        // Descartar una última línea escrita a medias
+        long completo = finUltimaLinea();
+        if (completo < canal.size()) {
+            System.err.println("Diario de viajes: se descarta un registro incompleto al final de " + ruta);
+            canal.truncate(completo);
+            canal.force(false);
+        }
+        this.escrito = completo;
+        this.forzado = completo;
+    }
+
+    /**
+     * @return Ruta del diario: la propiedad viajes.diario, o
+     *         ~/.proyectoprogra/viajes-pendientes.journal por defecto
+     */
+    public static Path rutaPorDefecto() {
+        String ruta = System.getProperty(PROPIEDAD_RUTA);
+        if (ruta != null && !ruta.isBlank()) {
+            return Paths.get(ruta);
+        }
+        return Paths.get(System.getProperty("user.home"), ".proyectoprogra", "viajes-pendientes.journal");
+    }
+
+    /**
+     * @return Ruta del archivo del diario
+     */
+    public Path getRuta() {
+        return ruta;
+    }
+
+    /**
+     * Lee los cambios pendientes del diario.
+     *
+     * @return Cambios sin confirmar e IDs reales de las creaciones confirmadas
+     * @throws IOException si el archivo no se puede leer
+     */
+    public synchronized Contenido leer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) escrito);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        String texto = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+
+        LinkedHashMap<String, MutacionViaje> cambios = new LinkedHashMap<>();
+        Set<String> confirmadas = new HashSet<>();
+        Map<String, Integer> creaciones = new HashMap<>();
+        Map<Integer, Integer> idsReales = new HashMap<>();
+        int menorTemporal = 0;
+        int numero = 0;
+
+        for (String linea : texto.split("\n")) {
+            numero++;
+            if (linea.isEmpty()) {
+                continue;
+            }
+            String[] campos = linea.split("\t", -1);
+            try {
+                if (REGISTRO_CAMBIO.equals(campos[0]) && campos.length == CAMPOS_CAMBIO) {
+                    MutacionViaje m = leerCambio(campos);
+                    cambios.put(m.getClave(), m);
+                    if (m.isTemporal()) {
+                        menorTemporal = Math.min(menorTemporal, m.getId());
+                        if (m.getTipo() == MutacionViaje.Tipo.CREAR) {
+                            creaciones.put(m.getClave(), m.getId());
+                        }
+                    }
+                } else if (REGISTRO_CONFIRMACION.equals(campos[0]) && campos.length == CAMPOS_CONFIRMACION) {
+                    String clave = campos[1];
+                    int idViaje = Integer.parseInt(campos[2]);
+                    confirmadas.add(clave);
+                    Integer temporal = creaciones.get(clave);
+                    if (temporal != null && idViaje > 0) {
+                        idsReales.put(temporal, idViaje);
+                    }
+                } else {
+                    throw new IllegalArgumentException("registro desconocido");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Diario de viajes: se ignora la línea " + numero + " (" + e.getMessage() + ")");
+            }
+        }
+
+        List<MutacionViaje> pendientes = new ArrayList<>();
+        for (MutacionViaje m : cambios.values()) {
+            if (!confirmadas.contains(m.getClave())) {
+                pendientes.add(m);
+            }
+        }
+        return new Contenido(pendientes, idsReales, menorTemporal);
+    }
+
+    /**
+     * Escribe un cambio al final del diario, sin esperar a que llegue al disco.
+     * Para que sea durable hay que llamar después a forzar con la posición retornada.
+     *
+     * @param mutacion Cambio recién registrado (una sola clave)
+     * @return Posición del diario hasta la que hay que forzar
+     * @throws IOException si no se pudo escribir
+     */
+    public synchronized long registrar(MutacionViaje mutacion) throws IOException {
+        Viaje v = mutacion.getViaje();
+        StringBuilder linea = new StringBuilder(128)
+                .append(REGISTRO_CAMBIO)
+                .append('\t').append(mutacion.getClave())
+                .append('\t').append(mutacion.getTipo().name())
+                .append('\t').append(mutacion.getId());
+        if (v == null) {
+            linea.append("\t\t\t\t\t");
+        } else {
+            linea.append('\t').append(escapar(v.getOrigen()))
+                    .append('\t').append(escapar(v.getDestino()))
+                    .append('\t').append(v.getFechaSalida() == null ? "" : v.getFechaSalida().getTime())
+                    .append('\t').append(v.getFechaLlegada() == null ? "" : v.getFechaLlegada().getTime())
+                    .append('\t').append(escapar(v.getEstado()));
+        }
+        escribir(linea);
+        return escrito;
+    }
+
+    /**
+     * Garantiza que el diario esté en el disco al menos hasta la posición
+     * indicada. Si otro hilo ya forzó más allá de esa posición no hace nada,
+     * de modo que varios registros concurrentes comparten un solo fsync.
+     *
+     * @param posicion Posición retornada por registrar
+     * @throws IOException si el sistema operativo no pudo escribir el archivo
+     */
+    public void forzar(long posicion) throws IOException {
+        synchronized (bloqueoForzado) {
+            if (forzado >= posicion) {
+                return;
+            }
+            long objetivo;
+            synchronized (this) {
+                objetivo = escrito;
+            }
+            canal.force(false);
+            forzado = objetivo;
+        }
+    }
+
+    /**
+     * Marca como terminado un cambio (confirmado o descartado), para que no
+     * se reproduzca al volver a iniciar. No fuerza la escritura al disco.
+     *
+     * @param mutacion Cambio terminado (se marcan todas sus claves)
+     * @param idViaje ID real del viaje, o 0 si no tiene
+     * @throws IOException si no se pudo escribir
+     */
+    public synchronized void confirmar(MutacionViaje mutacion, int idViaje) throws IOException {
+        StringBuilder lineas = new StringBuilder(64 * mutacion.getClaves().size());
+        for (String clave : mutacion.getClaves()) {
+            if (lineas.length() > 0) {
+                lineas.append('\n');
+            }
+            lineas.append(REGISTRO_CONFIRMACION).append('\t').append(clave).append('\t').append(idViaje);
+        }
+        escribir(lineas);
+    }
+
+    /**
+     * Vacía el diario. Solo debe llamarse cuando no quedan cambios pendientes.
+     *
+     * @throws IOException si el archivo no se pudo truncar
+     */
+    public void compactar() throws IOException {
+        synchronized (bloqueoForzado) {
+            synchronized (this) {
+                canal.truncate(0);
+                canal.force(false);
+                escrito = 0;
+            }
+            forzado = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Escribe una o más líneas al final del archivo.
+     * Debe llamarse con el monitor de la instancia tomado.
+     */
+    private void escribir(StringBuilder lineas) throws IOException {
+        lineas.append('\n');
+        ByteBuffer buffer = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+        long posicion = escrito;
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+        escrito = posicion;
+    }
+
+    /**
+     * @return Tamaño del archivo hasta el último salto de línea inclusive
+     */
+    private long finUltimaLinea() throws IOException {
+        long tamano = canal.size();
+        ByteBuffer byteLeido = ByteBuffer.allocate(1);
+        for (long pos = tamano - 1; pos >= 0; pos--) {
+            byteLeido.clear();
+            canal.read(byteLeido, pos);
+            if (byteLeido.get(0) == '\n') {
+                return pos + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static MutacionViaje leerCambio(String[] campos) {
+        MutacionViaje.Tipo tipo = MutacionViaje.Tipo.valueOf(campos[2]);
+        int id = Integer.parseInt(campos[3]);
+        Viaje viaje = null;
+        if (tipo != MutacionViaje.Tipo.ELIMINAR) {
+            viaje = new Viaje(id, desescapar(campos[4]), desescapar(campos[5]),
+                    campos[6].isEmpty() ? null : new Date(Long.parseLong(campos[6])),
+                    campos[7].isEmpty() ? null : new Date(Long.parseLong(campos[7])),
+                    desescapar(campos[8]));
+        }
+        return MutacionViaje.de(tipo, id, viaje, campos[1]);
+    }
+
+    /**
+     * Escapa los caracteres que separan campos y registros.
+     */
+    private static String escapar(String texto) {
+        if (texto == null) {
+            return "\\0";
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String desescapar(String texto) {
+        if (texto.equals("\\0")) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\\' && i + 1 < texto.length()) {
+                char siguiente = texto.charAt(++i);
+                switch (siguiente) {
+                    case 't': sb.append('\t'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    default: sb.append(siguiente);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,332 @@
+package proyectoprogra.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import proyectoprogra.model.ClaveBusqueda;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Índice invertido de trigramas sobre el origen y el destino de los viajes,
+ * para buscar texto contenido en cualquier parte de esos campos.
+ *
+ * Cada trigrama (tres caracteres seguidos de la clave de búsqueda del campo,
+ * ver ClaveBusqueda: sin acentos y en minúsculas) tiene su
+ * lista de IDs de viajes ordenada de menor a mayor, en un int[] sin objetos
+ * intermedios. Una búsqueda recorre la lista más corta de los trigramas de
+ * la consulta y descarta los IDs que no están en las demás.
+ *
+ * Características:
+ * - Es inmutable: un cambio (conCambio, conCambios) crea un índice nuevo que
+ *   copia solo las listas de los trigramas que cambiaron y comparte las
+ *   demás. AlmacenViajes publica cada índice dentro de su instantánea, así
+ *   que las búsquedas no toman bloqueos ni esperan a las escrituras
+ * - El costo de una búsqueda depende del tamaño de la intersección (y se
+ *   corta al llegar al límite de resultados), no de la cantidad de viajes
+ * - El costo de un cambio es proporcional a la cantidad de trigramas
+ *   distintos más el largo de las listas que cambiaron; conviene agrupar
+ *   los cambios en conCambios
+ * - Los candidatos pueden no contener la consulta completa (los trigramas
+ *   pueden venir de campos distintos o de posiciones separadas): quien
+ *   busca debe verificar cada candidato
+ *
+ * Las consultas de menos de LARGO_TRIGRAMA caracteres no tienen trigramas y
+ * no se pueden resolver con el índice (ver recorrer).
+ *
+ * Es seguro entre hilos por ser inmutable.
+ */
+public final class IndiceTrigramas {
+
+    // Caracteres por trigrama
+    public static final int LARGO_TRIGRAMA = 3;
+
+    // Índice sin viajes
+    public static final IndiceTrigramas VACIO = new IndiceTrigramas(new HashMap<>());
+
+    // Capacidad inicial de una lista de IDs al construir
+    private static final int CAPACIDAD_INICIAL = 8;
+
+    private static final int[] SIN_IDS = new int[0];
+
+    // Listas de IDs por trigrama (clave: los tres caracteres en un long); ni
+    // el mapa ni los arreglos se modifican después de construir el índice
+    private final Map<Long, int[]> listas;
+
+    private IndiceTrigramas(Map<Long, int[]> listas) {
+        this.listas = listas;
+    }
+
+    /**
+     * Construye el índice de un conjunto de viajes en una sola pasada.
+     *
+     * @param ordenadosPorId Viajes ordenados por ID, sin IDs repetidos
+     * @return Índice con todos los viajes
+     */
+    public static IndiceTrigramas construir(Viaje[] ordenadosPorId) {
+        Map<Long, ListaIds> porTrigrama = new HashMap<>();
+        // Hay pocas ciudades distintas: sus listas se calculan una sola vez
+        Map<String, ListaIds[]> porTexto = new HashMap<>();
+        for (Viaje viaje : ordenadosPorId) {
+            int id = viaje.getId();
+            for (String clave : new String[] {viaje.getClaveOrigen(), viaje.getClaveDestino()}) {
+                ListaIds[] delTexto = porTexto.computeIfAbsent(clave, t -> listasDe(t, porTrigrama));
+                for (ListaIds lista : delTexto) {
+                    // IDs en orden creciente: siempre se agregan al final
+                    lista.agregarAlFinal(id);
+                }
+            }
+        }
+        Map<Long, int[]> listas = new HashMap<>(porTrigrama.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, ListaIds> lista : porTrigrama.entrySet()) {
+            listas.put(lista.getKey(), lista.getValue().comoArreglo());
+        }
+        return new IndiceTrigramas(listas);
+    }
+
+    /**
+     * @return Listas (creadas si hace falta) de los trigramas de una clave de búsqueda
+     */
+    private static ListaIds[] listasDe(String clave, Map<Long, ListaIds> porTrigrama) {
+        Set<Long> delTexto = trigramas(clave, new HashSet<>());
+        ListaIds[] resultado = new ListaIds[delTexto.size()];
+        int i = 0;
+        for (long trigrama : delTexto) {
+            resultado[i++] = porTrigrama.computeIfAbsent(trigrama, t -> new ListaIds());
+        }
+        return resultado;
+    }
+
+    /**
+     * @param anterior Versión anterior del viaje, o null si es nuevo
+     * @param actual Versión nueva con el mismo ID, o null si se eliminó
+     * @return Índice con el cambio aplicado (este no cambia)
+     */
+    public IndiceTrigramas conCambio(Viaje anterior, Viaje actual) {
+        return conCambios(Collections.singletonList(anterior), Collections.singletonList(actual));
+    }
+
+    /**
+     * Aplica varios cambios de una vez.
+     *
+     * @param anteriores Versión anterior de cada viaje (null si es nuevo)
+     * @param actuales Versión nueva de cada viaje, en el mismo orden (null si
+     *                 se eliminó); cada ID aparece una sola vez
+     * @return Índice con los cambios aplicados (este no cambia)
+     */
+    public IndiceTrigramas conCambios(List<Viaje> anteriores, List<Viaje> actuales) {
+        // IDs que entran y salen de la lista de cada trigrama afectado
+        Map<Long, ListaIds> agregados = new HashMap<>();
+        Map<Long, ListaIds> quitados = new HashMap<>();
+        for (int i = 0; i < anteriores.size(); i++) {
+            Viaje anterior = anteriores.get(i);
+            Viaje actual = actuales.get(i);
+            if (anterior == null && actual == null) {
+                continue;
+            }
+            int id = actual != null ? actual.getId() : anterior.getId();
+            Set<Long> antes = anterior == null ? new HashSet<>() : trigramas(anterior);
+            Set<Long> despues = actual == null ? new HashSet<>() : trigramas(actual);
+            for (long trigrama : despues) {
+                if (!antes.contains(trigrama)) {
+                    agregados.computeIfAbsent(trigrama, t -> new ListaIds()).agregar(id);
+                }
+            }
+            for (long trigrama : antes) {
+                if (!despues.contains(trigrama)) {
+                    quitados.computeIfAbsent(trigrama, t -> new ListaIds()).agregar(id);
+                }
+            }
+        }
+        if (agregados.isEmpty() && quitados.isEmpty()) {
+            return this;
+        }
+
+        Map<Long, int[]> nuevas = new HashMap<>(listas);
+        Set<Long> afectados = new HashSet<>(agregados.keySet());
+        afectados.addAll(quitados.keySet());
+        for (long trigrama : afectados) {
+            ListaIds entran = agregados.get(trigrama);
+            ListaIds salen = quitados.get(trigrama);
+            int[] lista = mezclar(listas.getOrDefault(trigrama, SIN_IDS),
+                    entran == null ? SIN_IDS : entran.comoArreglo(),
+                    salen == null ? SIN_IDS : salen.comoArreglo());
+            if (lista.length == 0) {
+                nuevas.remove(trigrama);
+            } else {
+                nuevas.put(trigrama, lista);
+            }
+        }
+        return new IndiceTrigramas(nuevas);
+    }
+
+    /**
+     * Recorre en orden de ID los viajes que tienen todos los trigramas de
+     * la consulta. No toma bloqueos: el índice no cambia.
+     *
+     * @param consulta Texto a buscar, ya normalizado (ver ClaveBusqueda.normalizar)
+     * @param visitar Recibe cada ID candidato; retorna false para terminar
+     *                el recorrido
+     * @return false si la consulta es más corta que un trigrama y no se puede
+     *         resolver con el índice (no se visita ningún ID)
+     */
+    public boolean recorrer(String consulta, IntPredicate visitar) {
+        if (consulta.length() < LARGO_TRIGRAMA) {
+            return false;
+        }
+        Set<Long> buscados = trigramas(consulta, new HashSet<>());
+
+        List<int[]> encontradas = new ArrayList<>(buscados.size());
+        for (long trigrama : buscados) {
+            int[] lista = listas.get(trigrama);
+            if (lista == null) {
+                // Un trigrama sin viajes: no hay resultados
+                return true;
+            }
+            encontradas.add(lista);
+        }
+        // Recorrer la lista más corta y verificar en las demás
+        encontradas.sort((a, b) -> Integer.compare(a.length, b.length));
+        int[] menor = encontradas.get(0);
+        int[] cursores = new int[encontradas.size()];
+
+        for (int id : menor) {
+            boolean enTodas = true;
+            for (int j = 1; j < encontradas.size() && enTodas; j++) {
+                int[] otra = encontradas.get(j);
+                cursores[j] = buscarDesde(otra, cursores[j], id);
+                enTodas = cursores[j] < otra.length && otra[cursores[j]] == id;
+            }
+            if (enTodas && !visitar.test(id)) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Cantidad de trigramas distintos del índice
+     */
+    public int cantidadTrigramas() {
+        return listas.size();
+    }
+
+    /**
+     * Une una lista ordenada con los IDs que entran y quita los que salen
+     * (ambos ordenados), en una sola pasada.
+     *
+     * @return Arreglo nuevo con el resultado, de largo exacto
+     */
+    private static int[] mezclar(int[] lista, int[] entran, int[] salen) {
+        int[] resultado = new int[lista.length + entran.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < lista.length || j < entran.length) {
+            int id;
+            if (j == entran.length || (i < lista.length && lista[i] <= entran[j])) {
+                id = lista[i++];
+            } else {
+                id = entran[j++];
+            }
+            while (k < salen.length && salen[k] < id) {
+                k++;
+            }
+            if ((k < salen.length && salen[k] == id) || (n > 0 && resultado[n - 1] == id)) {
+                continue;
+            }
+            resultado[n++] = id;
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    /**
+     * Búsqueda exponencial desde una posición: como los IDs buscados van en
+     * aumento, cada búsqueda empieza donde terminó la anterior.
+     *
+     * @return Posición del primer ID mayor o igual a id (ids.length si no hay)
+     */
+    private static int buscarDesde(int[] ids, int desde, int id) {
+        int paso = 1;
+        int bajo = desde;
+        int alto = desde;
+        while (alto < ids.length && ids[alto] < id) {
+            bajo = alto + 1;
+            alto += paso;
+            paso <<= 1;
+        }
+        alto = Math.min(alto, ids.length);
+        int pos = Arrays.binarySearch(ids, bajo, alto, id);
+        return pos >= 0 ? pos : -(pos + 1);
+    }
+
+    /**
+     * @return Trigramas del origen y del destino de un viaje, sin repetidos
+     */
+    private static Set<Long> trigramas(Viaje viaje) {
+        Set<Long> resultado = new HashSet<>();
+        trigramas(viaje.getClaveOrigen(), resultado);
+        trigramas(viaje.getClaveDestino(), resultado);
+        return resultado;
+    }
+
+    /**
+     * Agrega a un conjunto los trigramas de un texto normalizado.
+     */
+    private static Set<Long> trigramas(String texto, Set<Long> destino) {
+        for (int i = 0; i + LARGO_TRIGRAMA <= texto.length(); i++) {
+            destino.add(((long) texto.charAt(i) << 32)
+                    | ((long) texto.charAt(i + 1) << 16)
+                    | texto.charAt(i + 2));
+        }
+        return destino;
+    }
+
+    /**
+     * Lista de IDs ordenada de menor a mayor, sin repetidos, que se arma
+     * antes de publicar el índice.
+     */
+    private static final class ListaIds {
+
+        private int[] ids = new int[CAPACIDAD_INICIAL];
+        private int tamano;
+
+        void agregarAlFinal(int id) {
+            if (tamano > 0 && ids[tamano - 1] == id) {
+                return;
+            }
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = id;
+        }
+
+        void agregar(int id) {
+            if (tamano == 0 || ids[tamano - 1] < id) {
+                agregarAlFinal(id);
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, tamano, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insercion = -(pos + 1);
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, insercion, ids, insercion + 1, tamano - insercion);
+            ids[insercion] = id;
+            tamano++;
+        }
+
+        int[] comoArreglo() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+}
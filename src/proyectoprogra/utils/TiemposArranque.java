@@ -0,0 +1,158 @@
+package proyectoprogra.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registro de los tiempos de arranque de la aplicación.
+ *
+ * Las fases del arranque (conexión, carga de datos, construcción de la
+ * ventana, etc.) se ejecutan en paralelo; esta clase mide cada una en el
+ * hilo donde corre y genera un reporte con su inicio, fin y duración, para
+ * seguir el tiempo hasta la primera interacción.
+ *
+ * Características:
+ * - Los tiempos se miden en ms desde iniciar() (inicio de main) con System.nanoTime
+ * - El reporte incluye también el tiempo que tardó la JVM en llegar a main
+ * - Los hitos (marcar) registran un instante, como "Ventana visible"
+ * - "Aplicación lista" es el último hito registrado
+ *
+ * Todas las operaciones son estáticas y seguras entre hilos.
+ */
+public class TiemposArranque {
+
+    /**
+     * Fase medida o hito (inicio == fin).
+     */
+    private record Registro(String nombre, String hilo, long inicio, long fin, boolean hito) {
+    }
+
+    // Momento (System.nanoTime) de inicio de main
+    private static long origen = System.nanoTime();
+
+    // Tiempo desde el inicio de la JVM hasta iniciar() (ms, -1 si no se conoce)
+    private static long jvmHastaMain = -1;
+
+    private static final List<Registro> registros = new ArrayList<>();
+
+    private static boolean reporteImpreso = false;
+
+    private TiemposArranque() {
+    }
+
+    /**
+     * Marca el inicio del arranque. Debe llamarse al principio de main.
+     */
+    public static synchronized void iniciar() {
+        origen = System.nanoTime();
+        try {
+            jvmHastaMain = ManagementFactory.getRuntimeMXBean().getUptime();
+        } catch (RuntimeException | LinkageError e) {
+            jvmHastaMain = -1;
+        }
+        registros.clear();
+        reporteImpreso = false;
+    }
+
+    /**
+     * Ejecuta una fase del arranque y registra su duración, aunque falle.
+     *
+     * @param fase Nombre de la fase
+     * @param tarea Trabajo de la fase
+     * @return Resultado de la tarea
+     */
+    public static <T> T medir(String fase, Supplier<T> tarea) {
+        long inicio = System.nanoTime();
+        try {
+            return tarea.get();
+        } finally {
+            registrar(new Registro(fase, Thread.currentThread().getName(), inicio, System.nanoTime(), false));
+        }
+    }
+
+    /**
+     * Ejecuta una fase del arranque sin resultado y registra su duración.
+     *
+     * @param fase Nombre de la fase
+     * @param tarea Trabajo de la fase
+     */
+    public static void medir(String fase, Runnable tarea) {
+        medir(fase, () -> {
+            tarea.run();
+            return null;
+        });
+    }
+
+    /**
+     * Registra un hito del arranque en el instante actual.
+     *
+     * @param hito Nombre del hito (por ejemplo "Ventana visible")
+     */
+    public static void marcar(String hito) {
+        long ahora = System.nanoTime();
+        registrar(new Registro(hito, Thread.currentThread().getName(), ahora, ahora, true));
+    }
+
+    /**
+     * Genera el reporte con las fases ordenadas por inicio y los hitos.
+     *
+     * @return Texto del reporte, una línea por fase
+     */
+    public static synchronized String generarReporte() {
+        List<Registro> ordenados = new ArrayList<>(registros);
+        ordenados.sort(Comparator.comparingLong(Registro::inicio));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== TIEMPOS DE ARRANQUE (ms desde el inicio de main) ===\n");
+        if (jvmHastaMain >= 0) {
+            sb.append(String.format(Locale.ROOT, "  %-34s %7d ms%n", "JVM hasta main", jvmHastaMain));
+        }
+        long listo = -1;
+        for (Registro r : ordenados) {
+            long inicio = ms(r.inicio());
+            long fin = ms(r.fin());
+            if (r.hito()) {
+                sb.append(String.format(Locale.ROOT, "  %-34s  en %7d ms                  [%s]%n",
+                        "* " + r.nombre(), fin, r.hilo()));
+                listo = Math.max(listo, fin);
+            } else {
+                sb.append(String.format(Locale.ROOT, "  %-34s %7d ms  (%6d -> %6d)  [%s]%n",
+                        r.nombre(), fin - inicio, inicio, fin, r.hilo()));
+            }
+        }
+        if (listo >= 0) {
+            sb.append(String.format(Locale.ROOT, "  %-34s %7d ms", "Aplicación lista", listo));
+            if (jvmHastaMain >= 0) {
+                sb.append(String.format(Locale.ROOT, " (%d ms desde el inicio de la JVM)", listo + jvmHastaMain));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Imprime el reporte en la consola. Solo la primera llamada tiene efecto.
+     */
+    public static void imprimirReporte() {
+        synchronized (TiemposArranque.class) {
+            if (reporteImpreso) {
+                return;
+            }
+            reporteImpreso = true;
+        }
+        System.out.print(generarReporte());
+    }
+
+    private static synchronized void registrar(Registro registro) {
+        registros.add(registro);
+    }
+
+    private static long ms(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos - origen);
+    }
+}
@@ -0,0 +1,286 @@
+package proyectoprogra.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import proyectoprogra.model.ClaveBusqueda;
+import proyectoprogra.model.Viaje;
+
+/**
+ * Trie de prefijos de las ciudades conocidas (orígenes y destinos de los
+ * viajes), ordenadas por frecuencia, para autocompletar.
+ *
+ * Características:
+ * - Las ciudades se indexan por su clave de búsqueda (ClaveBusqueda): "cob"
+ *   sugiere "Cobán"
+ * - Cada ciudad cuenta cuántos viajes la usan como origen o destino; las
+ *   sugerencias salen de mayor a menor frecuencia
+ * - Si una ciudad está escrita de varias formas ("Coban", "Cobán"), se
+ *   sugiere la más usada
+ * - Nodos compactos: las letras y los hijos de cada nodo en arreglos
+ *   ordenados (búsqueda binaria), sin un mapa por nodo; las ramas que
+ *   quedan sin ciudades se eliminan
+ * - Se actualiza con cada alta, cambio o baja de un viaje (costo
+ *   proporcional al largo del nombre)
+ *
+ * Una sugerencia recorre el subárbol del prefijo: con unos miles de
+ * ciudades distintas toma microsegundos, y se puede llamar en cada tecla
+ * desde el hilo de la interfaz.
+ *
+ * Es seguro entre hilos (todos los métodos se sincronizan sobre el trie).
+ */
+public class TrieCiudades {
+
+    private static final char[] SIN_LETRAS = new char[0];
+    private static final Nodo[] SIN_HIJOS = new Nodo[0];
+
+    // Mayor frecuencia primero; a igual frecuencia, orden alfabético de la clave
+    private static final Comparator<Ciudad> POR_RELEVANCIA = Comparator
+            .comparingInt((Ciudad c) -> c.frecuencia).reversed()
+            .thenComparing(c -> c.clave);
+
+    private final Nodo raiz = new Nodo();
+
+    // Cantidad de ciudades distintas
+    private int cantidad;
+
+    /**
+     * Construye el trie con las ciudades de un conjunto de viajes.
+     *
+     * @param viajes Viajes
+     * @return Trie con el origen y el destino de cada viaje
+     */
+    public static TrieCiudades construir(Viaje[] viajes) {
+        TrieCiudades trie = new TrieCiudades();
+        for (Viaje viaje : viajes) {
+            trie.agregar(viaje);
+        }
+        return trie;
+    }
+
+    /**
+     * Suma el origen y el destino de un viaje.
+     *
+     * @param viaje Viaje nuevo o versión nueva de un viaje
+     */
+    public synchronized void agregar(Viaje viaje) {
+        sumar(viaje.getOrigen(), viaje.getClaveOrigen(), 1);
+        sumar(viaje.getDestino(), viaje.getClaveDestino(), 1);
+    }
+
+    /**
+     * Resta el origen y el destino de un viaje.
+     *
+     * @param viaje Viaje eliminado o versión anterior de un viaje
+     */
+    public synchronized void quitar(Viaje viaje) {
+        sumar(viaje.getOrigen(), viaje.getClaveOrigen(), -1);
+        sumar(viaje.getDestino(), viaje.getClaveDestino(), -1);
+    }
+
+    /**
+     * Sugiere ciudades que comienzan con un texto.
+     *
+     * @param prefijo Texto escrito (se normaliza con ClaveBusqueda)
+     * @param limite Cantidad máxima de sugerencias
+     * @return Nombres de las ciudades más frecuentes con ese prefijo, de
+     *         mayor a menor frecuencia; vacía si el prefijo está vacío
+     */
+    public synchronized List<String> sugerir(String prefijo, int limite) {
+        String clave = ClaveBusqueda.normalizar(prefijo == null ? "" : prefijo.trim());
+        if (clave.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        Nodo nodo = raiz;
+        for (int i = 0; i < clave.length() && nodo != null; i++) {
+            nodo = nodo.hijo(clave.charAt(i));
+        }
+        if (nodo == null) {
+            return Collections.emptyList();
+        }
+
+        // Las "limite" ciudades más relevantes del subárbol (la menos relevante arriba)
+        PriorityQueue<Ciudad> mejores = new PriorityQueue<>(limite + 1, POR_RELEVANCIA.reversed());
+        recolectar(nodo, mejores, limite);
+
+        List<Ciudad> ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(POR_RELEVANCIA);
+        List<String> nombres = new ArrayList<>(ordenadas.size());
+        for (Ciudad ciudad : ordenadas) {
+            nombres.add(ciudad.nombre);
+        }
+        return nombres;
+    }
+
+    /**
+     * @param clave Clave de búsqueda de la ciudad (ver ClaveBusqueda)
+     * @return Cantidad de viajes con esa ciudad como origen o destino
+     */
+    public synchronized int frecuencia(String clave) {
+        clave = clave.trim();
+        Nodo nodo = raiz;
+        for (int i = 0; i < clave.length() && nodo != null; i++) {
+            nodo = nodo.hijo(clave.charAt(i));
+        }
+        return nodo == null || nodo.ciudad == null ? 0 : nodo.ciudad.frecuencia;
+    }
+
+    /**
+     * @return Cantidad de ciudades distintas
+     */
+    public synchronized int cantidad() {
+        return cantidad;
+    }
+
+    private void sumar(String nombre, String clave, int delta) {
+        if (nombre == null || clave.trim().isEmpty()) {
+            return;
+        }
+        nombre = nombre.trim();
+        clave = clave.trim();
+
+        // Camino desde la raíz, para eliminar las ramas que queden vacías
+        Nodo[] camino = new Nodo[clave.length() + 1];
+        camino[0] = raiz;
+        Nodo nodo = raiz;
+        for (int i = 0; i < clave.length(); i++) {
+            Nodo hijo = nodo.hijo(clave.charAt(i));
+            if (hijo == null) {
+                if (delta < 0) {
+                    return;
+                }
+                hijo = nodo.agregarHijo(clave.charAt(i));
+            }
+            nodo = hijo;
+            camino[i + 1] = nodo;
+        }
+
+        if (nodo.ciudad == null) {
+            if (delta < 0) {
+                return;
+            }
+            nodo.ciudad = new Ciudad(clave);
+            cantidad++;
+        }
+        nodo.ciudad.sumar(nombre, delta);
+
+        if (nodo.ciudad.frecuencia <= 0) {
+            nodo.ciudad = null;
+            cantidad--;
+            // Quitar los nodos que quedaron sin ciudad ni hijos
+            for (int i = clave.length(); i > 0 && camino[i].ciudad == null && camino[i].letras.length == 0; i--) {
+                camino[i - 1].quitarHijo(clave.charAt(i - 1));
+            }
+        }
+    }
+
+    private static void recolectar(Nodo nodo, PriorityQueue<Ciudad> mejores, int limite) {
+        if (nodo.ciudad != null) {
+            mejores.add(nodo.ciudad);
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+        }
+        for (Nodo hijo : nodo.hijos) {
+            recolectar(hijo, mejores, limite);
+        }
+    }
+
+    /**
+     * Nodo del trie: hijos ordenados por letra.
+     */
+    private static final class Nodo {
+
+        private char[] letras = SIN_LETRAS;
+        private Nodo[] hijos = SIN_HIJOS;
+
+        // Ciudad cuya clave termina en este nodo (null si ninguna)
+        private Ciudad ciudad;
+
+        Nodo hijo(char letra) {
+            int pos = Arrays.binarySearch(letras, letra);
+            return pos >= 0 ? hijos[pos] : null;
+        }
+
+        Nodo agregarHijo(char letra) {
+            int insercion = -(Arrays.binarySearch(letras, letra) + 1);
+            char[] nuevasLetras = new char[letras.length + 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, insercion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, insercion);
+            Nodo hijo = new Nodo();
+            nuevasLetras[insercion] = letra;
+            nuevosHijos[insercion] = hijo;
+            System.arraycopy(letras, insercion, nuevasLetras, insercion + 1, letras.length - insercion);
+            System.arraycopy(hijos, insercion, nuevosHijos, insercion + 1, hijos.length - insercion);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+            return hijo;
+        }
+
+        void quitarHijo(char letra) {
+            int pos = Arrays.binarySearch(letras, letra);
+            if (pos < 0) {
+                return;
+            }
+            if (letras.length == 1) {
+                letras = SIN_LETRAS;
+                hijos = SIN_HIJOS;
+                return;
+            }
+            char[] nuevasLetras = new char[letras.length - 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length - 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, pos);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, pos);
+            System.arraycopy(letras, pos + 1, nuevasLetras, pos, letras.length - pos - 1);
+            System.arraycopy(hijos, pos + 1, nuevosHijos, pos, hijos.length - pos - 1);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+        }
+    }
+
+    /**
+     * Ciudad conocida: frecuencia total y formas en que se escribió.
+     */
+    private static final class Ciudad {
+
+        private final String clave;
+        private final Map<String, Integer> formas = new HashMap<>(4);
+        private int frecuencia;
+
+        // Forma más usada (la que se sugiere)
+        private String nombre;
+
+        Ciudad(String clave) {
+            this.clave = clave;
+        }
+
+        void sumar(String forma, int delta) {
+            frecuencia += delta;
+            Integer usos = formas.merge(forma, delta, Integer::sum);
+            if (usos != null && usos <= 0) {
+                formas.remove(forma);
+            }
+            if (nombre == null || forma.equals(nombre) || (usos != null && usos > formas.getOrDefault(nombre, 0))) {
+                nombre = formaMasUsada();
+            }
+        }
+
+        private String formaMasUsada() {
+            String mejor = null;
+            int maximo = 0;
+            for (Map.Entry<String, Integer> forma : formas.entrySet()) {
+                if (forma.getValue() > maximo) {
+                    mejor = forma.getKey();
+                    maximo = forma.getValue();
+                }
+            }
+            return mejor;
+        }
+    }
+}
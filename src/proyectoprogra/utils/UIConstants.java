@@ -58,6 +58,7 @@ public class UIConstants {
     public static final String STATUS_LABEL = "Estado:";
     public static final String SEARCH_LABEL = "Buscar Viaje:";
     public static final String TRIPS_TABLE_LABEL = "Viajes Registrados";
+    public static final String TRIPS_TABLE_PARTIAL_LABEL = "Viajes Registrados (primeros %d de %d)";
     public static final String NEW_TRIP_FORM_TITLE = "Agregar Nuevo Viaje";
     public static final String SELECT_DATE_TITLE = "Seleccionar Fecha";
     public static final String SELECT_TIME_TITLE = "Seleccionar Hora";
@@ -69,6 +70,16 @@ public class UIConstants {
     public static final String DEPARTURE_DATE_PLACEHOLDER = "dd/MM/yyyy HH:mm";
     public static final String ARRIVAL_DATE_PLACEHOLDER = "dd/MM/yyyy HH:mm";
     public static final String SEARCH_PLACEHOLDER = "Buscar por origen o destino...";
+    public static final String LOADING_TRIPS_TEXT = "Cargando viajes...";
+    
+    public static final String DATE_RANGE_ALL = "Todos";
+    public static final String DATE_RANGE_TODAY = "Hoy";
+    public static final String DATE_RANGE_WEEK = "Esta semana";
+    public static final String DATE_RANGE_MONTH = "Este mes";
+    public static final String DATE_RANGE_TOOLTIP = "Filtrar por fecha de salida";
+    
+    public static final String FUZZY_SEARCH_LABEL = "Aproximada";
+    public static final String FUZZY_SEARCH_TOOLTIP = "Encontrar también ciudades con errores de escritura";
     
     public static final String REQUIRED_FIELD_ERROR = "Campo requerido";
     public static final String SUCCESS_ADD_TRIP = "Viaje agregado exitosamente";
@@ -1,8 +1,18 @@
 package proyectoprogra.utils;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import proyectoprogra.database.OracleConnector;
+import proyectoprogra.model.MutacionViaje;
 import proyectoprogra.model.Viaje;
+import proyectoprogra.repository.RepositoryFactory;
+import proyectoprogra.service.BatchResult;
+import proyectoprogra.service.ViajeDelta;
 import proyectoprogra.service.ViajeService;
 
 /**
@@ -19,6 +29,33 @@ import proyectoprogra.service.ViajeService;
  * Todas las operaciones son estáticas para facilitar el acceso desde
  * cualquier parte de la aplicación sin necesidad de instanciar objetos.
  * 
+ * Los métodos pueden llamarse desde hilos de fondo (ViajeServiceAsync).
+ * El cache local es un AlmacenViajes indexado por ID: las lecturas
+ * (obtenerTodosLosViajes, obtenerViajePorId, búsquedas en el cache) usan la
+ * instantánea publicada sin bloquear ni copiar, y las escrituras al cache
+ * están sincronizadas sobre la clase y se publican de una vez. Las llamadas
+ * a la base de datos (operaciones CRUD y lectura de cambios al sincronizar)
+ * se hacen fuera de ese bloqueo: una sincronización lenta no detiene las
+ * búsquedas ni las escrituras al cache. Las sincronizaciones se hacen de a
+ * una, y las escrituras al cache que ocurren mientras se leen los cambios
+ * se vuelven a aplicar sobre ellos, porque son más recientes.
+ * 
+ * Los viajes se identifican siempre por su ID, nunca por su posición en
+ * una lista: la tabla puede estar filtrada u ordenada de otra forma.
+ * 
+ * Escritura diferida (opcional, ver activarEscrituraDiferida): agregar,
+ * actualizar y eliminar actualizan el cache local y registran el cambio en
+ * una ColaEscrituraViajes, que lo guarda en la base de datos por lotes desde
+ * un hilo de fondo. Los viajes nuevos usan un ID temporal negativo hasta que
+ * la base de datos les asigna el real.
+ * 
+ * Caídas de la base de datos (solo con Oracle): aunque la escritura diferida
+ * no esté activa, si un cambio falla por falta de conexión se registra en
+ * la cola, que lo guarda en un diario local (DiarioMutaciones) y lo envía al
+ * recuperarse la conexión. Mientras queden cambios en la cola, los cambios
+ * nuevos también pasan por ella para respetar el orden. Al iniciar se
+ * recuperan los cambios del diario que no llegaron a guardarse.
+ * 
  * Responsabilidades:
  * - Delegar operaciones CRUD al ViajeService
  * - Mantener una copia local actualizada de los viajes
@@ -30,14 +67,178 @@ public class ViajeManager {
     private static final ViajeService viajeService = new ViajeService();
     
     // Cache local de viajes para mejorar el rendimiento y reducir consultas a la BD
-    // Se mantiene sincronizado con la base de datos después de cada operación
-    private static final List<Viaje> viajes = new ArrayList<>();
+    // Indexado por ID y sincronizado con la base de datos en forma incremental
+    private static final AlmacenViajes viajes = new AlmacenViajes();
+    
+    // Marca de la última sincronización con la base de datos (null = la siguiente es completa)
+    private static volatile Timestamp marcaSincronizacion = null;
+    
+    // true una vez que el cache se cargó desde la base de datos
+    private static volatile boolean cacheCargado = false;
+    
+    // Permite una sola sincronización a la vez; no se toma junto con el bloqueo de la clase
+    // mientras se consulta la base de datos
+    private static final Object BLOQUEO_SINCRONIZACION = new Object();
+    
+    // Escrituras al cache local mientras se leen cambios de la base de datos (null si no se
+    // está leyendo; valor null = viaje quitado). Protegido por el bloqueo de la clase
+    private static Map<Integer, Viaje> escriturasDuranteLectura = null;
+    
+    // true si se descartó un cambio mientras se leían cambios: la marca leída no se usa
+    private static boolean descarteDuranteLectura = false;
+    
+    // Número máximo de resultados que retorna una búsqueda
+    private static final int LIMITE_BUSQUEDA = 500;
+    
+    // Número máximo de viajes que retorna un rango de fechas sin texto (una página)
+    public static final int LIMITE_RANGO = 1_000;
+    
+    // Número máximo de ciudades que se sugieren al autocompletar
+    public static final int LIMITE_SUGERENCIAS = 8;
+    
+    // Propiedad del sistema que activa la escritura diferida al iniciar (-Dviajes.escritura.diferida=true)
+    public static final String PROPIEDAD_ESCRITURA_DIFERIDA = "viajes.escritura.diferida";
+    
+    // Tiempo máximo para guardar los cambios pendientes al cerrar la aplicación (ms)
+    private static final long TIEMPO_CIERRE_ESCRITURA_MS = 10_000;
+    
+    // Cola de escritura (null = sin escritura diferida ni diario de caídas)
+    private static volatile ColaEscrituraViajes colaEscritura = null;
+    
+    // true si todos los cambios pasan por la cola; false si solo los que fallan por conexión
+    private static volatile boolean escrituraDiferida = false;
+    
+    static {
+        if (RepositoryFactory.isOracle()) {
+            // Con Oracle siempre hay cola con diario, para no perder cambios si cae la conexión
+            crearCola();
+        }
+        if (Boolean.getBoolean(PROPIEDAD_ESCRITURA_DIFERIDA)) {
+            activarEscrituraDiferida();
+        }
+    }
+    
+    /**
+     * Activa la escritura diferida: a partir de ahora agregarViaje,
+     * actualizarViaje y eliminarViaje retornan en cuanto el cambio queda en
+     * el cache local, y los cambios se guardan por lotes en segundo plano.
+     * 
+     * Registra un hook de cierre que guarda los cambios pendientes al salir
+     * de la aplicación. Llamarlo más de una vez no tiene efecto.
+     */
+    public static synchronized void activarEscrituraDiferida() {
+        if (escrituraDiferida) {
+            return;
+        }
+        crearCola();
+        escrituraDiferida = true;
+        System.out.println("Escritura diferida de viajes activada");
+    }
+    
+    /**
+     * Crea la cola de escritura si todavía no existe. Con Oracle la cola usa
+     * un diario local y recupera los cambios que quedaron pendientes en una
+     * ejecución anterior; si el diario no se puede abrir, se continúa sin él.
+     */
+    private static synchronized void crearCola() {
+        if (colaEscritura != null) {
+            return;
+        }
+        DiarioMutaciones diario = null;
+        if (RepositoryFactory.isOracle()) {
+            try {
+                diario = new DiarioMutaciones(DiarioMutaciones.rutaPorDefecto());
+            } catch (Exception e) {
+                System.err.println("No se pudo abrir el diario local de viajes, los cambios pendientes "
+                        + "solo se guardarán en memoria: " + e.getMessage());
+            }
+        }
+        ColaEscrituraViajes cola = new ColaEscrituraViajes(viajeService, new ColaEscrituraViajes.Listener() {
+            @Override
+            public void creado(int idTemporal, Viaje creado) {
+                synchronized (ViajeManager.class) {
+                    // Reemplazar el ID temporal por el real (los lectores ven uno u otro, nunca ninguno)
+                    viajes.aplicar(new AlmacenViajes.Cambios().quitar(idTemporal).guardar(creado));
+                    registrarEscritura(idTemporal, null);
+                    registrarEscritura(creado.getId(), creado);
+                }
+            }
+            
+            @Override
+            public void descartado(MutacionViaje mutacion, String motivo) {
+                synchronized (ViajeManager.class) {
+                    if (mutacion.getTipo() == MutacionViaje.Tipo.CREAR) {
+                        quitarDeCache(mutacion.getId());
+                    } else {
+                        // El cache tiene un cambio que no llegó a la base de datos:
+                        // forzar una recarga completa en la siguiente sincronización
+                        marcaSincronizacion = null;
+                        if (escriturasDuranteLectura != null) {
+                            descarteDuranteLectura = true;
+                        }
+                    }
+                }
+            }
+        }, diario, diario == null ? null : OracleConnector::verifyConnection);
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> cola.cerrar(TIEMPO_CIERRE_ESCRITURA_MS), "cierre-escritura-viajes"));
+        colaEscritura = cola;
+        
+        int recuperados = cola.restaurar();
+        if (recuperados > 0) {
+            System.out.println("Cambios de viajes recuperados del diario local: " + recuperados
+                    + " (se enviarán a la base de datos)");
+            aplicarPendientes(cola);
+        }
+    }
+    
+    /**
+     * @return true si los cambios se guardan en segundo plano por lotes
+     */
+    public static boolean isEscrituraDiferida() {
+        return escrituraDiferida;
+    }
+    
+    /**
+     * @return true si hay cambios esperando a guardarse en la base de datos
+     *         (por la escritura diferida o por una caída de la conexión)
+     */
+    public static boolean hayCambiosPendientes() {
+        ColaEscrituraViajes cola = colaEscritura;
+        return cola != null && cola.tienePendientes();
+    }
+    
+    /**
+     * Guarda de inmediato los cambios pendientes de la cola de escritura y
+     * espera a que se confirmen.
+     * 
+     * @param timeoutMillis Tiempo máximo de espera en ms
+     * @return true si no quedan cambios sin guardar
+     */
+    public static boolean guardarPendientes(long timeoutMillis) {
+        ColaEscrituraViajes cola = colaEscritura;
+        return cola == null || cola.flush(timeoutMillis);
+    }
+    
+    /**
+     * @return Estadísticas de la cola de escritura, o null si no hay cola
+     */
+    public static ColaEscrituraViajes.Estadisticas obtenerEstadisticasEscritura() {
+        ColaEscrituraViajes cola = colaEscritura;
+        return cola == null ? null : cola.getEstadisticas();
+    }
     
     /**
      * Agrega un nuevo viaje a la base de datos y actualiza el cache local.
      * 
      * Este método valida el viaje, lo guarda en la base de datos y
-     * refresca el cache local para mantener la consistencia.
+     * agrega al cache local la fila retornada por la base de datos,
+     * sin volver a leer la tabla completa.
+     * 
+     * Con cola de escritura, la inserción se envía con su clave de
+     * idempotencia (ver aplicarDirecto): si la conexión falla después de que
+     * la base de datos confirmó la inserción, reenviarla desde la cola no
+     * crea el viaje dos veces.
      * 
      * @param viaje El objeto Viaje a agregar (no debe ser null)
      * @return true si el viaje se agregó exitosamente, false en caso contrario
@@ -45,7 +246,8 @@ public class ViajeManager {
      * Casos de fallo:
      * - viaje es null
      * - Error de validación en ViajeService
-     * - Error de conexión a la base de datos
+     * - Error de conexión a la base de datos (sin cola de escritura; con
+     *   ella, el viaje se registra para guardarse al reconectar)
      * - Restricciones de integridad en la BD
      */
     public static boolean agregarViaje(Viaje viaje) {
@@ -53,13 +255,25 @@ public class ViajeManager {
         if (viaje == null) {
             return false;
         }
+        ColaEscrituraViajes cola = colaEscritura;
+        if (usarCola(cola)) {
+            return encolarCreacion(cola, viaje);
+        }
+        if (cola != null && cola.isUsarClaves()) {
+            return aplicarDirecto(cola, MutacionViaje.crear(cola.nuevoIdTemporal(), viaje),
+                    "Error al agregar viaje a la base de datos");
+        }
         try {
             // Delegar la creación al servicio de datos
-            viajeService.create(viaje);
-            // Actualizar cache local con los datos más recientes
-            inicializarDesdeBaseDatos();
+            Viaje creado = viajeService.create(viaje);
+            // Agregar al cache local la fila tal como quedó en la base de datos
+            guardarEnCache(creado);
             return true;
         } catch (Exception e) {
+            if (cola != null && OracleConnector.isConnectionError(e)) {
+                avisarSinConexion(e);
+                return encolarCreacion(cola, viaje);
+            }
             // Registrar error y retornar fallo
             System.err.println("Error al agregar viaje a la base de datos: " + e.getMessage());
             return false;
@@ -67,50 +281,60 @@ public class ViajeManager {
     }
     
     /**
-     * Elimina un viaje por su índice en el cache local.
+     * Elimina un viaje por su ID.
      * 
-     * Este método obtiene el viaje del cache, lo elimina de la base de datos
-     * usando su ID y actualiza el cache local.
+     * Este método elimina el viaje de la base de datos y lo quita del
+     * cache local. El viaje no necesita estar en el cache (por ejemplo, un
+     * resultado de búsqueda que todavía no se sincronizó).
      * 
-     * @param index Índice del viaje en la lista local (0-based)
+     * @param id ID del viaje a eliminar (negativo si es un viaje temporal
+     *           de la cola de escritura)
      * @return true si el viaje se eliminó exitosamente, false en caso contrario
      * 
      * Casos de fallo:
-     * - Índice fuera de rango
+     * - id es 0 (viaje sin guardar)
      * - Viaje no existe en la base de datos
-     * - Error de conexión a la base de datos
+     * - Error de conexión a la base de datos (sin cola de escritura; con
+     *   ella, la eliminación se registra para guardarse al reconectar)
      * - Restricciones de integridad (viaje referenciado por otras tablas)
      */
-    public static boolean eliminarViaje(int index) {
-        // Validar que el índice esté dentro del rango válido
-        if (index >= 0 && index < viajes.size()) {
-            // Obtener el viaje del cache local
-            Viaje viaje = viajes.get(index);
-            try {
-                // Intentar eliminar de la base de datos usando el ID del viaje
-                boolean eliminado = viajeService.delete(viaje.getId());
-                
-                if (eliminado) {
-                    // Actualizar cache local para reflejar la eliminación
-                    inicializarDesdeBaseDatos();
-                    return true;
-                }
-                return false;
-            } catch (Exception e) {
-                // Registrar error y retornar fallo
-                System.err.println("Error al eliminar viaje de la base de datos: " + e.getMessage());
-                return false;
+    public static boolean eliminarViajePorId(int id) {
+        if (id == 0) {
+            return false;
+        }
+        ColaEscrituraViajes cola = colaEscritura;
+        if (cola != null && (usarCola(cola) || id < 0)) {
+            return encolarEliminacion(cola, id);
+        }
+        if (cola != null && cola.isUsarClaves()) {
+            return aplicarDirecto(cola, MutacionViaje.eliminar(id), "Error al eliminar viaje de la base de datos");
+        }
+        try {
+            // Intentar eliminar de la base de datos usando el ID del viaje
+            boolean eliminado = viajeService.delete(id);
+            
+            if (eliminado) {
+                // Quitar el viaje del cache local
+                quitarDeCache(id);
+                return true;
             }
+            return false;
+        } catch (Exception e) {
+            if (cola != null && OracleConnector.isConnectionError(e)) {
+                avisarSinConexion(e);
+                return encolarEliminacion(cola, id);
+            }
+            // Registrar error y retornar fallo
+            System.err.println("Error al eliminar viaje de la base de datos: " + e.getMessage());
+            return false;
         }
-        // Índice inválido
-        return false;
     }
     
     /**
      * Actualiza un viaje existente en la base de datos.
      * 
      * Este método valida el viaje, lo actualiza en la base de datos
-     * y refresca el cache local para mantener la consistencia.
+     * y reemplaza en el cache local la fila retornada por la base de datos.
      * 
      * @param viaje El objeto Viaje con los datos actualizados (debe tener ID válido)
      * @return true si el viaje se actualizó exitosamente, false en caso contrario
@@ -120,138 +344,497 @@ public class ViajeManager {
      * - viaje no tiene ID válido
      * - Error de validación en ViajeService
      * - Viaje no existe en la base de datos
-     * - Error de conexión a la base de datos
+     * - Error de conexión a la base de datos (sin cola de escritura; con
+     *   ella, el cambio se registra para guardarse al reconectar)
      */
     public static boolean actualizarViaje(Viaje viaje) {
         // Validación básica de parámetros
         if (viaje == null) {
             return false;
         }
+        ColaEscrituraViajes cola = colaEscritura;
+        if (cola != null && (usarCola(cola) || viaje.getId() < 0)) {
+            return encolarActualizacion(cola, viaje);
+        }
+        if (cola != null && cola.isUsarClaves() && viaje.getId() > 0) {
+            return aplicarDirecto(cola, MutacionViaje.actualizar(viaje),
+                    "Error al actualizar viaje en la base de datos");
+        }
         try {
             // Delegar la actualización al servicio de datos
             Viaje viajeActualizado = viajeService.update(viaje);
             if (viajeActualizado != null) {
-                // Actualizar cache local con los datos más recientes
-                inicializarDesdeBaseDatos();
+                // Reemplazar en el cache local con los datos más recientes
+                guardarEnCache(viajeActualizado);
                 return true;
             }
             return false;
         } catch (Exception e) {
+            if (cola != null && OracleConnector.isConnectionError(e)) {
+                avisarSinConexion(e);
+                return encolarActualizacion(cola, viaje);
+            }
             // Registrar error y retornar fallo
             System.err.println("Error al actualizar viaje en la base de datos: " + e.getMessage());
             return false;
         }
     }
     
+    /**
+     * Indica si un cambio debe pasar por la cola de escritura: siempre con
+     * escritura diferida, y mientras la cola tenga cambios sin guardar (para
+     * que no se apliquen antes que los cambios anteriores del mismo viaje).
+     */
+    private static boolean usarCola(ColaEscrituraViajes cola) {
+        return cola != null && (escrituraDiferida || cola.tienePendientes());
+    }
+    
+    /**
+     * Aplica un cambio en la base de datos en el momento, con su clave de
+     * idempotencia (ViajeService.applyMutations), y actualiza el cache con
+     * el resultado.
+     * 
+     * Un error de conexión puede llegar después de que la base de datos
+     * confirmó el cambio. Por eso se encola el mismo cambio, con la misma
+     * clave: al reenviarlo, la base de datos reconoce la clave y no lo aplica
+     * dos veces (una creación retorna el ID del viaje ya creado).
+     * 
+     * Si la base de datos no guarda claves, el cambio se aplica sin ellas,
+     * como en la cola (ver ColaEscrituraViajes.isUsarClaves).
+     * 
+     * @param cola Cola de escritura donde queda el cambio si falla la conexión
+     * @param mutacion Cambio a aplicar (en CREAR, con un ID temporal de la cola)
+     * @param error Mensaje para los errores que no son de conexión
+     * @return true si el cambio se aplicó o quedó en la cola
+     */
+    private static boolean aplicarDirecto(ColaEscrituraViajes cola, MutacionViaje mutacion, String error) {
+        BatchResult.RowResult fila;
+        try {
+            fila = viajeService.applyMutations(List.of(mutacion)).getRows().get(0);
+        } catch (UnsupportedOperationException e) {
+            return aplicarSinClave(mutacion, error);
+        } catch (Exception e) {
+            if (OracleConnector.isConnectionError(e)) {
+                avisarSinConexion(e);
+                return encolarMutacion(cola, mutacion, error);
+            }
+            System.err.println(error + ": " + e.getMessage());
+            return false;
+        }
+        
+        if (fila.status() != BatchResult.Status.OK) {
+            if (fila.status() != BatchResult.Status.NOT_FOUND) {
+                System.err.println(error + ": " + fila.message());
+            }
+            return false;
+        }
+        if (mutacion.getTipo() == MutacionViaje.Tipo.ELIMINAR) {
+            quitarDeCache(mutacion.getId());
+        } else {
+            // En CREAR, el ID real es el que generó (o ya había generado) la base de datos
+            Viaje guardado = mutacion.getViaje();
+            guardado.setId(fila.id());
+            guardarEnCache(guardado);
+        }
+        return true;
+    }
+    
+    /**
+     * Aplica un cambio con las operaciones sin clave de ViajeService, para
+     * bases de datos sin la tabla de claves de idempotencia.
+     */
+    private static boolean aplicarSinClave(MutacionViaje mutacion, String error) {
+        try {
+            switch (mutacion.getTipo()) {
+                case CREAR:
+                    guardarEnCache(viajeService.create(mutacion.getViaje()));
+                    return true;
+                case ACTUALIZAR:
+                    Viaje actualizado = viajeService.update(mutacion.getViaje());
+                    if (actualizado != null) {
+                        guardarEnCache(actualizado);
+                    }
+                    return actualizado != null;
+                default:
+                    boolean eliminado = viajeService.delete(mutacion.getId());
+                    if (eliminado) {
+                        quitarDeCache(mutacion.getId());
+                    }
+                    return eliminado;
+            }
+        } catch (Exception e) {
+            System.err.println(error + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static void avisarSinConexion(Exception e) {
+        System.err.println("Sin conexión con la base de datos (" + e.getMessage()
+                + "); el cambio se guardará al recuperar la conexión");
+    }
+    
+    /**
+     * Registra la creación de un viaje en la cola de escritura.
+     * El viaje aparece en el cache con un ID temporal negativo.
+     */
+    private static boolean encolarCreacion(ColaEscrituraViajes cola, Viaje viaje) {
+        try {
+            // Los errores de validación se informan en el momento, no al guardar el lote
+            viajeService.validate(viaje);
+            cola.esperarEspacio();
+            long posicion;
+            synchronized (ViajeManager.class) {
+                MutacionViaje mutacion = MutacionViaje.crear(cola.nuevoIdTemporal(), viaje);
+                guardarEnCache(mutacion.getViaje());
+                posicion = cola.encolar(mutacion);
+            }
+            // El fsync del diario se hace fuera del bloqueo, agrupado con otros cambios
+            cola.asegurar(posicion);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al agregar viaje: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Registra en la cola de escritura un cambio ya armado, conservando sus
+     * claves (por ejemplo, uno que no se pudo aplicar en el momento).
+     */
+    private static boolean encolarMutacion(ColaEscrituraViajes cola, MutacionViaje mutacion, String error) {
+        try {
+            cola.esperarEspacio();
+            long posicion;
+            synchronized (ViajeManager.class) {
+                if (mutacion.getTipo() == MutacionViaje.Tipo.ELIMINAR) {
+                    quitarDeCache(mutacion.getId());
+                } else {
+                    guardarEnCache(mutacion.getViaje());
+                }
+                posicion = cola.encolar(mutacion);
+            }
+            cola.asegurar(posicion);
+            return true;
+        } catch (Exception e) {
+            System.err.println(error + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Registra la actualización de un viaje en la cola de escritura.
+     */
+    private static boolean encolarActualizacion(ColaEscrituraViajes cola, Viaje viaje) {
+        try {
+            if (viaje.getId() == 0) {
+                throw new IllegalArgumentException("id inválido para update");
+            }
+            viajeService.validate(viaje);
+            cola.esperarEspacio();
+            long posicion;
+            synchronized (ViajeManager.class) {
+                // Un viaje temporal ya creado se actualiza con su ID real
+                Viaje actualizado = MutacionViaje.actualizar(viaje).getViaje();
+                actualizado.setId(cola.resolverId(viaje.getId()));
+                guardarEnCache(actualizado);
+                posicion = cola.encolar(MutacionViaje.actualizar(actualizado));
+            }
+            cola.asegurar(posicion);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al actualizar viaje: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Registra la eliminación de un viaje en la cola de escritura.
+     */
+    private static boolean encolarEliminacion(ColaEscrituraViajes cola, int idViaje) {
+        try {
+            cola.esperarEspacio();
+            long posicion;
+            synchronized (ViajeManager.class) {
+                int id = cola.resolverId(idViaje);
+                quitarDeCache(id);
+                posicion = cola.encolar(MutacionViaje.eliminar(id));
+            }
+            cola.asegurar(posicion);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al eliminar viaje: " + e.getMessage());
+            return false;
+        }
+    }
     
     /**
-     * Obtiene todos los viajes desde la base de datos y actualiza el cache local.
+     * Obtiene todos los viajes actualizados desde la base de datos.
      * 
-     * Este método siempre consulta la base de datos para obtener los datos
-     * más actuales, actualiza el cache local y retorna una copia de la lista.
+     * Este método sincroniza el cache local con la base de datos en forma
+     * incremental (solo se leen los viajes que cambiaron desde la última
+     * sincronización) y retorna la instantánea del cache.
      * 
-     * @return Lista de todos los viajes (copia independiente del cache interno)
+     * @return Lista inmutable de todos los viajes ordenados por ID; no
+     *         cambia con las modificaciones posteriores del cache
      * 
      * Comportamiento en caso de error:
      * - Si hay error de BD, retorna el contenido actual del cache local
      * - Si no hay datos en cache y falla la BD, retorna lista vacía
      * 
-     * NOTA: Siempre retorna una nueva instancia de ArrayList para evitar
-     * modificaciones accidentales del cache interno.
+     * NOTA: La lista no se copia: es la misma instantánea que ven los
+     * demás lectores, por eso no admite modificaciones.
      */
     public static List<Viaje> obtenerTodosLosViajes() {
-        try {
-            // Obtener datos frescos desde la base de datos
-            List<Viaje> viajesDB = viajeService.listAll();
-            
-            // Actualizar cache local
-            viajes.clear();
-            viajes.addAll(viajesDB);
-            
-            // Retornar copia independiente para evitar modificaciones externas
-            return new ArrayList<>(viajes);
-        } catch (Exception e) {
-            // En caso de error, usar datos del cache local (si los hay)
-            System.err.println("Error al cargar viajes de la base de datos: " + e.getMessage());
-            return new ArrayList<>(viajes);
-        }
+        // Traer solo los cambios desde la última sincronización
+        sincronizarCambios();
+        
+        return viajes.instantanea();
     }
     
     /**
-     * Obtiene un viaje específico por su índice en el cache local.
+     * Obtiene un viaje específico por su ID desde el cache local.
      * 
      * Este método accede directamente al cache local sin consultar
-     * la base de datos, por lo que es muy rápido.
+     * la base de datos ni tomar bloqueos, por lo que es muy rápido
+     * (búsqueda binaria por ID).
      * 
-     * @param index Índice del viaje en la lista local (0-based)
-     * @return El objeto Viaje en la posición especificada o null si el índice es inválido
+     * @param id ID del viaje
+     * @return El viaje con ese ID, o null si no está en el cache
      * 
      * IMPORTANTE: Este método no sincroniza con la base de datos.
      * Asegúrate de que el cache esté actualizado llamando a
      * obtenerTodosLosViajes() o inicializarDesdeBaseDatos() antes.
      */
-    public static Viaje obtenerViaje(int index) {
-        // Validar que el índice esté dentro del rango válido
-        if (index >= 0 && index < viajes.size()) {
-            return viajes.get(index);
-        }
-        return null;
+    public static Viaje obtenerViajePorId(int id) {
+        return viajes.obtener(id);
     }
     
     /**
-     * Busca viajes que coincidan con el criterio de búsqueda en origen o destino.
+     * Busca viajes cuyo origen o destino contiene el criterio de búsqueda.
      * 
-     * Esta búsqueda se realiza sobre el cache local (no consulta la base de datos)
-     * y es insensible a mayúsculas/minúsculas. Busca coincidencias parciales
-     * tanto en el campo origen como en el destino.
+     * La búsqueda se resuelve en el cache local con el índice de trigramas
+     * de AlmacenViajes: el costo depende de la cantidad de viajes que tienen
+     * los trigramas de la consulta (y se corta al llegar a LIMITE_BUSQUEDA),
+     * no del tamaño de la tabla, y no consulta la base de datos en cada
+     * tecla. Si el cache nunca se cargó, se carga antes de buscar.
      * 
      * @param busqueda Texto a buscar en origen y destino (puede ser null o vacío)
-     * @return Lista de viajes que coinciden con el criterio de búsqueda
+     * @return Lista de viajes que coinciden con el criterio de búsqueda, ordenados por ID
      * 
      * Comportamiento:
      * - Si busqueda es null o vacía, retorna lista vacía
-     * - Búsqueda insensible a mayúsculas/minúsculas
-     * - Busca coincidencias parciales (contains)
+     * - Búsqueda insensible a mayúsculas/minúsculas y a acentos
+     *   ("solola" encuentra "Sololá"); cada viaje guarda sus claves de
+     *   búsqueda normalizadas, así que no se crean textos por viaje
+     * - Busca el texto en cualquier parte del campo, no solo al inicio
      * - Busca en ambos campos: origen Y destino
+     * - Retorna como máximo LIMITE_BUSQUEDA viajes
+     * - Los cambios hechos desde otra instancia de la aplicación aparecen
+     *   después de la siguiente sincronización (obtenerTodosLosViajes)
      * 
-     * Ejemplo: buscarViajes("madrid") encontrará viajes con origen="Madrid"
-     * o destino="Madrid - Barajas"
+     * Ejemplo: buscarViajes("barajas") encontrará viajes con
+     * destino="Madrid - Barajas"
      */
     public static List<Viaje> buscarViajes(String busqueda) {
-        List<Viaje> resultados = new ArrayList<>();
-        
         // Validar parámetro de entrada
         if (busqueda == null || busqueda.trim().isEmpty()) {
-            return resultados;
+            return new ArrayList<>();
         }
         
-        // Normalizar texto de búsqueda (quitar espacios y convertir a minúsculas)
-        String busquedaLower = busqueda.toLowerCase().trim();
+        asegurarCacheCargado();
+        return viajes.buscar(busqueda.trim(), LIMITE_BUSQUEDA);
+    }
+    
+    /**
+     * Busca viajes tolerando errores de escritura en la ciudad
+     * ("Quetzaltengo" encuentra "Quetzaltenango").
+     * 
+     * Se resuelve en el cache local como buscarViajes: primero los viajes
+     * que contienen el texto y después los de las ciudades parecidas, de la
+     * más a la menos parecida (ver AlmacenViajes.buscarAproximado).
+     * 
+     * @param busqueda Texto a buscar en origen y destino (puede ser null o vacío)
+     * @return Hasta LIMITE_BUSQUEDA viajes, del más al menos parecido
+     * 
+     * Comportamiento:
+     * - Si busqueda es null o vacía, retorna lista vacía
+     * - Hasta 2 letras no tolera errores; de 3 a 5 tolera una letra
+     *   distinta, de más o de menos; desde 6, dos
+     */
+    public static List<Viaje> buscarViajesAproximado(String busqueda) {
+        if (busqueda == null || busqueda.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        // Buscar en todos los viajes del cache local
-        for (Viaje viaje : viajes) {
-            // Verificar coincidencias en origen o destino (insensible a mayúsculas)
-            if (viaje.getOrigen().toLowerCase().contains(busquedaLower) ||
-                viaje.getDestino().toLowerCase().contains(busquedaLower)) {
-                resultados.add(viaje);
+        asegurarCacheCargado();
+        return viajes.buscarAproximado(busqueda.trim(), LIMITE_BUSQUEDA);
+    }
+    
+    /**
+     * Sugiere ciudades para autocompletar el origen o el destino.
+     * 
+     * Las sugerencias salen de las ciudades de los viajes del cache local
+     * (orígenes y destinos), de la más a la menos usada. No consulta la base
+     * de datos ni carga el cache: se puede llamar en cada tecla desde el
+     * hilo de la interfaz.
+     * 
+     * @param prefijo Texto escrito por el usuario
+     * @return Hasta LIMITE_SUGERENCIAS nombres de ciudades que comienzan con
+     *         el texto (sin distinguir mayúsculas ni acentos); vacía si el
+     *         texto está vacío o el cache todavía no se cargó
+     */
+    public static List<String> sugerirCiudades(String prefijo) {
+        return viajes.sugerirCiudades(prefijo, LIMITE_SUGERENCIAS);
+    }
+    
+    /**
+     * Obtiene los viajes que salen en un rango de fechas, filtrados
+     * opcionalmente por origen o destino.
+     * 
+     * Sin texto, el rango se consulta en la base de datos con
+     * ViajeService.listBetween, que usa el índice sobre fecha_salida, y se
+     * lee solo la primera página de LIMITE_RANGO viajes: "este mes" en una
+     * tabla grande no trae el mes completo (ver contarViajesEntre para el
+     * total). Con texto, se busca en el cache local como buscarViajes y se
+     * descartan los viajes fuera del rango.
+     * 
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param busqueda Texto a buscar en origen y destino (null o vacío para no filtrar)
+     * @return Viajes del rango ordenados por ID
+     * 
+     * Comportamiento:
+     * - Sin texto, retorna como máximo LIMITE_RANGO viajes
+     * - Con texto, retorna como máximo LIMITE_BUSQUEDA viajes
+     * - Si la base de datos no responde, toma el rango del cache local
+     */
+    public static List<Viaje> buscarViajesEntre(Date desde, Date hasta, String busqueda) {
+        return buscarViajesEntre(desde, hasta, busqueda, false);
+    }
+    
+    /**
+     * Igual que buscarViajesEntre(desde, hasta, busqueda), con la opción de
+     * filtrar el texto como buscarViajesAproximado.
+     * 
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @param busqueda Texto a buscar en origen y destino (null o vacío para no filtrar)
+     * @param aproximada true para tolerar errores de escritura en la ciudad
+     * @return Viajes del rango; con búsqueda aproximada, primero los que
+     *         contienen el texto y después los de ciudades parecidas
+     */
+    public static List<Viaje> buscarViajesEntre(Date desde, Date hasta, String busqueda, boolean aproximada) {
+        if (busqueda == null || busqueda.trim().isEmpty()) {
+            try {
+                return viajeService.listBetween(desde, hasta, null, 0, LIMITE_RANGO);
+            } catch (Exception e) {
+                // Sin base de datos: tomar el rango del cache local
+                System.err.println("Error al listar viajes por fecha en la base de datos: " + e.getMessage());
+                return filtrarCachePorFecha(desde, hasta, LIMITE_RANGO);
             }
         }
         
+        asegurarCacheCargado();
+        Predicate<Viaje> enRango = viaje -> salidaEntre(viaje, desde, hasta);
+        return aproximada
+                ? viajes.buscarAproximado(busqueda.trim(), LIMITE_BUSQUEDA, enRango)
+                : viajes.buscar(busqueda.trim(), LIMITE_BUSQUEDA, enRango);
+    }
+    
+    /**
+     * Cuenta los viajes que salen en un rango de fechas sin leerlos
+     * (ViajeService.countBetween recorre solo el índice).
+     * 
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusive)
+     * @return Número de viajes del rango; si la base de datos no responde,
+     *         los del cache local
+     */
+    public static int contarViajesEntre(Date desde, Date hasta) {
+        try {
+            return viajeService.countBetween(desde, hasta, null);
+        } catch (Exception e) {
+            System.err.println("Error al contar viajes por fecha en la base de datos: " + e.getMessage());
+            return filtrarCachePorFecha(desde, hasta, Integer.MAX_VALUE).size();
+        }
+    }
+    
+    /**
+     * @return Hasta limite viajes del cache local con fecha de salida en [desde, hasta)
+     */
+    private static List<Viaje> filtrarCachePorFecha(Date desde, Date hasta, int limite) {
+        List<Viaje> resultados = new ArrayList<>();
+        for (Viaje viaje : viajes.instantanea()) {
+            if (salidaEntre(viaje, desde, hasta)) {
+                resultados.add(viaje);
+                if (resultados.size() == limite) {
+                    break;
+                }
+            }
+        }
         return resultados;
     }
     
+    private static boolean salidaEntre(Viaje viaje, Date desde, Date hasta) {
+        long salida = viaje.getFechaSalida().getTime();
+        return salida >= desde.getTime() && salida < hasta.getTime();
+    }
     
     /**
-     * Sincroniza el cache local con los datos actuales de la base de datos.
+     * Carga el cache local si nunca se cargó desde la base de datos.
+     * Una vez cargado, solo lee un campo volatile: las búsquedas no esperan
+     * a las sincronizaciones en curso.
+     */
+    private static void asegurarCacheCargado() {
+        if (cacheCargado) {
+            return;
+        }
+        synchronized (BLOQUEO_SINCRONIZACION) {
+            // Otro hilo pudo terminar la carga mientras se esperaba
+            if (!cacheCargado) {
+                sincronizar(null);
+            }
+        }
+    }
+    
+    /**
+     * Sincroniza el cache local con los cambios de la base de datos desde la
+     * última sincronización.
+     * 
+     * Proceso:
+     * 1. Si el cache nunca se cargó, hace una carga completa
+     * 2. Si no, consulta solo los viajes modificados y eliminados desde la
+     *    última marca (ViajeService.listChangesSince)
+     * 3. Combina los cambios en el cache local y guarda la nueva marca
      * 
-     * Este método se llama internamente después de operaciones CRUD para
-     * mantener el cache local actualizado. También puede llamarse externamente
-     * cuando se necesite refrescar los datos.
+     * El costo depende de la cantidad de cambios, no del tamaño de la tabla.
+     * La consulta se hace sin el bloqueo del cache: mientras tanto las
+     * búsquedas y las escrituras siguen normalmente. Si ya hay una
+     * sincronización en curso, espera a que termine y hace la suya.
+     * 
+     * En caso de error:
+     * - Si la base de datos no tiene el seguimiento de cambios
+     *   (sql/alter_table_viaje_delta_sync.sql), se hace una carga completa
+     * - Si la carga completa también falla, el cache local permanece en su
+     *   estado anterior y se registra el error en la consola
+     */
+    public static void sincronizarCambios() {
+        synchronized (BLOQUEO_SINCRONIZACION) {
+            sincronizar(marcaSincronizacion);
+        }
+    }
+    
+    /**
+     * Recarga completamente el cache local con los datos actuales de la base de datos.
+     * 
+     * Este método se usa para la carga inicial y como respaldo cuando la
+     * sincronización incremental no está disponible. También puede llamarse
+     * externamente cuando se necesite descartar el cache.
      * 
      * Proceso:
-     * 1. Consulta todos los viajes desde la base de datos
-     * 2. Limpia el cache local completamente
-     * 3. Carga los datos frescos en el cache
+     * 1. Consulta todos los viajes desde la base de datos (sin el bloqueo del cache)
+     * 2. Reemplaza el contenido del cache local de una vez
+     * 3. Guarda la marca de sincronización
      * 4. Muestra mensaje informativo con la cantidad de viajes cargados
      * 
      * En caso de error:
@@ -263,19 +846,168 @@ public class ViajeManager {
      * internamente para no interrumpir el flujo de la aplicación.
      */
     public static void inicializarDesdeBaseDatos() {
+        synchronized (BLOQUEO_SINCRONIZACION) {
+            sincronizar(null);
+        }
+    }
+    
+    /**
+     * Lee los cambios desde una marca y los aplica al cache. Debe llamarse
+     * con BLOQUEO_SINCRONIZACION tomado.
+     * 
+     * @param desde Marca de la última sincronización, o null para una carga completa
+     */
+    private static void sincronizar(Timestamp desde) {
+        synchronized (ViajeManager.class) {
+            escriturasDuranteLectura = new HashMap<>();
+            descarteDuranteLectura = false;
+        }
         try {
-            // Obtener datos actualizados desde la base de datos
-            List<Viaje> viajesDB = viajeService.listAll();
-            
-            // Reemplazar completamente el cache local
-            viajes.clear();
-            viajes.addAll(viajesDB);
-            
-            // Mensaje informativo para monitoreo
-            System.out.println("Viajes cargados desde la base de datos: " + viajes.size());
+            ViajeDelta delta = leerCambios(desde);
+            if (delta == null && desde != null) {
+                // Sin seguimiento de cambios disponible: recargar todo
+                delta = leerCambios(null);
+            }
+            if (delta == null) {
+                return;
+            }
+            aplicarDelta(delta);
+            if (delta.isCompleto()) {
+                // Mensaje informativo para monitoreo
+                System.out.println("Viajes cargados desde la base de datos: " + viajes.tamano());
+            }
+        } finally {
+            synchronized (ViajeManager.class) {
+                escriturasDuranteLectura = null;
+            }
+        }
+    }
+    
+    /**
+     * Consulta la base de datos (sin tomar el bloqueo del cache).
+     * 
+     * @param desde Marca desde la cual leer, o null para leer todo
+     * @return Cambios leídos, o null si la consulta falló (el error se registra)
+     */
+    private static ViajeDelta leerCambios(Timestamp desde) {
+        try {
+            return viajeService.listChangesSince(desde);
         } catch (Exception e) {
-            // Registrar error sin interrumpir la aplicación
-            System.err.println("Error al inicializar viajes desde la base de datos: " + e.getMessage());
+            if (desde == null) {
+                System.err.println("Error al inicializar viajes desde la base de datos: " + e.getMessage());
+            } else {
+                System.err.println("Error al sincronizar cambios de viajes, se recarga el cache completo: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Aplica al cache local un conjunto de cambios de la base de datos.
+     * Las cargas completas reemplazan el cache; las incrementales se combinan.
+     * Los cambios de la base de datos, las escrituras al cache hechas
+     * mientras se leían y los pendientes de la cola se publican juntos.
+     * 
+     * @param delta Cambios a aplicar
+     */
+    private static synchronized void aplicarDelta(ViajeDelta delta) {
+        AlmacenViajes.Cambios cambios = new AlmacenViajes.Cambios();
+        if (delta.isCompleto()) {
+            cambios.reemplazarTodo(delta.getModificados());
+        } else {
+            for (Viaje modificado : delta.getModificados()) {
+                cambios.guardar(modificado);
+            }
+            for (Integer id : delta.getEliminados()) {
+                cambios.quitar(id);
+            }
+        }
+        
+        // Lo escrito en el cache durante la consulta es más reciente que lo leído
+        if (escriturasDuranteLectura != null) {
+            for (Map.Entry<Integer, Viaje> escritura : escriturasDuranteLectura.entrySet()) {
+                if (escritura.getValue() == null) {
+                    cambios.quitar(escritura.getKey());
+                } else {
+                    cambios.guardar(escritura.getValue());
+                }
+            }
+        }
+        
+        ColaEscrituraViajes cola = colaEscritura;
+        if (cola != null) {
+            agregarPendientes(cola, cambios);
+        }
+        viajes.aplicar(cambios);
+        // Un cambio descartado durante la consulta deja el cache sin confirmar: recargar la próxima vez
+        marcaSincronizacion = descarteDuranteLectura ? null : delta.getMarca();
+        cacheCargado = true;
+    }
+    
+    /**
+     * Aplica al cache local los cambios de la cola de escritura, que todavía
+     * no están en la base de datos.
+     * 
+     * @param cola Cola de escritura
+     */
+    private static synchronized void aplicarPendientes(ColaEscrituraViajes cola) {
+        AlmacenViajes.Cambios cambios = new AlmacenViajes.Cambios();
+        agregarPendientes(cola, cambios);
+        viajes.aplicar(cambios);
+    }
+    
+    /**
+     * Agrega a un conjunto de cambios los de la cola de escritura, para que
+     * una recarga no los oculte.
+     * 
+     * @param cola Cola de escritura
+     * @param cambios Cambios donde se agregan
+     */
+    private static void agregarPendientes(ColaEscrituraViajes cola, AlmacenViajes.Cambios cambios) {
+        for (MutacionViaje mutacion : cola.getPendientes()) {
+            // Los cambios sobre un viaje que ya se creó usan su ID real
+            int id = cola.resolverId(mutacion.getId());
+            if (mutacion.getTipo() == MutacionViaje.Tipo.ELIMINAR) {
+                cambios.quitar(id);
+            } else if (mutacion.getTipo() == MutacionViaje.Tipo.ACTUALIZAR || id == mutacion.getId()) {
+                Viaje viaje = mutacion.getViaje();
+                viaje.setId(id);
+                cambios.guardar(viaje);
+            }
+        }
+    }
+    
+    /**
+     * Inserta o reemplaza un viaje en el cache local.
+     * 
+     * @param viaje Viaje a guardar en el cache
+     */
+    private static synchronized void guardarEnCache(Viaje viaje) {
+        viajes.guardar(viaje);
+        registrarEscritura(viaje.getId(), viaje);
+    }
+    
+    /**
+     * Quita un viaje del cache local si está presente.
+     * 
+     * @param id ID del viaje a quitar
+     */
+    private static synchronized void quitarDeCache(int id) {
+        viajes.quitar(id);
+        registrarEscritura(id, null);
+    }
+    
+    /**
+     * Anota una escritura al cache si hay una sincronización leyendo la base
+     * de datos, para aplicarla de nuevo sobre lo leído. Debe llamarse con el
+     * bloqueo de la clase tomado.
+     * 
+     * @param id ID del viaje
+     * @param viaje Versión guardada, o null si el viaje se quitó
+     */
+    private static void registrarEscritura(int id, Viaje viaje) {
+        if (escriturasDuranteLectura != null) {
+            escriturasDuranteLectura.put(id, viaje);
         }
     }
 }
@@ -1,6 +1,7 @@
 package proyectoprogra.utils;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.table.AbstractTableModel;
 import proyectoprogra.model.Viaje;
@@ -34,13 +35,14 @@ public class ViajeTableModel extends AbstractTableModel {
     private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
     
     /**
-     * Constructor por defecto que carga todos los viajes desde el ViajeManager.
+     * Constructor por defecto que crea la tabla vacía.
      * 
-     * Este constructor es útil cuando se quiere mostrar todos los viajes
-     * disponibles en la base de datos al crear la tabla.
+     * No consulta la base de datos, para que la tabla pueda crearse en el
+     * EDT sin bloquearlo; los viajes se cargan después con setViajes o
+     * refrescarTabla (desde un hilo de fondo).
      */
     public ViajeTableModel() {
-        this.viajes = ViajeManager.obtenerTodosLosViajes();
+        this.viajes = new ArrayList<>();
     }
     
     /**
@@ -70,10 +72,11 @@ public class ViajeTableModel extends AbstractTableModel {
     }
     
     /**
-     * Refresca los datos de la tabla obteniéndolos nuevamente desde la base de datos.
+     * Refresca los datos de la tabla sincronizando los cambios de la base de datos.
      * 
      * Este método es útil después de operaciones CRUD (crear, actualizar, eliminar)
-     * para asegurar que la tabla muestre los datos más actuales.
+     * para asegurar que la tabla muestre los datos más actuales. Solo se leen
+     * los viajes que cambiaron desde la última sincronización.
      */
     public void refrescarTabla() {
         this.viajes = ViajeManager.obtenerTodosLosViajes();